@@ -25,16 +25,16 @@ import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
 import org.onlab.packet.Ethernet;
-import org.onlab.packet.ICMP;
-import org.onlab.packet.ICMP6;
+import org.onlab.packet.EthernetView;
 import org.onlab.packet.IPv4;
+import org.onlab.packet.IPv4View;
 import org.onlab.packet.IPv6;
+import org.onlab.packet.IPv6View;
 import org.onlab.packet.Ip4Prefix;
 import org.onlab.packet.Ip6Prefix;
 import org.onlab.packet.MacAddress;
-import org.onlab.packet.TCP;
 import org.onlab.packet.TpPort;
-import org.onlab.packet.UDP;
+import org.onlab.packet.TransportView;
 import org.onlab.packet.VlanId;
 import org.onlab.util.KryoNamespace;
 import org.onlab.util.Tools;
@@ -450,14 +450,15 @@ public class ReactiveForwarding {
                 return;
             }
 
+            // Only the header fields are needed, so the packet is not parsed
             InboundPacket pkt = context.inPacket();
-            Ethernet ethPkt = pkt.parsed();
+            EthernetView ethPkt = pkt.headerView();
 
             if (ethPkt == null) {
                 return;
             }
 
-            MacAddress macAddress = ethPkt.getSourceMAC();
+            MacAddress macAddress = ethPkt.sourceMac();
             ReactiveForwardMetrics macMetrics = null;
             macMetrics = createCounter(macAddress);
             inPacket(macMetrics);
@@ -474,7 +475,7 @@ public class ReactiveForwarding {
                 return;
             }
 
-            HostId id = HostId.hostId(ethPkt.getDestinationMAC());
+            HostId id = HostId.hostId(ethPkt.destinationMac());
 
             // Do not process LLDP MAC address in any way.
             if (id.mac().isLldp()) {
@@ -483,7 +484,7 @@ public class ReactiveForwarding {
             }
 
             // Do not process IPv4 multicast packets, let mfwd handle them
-            if (ignoreIpv4McastPackets && ethPkt.getEtherType() == Ethernet.TYPE_IPV4) {
+            if (ignoreIpv4McastPackets && ethPkt.etherType() == Ethernet.TYPE_IPV4) {
                 if (id.mac().isMulticast()) {
                     return;
                 }
@@ -522,7 +523,7 @@ public class ReactiveForwarding {
             Path path = pickForwardPathIfPossible(paths, pkt.receivedFrom().port());
             if (path == null) {
                 log.warn("Don't know where to go from here {} for {} -> {}",
-                         pkt.receivedFrom(), ethPkt.getSourceMAC(), ethPkt.getDestinationMAC());
+                         pkt.receivedFrom(), ethPkt.sourceMac(), ethPkt.destinationMac());
                 flood(context, macMetrics);
                 return;
             }
@@ -534,14 +535,14 @@ public class ReactiveForwarding {
     }
 
     // Indicates whether this is a control packet, e.g. LLDP, BDDP
-    private boolean isControlPacket(Ethernet eth) {
-        short type = eth.getEtherType();
+    private boolean isControlPacket(EthernetView eth) {
+        short type = eth.etherType();
         return type == Ethernet.TYPE_LLDP || type == Ethernet.TYPE_BSN;
     }
 
     // Indicated whether this is an IPv6 multicast packet.
-    private boolean isIpv6Multicast(Ethernet eth) {
-        return eth.getEtherType() == Ethernet.TYPE_IPV6 && eth.isMulticast();
+    private boolean isIpv6Multicast(EthernetView eth) {
+        return eth.etherType() == Ethernet.TYPE_IPV6 && eth.isMulticast();
     }
 
     // Selects a path from the given set that does not lead back to the
@@ -578,11 +579,11 @@ public class ReactiveForwarding {
         // We don't support (yet) buffer IDs in the Flow Service so
         // packet out first.
         //
-        Ethernet inPkt = context.inPacket().parsed();
+        EthernetView inPkt = context.inPacket().headerView();
         TrafficSelector.Builder selectorBuilder = DefaultTrafficSelector.builder();
 
         // If PacketOutOnly or ARP packet than forward directly to output port
-        if (packetOutOnly || inPkt.getEtherType() == Ethernet.TYPE_ARP) {
+        if (packetOutOnly || inPkt.etherType() == Ethernet.TYPE_ARP) {
             packetOut(context, portNumber, macMetrics);
             return;
         }
@@ -594,57 +595,55 @@ public class ReactiveForwarding {
         //    Create flows with default matching and include configured fields
         //
         if (matchDstMacOnly) {
-            selectorBuilder.matchEthDst(inPkt.getDestinationMAC());
+            selectorBuilder.matchEthDst(inPkt.destinationMac());
         } else {
             selectorBuilder.matchInPort(context.inPacket().receivedFrom().port())
-                    .matchEthSrc(inPkt.getSourceMAC())
-                    .matchEthDst(inPkt.getDestinationMAC());
+                    .matchEthSrc(inPkt.sourceMac())
+                    .matchEthDst(inPkt.destinationMac());
 
             // If configured Match Vlan ID
-            if (matchVlanId && inPkt.getVlanID() != Ethernet.VLAN_UNTAGGED) {
-                selectorBuilder.matchVlanId(VlanId.vlanId(inPkt.getVlanID()));
+            if (matchVlanId && inPkt.vlanId() != Ethernet.VLAN_UNTAGGED) {
+                selectorBuilder.matchVlanId(VlanId.vlanId(inPkt.vlanId()));
             }
 
             //
             // If configured and EtherType is IPv4 - Match IPv4 and
             // TCP/UDP/ICMP fields
             //
-            if (matchIpv4Address && inPkt.getEtherType() == Ethernet.TYPE_IPV4) {
-                IPv4 ipv4Packet = (IPv4) inPkt.getPayload();
-                byte ipv4Protocol = ipv4Packet.getProtocol();
+            IPv4View ipv4Packet = inPkt.ipv4();
+            if (matchIpv4Address && ipv4Packet != null) {
+                byte ipv4Protocol = ipv4Packet.protocol();
                 Ip4Prefix matchIp4SrcPrefix =
-                        Ip4Prefix.valueOf(ipv4Packet.getSourceAddress(),
+                        Ip4Prefix.valueOf(ipv4Packet.sourceAddress(),
                                           Ip4Prefix.MAX_MASK_LENGTH);
                 Ip4Prefix matchIp4DstPrefix =
-                        Ip4Prefix.valueOf(ipv4Packet.getDestinationAddress(),
+                        Ip4Prefix.valueOf(ipv4Packet.destinationAddress(),
                                           Ip4Prefix.MAX_MASK_LENGTH);
                 selectorBuilder.matchEthType(Ethernet.TYPE_IPV4)
                         .matchIPSrc(matchIp4SrcPrefix)
                         .matchIPDst(matchIp4DstPrefix);
 
                 if (matchIpv4Dscp) {
-                    byte dscp = ipv4Packet.getDscp();
-                    byte ecn = ipv4Packet.getEcn();
+                    byte dscp = ipv4Packet.dscp();
+                    byte ecn = ipv4Packet.ecn();
                     selectorBuilder.matchIPDscp(dscp).matchIPEcn(ecn);
                 }
 
-                if (matchTcpUdpPorts && ipv4Protocol == IPv4.PROTOCOL_TCP) {
-                    TCP tcpPacket = (TCP) ipv4Packet.getPayload();
+                TransportView l4Packet = ipv4Packet.transport();
+                if (matchTcpUdpPorts && ipv4Protocol == IPv4.PROTOCOL_TCP && l4Packet != null) {
                     selectorBuilder.matchIPProtocol(ipv4Protocol)
-                            .matchTcpSrc(TpPort.tpPort(tcpPacket.getSourcePort()))
-                            .matchTcpDst(TpPort.tpPort(tcpPacket.getDestinationPort()));
+                            .matchTcpSrc(TpPort.tpPort(l4Packet.sourcePort()))
+                            .matchTcpDst(TpPort.tpPort(l4Packet.destinationPort()));
                 }
-                if (matchTcpUdpPorts && ipv4Protocol == IPv4.PROTOCOL_UDP) {
-                    UDP udpPacket = (UDP) ipv4Packet.getPayload();
+                if (matchTcpUdpPorts && ipv4Protocol == IPv4.PROTOCOL_UDP && l4Packet != null) {
                     selectorBuilder.matchIPProtocol(ipv4Protocol)
-                            .matchUdpSrc(TpPort.tpPort(udpPacket.getSourcePort()))
-                            .matchUdpDst(TpPort.tpPort(udpPacket.getDestinationPort()));
+                            .matchUdpSrc(TpPort.tpPort(l4Packet.sourcePort()))
+                            .matchUdpDst(TpPort.tpPort(l4Packet.destinationPort()));
                 }
-                if (matchIcmpFields && ipv4Protocol == IPv4.PROTOCOL_ICMP) {
-                    ICMP icmpPacket = (ICMP) ipv4Packet.getPayload();
+                if (matchIcmpFields && ipv4Protocol == IPv4.PROTOCOL_ICMP && l4Packet != null) {
                     selectorBuilder.matchIPProtocol(ipv4Protocol)
-                            .matchIcmpType(icmpPacket.getIcmpType())
-                            .matchIcmpCode(icmpPacket.getIcmpCode());
+                            .matchIcmpType(l4Packet.icmpType())
+                            .matchIcmpCode(l4Packet.icmpCode());
                 }
             }
 
@@ -652,40 +651,38 @@ public class ReactiveForwarding {
             // If configured and EtherType is IPv6 - Match IPv6 and
             // TCP/UDP/ICMP fields
             //
-            if (matchIpv6Address && inPkt.getEtherType() == Ethernet.TYPE_IPV6) {
-                IPv6 ipv6Packet = (IPv6) inPkt.getPayload();
-                byte ipv6NextHeader = ipv6Packet.getNextHeader();
+            IPv6View ipv6Packet = inPkt.ipv6();
+            if (matchIpv6Address && ipv6Packet != null) {
+                byte ipv6NextHeader = ipv6Packet.nextHeader();
                 Ip6Prefix matchIp6SrcPrefix =
-                        Ip6Prefix.valueOf(ipv6Packet.getSourceAddress(),
+                        Ip6Prefix.valueOf(ipv6Packet.sourceAddress(),
                                           Ip6Prefix.MAX_MASK_LENGTH);
                 Ip6Prefix matchIp6DstPrefix =
-                        Ip6Prefix.valueOf(ipv6Packet.getDestinationAddress(),
+                        Ip6Prefix.valueOf(ipv6Packet.destinationAddress(),
                                           Ip6Prefix.MAX_MASK_LENGTH);
                 selectorBuilder.matchEthType(Ethernet.TYPE_IPV6)
                         .matchIPv6Src(matchIp6SrcPrefix)
                         .matchIPv6Dst(matchIp6DstPrefix);
 
                 if (matchIpv6FlowLabel) {
-                    selectorBuilder.matchIPv6FlowLabel(ipv6Packet.getFlowLabel());
+                    selectorBuilder.matchIPv6FlowLabel(ipv6Packet.flowLabel());
                 }
 
-                if (matchTcpUdpPorts && ipv6NextHeader == IPv6.PROTOCOL_TCP) {
-                    TCP tcpPacket = (TCP) ipv6Packet.getPayload();
+                TransportView l4Packet = ipv6Packet.transport();
+                if (matchTcpUdpPorts && ipv6NextHeader == IPv6.PROTOCOL_TCP && l4Packet != null) {
                     selectorBuilder.matchIPProtocol(ipv6NextHeader)
-                            .matchTcpSrc(TpPort.tpPort(tcpPacket.getSourcePort()))
-                            .matchTcpDst(TpPort.tpPort(tcpPacket.getDestinationPort()));
+                            .matchTcpSrc(TpPort.tpPort(l4Packet.sourcePort()))
+                            .matchTcpDst(TpPort.tpPort(l4Packet.destinationPort()));
                 }
-                if (matchTcpUdpPorts && ipv6NextHeader == IPv6.PROTOCOL_UDP) {
-                    UDP udpPacket = (UDP) ipv6Packet.getPayload();
+                if (matchTcpUdpPorts && ipv6NextHeader == IPv6.PROTOCOL_UDP && l4Packet != null) {
                     selectorBuilder.matchIPProtocol(ipv6NextHeader)
-                            .matchUdpSrc(TpPort.tpPort(udpPacket.getSourcePort()))
-                            .matchUdpDst(TpPort.tpPort(udpPacket.getDestinationPort()));
+                            .matchUdpSrc(TpPort.tpPort(l4Packet.sourcePort()))
+                            .matchUdpDst(TpPort.tpPort(l4Packet.destinationPort()));
                 }
-                if (matchIcmpFields && ipv6NextHeader == IPv6.PROTOCOL_ICMP6) {
-                    ICMP6 icmp6Packet = (ICMP6) ipv6Packet.getPayload();
+                if (matchIcmpFields && ipv6NextHeader == IPv6.PROTOCOL_ICMP6 && l4Packet != null) {
                     selectorBuilder.matchIPProtocol(ipv6NextHeader)
-                            .matchIcmpv6Type(icmp6Packet.getIcmpType())
-                            .matchIcmpv6Code(icmp6Packet.getIcmpCode());
+                            .matchIcmpv6Type(l4Packet.icmpType())
+                            .matchIcmpv6Code(l4Packet.icmpCode());
                 }
             }
         }
@@ -17,19 +17,15 @@
 package org.onosproject.reactive.routing;
 
 import com.google.common.collect.ImmutableSet;
-import com.googlecode.concurrenttrees.radix.node.concrete.DefaultByteArrayNodeFactory;
-import com.googlecode.concurrenttrees.radixinverted.ConcurrentInvertedRadixTree;
-import com.googlecode.concurrenttrees.radixinverted.InvertedRadixTree;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
-import org.onlab.packet.Ip4Address;
-import org.onlab.packet.Ip6Address;
 import org.onlab.packet.IpAddress;
 import org.onlab.packet.IpPrefix;
+import org.onlab.packet.IpPrefixTrie;
 import org.onlab.packet.MacAddress;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.core.CoreService;
@@ -52,8 +48,6 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import static org.onosproject.routeservice.RouteTools.createBinaryString;
-
 /**
  * Reactive routing configuration manager.
  */
@@ -79,12 +73,7 @@ public class ReactiveRoutingConfiguration implements
     private Set<IpAddress> gatewayIpAddresses = new HashSet<>();
     private Set<ConnectPoint> bgpPeerConnectPoints = new HashSet<>();
 
-    private InvertedRadixTree<LocalIpPrefixEntry>
-            localPrefixTable4 = new ConcurrentInvertedRadixTree<>(
-                    new DefaultByteArrayNodeFactory());
-    private InvertedRadixTree<LocalIpPrefixEntry>
-            localPrefixTable6 = new ConcurrentInvertedRadixTree<>(
-                    new DefaultByteArrayNodeFactory());
+    private final IpPrefixTrie<LocalIpPrefixEntry> localPrefixTable = new IpPrefixTrie<>();
 
     private MacAddress virtualGatewayMacAddress;
     private final InternalNetworkConfigListener configListener =
@@ -129,12 +118,12 @@ public class ReactiveRoutingConfiguration implements
             return;
         }
         for (LocalIpPrefixEntry entry : config.localIp4PrefixEntries()) {
-            localPrefixTable4.put(createBinaryString(entry.ipPrefix()), entry);
+            localPrefixTable.put(entry.ipPrefix(), entry);
             gatewayIpAddresses.add(entry.getGatewayIpAddress());
             log.info("adding local IPv4 entry: {} {}", entry.ipPrefix(), entry.getGatewayIpAddress());
         }
         for (LocalIpPrefixEntry entry : config.localIp6PrefixEntries()) {
-            localPrefixTable6.put(createBinaryString(entry.ipPrefix()), entry);
+            localPrefixTable.put(entry.ipPrefix(), entry);
             gatewayIpAddresses.add(entry.getGatewayIpAddress());
             log.info("adding local IPv6 entry: {} {}", entry.ipPrefix(), entry.getGatewayIpAddress());
         }
@@ -167,25 +156,12 @@ public class ReactiveRoutingConfiguration implements
 
     @Override
     public boolean isIpAddressLocal(IpAddress ipAddress) {
-        if (ipAddress.isIp4()) {
-            return localPrefixTable4.getValuesForKeysPrefixing(
-                    createBinaryString(
-                    IpPrefix.valueOf(ipAddress, Ip4Address.BIT_LENGTH)))
-                    .iterator().hasNext();
-        } else {
-            return localPrefixTable6.getValuesForKeysPrefixing(
-                    createBinaryString(
-                    IpPrefix.valueOf(ipAddress, Ip6Address.BIT_LENGTH)))
-                    .iterator().hasNext();
-        }
+        return localPrefixTable.longestPrefixMatch(ipAddress) != null;
     }
 
     @Override
     public boolean isIpPrefixLocal(IpPrefix ipPrefix) {
-        return (localPrefixTable4.getValueForExactKey(
-                createBinaryString(ipPrefix)) != null ||
-                localPrefixTable6.getValueForExactKey(
-                createBinaryString(ipPrefix)) != null);
+        return localPrefixTable.get(ipPrefix) != null;
     }
 
     @Override
@@ -16,7 +16,6 @@
 package org.onosproject.segmentrouting;
 
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.ImmutableMap.Builder;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -46,6 +45,7 @@ import org.slf4j.LoggerFactory;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -55,6 +55,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
@@ -62,6 +64,7 @@ import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Stream;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.onlab.util.Tools.groupedThreads;
 
@@ -76,11 +79,12 @@ public class DefaultRoutingHandler {
     private static final long STABLITY_THRESHOLD = 10; //secs
     private static final long MASTER_CHANGE_DELAY = 1000; // ms
     private static final long PURGE_DELAY = 1000; // ms
+    private static final int MAX_SPG_PARALLELISM = 8;
     private static Logger log = LoggerFactory.getLogger(DefaultRoutingHandler.class);
 
     private SegmentRoutingManager srManager;
     private RoutingRulePopulator rulePopulator;
-    private HashMap<DeviceId, EcmpShortestPathGraph> currentEcmpSpgMap;
+    private Map<DeviceId, EcmpShortestPathGraph> currentEcmpSpgMap;
     private HashMap<DeviceId, EcmpShortestPathGraph> updatedEcmpSpgMap;
     private DeviceConfiguration config;
     private final Lock statusLock = new ReentrantLock();
@@ -91,6 +95,15 @@ public class DefaultRoutingHandler {
         = newScheduledThreadPool(1, groupedThreads("masterChg", "mstch-%d", log));
     private ScheduledExecutorService executorServiceFRR
         = newScheduledThreadPool(1, groupedThreads("fullRR", "fullRR-%d", log));
+    // Pool computing the ECMP graphs of the different roots in parallel
+    private final ExecutorService spgPool = newFixedThreadPool(
+            Math.min(Runtime.getRuntime().availableProcessors(), MAX_SPG_PARALLELISM),
+            groupedThreads("onos/topo", "sr-spg-%d", log));
+
+    // Egress links and ECMP graphs of the last computation, used to recompute
+    // only the graphs affected by a topology change; guarded by statusLock
+    private Map<DeviceId, Set<Link>> lastEgressLinks;
+    private Map<DeviceId, EcmpShortestPathGraph> lastComputedSpgs = new HashMap<>();
 
     private Instant lastRoutingChange = Instant.EPOCH;
     private Instant lastFullReroute = Instant.EPOCH;
@@ -148,7 +161,7 @@ public class DefaultRoutingHandler {
         this.rulePopulator = checkNotNull(srManager.routingRulePopulator);
         this.config = checkNotNull(srManager.deviceConfiguration);
         this.populationStatus = Status.IDLE;
-        this.currentEcmpSpgMap = Maps.newHashMap();
+        this.currentEcmpSpgMap = Maps.newConcurrentMap();
         this.lastProgrammed = Sets.newConcurrentHashSet();
     }
 
@@ -159,13 +172,7 @@ public class DefaultRoutingHandler {
      * @return immutable copy of the current ECMP graph
      */
     public ImmutableMap<DeviceId, EcmpShortestPathGraph> getCurrentEmcpSpgMap() {
-        Builder<DeviceId, EcmpShortestPathGraph> builder = ImmutableMap.builder();
-        currentEcmpSpgMap.entrySet().forEach(entry -> {
-            if (entry.getValue() != null) {
-                builder.put(entry.getKey(), entry.getValue());
-            }
-        });
-        return builder.build();
+        return ImmutableMap.copyOf(currentEcmpSpgMap);
     }
 
     /**
@@ -204,6 +211,7 @@ public class DefaultRoutingHandler {
         executorService.shutdown();
         executorServiceMstChg.shutdown();
         executorServiceFRR.shutdown();
+        spgPool.shutdown();
     }
 
     //////////////////////////////////////
@@ -237,18 +245,13 @@ public class DefaultRoutingHandler {
             log.debug("populateAllRoutingRules: populationStatus is STARTED");
 
             // take a snapshot of the topology
-            updatedEcmpSpgMap = new HashMap<>();
+            updatedEcmpSpgMap = computeEcmpSpgs(
+                    withPairDevices(srManager.deviceConfiguration.getRouters()));
             Set<EdgePair> edgePairs = new HashSet<>();
             Set<ArrayList<DeviceId>> routeChanges = new HashSet<>();
             for (DeviceId dstSw : srManager.deviceConfiguration.getRouters()) {
-                EcmpShortestPathGraph ecmpSpgUpdated =
-                        new EcmpShortestPathGraph(dstSw, srManager);
-                updatedEcmpSpgMap.put(dstSw, ecmpSpgUpdated);
                 Optional<DeviceId> pairDev = srManager.getPairDeviceId(dstSw);
                 if (pairDev.isPresent()) {
-                    // pairDev may not be available yet, but we still need to add
-                    ecmpSpgUpdated = new EcmpShortestPathGraph(pairDev.get(), srManager);
-                    updatedEcmpSpgMap.put(pairDev.get(), ecmpSpgUpdated);
                     edgePairs.add(new EdgePair(dstSw, pairDev.get()));
                 }
 
@@ -454,18 +457,14 @@ public class DefaultRoutingHandler {
             }
 
             // Take snapshots of the topology
-            updatedEcmpSpgMap = new HashMap<>();
+            Set<DeviceId> devices = new HashSet<>();
+            srManager.deviceService.getDevices().forEach(sw -> devices.add(sw.id()));
+            updatedEcmpSpgMap = computeEcmpSpgs(withPairDevices(devices));
             Set<EdgePair> edgePairs = new HashSet<>();
-            for (Device sw : srManager.deviceService.getDevices()) {
-                EcmpShortestPathGraph ecmpSpgUpdated =
-                        new EcmpShortestPathGraph(sw.id(), srManager);
-                updatedEcmpSpgMap.put(sw.id(), ecmpSpgUpdated);
-                Optional<DeviceId> pairDev = srManager.getPairDeviceId(sw.id());
+            for (DeviceId sw : devices) {
+                Optional<DeviceId> pairDev = srManager.getPairDeviceId(sw);
                 if (pairDev.isPresent()) {
-                    // pairDev may not be available yet, but we still need to add
-                    ecmpSpgUpdated = new EcmpShortestPathGraph(pairDev.get(), srManager);
-                    updatedEcmpSpgMap.put(pairDev.get(), ecmpSpgUpdated);
-                    edgePairs.add(new EdgePair(sw.id(), pairDev.get()));
+                    edgePairs.add(new EdgePair(sw, pairDev.get()));
                 }
             }
 
@@ -519,7 +518,7 @@ public class DefaultRoutingHandler {
                     log.info("No re-route or re-hash attempted for the link"
                             + " status change");
                     updatedEcmpSpgMap.keySet().forEach(devId -> {
-                        currentEcmpSpgMap.put(devId, updatedEcmpSpgMap.get(devId));
+                        publishEcmpSpg(devId);
                         log.debug("Updating ECMPspg for remaining dev:{}", devId);
                     });
                 }
@@ -601,8 +600,8 @@ public class DefaultRoutingHandler {
 
         // update ecmpSPG for all edge-pairs
         for (EdgePair ep : edgePairs) {
-            currentEcmpSpgMap.put(ep.dev1, updatedEcmpSpgMap.get(ep.dev1));
-            currentEcmpSpgMap.put(ep.dev2, updatedEcmpSpgMap.get(ep.dev2));
+            publishEcmpSpg(ep.dev1);
+            publishEcmpSpg(ep.dev2);
             log.debug("Updating ECMPspg for edge-pair:{}-{}", ep.dev1, ep.dev2);
         }
 
@@ -611,7 +610,7 @@ public class DefaultRoutingHandler {
             .filter(devId -> !edgePairs.stream().anyMatch(ep -> ep.includes(devId)))
             .filter(devId -> !updatedDevices.contains(devId))
             .forEach(devId -> {
-                currentEcmpSpgMap.put(devId, updatedEcmpSpgMap.get(devId));
+                publishEcmpSpg(devId);
                 log.debug("Updating ECMPspg for remaining dev:{}", devId);
             });
         return true;
@@ -801,8 +800,7 @@ public class DefaultRoutingHandler {
             //In another case, the target switch has gone away, so
             //routes can't be installed. In that case, the current map
             //is updated here, without any flows being pushed.
-            currentEcmpSpgMap.put(impactedDstDevice,
-                                  updatedEcmpSpgMap.get(impactedDstDevice));
+            publishEcmpSpg(impactedDstDevice);
             updatedDevices.add(impactedDstDevice);
             log.debug("Updating ECMPspg for impacted dev:{}", impactedDstDevice);
         }
@@ -984,7 +982,7 @@ public class DefaultRoutingHandler {
                 // if the target switch has failed. Nevertheless the ecmp graph
                 // for the impacted switch must still be updated.
                 if (!success && failedSwitch != null && targetSw.equals(failedSwitch)) {
-                    currentEcmpSpgMap.put(dstSw, updatedEcmpSpgMap.get(dstSw));
+                    publishEcmpSpg(dstSw);
                     currentEcmpSpgMap.remove(targetSw);
                     log.debug("Updating ECMPspg for dst:{} removing failed switch "
                             + "target:{}", dstSw, targetSw);
@@ -994,8 +992,8 @@ public class DefaultRoutingHandler {
                 }
                 //linkfailed - update both sides
                 if (success) {
-                    currentEcmpSpgMap.put(targetSw, updatedEcmpSpgMap.get(targetSw));
-                    currentEcmpSpgMap.put(dstSw, updatedEcmpSpgMap.get(dstSw));
+                    publishEcmpSpg(targetSw);
+                    publishEcmpSpg(dstSw);
                     log.debug("Updating ECMPspg for dst:{} and target:{} for linkdown"
                             + " or switchdown", dstSw, targetSw);
                     updatedDevices.add(targetSw);
@@ -1007,8 +1005,8 @@ public class DefaultRoutingHandler {
                 //linkup of seen before link
                 boolean success = fixHashGroupsForRoute(route, false);
                 if (success) {
-                    currentEcmpSpgMap.put(targetSw, updatedEcmpSpgMap.get(targetSw));
-                    currentEcmpSpgMap.put(dstSw, updatedEcmpSpgMap.get(dstSw));
+                    publishEcmpSpg(targetSw);
+                    publishEcmpSpg(dstSw);
                     log.debug("Updating ECMPspg for target:{} and dst:{} for linkup",
                               targetSw, dstSw);
                     updatedDevices.add(targetSw);
@@ -1023,7 +1021,7 @@ public class DefaultRoutingHandler {
             updatedEcmpSpgMap.keySet().stream()
                 .filter(devId -> !updatedDevices.contains(devId))
                 .forEach(devId -> {
-                    currentEcmpSpgMap.put(devId, updatedEcmpSpgMap.get(devId));
+                    publishEcmpSpg(devId);
                     log.debug("Updating ECMPspg for remaining dev:{}", devId);
             });
         }
@@ -1245,6 +1243,79 @@ public class DefaultRoutingHandler {
     }
 
 
+    /**
+     * Returns the given devices together with their pair devices, which may
+     * not be available yet but need an ECMP graph nevertheless.
+     *
+     * @param devices device identifiers
+     * @return devices and their pairs
+     */
+    private Set<DeviceId> withPairDevices(Collection<DeviceId> devices) {
+        Set<DeviceId> roots = new HashSet<>(devices);
+        devices.forEach(dev -> srManager.getPairDeviceId(dev).ifPresent(roots::add));
+        return roots;
+    }
+
+    /**
+     * Computes the ECMP graphs rooted at the given devices in parallel, over
+     * a single snapshot of the usable links. The graphs of the last
+     * computation that are not affected by the links added or removed since
+     * then are reused as they are. Must be called with the statusLock held.
+     *
+     * @param roots root devices of the graphs
+     * @return map of root devices to their ECMP graph
+     */
+    private HashMap<DeviceId, EcmpShortestPathGraph> computeEcmpSpgs(Set<DeviceId> roots) {
+        Map<DeviceId, Set<Link>> egressLinks = srManager.linkHandler.getUsableEgressLinks();
+        Set<Link> removedLinks = new HashSet<>();
+        Set<Link> addedLinks = new HashSet<>();
+        if (lastEgressLinks != null) {
+            Set<Link> lastLinks = new HashSet<>();
+            Set<Link> links = new HashSet<>();
+            lastEgressLinks.values().forEach(lastLinks::addAll);
+            egressLinks.values().forEach(links::addAll);
+            removedLinks.addAll(Sets.difference(lastLinks, links));
+            addedLinks.addAll(Sets.difference(links, lastLinks));
+        }
+
+        HashMap<DeviceId, EcmpShortestPathGraph> spgs = new HashMap<>();
+        Map<DeviceId, CompletableFuture<EcmpShortestPathGraph>> tasks = new HashMap<>();
+        for (DeviceId root : roots) {
+            EcmpShortestPathGraph previous = lastComputedSpgs.get(root);
+            if (lastEgressLinks != null && previous != null
+                    && !previous.isAffectedBy(removedLinks, addedLinks)) {
+                spgs.put(root, previous);
+            } else {
+                tasks.put(root, CompletableFuture.supplyAsync(
+                        () -> new EcmpShortestPathGraph(root, srManager, egressLinks), spgPool));
+            }
+        }
+        tasks.forEach((root, task) -> spgs.put(root, task.join()));
+        log.debug("Computed {} ECMP graphs, reused {} unaffected by {} removed"
+                + " and {} added links", tasks.size(), spgs.size() - tasks.size(),
+                removedLinks.size(), addedLinks.size());
+
+        lastEgressLinks = egressLinks;
+        lastComputedSpgs = new HashMap<>(spgs);
+        return spgs;
+    }
+
+    /**
+     * Publishes the updated ECMP graph of the given device as its current
+     * graph, replacing the previous one in a single step so that concurrent
+     * readers never see a partially built graph.
+     *
+     * @param deviceId root device of the graph
+     */
+    private void publishEcmpSpg(DeviceId deviceId) {
+        EcmpShortestPathGraph spg = updatedEcmpSpgMap.get(deviceId);
+        if (spg != null) {
+            currentEcmpSpgMap.put(deviceId, spg);
+        } else {
+            currentEcmpSpgMap.remove(deviceId);
+        }
+    }
+
     /**
      * Remove ECMP graph entry for the given device. Typically called when
      * device is no longer available.
@@ -1261,6 +1332,7 @@ public class DefaultRoutingHandler {
             }
             log.debug("Updating ECMPspg for unavailable dev:{}", deviceId);
             currentEcmpSpgMap.remove(deviceId);
+            lastComputedSpgs.remove(deviceId);
             if (updatedEcmpSpgMap != null) {
                 updatedEcmpSpgMap.remove(deviceId);
             }
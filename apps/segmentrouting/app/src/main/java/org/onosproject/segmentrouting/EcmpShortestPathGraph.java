@@ -29,9 +29,13 @@ import org.slf4j.LoggerFactory;
 import com.google.common.collect.Sets;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 
 /**
  * This class creates breadth-first-search (BFS) tree for a given root device
@@ -58,13 +62,62 @@ public class EcmpShortestPathGraph {
     public EcmpShortestPathGraph(DeviceId rootDevice, SegmentRoutingManager srManager) {
         this.rootDevice = rootDevice;
         this.srManager = srManager;
-        calcECMPShortestPathGraph();
+        calcECMPShortestPathGraph(srManager.linkHandler::getDeviceEgressLinks, true);
+    }
+
+    /**
+     * Constructor using a snapshot of the usable egress links of each device,
+     * which may be shared by graphs computed concurrently.
+     *
+     * @param rootDevice root of the BFS tree
+     * @param srManager SegmentRoutingManager object
+     * @param egressLinks egress links of each device, excluding avoided links
+     */
+    EcmpShortestPathGraph(DeviceId rootDevice, SegmentRoutingManager srManager,
+                          Map<DeviceId, Set<Link>> egressLinks) {
+        this.rootDevice = rootDevice;
+        this.srManager = srManager;
+        calcECMPShortestPathGraph(
+                device -> egressLinks.getOrDefault(device, Collections.emptySet()), false);
+    }
+
+    /**
+     * Returns whether the graph may differ from the graph computed after the
+     * given links are removed from and added to the topology. A removed link
+     * matters if it is part of the graph, and an added link if it leads from a
+     * device reached by the graph to a device which is unreached or farther
+     * from the root.
+     *
+     * @param removedLinks links removed from the topology
+     * @param addedLinks links added to the topology
+     * @return true if the graph needs to be recomputed
+     */
+    boolean isAffectedBy(Collection<Link> removedLinks, Collection<Link> addedLinks) {
+        for (Link link : removedLinks) {
+            ArrayList<Link> upstream = upstreamLinks.get(link.dst().deviceId());
+            if (upstream != null && upstream.stream()
+                    .anyMatch(l -> l.src().deviceId().equals(link.src().deviceId()))) {
+                return true;
+            }
+        }
+        for (Link link : addedLinks) {
+            Integer srcDistance = deviceSearched.get(link.src().deviceId());
+            Integer dstDistance = deviceSearched.get(link.dst().deviceId());
+            if (srcDistance != null && (dstDistance == null || dstDistance > srcDistance)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
      * Calculates the BFS tree.
+     *
+     * @param egressLinks function returning the egress links of a device
+     * @param checkAvoided whether links to be avoided must be skipped
      */
-   private void calcECMPShortestPathGraph() {
+   private void calcECMPShortestPathGraph(Function<DeviceId, Set<Link>> egressLinks,
+                                          boolean checkAvoided) {
         deviceQueue.add(rootDevice);
         int currDistance = 0;
         distanceQueue.add(currDistance);
@@ -74,8 +127,8 @@ public class EcmpShortestPathGraph {
             Set<DeviceId> prevSw = Sets.newHashSet();
             currDistance = distanceQueue.poll();
 
-            for (Link link : srManager.linkHandler.getDeviceEgressLinks(sw)) {
-                if (srManager.linkHandler.avoidLink(link)) {
+            for (Link link : egressLinks.apply(sw)) {
+                if (checkAvoided && srManager.linkHandler.avoidLink(link)) {
                     continue;
                 }
                 DeviceId reachedDevice = link.dst().deviceId();
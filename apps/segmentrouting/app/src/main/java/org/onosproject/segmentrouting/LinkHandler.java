@@ -16,6 +16,7 @@
 
 package org.onosproject.segmentrouting;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -693,6 +694,28 @@ public class LinkHandler {
         return ImmutableMap.copyOf(downedPortStore.entrySet());
     }
 
+    /**
+     * Returns a snapshot of the egress links of all devices that are usable
+     * for routing: seen, bidirectionally up and not to be avoided.
+     *
+     * @return egress links of each device
+     */
+    Map<DeviceId, Set<Link>> getUsableEgressLinks() {
+        Map<Link, Boolean> links = ImmutableMap.copyOf(seenLinks);
+        // state of the links by source and destination, to look up reverse
+        // links without scanning all links
+        Map<ConnectPoint, Map<ConnectPoint, Boolean>> linkUp = new HashMap<>();
+        links.forEach((link, up) -> linkUp.computeIfAbsent(link.src(), cp -> new HashMap<>())
+                .putIfAbsent(link.dst(), up));
+        return links.keySet().stream()
+                .filter(links::get)
+                .filter(link -> linkUp.getOrDefault(link.dst(), ImmutableMap.of())
+                        .getOrDefault(link.src(), false))
+                .filter(link -> !avoidLink(link))
+                .collect(Collectors.groupingBy(link -> link.src().deviceId(),
+                                               Collectors.toSet()));
+    }
+
     /**
      * Returns all links that egress from given device that are UP in the
      * seenLinks store. The returned links are also confirmed to be
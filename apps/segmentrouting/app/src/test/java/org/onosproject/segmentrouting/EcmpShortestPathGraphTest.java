@@ -0,0 +1,81 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.segmentrouting;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Link;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.net.NetTestTools.did;
+import static org.onosproject.net.NetTestTools.link;
+
+/**
+ * Tests for the ECMP shortest-path graph computed over a link snapshot.
+ */
+public class EcmpShortestPathGraphTest {
+
+    private static final Link AB = link("a", 1, "b", 1);
+    private static final Link BA = link("b", 1, "a", 1);
+    private static final Link BC = link("b", 2, "c", 1);
+    private static final Link CB = link("c", 1, "b", 2);
+
+    // Line topology a - b - c
+    private static final Map<DeviceId, Set<Link>> EGRESS_LINKS =
+            ImmutableMap.of(did("a"), ImmutableSet.of(AB),
+                            did("b"), ImmutableSet.of(BA, BC),
+                            did("c"), ImmutableSet.of(CB));
+
+    private final EcmpShortestPathGraph spg =
+            new EcmpShortestPathGraph(did("a"), null, EGRESS_LINKS);
+
+    /**
+     * Tests the graph computed from the snapshot of egress links.
+     */
+    @Test
+    public void testSnapshotGraph() {
+        assertEquals(ImmutableSet.of(did("b")),
+                     spg.getCompleteLearnedDeviceesAndPaths().get(1).keySet());
+        assertEquals(ImmutableSet.of(did("c")),
+                     spg.getCompleteLearnedDeviceesAndPaths().get(2).keySet());
+        assertEquals(1, spg.getECMPPaths(did("c")).size());
+        assertEquals(2, spg.getECMPPaths(did("c")).get(0).links().size());
+    }
+
+    /**
+     * Tests which link changes affect the graph.
+     */
+    @Test
+    public void testIsAffectedBy() {
+        Link ac = link("a", 2, "c", 2);
+        Link ca = link("c", 2, "a", 2);
+        Link de = link("d", 1, "e", 1);
+
+        assertFalse(spg.isAffectedBy(ImmutableSet.of(), ImmutableSet.of()));
+        assertFalse(spg.isAffectedBy(ImmutableSet.of(de), ImmutableSet.of(de)));
+        // links towards the root are not part of the graph
+        assertFalse(spg.isAffectedBy(ImmutableSet.of(CB, BA), ImmutableSet.of(ca)));
+        assertTrue(spg.isAffectedBy(ImmutableSet.of(BC), ImmutableSet.of()));
+        assertTrue(spg.isAffectedBy(ImmutableSet.of(), ImmutableSet.of(ac)));
+    }
+}
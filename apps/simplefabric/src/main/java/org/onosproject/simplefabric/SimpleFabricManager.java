@@ -18,9 +18,6 @@ package org.onosproject.simplefabric;
 
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
-import com.googlecode.concurrenttrees.radix.node.concrete.DefaultByteArrayNodeFactory;
-import com.googlecode.concurrenttrees.radixinverted.ConcurrentInvertedRadixTree;
-import com.googlecode.concurrenttrees.radixinverted.InvertedRadixTree;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
@@ -29,10 +26,8 @@ import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
 import org.onlab.packet.ARP;
 import org.onlab.packet.Ethernet;
-import org.onlab.packet.Ip4Address;
-import org.onlab.packet.Ip6Address;
 import org.onlab.packet.IpAddress;
-import org.onlab.packet.IpPrefix;
+import org.onlab.packet.IpPrefixTrie;
 import org.onlab.packet.IPv6;
 import org.onlab.packet.MacAddress;
 import org.onlab.packet.VlanId;
@@ -76,9 +71,6 @@ import java.util.Collection;
 import java.util.Set;
 import java.util.Map;
 
-import static org.onosproject.simplefabric.RouteTools.createBinaryString;
-
-
 /**
  * Reactive routing configuration manager.
  */
@@ -126,17 +118,11 @@ public class SimpleFabricManager extends ListenerRegistry<SimpleFabricEvent, Sim
 
     // Subnet table
     private Set<IpSubnet> ipSubnets = new HashSet<>();
-    private InvertedRadixTree<IpSubnet> ip4SubnetTable =
-                 new ConcurrentInvertedRadixTree<>(new DefaultByteArrayNodeFactory());
-    private InvertedRadixTree<IpSubnet> ip6SubnetTable =
-                 new ConcurrentInvertedRadixTree<>(new DefaultByteArrayNodeFactory());
+    private IpPrefixTrie<IpSubnet> ipSubnetTable = new IpPrefixTrie<>();
 
     // Border Route table
     private Set<Route> borderRoutes = new HashSet<>();
-    private InvertedRadixTree<Route> ip4BorderRouteTable =
-                 new ConcurrentInvertedRadixTree<>(new DefaultByteArrayNodeFactory());
-    private InvertedRadixTree<Route> ip6BorderRouteTable =
-                 new ConcurrentInvertedRadixTree<>(new DefaultByteArrayNodeFactory());
+    private IpPrefixTrie<Route> borderRouteTable = new IpPrefixTrie<>();
 
     // VirtialGateway
     private Map<IpAddress, MacAddress> virtualGatewayIpMacMap = Maps.newConcurrentMap();
@@ -270,23 +256,15 @@ public class SimpleFabricManager extends ListenerRegistry<SimpleFabricEvent, Sim
 
         // ipSubnets
         Set<IpSubnet> newIpSubnets = config.ipSubnets();
-        InvertedRadixTree<IpSubnet> newIp4SubnetTable =
-                 new ConcurrentInvertedRadixTree<>(new DefaultByteArrayNodeFactory());
-        InvertedRadixTree<IpSubnet> newIp6SubnetTable =
-                 new ConcurrentInvertedRadixTree<>(new DefaultByteArrayNodeFactory());
+        IpPrefixTrie<IpSubnet> newIpSubnetTable = new IpPrefixTrie<>();
         Map<IpAddress, MacAddress> newVirtualGatewayIpMacMap = Maps.newConcurrentMap();
         for (IpSubnet subnet : newIpSubnets) {
-            if (subnet.ipPrefix().isIp4()) {
-                newIp4SubnetTable.put(createBinaryString(subnet.ipPrefix()), subnet);
-            } else {
-                newIp6SubnetTable.put(createBinaryString(subnet.ipPrefix()), subnet);
-            }
+            newIpSubnetTable.put(subnet.ipPrefix(), subnet);
             newVirtualGatewayIpMacMap.put(subnet.gatewayIp(), subnet.gatewayMac());
         }
         if (!ipSubnets.equals(newIpSubnets)) {
             ipSubnets = newIpSubnets;
-            ip4SubnetTable = newIp4SubnetTable;
-            ip6SubnetTable = newIp6SubnetTable;
+            ipSubnetTable = newIpSubnetTable;
             dirty = true;
         }
         if (!virtualGatewayIpMacMap.equals(newVirtualGatewayIpMacMap)) {
@@ -297,20 +275,12 @@ public class SimpleFabricManager extends ListenerRegistry<SimpleFabricEvent, Sim
         // borderRoutes config handling
         Set<Route> newBorderRoutes = config.borderRoutes();
         if (!borderRoutes.equals(newBorderRoutes)) {
-            InvertedRadixTree<Route> newIp4BorderRouteTable =
-                    new ConcurrentInvertedRadixTree<>(new DefaultByteArrayNodeFactory());
-            InvertedRadixTree<Route> newIp6BorderRouteTable =
-                    new ConcurrentInvertedRadixTree<>(new DefaultByteArrayNodeFactory());
+            IpPrefixTrie<Route> newBorderRouteTable = new IpPrefixTrie<>();
             for (Route route : newBorderRoutes) {
-                if (route.prefix().isIp4()) {
-                    newIp4BorderRouteTable.put(createBinaryString(route.prefix()), route);
-                } else {
-                    newIp6BorderRouteTable.put(createBinaryString(route.prefix()), route);
-                }
+                newBorderRouteTable.put(route.prefix(), route);
             }
             borderRoutes = newBorderRoutes;
-            ip4BorderRouteTable = newIp4BorderRouteTable;
-            ip6BorderRouteTable = newIp6BorderRouteTable;
+            borderRouteTable = newBorderRouteTable;
             dirty = true;
         }
 
@@ -393,25 +363,13 @@ public class SimpleFabricManager extends ListenerRegistry<SimpleFabricEvent, Sim
 
     @Override
     public IpSubnet findIpSubnet(IpAddress ip) {
-        if (ip.isIp4()) {
-            return ip4SubnetTable.getValueForLongestKeyPrefixing(
-                     createBinaryString(IpPrefix.valueOf(ip, Ip4Address.BIT_LENGTH)));
-        } else {
-            return ip6SubnetTable.getValueForLongestKeyPrefixing(
-                     createBinaryString(IpPrefix.valueOf(ip, Ip6Address.BIT_LENGTH)));
-        }
+        return ipSubnetTable.longestPrefixMatch(ip);
     }
 
     @Override
     public Route findBorderRoute(IpAddress ip) {
         // ASSUME: ipAddress is out of ipSubnet
-        if (ip.isIp4()) {
-            return ip4BorderRouteTable.getValueForLongestKeyPrefixing(
-                     createBinaryString(IpPrefix.valueOf(ip, Ip4Address.BIT_LENGTH)));
-        } else {
-            return ip6BorderRouteTable.getValueForLongestKeyPrefixing(
-                     createBinaryString(IpPrefix.valueOf(ip, Ip6Address.BIT_LENGTH)));
-        }
+        return borderRouteTable.longestPrefixMatch(ip);
     }
 
 
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.cli.net;
+
+import java.util.Map;
+
+import org.apache.karaf.shell.commands.Command;
+import org.onosproject.cli.AbstractShellCommand;
+import org.onosproject.store.service.NearCacheStats;
+import org.onosproject.store.service.StorageAdminService;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Command to list stats for the near caches of the consistent maps.
+ */
+@Command(scope = "onos", name = "near-caches",
+        description = "Lists information about the near caches of consistent maps")
+public class NearCachesListCommand extends AbstractShellCommand {
+
+    private static final String FMT =
+            "name=%s size=%d maxSize=%d hits=%d misses=%d invalidations=%d evictions=%d";
+
+    @Override
+    protected void execute() {
+        StorageAdminService storageAdminService = get(StorageAdminService.class);
+        Map<String, NearCacheStats> cacheStats = storageAdminService.getNearCacheStats();
+        if (outputJson()) {
+            ObjectMapper mapper = new ObjectMapper();
+            ObjectNode jsonCaches = mapper.createObjectNode();
+            cacheStats.forEach((k, v) -> {
+                ObjectNode jsonStats = jsonCaches.putObject(k);
+                jsonStats.put("size", v.size());
+                jsonStats.put("maxSize", v.maxSize());
+                jsonStats.put("hits", v.hits());
+                jsonStats.put("misses", v.misses());
+                jsonStats.put("invalidations", v.invalidations());
+                jsonStats.put("evictions", v.evictions());
+            });
+            print("%s", jsonCaches);
+        } else {
+            cacheStats.forEach((name, stats) ->
+            print(FMT, name, stats.size(), stats.maxSize(), stats.hits(), stats.misses(),
+                  stats.invalidations(), stats.evictions()));
+        }
+    }
+}
@@ -21,7 +21,9 @@ package org.onosproject.event;
 public interface EventSink<E extends Event> {
 
     /**
-     * Processes the specified event.
+     * Processes the specified event. The event dispatcher may invoke this
+     * method from several threads at a time, when it partitions the events
+     * by subject, hence implementations must be thread-safe.
      *
      * @param event event to be processed
      */
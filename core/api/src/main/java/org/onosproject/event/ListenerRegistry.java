@@ -17,7 +17,9 @@ package org.onosproject.event;
 
 import org.slf4j.Logger;
 
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -26,6 +28,11 @@ import static org.slf4j.LoggerFactory.getLogger;
 /**
  * Base implementation of an event sink and a registry capable of tracking
  * listeners and dispatching events to them as part of event sink processing.
+ * <p>
+ * Events may be processed by several threads at a time, e.g. when the event
+ * dispatcher partitions events by subject, hence listeners must be
+ * thread-safe.
+ * </p>
  */
 public class ListenerRegistry<E extends Event, L extends EventListener<E>>
         implements ListenerService<E, L>, EventSink<E> {
@@ -34,8 +41,8 @@ public class ListenerRegistry<E extends Event, L extends EventListener<E>>
 
     private final Logger log = getLogger(getClass());
 
-    private long lastStart;
-    private L lastListener;
+    // Listener being invoked by each processing thread
+    private final Map<Thread, Invocation> invocations = new ConcurrentHashMap<>();
 
     /**
      * Set of listeners that have registered.
@@ -58,32 +65,42 @@ public class ListenerRegistry<E extends Event, L extends EventListener<E>>
 
     @Override
     public void process(E event) {
-        for (L listener : listeners) {
-            try {
-                lastListener = listener;
-                lastStart = System.currentTimeMillis();
-                if (listener.isRelevant(event)) {
-                    listener.event(event);
+        Thread thread = Thread.currentThread();
+        Invocation invocation = new Invocation();
+        invocations.put(thread, invocation);
+        try {
+            for (L listener : listeners) {
+                try {
+                    invocation.listener = listener;
+                    invocation.start = System.currentTimeMillis();
+                    if (listener.isRelevant(event)) {
+                        listener.event(event);
+                    }
+                } catch (Exception error) {
+                    reportProblem(event, error);
+                } finally {
+                    invocation.start = 0;
                 }
-                lastStart = 0;
-            } catch (Exception error) {
-                reportProblem(event, error);
             }
+        } finally {
+            invocations.remove(thread, invocation);
         }
     }
 
     @Override
     public void onProcessLimit() {
-        if (lastStart > 0) {
-            long duration = System.currentTimeMillis() - lastStart;
-            if (duration > LIMIT) {
+        long now = System.currentTimeMillis();
+        invocations.values().forEach(invocation -> {
+            L listener = invocation.listener;
+            long start = invocation.start;
+            if (start > 0 && now - start > LIMIT) {
                 log.error("Listener {} exceeded execution time limit: {} ms; ejected",
-                          lastListener.getClass().getName(),
-                          duration);
-                removeListener(lastListener);
+                          listener.getClass().getName(),
+                          now - start);
+                invocation.start = 0;
+                removeListener(listener);
             }
-            lastStart = 0;
-        }
+        });
     }
 
     /**
@@ -96,4 +113,11 @@ public class ListenerRegistry<E extends Event, L extends EventListener<E>>
         log.warn("Exception encountered while processing event " + event, error);
     }
 
+    // Listener invoked by a thread and the time the invocation started,
+    // 0 if none is in progress.
+    private final class Invocation {
+        private volatile L listener;
+        private volatile long start;
+    }
+
 }
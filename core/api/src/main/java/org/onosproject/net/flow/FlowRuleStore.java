@@ -15,12 +15,17 @@
  */
 package org.onosproject.net.flow;
 
+import com.google.common.collect.Streams;
+import org.onosproject.core.ApplicationId;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.flow.oldbatch.FlowRuleBatchEvent;
 import org.onosproject.net.flow.oldbatch.FlowRuleBatchOperation;
 import org.onosproject.store.Store;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Manages inventory of flow rules; not intended for direct use.
@@ -41,7 +46,7 @@ public interface FlowRuleStore extends Store<FlowRuleBatchEvent, FlowRuleStoreDe
      * @return number of flow rules for the given device
      */
     default int getFlowRuleCount(DeviceId deviceId) {
-        return 0;
+        return (int) Streams.stream(getFlowEntries(deviceId)).count();
     }
 
     /**
@@ -52,6 +57,25 @@ public interface FlowRuleStore extends Store<FlowRuleBatchEvent, FlowRuleStoreDe
      */
     FlowEntry getFlowEntry(FlowRule rule);
 
+    /**
+     * Returns the stored flows of a batch of rules of a device.
+     * <p>
+     * Implementations may look up the whole batch in a single operation.
+     * The default implementation looks up each rule individually.
+     *
+     * @param deviceId the device identifier
+     * @param rules    the rules to look for
+     * @return the stored flows, in the order of the given rules, with
+     *         {@code null} for the rules that are not stored
+     */
+    default List<FlowEntry> getFlowEntries(DeviceId deviceId, List<? extends FlowRule> rules) {
+        List<FlowEntry> entries = new ArrayList<>(rules.size());
+        for (FlowRule rule : rules) {
+            entries.add(getFlowEntry(rule));
+        }
+        return entries;
+    }
+
     /**
      * Returns the flow entries associated with a device.
      *
@@ -60,6 +84,66 @@ public interface FlowRuleStore extends Store<FlowRuleBatchEvent, FlowRuleStoreDe
      */
     Iterable<FlowEntry> getFlowEntries(DeviceId deviceId);
 
+    /**
+     * Returns the flow entries associated with a device that were added by
+     * the given application.
+     *
+     * @param deviceId the device ID
+     * @param appId    the application ID
+     * @return the flow entries
+     */
+    default Iterable<FlowEntry> getFlowEntriesById(DeviceId deviceId, ApplicationId appId) {
+        return Streams.stream(getFlowEntries(deviceId))
+                .filter(flowEntry -> flowEntry.appId() == appId.id())
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Returns the flow entries associated with the given devices that were
+     * added by the given application.
+     *
+     * @param deviceIds the device IDs
+     * @param appId     the application ID
+     * @return the flow entries
+     */
+    default Iterable<FlowEntry> getFlowEntriesById(Iterable<DeviceId> deviceIds, ApplicationId appId) {
+        return Streams.stream(deviceIds)
+                .flatMap(deviceId -> Streams.stream(getFlowEntriesById(deviceId, appId)))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Returns the flow entries associated with a device that were added by
+     * the given application with the given group ID.
+     *
+     * @param deviceId the device ID
+     * @param appId    the application ID
+     * @param groupId  the group ID
+     * @return the flow entries
+     */
+    default Iterable<FlowEntry> getFlowEntriesByGroupId(DeviceId deviceId, ApplicationId appId, short groupId) {
+        long toLookUp = (Short.toUnsignedLong(appId.id()) << 16) | Short.toUnsignedLong(groupId);
+        return Streams.stream(getFlowEntries(deviceId))
+                .filter(flowEntry -> (flowEntry.id().value() >>> 32) == toLookUp)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Returns the flow entries associated with the given devices that were
+     * added by the given application with the given group ID.
+     *
+     * @param deviceIds the device IDs
+     * @param appId     the application ID
+     * @param groupId   the group ID
+     * @return the flow entries
+     */
+    default Iterable<FlowEntry> getFlowEntriesByGroupId(Iterable<DeviceId> deviceIds, ApplicationId appId,
+                                                        short groupId) {
+        return Streams.stream(deviceIds)
+                .flatMap(deviceId -> Streams.stream(getFlowEntriesByGroupId(deviceId, appId, groupId)))
+                .collect(Collectors.toSet());
+    }
+
     /**
      * // TODO: Better description of method behavior.
      * Stores a new flow rule without generating events.
@@ -102,6 +186,27 @@ public interface FlowRuleStore extends Store<FlowRuleBatchEvent, FlowRuleStoreDe
      */
     FlowRuleEvent addOrUpdateFlowRule(FlowEntry rule);
 
+    /**
+     * Stores or updates a batch of flow entries reported by a device.
+     * <p>
+     * Implementations may group the entries to reduce the number of store
+     * writes. The default implementation updates each entry individually.
+     *
+     * @param deviceId the device identifier
+     * @param rules    the flow entries to add or update
+     * @return the events generated for the added or updated entries
+     */
+    default List<FlowRuleEvent> addOrUpdateFlowRules(DeviceId deviceId, Collection<FlowEntry> rules) {
+        List<FlowRuleEvent> events = new ArrayList<>(rules.size());
+        for (FlowEntry rule : rules) {
+            FlowRuleEvent event = addOrUpdateFlowRule(rule);
+            if (event != null) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
     /**
      * @param rule the flow entry to remove
      * @return flow_removed event, or null if nothing removed
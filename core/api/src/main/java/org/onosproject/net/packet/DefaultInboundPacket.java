@@ -15,24 +15,37 @@
  */
 package org.onosproject.net.packet;
 
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import org.onosproject.net.ConnectPoint;
+import org.onlab.packet.DeserializationException;
 import org.onlab.packet.Ethernet;
+import org.onlab.packet.EthernetView;
+import org.slf4j.Logger;
 
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * Default implementation of an immutable inbound packet.
  */
 public final class DefaultInboundPacket implements InboundPacket {
 
+    private static final Logger log = getLogger(DefaultInboundPacket.class);
+
     private final ConnectPoint receivedFrom;
-    private final Ethernet parsed;
+    // Parsed frame; null until the lazily parsed packet is first parsed
+    private final AtomicReference<Optional<Ethernet>> parsed;
     private final ByteBuffer unparsed;
     private final Optional<Long> cookie;
+    private final Supplier<EthernetView> headerView;
 
     /**
      * Creates an immutable inbound packet.
@@ -57,9 +70,49 @@ public final class DefaultInboundPacket implements InboundPacket {
     public DefaultInboundPacket(ConnectPoint receivedFrom, Ethernet parsed,
             ByteBuffer unparsed, Optional<Long> cookie) {
         this.receivedFrom = receivedFrom;
-        this.parsed = parsed;
+        this.parsed = new AtomicReference<>(Optional.ofNullable(parsed));
+        this.unparsed = unparsed;
+        this.cookie = cookie;
+        this.headerView = Suppliers.memoize(this::createHeaderView);
+    }
+
+    /**
+     * Creates an immutable inbound packet with cookie, which is only parsed
+     * if the parsed form is requested.
+     *
+     * @param receivedFrom connection point where received
+     * @param unparsed     unparsed raw bytes
+     * @param cookie       cookie
+     */
+    public DefaultInboundPacket(ConnectPoint receivedFrom, ByteBuffer unparsed,
+                                Optional<Long> cookie) {
+        this.receivedFrom = receivedFrom;
+        this.parsed = new AtomicReference<>();
         this.unparsed = unparsed;
         this.cookie = cookie;
+        this.headerView = Suppliers.memoize(this::createHeaderView);
+    }
+
+    private Ethernet parse() {
+        if (unparsed == null) {
+            return null;
+        }
+        try {
+            return EthernetView.wrap(unparsed).deserialize();
+        } catch (BufferUnderflowException | IndexOutOfBoundsException |
+                DeserializationException e) {
+            log.debug("Unable to deserialize packet received from {}: {}",
+                      receivedFrom, e.getMessage());
+        }
+        return null;
+    }
+
+    private EthernetView createHeaderView() {
+        if (unparsed == null) {
+            return null;
+        }
+        EthernetView view = EthernetView.wrap(unparsed);
+        return view.isValid() ? view : null;
     }
 
     @Override
@@ -69,7 +122,17 @@ public final class DefaultInboundPacket implements InboundPacket {
 
     @Override
     public Ethernet parsed() {
-        return parsed;
+        Optional<Ethernet> frame = parsed.get();
+        if (frame == null) {
+            parsed.compareAndSet(null, Optional.ofNullable(parse()));
+            frame = parsed.get();
+        }
+        return frame.orElse(null);
+    }
+
+    @Override
+    public EthernetView headerView() {
+        return headerView.get();
     }
 
     @Override
@@ -85,7 +148,7 @@ public final class DefaultInboundPacket implements InboundPacket {
 
     @Override
     public int hashCode() {
-        return Objects.hash(receivedFrom, parsed, unparsed);
+        return Objects.hash(receivedFrom, unparsed);
     }
 
     @Override
@@ -96,7 +159,6 @@ public final class DefaultInboundPacket implements InboundPacket {
         if (obj instanceof InboundPacket) {
             final DefaultInboundPacket other = (DefaultInboundPacket) obj;
             return Objects.equals(this.receivedFrom, other.receivedFrom) &&
-                    Objects.equals(this.parsed, other.parsed) &&
                     Objects.equals(this.unparsed, other.unparsed);
         }
         return false;
@@ -104,9 +166,13 @@ public final class DefaultInboundPacket implements InboundPacket {
 
     @Override
     public String toString() {
-        return toStringHelper(this)
-                .add("receivedFrom", receivedFrom)
-                .add("parsed", parsed)
-                .toString();
+        // Leave out the parsed frame unless already parsed
+        MoreObjects.ToStringHelper helper = toStringHelper(this)
+                .add("receivedFrom", receivedFrom);
+        Optional<Ethernet> frame = parsed.get();
+        if (frame != null) {
+            helper.add("parsed", frame.orElse(null));
+        }
+        return helper.toString();
     }
 }
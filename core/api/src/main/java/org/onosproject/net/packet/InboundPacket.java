@@ -17,6 +17,7 @@ package org.onosproject.net.packet;
 
 import org.onosproject.net.ConnectPoint;
 import org.onlab.packet.Ethernet;
+import org.onlab.packet.EthernetView;
 
 import java.nio.ByteBuffer;
 import java.util.Optional;
@@ -41,6 +42,23 @@ public interface InboundPacket {
      */
     Ethernet parsed();
 
+    /**
+     * Returns a lazy view of the packet headers, which decodes the header
+     * fields from the unparsed packet data on demand. Preferable to
+     * {@link #parsed()} when only a few header fields are needed.
+     *
+     * @return Ethernet frame view; null if the unparsed packet data does not
+     * hold a complete Ethernet header
+     */
+    default EthernetView headerView() {
+        ByteBuffer data = unparsed();
+        if (data == null) {
+            return null;
+        }
+        EthernetView view = EthernetView.wrap(data);
+        return view.isValid() ? view : null;
+    }
+
     /**
      * Unparsed packet data.
      *
@@ -15,9 +15,12 @@
  */
 package org.onosproject.net.packet;
 
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.TrafficSelector;
+
 /**
- * Packet processor entry tracking the processor, its priority and
- * time consumption.
+ * Packet processor entry tracking the processor, its priority, its packet
+ * selector and time consumption.
  */
 public interface PacketProcessorEntry {
 
@@ -35,6 +38,34 @@ public interface PacketProcessorEntry {
      */
     int priority();
 
+    /**
+     * Returns the selector of the packets given to the processor.
+     *
+     * @return packet selector; empty if the processor is given all packets
+     */
+    default TrafficSelector selector() {
+        return DefaultTrafficSelector.emptySelector();
+    }
+
+    /**
+     * Returns the number of packets given to the processor.
+     *
+     * @return number of hits
+     */
+    default long hits() {
+        return invocations();
+    }
+
+    /**
+     * Returns the number of packets that were not given to the processor
+     * because they did not match its selector.
+     *
+     * @return number of skips
+     */
+    default long skips() {
+        return 0;
+    }
+
     /**
      * Returns the number of invocations.
      *
@@ -42,7 +42,24 @@ public interface PacketService {
      */
     void addProcessor(PacketProcessor processor, int priority);
 
-    // TODO allow processors to register for particular types of packets
+    /**
+     * Adds the specified processor to the list of packet processors, to be
+     * given only the packets that match the specified selector.
+     * <p>
+     * The selector may only contain ETH_TYPE, IP_PROTO and IN_PORT criteria.
+     * A processor registered with an empty selector is given all packets.
+     * The default implementation ignores the selector.
+     *
+     * @param processor processor to be added
+     * @param priority  priority in the reverse natural order
+     * @param selector  selector of the packets to be given to the processor
+     * @throws java.lang.IllegalArgumentException if the selector contains
+     *                                            unsupported criteria
+     */
+    default void addProcessor(PacketProcessor processor, int priority,
+                              TrafficSelector selector) {
+        addProcessor(processor, priority);
+    }
 
     /**
      * Removes the specified processor from the processing pipeline.
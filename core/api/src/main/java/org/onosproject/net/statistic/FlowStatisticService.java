@@ -103,6 +103,15 @@ public interface FlowStatisticService {
                                            FlowEntry.FlowLiveType liveType,
                                            Instruction.Type instType,
                                            int topn);
-}
-
 
+    /**
+     * Obtain the recent rates of the flows forwarding to the given port,
+     * sampled once per flow poll interval, from the oldest to the latest.
+     *
+     * @param device the Device to query.
+     * @param pNumber the port number of the Device to query
+     * @return list of rates in bytes per second, empty if the flow statistics
+     *         of the device are not collected by this instance
+     */
+    List<Long> loadRateHistory(Device device, PortNumber pNumber);
+}
@@ -70,4 +70,8 @@ public class HopCountLinkWeigher implements LinkWeigher {
         return ScalarWeight.NON_VIABLE_WEIGHT;
     }
 
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
 }
@@ -23,4 +23,17 @@ import org.onlab.graph.EdgeWeigher;
  * graph edge. Returns {@link org.onlab.graph.Weight} instances.
  */
 public interface LinkWeigher extends EdgeWeigher<TopologyVertex, TopologyEdge> {
+
+    /**
+     * Indicates whether the results of path searches using this weigher may
+     * be cached and reused for the lifetime of a topology. This holds only if
+     * the weights depend solely on the topology and on the state compared by
+     * {@link Object#equals(Object)} of this weigher, so that equal weighers
+     * always yield equal weights.
+     *
+     * @return true if path search results may be cached; false by default
+     */
+    default boolean isCacheable() {
+        return false;
+    }
 }
@@ -44,5 +44,9 @@ public class MetricLinkWeight implements LinkWeigher {
             return ScalarWeight.toWeight(1.0);
         }
     }
-}
 
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+}
@@ -19,6 +19,8 @@ import java.util.function.BiFunction;
 
 import org.onosproject.store.primitives.DistributedPrimitiveOptions;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 /**
  * Builder for {@link ConsistentMap} instances.
  *
@@ -30,6 +32,7 @@ public abstract class ConsistentMapOptions<O extends ConsistentMapOptions<O, K,
 
     private boolean nullValues = false;
     private boolean purgeOnUninstall = false;
+    private int nearCacheSize = 0;
     protected BiFunction<V, org.onosproject.core.Version, V> compatibilityFunction;
 
     public ConsistentMapOptions() {
@@ -56,6 +59,24 @@ public abstract class ConsistentMapOptions<O extends ConsistentMapOptions<O, K,
         return (O) this;
     }
 
+    /**
+     * Enables a local read-through cache of up to the given number of
+     * entries, kept coherent by the map events. The least recently used
+     * entries are evicted first.
+     * <p>
+     * Intended for maps that are read often and written rarely, for which
+     * it saves a round-trip to the owning partition on most reads.
+     * </p>
+     *
+     * @param maxSize maximum number of cached entries
+     * @return this builder
+     */
+    public O withNearCache(int maxSize) {
+        checkArgument(maxSize > 0, "Near cache size must be positive");
+        nearCacheSize = maxSize;
+        return (O) this;
+    }
+
     /**
      * Sets a compatibility function on the map.
      *
@@ -86,4 +107,13 @@ public abstract class ConsistentMapOptions<O extends ConsistentMapOptions<O, K,
         return purgeOnUninstall;
     }
 
+    /**
+     * Returns the maximum number of entries of the near cache.
+     *
+     * @return maximum number of cached entries; 0 if the near cache is disabled
+     */
+    public int nearCacheSize() {
+        return nearCacheSize;
+    }
+
 }
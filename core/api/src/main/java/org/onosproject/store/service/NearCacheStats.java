@@ -0,0 +1,141 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.service;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Statistics for the near cache of a {@link ConsistentMap}.
+ */
+public final class NearCacheStats {
+
+    private int size;
+    private int maxSize;
+    private long hits;
+    private long misses;
+    private long invalidations;
+    private long evictions;
+
+    /**
+     * Returns a {@code NearCacheStats} builder.
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private NearCacheStats() {
+    }
+
+    public static class Builder {
+
+        NearCacheStats nearCacheStats = new NearCacheStats();
+
+        public Builder withSize(int value) {
+            nearCacheStats.size = value;
+            return this;
+        }
+
+        public Builder withMaxSize(int value) {
+            nearCacheStats.maxSize = value;
+            return this;
+        }
+
+        public Builder withHits(long value) {
+            nearCacheStats.hits = value;
+            return this;
+        }
+
+        public Builder withMisses(long value) {
+            nearCacheStats.misses = value;
+            return this;
+        }
+
+        public Builder withInvalidations(long value) {
+            nearCacheStats.invalidations = value;
+            return this;
+        }
+
+        public Builder withEvictions(long value) {
+            nearCacheStats.evictions = value;
+            return this;
+        }
+
+        public NearCacheStats build() {
+            return nearCacheStats;
+        }
+    }
+
+    /**
+     * Returns the number of cached entries.
+     * @return number of cached entries.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the maximum number of cached entries.
+     * @return maximum number of cached entries.
+     */
+    public int maxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * Returns the number of reads served from the cache.
+     * @return number of hits.
+     */
+    public long hits() {
+        return this.hits;
+    }
+
+    /**
+     * Returns the number of reads that went to the map partition.
+     * @return number of misses.
+     */
+    public long misses() {
+        return this.misses;
+    }
+
+    /**
+     * Returns the number of entries invalidated by map updates.
+     * @return number of invalidations.
+     */
+    public long invalidations() {
+        return this.invalidations;
+    }
+
+    /**
+     * Returns the number of entries evicted to keep the cache within its maximum size.
+     * @return number of evictions.
+     */
+    public long evictions() {
+        return this.evictions;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("size", size)
+                .add("maxSize", maxSize)
+                .add("hits", hits)
+                .add("misses", misses)
+                .add("invalidations", invalidations)
+                .add("evictions", evictions)
+                .toString();
+    }
+}
@@ -58,6 +58,14 @@ public interface StorageAdminService {
      */
     Map<String, WorkQueueStats> getQueueStats();
 
+    /**
+     * Returns statistics for the near caches of the consistent maps built
+     * on this node.
+     *
+     * @return mapping from map name to that map's near cache stats
+     */
+    Map<String, NearCacheStats> getNearCacheStats();
+
     /**
      * Returns all pending transactions.
      *
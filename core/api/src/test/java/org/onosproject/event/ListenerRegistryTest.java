@@ -18,6 +18,10 @@ package org.onosproject.event;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -58,6 +62,44 @@ public class ListenerRegistryTest {
         assertTrue("FOO not processed", secondListener.events.contains(FOO_EVENT));
     }
 
+    @Test
+    public void concurrentProcessing() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TestListener blocking = new TestListener() {
+            @Override
+            public void event(TestEvent event) {
+                if (event == BAR_EVENT) {
+                    entered.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                super.event(event);
+            }
+        };
+        manager.addListener(blocking);
+
+        Thread thread = new Thread(() -> manager.process(BAR_EVENT));
+        thread.start();
+        assertTrue("BAR not being processed", entered.await(5, TimeUnit.SECONDS));
+
+        // Another event is processed while the first one is in progress,
+        // and listeners within the time limit are not ejected.
+        manager.process(FOO_EVENT);
+        manager.onProcessLimit();
+        assertTrue("FOO not processed", blocking.events.contains(FOO_EVENT));
+
+        release.countDown();
+        thread.join(5000);
+        assertTrue("BAR not processed", blocking.events.contains(BAR_EVENT));
+        manager.process(FOO_EVENT);
+        assertEquals("listener ejected", 2, blocking.events.stream()
+                .filter(event -> event == FOO_EVENT).count());
+    }
+
     @Test
     public void badListener() {
         listener = new BrokenListener();
@@ -25,8 +25,11 @@ import org.onlab.packet.MacAddress;
 import com.google.common.testing.EqualsTester;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.onlab.junit.ImmutableClassChecker.assertThatClassIsImmutable;
 import static org.onosproject.net.NetTestTools.connectPoint;
 
@@ -87,4 +90,33 @@ public class DefaultInboundPacketTest {
         assertThat(packet1.unparsed(), notNullValue());
         assertThat(packet1.cookie(), equalTo(Optional.of(1L)));
     }
+
+    /**
+     * Tests the lazily parsed packet and its header view.
+     */
+    @Test
+    public void testLazyParsing() {
+        DefaultInboundPacket packet =
+                new DefaultInboundPacket(connectPoint("d1", 1), byteBuffer, Optional.empty());
+        assertThat(packet.headerView().sourceMac(), equalTo(MacAddress.BROADCAST));
+        assertThat(packet.parsed().getSourceMAC(), equalTo(MacAddress.BROADCAST));
+        assertThat(packet.parsed(), sameInstance(packet.parsed()));
+    }
+
+    /**
+     * Tests that equality, hashing and printing do not parse the packet.
+     */
+    @Test
+    public void testNoParsingOnEquality() {
+        DefaultInboundPacket packet =
+                new DefaultInboundPacket(connectPoint("d1", 1), byteBuffer, Optional.empty());
+        DefaultInboundPacket sameAsPacket =
+                new DefaultInboundPacket(connectPoint("d1", 1), byteBuffer, Optional.empty());
+        assertThat(packet, equalTo(sameAsPacket));
+        assertThat(packet.hashCode(), equalTo(sameAsPacket.hashCode()));
+        assertThat(packet.toString(), not(containsString("parsed")));
+
+        packet.parsed();
+        assertThat(packet.toString(), containsString("parsed"));
+    }
 }
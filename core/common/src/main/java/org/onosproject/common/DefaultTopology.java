@@ -18,10 +18,14 @@ package org.onosproject.common;
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
-import com.google.common.collect.ImmutableSetMultimap.Builder;
 import org.onlab.graph.DefaultEdgeWeigher;
 import org.onlab.graph.DijkstraGraphSearch;
 import org.onlab.graph.DisjointPathPair;
@@ -32,8 +36,6 @@ import org.onlab.graph.LazyKShortestPathsSearch;
 import org.onlab.graph.ScalarWeight;
 import org.onlab.graph.SrlgGraphSearch;
 import org.onlab.graph.SuurballeGraphSearch;
-import org.onlab.graph.TarjanGraphSearch;
-import org.onlab.graph.TarjanGraphSearch.SccResult;
 import org.onlab.graph.Weight;
 import org.onosproject.net.AbstractModel;
 import org.onosproject.net.ConnectPoint;
@@ -62,6 +64,7 @@ import org.slf4j.LoggerFactory;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -84,8 +87,6 @@ public class DefaultTopology extends AbstractModel implements Topology {
 
     private static final DijkstraGraphSearch<TopologyVertex, TopologyEdge> DIJKSTRA =
             new DijkstraGraphSearch<>();
-    private static final TarjanGraphSearch<TopologyVertex, TopologyEdge> TARJAN =
-            new TarjanGraphSearch<>();
     private static final SuurballeGraphSearch<TopologyVertex, TopologyEdge> SUURBALLE =
             new SuurballeGraphSearch<>();
     private static final KShortestPathsSearch<TopologyVertex, TopologyEdge> KSHORTEST =
@@ -94,8 +95,14 @@ public class DefaultTopology extends AbstractModel implements Topology {
             new LazyKShortestPathsSearch<>();
 
 
+    /**
+     * Default maximum number of path search results cached by a topology.
+     */
+    public static final int DEFAULT_PATH_CACHE_SIZE = 1024;
+
     private static LinkWeigher defaultLinkWeigher = null;
     private static GraphPathSearch<TopologyVertex, TopologyEdge> defaultGraphPathSearch = null;
+    private static int pathCacheSize = DEFAULT_PATH_CACHE_SIZE;
 
     private final long time;
     private final long creationTime;
@@ -104,12 +111,14 @@ public class DefaultTopology extends AbstractModel implements Topology {
 
     private final LinkWeigher hopCountWeigher;
 
-    private final Supplier<SccResult<TopologyVertex, TopologyEdge>> clusterResults;
+    private final Supplier<TopologyClusters> clusterResults;
     private final Supplier<ImmutableMap<ClusterId, TopologyCluster>> clusters;
     private final Supplier<ImmutableSet<ConnectPoint>> infrastructurePoints;
-    private final Supplier<ImmutableSetMultimap<ClusterId, ConnectPoint>> broadcastSets;
+    private final Supplier<ImmutableList<Supplier<ImmutableSet<ConnectPoint>>>> broadcastSets;
     private final Function<ConnectPoint, Boolean> broadcastFunction;
     private final Supplier<ClusterIndexes> clusterIndexes;
+    private final int pathCacheLimit;
+    private final LoadingCache<PathSearchKey, Result<TopologyVertex, TopologyEdge>> pathCache;
 
     /**
      * Sets the default link-weight to be used when computing paths. If null is
@@ -135,6 +144,20 @@ public class DefaultTopology extends AbstractModel implements Topology {
         defaultGraphPathSearch = graphPathSearch;
     }
 
+    /**
+     * Sets the maximum number of path search results cached by each topology
+     * created from now on. Each cached result holds the shortest paths from
+     * one source device to all other devices, for one link-weight function.
+     * Only searches using {@link LinkWeigher#isCacheable() cacheable}
+     * link-weight functions are cached. Zero disables the cache.
+     *
+     * @param size maximum number of cached path search results
+     */
+    public static synchronized void setPathCacheSize(int size) {
+        checkArgument(size >= 0, "Path cache size must not be negative");
+        log.info("Setting path cache size to {}", size);
+        pathCacheSize = size;
+    }
 
     /**
      * Creates a topology descriptor attributed to the specified provider.
@@ -145,6 +168,28 @@ public class DefaultTopology extends AbstractModel implements Topology {
      */
     public DefaultTopology(ProviderId providerId, GraphDescription description,
                            Function<ConnectPoint, Boolean> broadcastFunction) {
+        this(providerId, description, broadcastFunction, null);
+    }
+
+    /**
+     * Creates a topology descriptor attributed to the specified provider,
+     * deriving it from the previous version of the topology.
+     * <p>
+     * The clusters are derived right away from the clusters of the previous
+     * topology, by applying only the device and link changes between the two
+     * topologies; the broadcast sets of the clusters left intact by these
+     * changes are shared with the previous topology. The new topology does
+     * not keep any reference to the previous one.
+     *
+     * @param providerId        identity of the provider
+     * @param description       data describing the new topology
+     * @param broadcastFunction broadcast point function
+     * @param previous          previous topology; null to compute the
+     *                          topology from scratch
+     */
+    public DefaultTopology(ProviderId providerId, GraphDescription description,
+                           Function<ConnectPoint, Boolean> broadcastFunction,
+                           DefaultTopology previous) {
         super(providerId);
         this.broadcastFunction = broadcastFunction;
         this.time = description.timestamp();
@@ -154,13 +199,29 @@ public class DefaultTopology extends AbstractModel implements Topology {
         this.graph = new DefaultTopologyGraph(description.vertexes(),
                 description.edges());
 
-        this.clusterResults = Suppliers.memoize(this::searchForClusters);
+        if (previous == null) {
+            this.clusterResults = Suppliers.memoize(this::searchForClusters);
+            this.broadcastSets = Suppliers.memoize(() -> buildBroadcastSets(null));
+        } else {
+            // Resolve what is needed from the previous topology now, so that
+            // no chain of past topologies is retained.
+            List<Supplier<ImmutableSet<ConnectPoint>>> previousSets =
+                    previous.broadcastSets.get();
+            this.clusterResults = Suppliers.ofInstance(
+                    TopologyClusters.update(graph, new NoIndirectLinksWeigher(),
+                                            previous.graph, previous.clusterResults.get()));
+            this.broadcastSets = Suppliers.memoize(() -> buildBroadcastSets(previousSets));
+        }
         this.clusters = Suppliers.memoize(this::buildTopologyClusters);
 
         this.clusterIndexes = Suppliers.memoize(this::buildIndexes);
 
         this.hopCountWeigher = new HopCountLinkWeigher(graph.getVertexes().size());
-        this.broadcastSets = Suppliers.memoize(this::buildBroadcastSets);
+        this.pathCacheLimit = pathCacheSize;
+        this.pathCache = CacheBuilder.newBuilder()
+                .maximumSize(pathCacheLimit)
+                .recordStats()
+                .build(CacheLoader.from(this::searchAll));
         this.infrastructurePoints = Suppliers.memoize(this::findInfrastructurePoints);
         this.computeCost = Math.max(0, System.nanoTime() - time);
     }
@@ -308,7 +369,7 @@ public class DefaultTopology extends AbstractModel implements Topology {
 
         // If the broadcast set is null or empty, or if the point explicitly
         // belongs to it, return true.
-        Set<ConnectPoint> points = broadcastSets.get().get(cluster.id());
+        Set<ConnectPoint> points = broadcastPoints(cluster.id());
         return isNullOrEmpty(points) || points.contains(connectPoint);
     }
 
@@ -319,7 +380,7 @@ public class DefaultTopology extends AbstractModel implements Topology {
      * @return size of the cluster broadcast set
      */
     public int broadcastSetSize(ClusterId clusterId) {
-        return broadcastSets.get().get(clusterId).size();
+        return broadcastPoints(clusterId).size();
     }
 
     /**
@@ -329,7 +390,9 @@ public class DefaultTopology extends AbstractModel implements Topology {
      * @return set of cluster broadcast points
      */
     public Set<ConnectPoint> broadcastPoints(ClusterId clusterId) {
-        return broadcastSets.get().get(clusterId);
+        List<Supplier<ImmutableSet<ConnectPoint>>> sets = broadcastSets.get();
+        int index = clusterId.index();
+        return index >= 0 && index < sets.size() ? sets.get(index).get() : ImmutableSet.of();
     }
 
     /**
@@ -384,15 +447,41 @@ public class DefaultTopology extends AbstractModel implements Topology {
             return ImmutableSet.of();
         }
 
-        GraphPathSearch.Result<TopologyVertex, TopologyEdge> result =
-                graphPathSearch().search(graph, srcV, dstV, weigher, maxPaths);
+        Set<org.onlab.graph.Path<TopologyVertex, TopologyEdge>> paths;
+        if (defaultGraphPathSearch == null && isCacheable(weigher)) {
+            // A single search from the source serves all its destinations.
+            Result<TopologyVertex, TopologyEdge> result =
+                    pathCache.getUnchecked(new PathSearchKey(srcV, weigher, maxPaths));
+            paths = DIJKSTRA.buildPaths(result, dstV, maxPaths);
+        } else {
+            paths = graphPathSearch().search(graph, srcV, dstV, weigher, maxPaths).paths();
+        }
         ImmutableSet.Builder<Path> builder = ImmutableSet.builder();
-        for (org.onlab.graph.Path<TopologyVertex, TopologyEdge> path : result.paths()) {
+        for (org.onlab.graph.Path<TopologyVertex, TopologyEdge> path : paths) {
             builder.add(networkPath(path));
         }
         return builder.build();
     }
 
+    /**
+     * Returns the hit and miss statistics of the shortest path cache.
+     *
+     * @return path cache statistics
+     */
+    public CacheStats pathCacheStats() {
+        return pathCache.stats();
+    }
+
+    // Indicates whether path searches using the given weigher may be cached.
+    private boolean isCacheable(LinkWeigher weigher) {
+        return pathCacheLimit > 0 && weigher != null && weigher.isCacheable();
+    }
+
+    // Searches for the shortest paths from a source to all destinations.
+    private Result<TopologyVertex, TopologyEdge> searchAll(PathSearchKey key) {
+        return DIJKSTRA.searchAll(graph, key.src, key.weigher, key.maxPaths);
+    }
+
     /**
      * Computes on-demand the k-shortest paths between source and
      * destination devices.
@@ -629,15 +718,15 @@ public class DefaultTopology extends AbstractModel implements Topology {
 
     // Searches for SCC clusters in the network topology graph using Tarjan
     // algorithm.
-    private SccResult<TopologyVertex, TopologyEdge> searchForClusters() {
-        return TARJAN.search(graph, new NoIndirectLinksWeigher());
+    private TopologyClusters searchForClusters() {
+        return TopologyClusters.search(graph, new NoIndirectLinksWeigher());
     }
 
     // Builds the topology clusters and returns the id-cluster bindings.
     private ImmutableMap<ClusterId, TopologyCluster> buildTopologyClusters() {
         ImmutableMap.Builder<ClusterId, TopologyCluster> clusterBuilder =
                 ImmutableMap.builder();
-        SccResult<TopologyVertex, TopologyEdge> results = clusterResults.get();
+        TopologyClusters results = clusterResults.get();
 
         // Extract both vertexes and edges from the results; the lists form
         // pairs along the same index.
@@ -661,7 +750,7 @@ public class DefaultTopology extends AbstractModel implements Topology {
 
     // Finds the vertex whose device id is the lexicographical minimum in the
     // specified set.
-    private TopologyVertex findRoot(Set<TopologyVertex> vertexSet) {
+    private static TopologyVertex findRoot(Set<TopologyVertex> vertexSet) {
         TopologyVertex minVertex = null;
         for (TopologyVertex vertex : vertexSet) {
             if ((minVertex == null) || (vertex.deviceId()
@@ -672,34 +761,43 @@ public class DefaultTopology extends AbstractModel implements Topology {
         return minVertex;
     }
 
-    // Processes a map of broadcast sets for each cluster.
-    private ImmutableSetMultimap<ClusterId, ConnectPoint> buildBroadcastSets() {
-        Builder<ClusterId, ConnectPoint> builder = ImmutableSetMultimap.builder();
-        for (TopologyCluster cluster : clusters.get().values()) {
-            addClusterBroadcastSet(cluster, builder);
+    // Prepares the lazily computed broadcast set of each cluster, reusing the
+    // broadcast sets of the clusters carried over from the previous topology.
+    private ImmutableList<Supplier<ImmutableSet<ConnectPoint>>> buildBroadcastSets(
+            List<Supplier<ImmutableSet<ConnectPoint>>> previousSets) {
+        TopologyClusters results = clusterResults.get();
+        ImmutableList.Builder<Supplier<ImmutableSet<ConnectPoint>>> builder =
+                ImmutableList.builder();
+        for (int i = 0, n = results.clusterCount(); i < n; i++) {
+            int previousIndex = results.previousIndex(i);
+            if (previousSets != null && previousIndex >= 0) {
+                builder.add(previousSets.get(previousIndex));
+            } else {
+                Set<TopologyVertex> vertexSet = results.clusterVertexes().get(i);
+                Set<TopologyEdge> edgeSet = results.clusterEdges().get(i);
+                TopologyVertex root = getCluster(ClusterId.clusterId(i)).root();
+                builder.add(Suppliers.memoize(
+                        () -> findBroadcastSet(vertexSet, edgeSet, root)));
+            }
         }
         return builder.build();
     }
 
     // Finds all broadcast points for the cluster. These are those connection
     // points which lie along the shortest paths between the cluster root and
-    // all other devices within the cluster.
-    private void addClusterBroadcastSet(TopologyCluster cluster,
-                                        Builder<ClusterId, ConnectPoint> builder) {
-        // Use the graph root search results to build the broadcast set.
+    // all other devices within the cluster. Indirect links are heavier than
+    // any path within the cluster, so searching the cluster subgraph alone
+    // yields the same paths as searching the whole graph.
+    private static ImmutableSet<ConnectPoint> findBroadcastSet(Set<TopologyVertex> vertexSet,
+                                                               Set<TopologyEdge> edgeSet,
+                                                               TopologyVertex root) {
+        TopologyGraph clusterGraph = new DefaultTopologyGraph(vertexSet, edgeSet);
+        LinkWeigher weigher = new HopCountLinkWeigher(vertexSet.size());
         Result<TopologyVertex, TopologyEdge> result =
-                DIJKSTRA.search(graph, cluster.root(), null, hopCountWeigher, 1);
-        for (Map.Entry<TopologyVertex, Set<TopologyEdge>> entry :
-                result.parents().entrySet()) {
-            TopologyVertex vertex = entry.getKey();
-
-            // Ignore any parents that lead outside the cluster.
-            if (clustersByDevice().get(vertex.deviceId()) != cluster) {
-                continue;
-            }
-
+                DIJKSTRA.search(clusterGraph, root, null, weigher, 1);
+        ImmutableSet.Builder<ConnectPoint> builder = ImmutableSet.builder();
+        for (Set<TopologyEdge> parents : result.parents().values()) {
             // Ignore any back-link sets that are empty.
-            Set<TopologyEdge> parents = entry.getValue();
             if (parents.isEmpty()) {
                 continue;
             }
@@ -707,9 +805,10 @@ public class DefaultTopology extends AbstractModel implements Topology {
             // Use the first back-link source and destinations to add to the
             // broadcast set.
             Link link = parents.iterator().next().link();
-            builder.put(cluster.id(), link.src());
-            builder.put(cluster.id(), link.dst());
+            builder.add(link.src());
+            builder.add(link.dst());
         }
+        return builder.build();
     }
 
     // Collects and returns an set of all infrastructure link end-points.
@@ -780,6 +879,38 @@ public class DefaultTopology extends AbstractModel implements Topology {
         }
     }
 
+    // Key of the cached shortest path search results.
+    private static final class PathSearchKey {
+        private final TopologyVertex src;
+        private final LinkWeigher weigher;
+        private final int maxPaths;
+
+        private PathSearchKey(TopologyVertex src, LinkWeigher weigher, int maxPaths) {
+            this.src = src;
+            this.weigher = weigher;
+            this.maxPaths = maxPaths;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(src, weigher, maxPaths);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof PathSearchKey) {
+                PathSearchKey that = (PathSearchKey) obj;
+                return Objects.equals(this.src, that.src)
+                        && Objects.equals(this.weigher, that.weigher)
+                        && this.maxPaths == that.maxPaths;
+            }
+            return false;
+        }
+    }
+
     static final class ClusterIndexes {
         final ImmutableMap<DeviceId, TopologyCluster> clustersByDevice;
         final ImmutableSetMultimap<TopologyCluster, DeviceId> devicesByCluster;
@@ -0,0 +1,373 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.common;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.onlab.graph.EdgeWeigher;
+import org.onlab.graph.TarjanGraphSearch;
+import org.onlab.graph.TarjanGraphSearch.SccResult;
+import org.onosproject.net.topology.TopologyEdge;
+import org.onosproject.net.topology.TopologyGraph;
+import org.onosproject.net.topology.TopologyVertex;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Strongly connected clusters of a topology graph.
+ * <p>
+ * The clusters are either searched for in the whole graph, or derived from
+ * the clusters of a previous version of the graph by applying the vertex and
+ * edge changes between the two versions. In the latter case, only the
+ * clusters that lost a vertex or a viable internal edge are searched again,
+ * and clusters are merged only when a viable edge is added between them.
+ * Clusters that are not affected by the changes are carried over, together
+ * with the index of the corresponding cluster in the previous version.
+ */
+final class TopologyClusters {
+
+    private static final TarjanGraphSearch<TopologyVertex, TopologyEdge> TARJAN =
+            new TarjanGraphSearch<>();
+
+    private static final int NONE = -1;
+
+    private final List<Set<TopologyVertex>> clusterVertexes;
+    private final List<Set<TopologyEdge>> clusterEdges;
+    private final int[] previousIndexes;
+    private final Map<TopologyVertex, Integer> vertexIndexes;
+
+    private TopologyClusters(List<Set<TopologyVertex>> clusterVertexes,
+                             List<Set<TopologyEdge>> clusterEdges,
+                             int[] previousIndexes) {
+        this.clusterVertexes = clusterVertexes;
+        this.clusterEdges = clusterEdges;
+        this.previousIndexes = previousIndexes;
+        this.vertexIndexes = indexVertexes(clusterVertexes);
+    }
+
+    /**
+     * Searches for the clusters of the whole graph.
+     *
+     * @param graph   topology graph
+     * @param weigher weigher of the edges that may be traversed
+     * @return topology clusters
+     */
+    static TopologyClusters search(TopologyGraph graph,
+                                   EdgeWeigher<TopologyVertex, TopologyEdge> weigher) {
+        SccResult<TopologyVertex, TopologyEdge> result = TARJAN.search(graph, weigher);
+        int[] previousIndexes = new int[result.clusterCount()];
+        Arrays.fill(previousIndexes, NONE);
+        return new TopologyClusters(result.clusterVertexes(), result.clusterEdges(),
+                                    previousIndexes);
+    }
+
+    /**
+     * Derives the clusters of a graph from the clusters of a previous version
+     * of the graph.
+     *
+     * @param graph            topology graph
+     * @param weigher          weigher of the edges that may be traversed
+     * @param previousGraph    previous version of the topology graph
+     * @param previousClusters clusters of the previous version of the graph
+     * @return topology clusters
+     */
+    static TopologyClusters update(TopologyGraph graph,
+                                   EdgeWeigher<TopologyVertex, TopologyEdge> weigher,
+                                   TopologyGraph previousGraph,
+                                   TopologyClusters previousClusters) {
+        Set<TopologyVertex> vertexes = graph.getVertexes();
+        boolean[] split = new boolean[previousClusters.clusterCount()];
+        Set<TopologyVertex> touched = new HashSet<>();
+
+        // Clusters that lost a vertex need to be searched again.
+        for (TopologyVertex vertex : previousGraph.getVertexes()) {
+            if (!vertexes.contains(vertex)) {
+                split[previousClusters.indexOf(vertex)] = true;
+            }
+        }
+
+        // Edges are equal regardless of the link state, so compare it too.
+        Map<TopologyEdge, TopologyEdge> removedEdges = new HashMap<>();
+        previousGraph.getEdges().forEach(edge -> removedEdges.put(edge, edge));
+        List<TopologyEdge> addedEdges = new ArrayList<>();
+        for (TopologyEdge edge : graph.getEdges()) {
+            TopologyEdge previousEdge = removedEdges.remove(edge);
+            if (previousEdge != null && previousEdge.link().state() == edge.link().state()) {
+                continue;
+            }
+            touched.add(edge.src());
+            touched.add(edge.dst());
+            boolean viable = weigher.weight(edge).isViable();
+            boolean wasViable = previousEdge != null && weigher.weight(previousEdge).isViable();
+            if (viable && !wasViable) {
+                addedEdges.add(edge);
+            } else if (wasViable && !viable) {
+                splitIfInternal(previousEdge, previousClusters, split);
+            }
+        }
+        for (TopologyEdge edge : removedEdges.values()) {
+            touched.add(edge.src());
+            touched.add(edge.dst());
+            if (weigher.weight(edge).isViable()) {
+                splitIfInternal(edge, previousClusters, split);
+            }
+        }
+
+        // Carry over the unaffected clusters and search the split ones again.
+        List<Set<TopologyVertex>> groups = new ArrayList<>();
+        List<Integer> origins = new ArrayList<>();
+        for (int i = 0; i < split.length; i++) {
+            Set<TopologyVertex> clusterVertexes = previousClusters.clusterVertexes.get(i);
+            if (!split[i]) {
+                groups.add(clusterVertexes);
+                origins.add(i);
+                continue;
+            }
+            Set<TopologyVertex> remaining = new HashSet<>(clusterVertexes);
+            remaining.retainAll(vertexes);
+            if (!remaining.isEmpty()) {
+                TopologyGraph subgraph =
+                        new DefaultTopologyGraph(remaining, edgesWithin(graph, remaining));
+                for (Set<TopologyVertex> cluster : TARJAN.search(subgraph, weigher).clusterVertexes()) {
+                    groups.add(cluster);
+                    origins.add(NONE);
+                }
+            }
+        }
+        for (TopologyVertex vertex : vertexes) {
+            if (previousClusters.indexOf(vertex) == null) {
+                groups.add(Collections.singleton(vertex));
+                origins.add(NONE);
+            }
+        }
+
+        // Merge the clusters joined into a cycle by the added edges.
+        Map<TopologyVertex, Integer> groupIndexes = indexVertexes(groups);
+        boolean joined = addedEdges.stream()
+                .anyMatch(edge -> !groupIndexes.get(edge.src()).equals(groupIndexes.get(edge.dst())));
+        if (joined) {
+            merge(graph, weigher, groups, origins, groupIndexes);
+        }
+
+        // Reuse the edges of the clusters not touched by any change.
+        ImmutableList.Builder<Set<TopologyVertex>> vertexesBuilder = ImmutableList.builder();
+        ImmutableList.Builder<Set<TopologyEdge>> edgesBuilder = ImmutableList.builder();
+        int[] previousIndexes = new int[groups.size()];
+        for (int i = 0; i < groups.size(); i++) {
+            Set<TopologyVertex> group = groups.get(i);
+            int origin = origins.get(i);
+            if (origin != NONE && Collections.disjoint(group, touched)) {
+                vertexesBuilder.add(group);
+                edgesBuilder.add(previousClusters.clusterEdges.get(origin));
+                previousIndexes[i] = origin;
+            } else {
+                vertexesBuilder.add(ImmutableSet.copyOf(group));
+                edgesBuilder.add(edgesWithin(graph, group));
+                previousIndexes[i] = NONE;
+            }
+        }
+        return new TopologyClusters(vertexesBuilder.build(), edgesBuilder.build(), previousIndexes);
+    }
+
+    /**
+     * Returns the number of clusters.
+     *
+     * @return number of clusters
+     */
+    int clusterCount() {
+        return clusterVertexes.size();
+    }
+
+    /**
+     * Returns the vertexes of each cluster.
+     *
+     * @return list of cluster vertex sets
+     */
+    List<Set<TopologyVertex>> clusterVertexes() {
+        return clusterVertexes;
+    }
+
+    /**
+     * Returns the edges between the vertexes of each cluster.
+     *
+     * @return list of cluster edge sets
+     */
+    List<Set<TopologyEdge>> clusterEdges() {
+        return clusterEdges;
+    }
+
+    /**
+     * Returns the index of the identical cluster of the previous version of
+     * the graph.
+     *
+     * @param index cluster index
+     * @return previous cluster index or -1 if the cluster has changed
+     */
+    int previousIndex(int index) {
+        return previousIndexes[index];
+    }
+
+    private Integer indexOf(TopologyVertex vertex) {
+        return vertexIndexes.get(vertex);
+    }
+
+    private static void splitIfInternal(TopologyEdge edge, TopologyClusters clusters,
+                                        boolean[] split) {
+        Integer src = clusters.indexOf(edge.src());
+        if (src != null && src.equals(clusters.indexOf(edge.dst()))) {
+            split[src] = true;
+        }
+    }
+
+    // Merges the groups which form strongly connected components of the
+    // graph condensed by group.
+    private static void merge(TopologyGraph graph,
+                              EdgeWeigher<TopologyVertex, TopologyEdge> weigher,
+                              List<Set<TopologyVertex>> groups, List<Integer> origins,
+                              Map<TopologyVertex, Integer> groupIndexes) {
+        List<Set<Integer>> successors = new ArrayList<>(groups.size());
+        for (int i = 0; i < groups.size(); i++) {
+            successors.add(new HashSet<>());
+        }
+        for (TopologyEdge edge : graph.getEdges()) {
+            int src = groupIndexes.get(edge.src());
+            int dst = groupIndexes.get(edge.dst());
+            if (src != dst && weigher.weight(edge).isViable()) {
+                successors.get(src).add(dst);
+            }
+        }
+
+        int[] components = components(successors);
+        Map<Integer, Set<TopologyVertex>> merged = new LinkedHashMap<>();
+        Map<Integer, Integer> mergedOrigins = new HashMap<>();
+        for (int i = 0; i < groups.size(); i++) {
+            Set<TopologyVertex> group = merged.get(components[i]);
+            if (group == null) {
+                merged.put(components[i], groups.get(i));
+                mergedOrigins.put(components[i], origins.get(i));
+            } else {
+                Set<TopologyVertex> union = new HashSet<>(group);
+                union.addAll(groups.get(i));
+                merged.put(components[i], union);
+                mergedOrigins.put(components[i], NONE);
+            }
+        }
+
+        groups.clear();
+        origins.clear();
+        merged.forEach((component, group) -> {
+            groups.add(group);
+            origins.add(mergedOrigins.get(component));
+        });
+    }
+
+    // Finds the strongly connected components of a small graph given by its
+    // adjacency sets, using an iterative version of Tarjan's algorithm.
+    private static int[] components(List<Set<Integer>> successors) {
+        int n = successors.size();
+        int[] index = new int[n];
+        int[] lowLink = new int[n];
+        int[] component = new int[n];
+        boolean[] onStack = new boolean[n];
+        Arrays.fill(index, NONE);
+        Deque<Integer> stack = new ArrayDeque<>();
+        Deque<int[]> calls = new ArrayDeque<>();
+        List<List<Integer>> adjacency = new ArrayList<>(n);
+        successors.forEach(s -> adjacency.add(new ArrayList<>(s)));
+
+        int counter = 0;
+        int components = 0;
+        for (int root = 0; root < n; root++) {
+            if (index[root] != NONE) {
+                continue;
+            }
+            // Each call frame holds the vertex and the next successor position.
+            calls.push(new int[]{root, 0});
+            index[root] = counter;
+            lowLink[root] = counter++;
+            stack.push(root);
+            onStack[root] = true;
+
+            while (!calls.isEmpty()) {
+                int[] frame = calls.peek();
+                int v = frame[0];
+                List<Integer> next = adjacency.get(v);
+                if (frame[1] < next.size()) {
+                    int w = next.get(frame[1]++);
+                    if (index[w] == NONE) {
+                        index[w] = counter;
+                        lowLink[w] = counter++;
+                        stack.push(w);
+                        onStack[w] = true;
+                        calls.push(new int[]{w, 0});
+                    } else if (onStack[w]) {
+                        lowLink[v] = Math.min(lowLink[v], index[w]);
+                    }
+                    continue;
+                }
+
+                calls.pop();
+                if (!calls.isEmpty()) {
+                    int parent = calls.peek()[0];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[v]);
+                }
+                if (lowLink[v] == index[v]) {
+                    int w;
+                    do {
+                        w = stack.pop();
+                        onStack[w] = false;
+                        component[w] = components;
+                    } while (w != v);
+                    components++;
+                }
+            }
+        }
+        return component;
+    }
+
+    // Returns the edges whose both ends are in the given set of vertexes.
+    private static Set<TopologyEdge> edgesWithin(TopologyGraph graph, Set<TopologyVertex> vertexes) {
+        ImmutableSet.Builder<TopologyEdge> edges = ImmutableSet.builder();
+        for (TopologyVertex vertex : vertexes) {
+            for (TopologyEdge edge : graph.getEdgesFrom(vertex)) {
+                if (vertexes.contains(edge.dst())) {
+                    edges.add(edge);
+                }
+            }
+        }
+        return edges.build();
+    }
+
+    private static Map<TopologyVertex, Integer> indexVertexes(List<Set<TopologyVertex>> clusters) {
+        Map<TopologyVertex, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < clusters.size(); i++) {
+            for (TopologyVertex vertex : clusters.get(i)) {
+                indexes.put(vertex, i);
+            }
+        }
+        return indexes;
+    }
+}
@@ -64,7 +64,7 @@ public class DefaultTopologyTest {
     public static final PortNumber P1 = portNumber(1);
     public static final PortNumber P2 = portNumber(2);
 
-    public static final class TestLinkWeigher
+    public static class TestLinkWeigher
             extends DefaultEdgeWeigher<TopologyVertex, TopologyEdge>
             implements LinkWeigher {
         @Override
@@ -74,6 +74,11 @@ public class DefaultTopologyTest {
                     ? 2.0 : HOP_WEIGHT_VALUE;
             return new ScalarWeight(value);
         }
+
+        @Override
+        public boolean isCacheable() {
+            return true;
+        }
     }
     public static final LinkWeigher WEIGHER = new TestLinkWeigher();
 
@@ -128,6 +133,51 @@ public class DefaultTopologyTest {
 
     }
 
+    @Test
+    public void pathCache() {
+        assertEquals("incorrect path count", 2, dt.getPaths(D1, D3).size());
+        assertEquals("incorrect path count", 1, dt.getPaths(D1, D2).size());
+        assertEquals("incorrect path count", 1, dt.getPaths(D1, D3, WEIGHER).size());
+        assertEquals("incorrect path count", 1, dt.getPaths(D1, D3, WEIGHER).size());
+        assertEquals("incorrect cache hit count", 2, dt.pathCacheStats().hitCount());
+        assertEquals("incorrect cache miss count", 2, dt.pathCacheStats().missCount());
+    }
+
+    @Test
+    public void pathCacheSkipsNonCacheableWeigher() {
+        LinkWeigher weigher = new TestLinkWeigher() {
+            @Override
+            public boolean isCacheable() {
+                return false;
+            }
+        };
+        assertEquals("incorrect path count", 1, dt.getPaths(D1, D3, weigher).size());
+        assertEquals("incorrect path count", 1, dt.getPaths(D1, D3, weigher).size());
+        assertEquals("incorrect cache request count", 0, dt.pathCacheStats().requestCount());
+    }
+
+    @Test
+    public void pathCacheSizeFixedAtCreation() {
+        GraphDescription graphDescription =
+                new DefaultGraphDescription(System.nanoTime(), System.currentTimeMillis(),
+                                            of(device("1"), device("2")),
+                                            of(link("1", 1, "2", 1), link("2", 1, "1", 1)));
+        DefaultTopology.setPathCacheSize(0);
+        try {
+            DefaultTopology uncached = new DefaultTopology(PID, graphDescription);
+            assertEquals("incorrect path count", 1, uncached.getPaths(D1, D2).size());
+            assertEquals("incorrect cache request count", 0,
+                         uncached.pathCacheStats().requestCount());
+
+            // topologies created earlier keep their cache
+            assertEquals("incorrect path count", 1, dt.getPaths(D1, D2).size());
+            assertEquals("incorrect path count", 1, dt.getPaths(D1, D2).size());
+            assertEquals("incorrect cache hit count", 1, dt.pathCacheStats().hitCount());
+        } finally {
+            DefaultTopology.setPathCacheSize(DefaultTopology.DEFAULT_PATH_CACHE_SIZE);
+        }
+    }
+
     @Test
     public void pointRelated() {
         assertTrue("should be infrastructure point",
@@ -148,6 +198,82 @@ public class DefaultTopologyTest {
         assertFalse("cluster should not contain D5", devs.contains(D5));
     }
 
+    /**
+     * Tests that topologies derived from a previous topology have the same
+     * clusters as topologies computed from scratch.
+     */
+    @Test
+    public void incrementalUpdates() {
+        Set<Device> devices = of(device("1"), device("2"), device("3"),
+                                 device("4"), device("5"));
+        Set<Link> ring = of(link("1", 1, "2", 1), link("2", 1, "1", 1),
+                            link("3", 2, "2", 2), link("2", 2, "3", 2),
+                            link("1", 3, "4", 3), link("4", 3, "1", 3),
+                            link("3", 4, "4", 4), link("4", 4, "3", 4));
+
+        // Nothing changes; the clusters and broadcast sets are carried over.
+        DefaultTopology same = assertIncremental(dt, devices, ring);
+        assertSame("broadcast set should be reused",
+                   dt.broadcastPoints(C0), same.broadcastPoints(C0));
+
+        // Device 4 gets detached from the ring.
+        Set<Link> detached = of(link("1", 1, "2", 1), link("2", 1, "1", 1),
+                                link("3", 2, "2", 2), link("2", 2, "3", 2),
+                                link("1", 3, "4", 3), link("3", 4, "4", 4));
+        DefaultTopology split = assertIncremental(dt, devices, detached);
+        assertEquals("incorrect cluster count", 3, split.clusterCount());
+
+        // Device 5 joins the ring through device 4.
+        Set<Link> joined = of(link("1", 1, "2", 1), link("2", 1, "1", 1),
+                              link("3", 2, "2", 2), link("2", 2, "3", 2),
+                              link("1", 3, "4", 3), link("4", 3, "1", 3),
+                              link("4", 5, "5", 5), link("5", 5, "4", 5),
+                              link("3", 4, "4", 4), link("4", 4, "3", 4));
+        DefaultTopology merged = assertIncremental(split, devices, joined);
+        assertEquals("incorrect cluster count", 1, merged.clusterCount());
+
+        // Device 2 goes away and a link of the ring becomes inactive.
+        Set<Device> fewer = of(device("1"), device("3"), device("4"), device("5"));
+        Set<Link> inactive = of(link("1", 3, "4", 3), link("4", 3, "1", 3),
+                                link("4", 5, "5", 5), link("5", 5, "4", 5),
+                                link("3", 4, "4", 4),
+                                DefaultLink.builder().providerId(PID)
+                                        .src(new ConnectPoint(did("4"), portNumber(4)))
+                                        .dst(new ConnectPoint(did("3"), portNumber(4)))
+                                        .type(Link.Type.DIRECT)
+                                        .state(Link.State.INACTIVE)
+                                        .build());
+        DefaultTopology shrunk = assertIncremental(merged, fewer, inactive);
+        assertEquals("incorrect cluster count", 2, shrunk.clusterCount());
+    }
+
+    // Derives a topology from the previous one and checks it against the
+    // topology computed from scratch.
+    private static DefaultTopology assertIncremental(DefaultTopology previous,
+                                                     Set<Device> devices,
+                                                     Set<Link> links) {
+        long now = System.currentTimeMillis();
+        GraphDescription description =
+                new DefaultGraphDescription(now, now, devices, links);
+        DefaultTopology expected = new DefaultTopology(PID, description);
+        DefaultTopology actual = new DefaultTopology(PID, description, null, previous);
+
+        assertEquals("incorrect cluster count",
+                     expected.clusterCount(), actual.clusterCount());
+        for (Device device : devices) {
+            TopologyCluster e = expected.getCluster(device.id());
+            TopologyCluster a = actual.getCluster(device.id());
+            assertEquals("incorrect cluster devices",
+                         expected.getClusterDevices(e), actual.getClusterDevices(a));
+            assertEquals("incorrect cluster links",
+                         expected.getClusterLinks(e), actual.getClusterLinks(a));
+            assertEquals("incorrect root node", e.root(), a.root());
+            assertEquals("incorrect broadcast set size",
+                         expected.broadcastSetSize(e.id()), actual.broadcastSetSize(a.id()));
+        }
+        return actual;
+    }
+
     // Short-hand for creating a link.
     public static Link link(String src, int sp, String dst, int dp) {
         return DefaultLink.builder().providerId(PID)
@@ -15,10 +15,16 @@
  */
 package org.onosproject.event.impl;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Dictionary;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TimerTask;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -27,22 +33,38 @@ import java.util.concurrent.TimeUnit;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.apache.felix.scr.annotations.ReferencePolicy;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.SharedExecutors;
+import org.onlab.util.Tools;
+import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.event.AbstractEvent;
 import org.onosproject.event.DefaultEventSinkRegistry;
 import org.onosproject.event.Event;
 import org.onosproject.event.EventDeliveryService;
 import org.onosproject.event.EventSink;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.Link;
+import org.onosproject.net.LinkKey;
 import org.onosproject.net.device.DeviceEvent;
 import org.onosproject.net.flow.FlowRuleEvent;
 import org.onosproject.net.host.HostEvent;
 import org.onosproject.net.intent.IntentEvent;
 import org.onosproject.net.link.LinkEvent;
 import org.onosproject.net.topology.TopologyEvent;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
+import com.codahale.metrics.Gauge;
 import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
@@ -55,6 +77,13 @@ import static org.onosproject.security.AppPermission.Type.EVENT_WRITE;
 import static org.slf4j.LoggerFactory.getLogger;
 /**
  * Simple implementation of an event dispatching service.
+ * <p>
+ * By default, events are dispatched on a topology, a programming and a
+ * default loop, based on their class. In partitioned mode, events are instead
+ * hashed by subject onto a configurable number of loops, preserving the order
+ * of the events of each subject while processing the events of different
+ * subjects in parallel. In that mode a sink, and the listeners it notifies,
+ * may process several events at a time and must therefore be thread-safe.
  */
 @Component(immediate = true)
 @Service
@@ -63,6 +92,28 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
 
     private final Logger log = getLogger(getClass());
 
+    private static final String METRICS_COMPONENT = "EventDispatcher";
+    private static final String QUEUE_DEPTH = "queueDepth";
+
+    private static final int DEFAULT_DISPATCH_PARTITIONS = 0;
+    @Property(name = "dispatchPartitions", intValue = DEFAULT_DISPATCH_PARTITIONS,
+            label = "Number of loops over which events are partitioned by subject; " +
+                    "0 to dispatch events by class. Partitioning requires event " +
+                    "listeners to be thread-safe")
+    private int dispatchPartitions = DEFAULT_DISPATCH_PARTITIONS;
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL_UNARY,
+            bind = "bindComponentConfigService",
+            unbind = "unbindComponentConfigService",
+            policy = ReferencePolicy.DYNAMIC)
+    protected volatile ComponentConfigService cfgService;
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL_UNARY,
+            bind = "bindMetricsService",
+            unbind = "unbindMetricsService",
+            policy = ReferencePolicy.DYNAMIC)
+    protected volatile MetricsService metricsService;
+
 
     private DispatchLoop topologyDispatcher = new DispatchLoop("topology");
     private DispatchLoop programmingDispatcher = new DispatchLoop("programming");
@@ -94,7 +145,43 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
 
     private long maxProcessMillis = DEFAULT_EXECUTE_MS;
 
+    // Marks on a dispatch loop the end of the events it dispatches before a
+    // change of the partitions, or the start of those it dispatches after.
+    @SuppressWarnings("unchecked")
+    private static final class Handover extends AbstractEvent {
+        private final CountDownLatch latch;
+        private final boolean start;
+
+        private Handover(CountDownLatch latch, boolean start) {
+            super(null, 0);
+            this.latch = latch;
+            this.start = start;
+        }
+
+        // Waits for the loops ending before the change, or signals the end
+        // of one of them.
+        private void pass() throws InterruptedException {
+            if (start) {
+                latch.await();
+            } else {
+                latch.countDown();
+            }
+        }
+    }
+
+    private static final Comparator<ConnectPoint> END_POINT_ORDER =
+            Comparator.comparing((ConnectPoint cp) -> cp.deviceId().toString())
+                    .thenComparingLong(cp -> cp.port().toLong());
+
+    // Loops over which events are partitioned; empty unless partitioned mode is enabled.
+    private volatile List<DispatchLoop> partitions = ImmutableList.of();
+
     private DispatchLoop getDispatcher(Event event) {
+        List<DispatchLoop> loops = partitions;
+        if (!loops.isEmpty()) {
+            return loops.get(Math.floorMod(partitionKey(event).hashCode(), loops.size()));
+        }
+
         DispatchLoop dispatcher = dispatcherMap.get(event.getClass());
         if (dispatcher == null) {
             dispatcher = defaultDispatcher;
@@ -102,6 +189,47 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
         return dispatcher;
     }
 
+    /**
+     * Returns the key by which the given event is partitioned. Events relating
+     * to the same device share the device identifier as key, so their relative
+     * order is preserved across event classes. Both directions of a link share
+     * the same key, so that the events of a link and its reverse are ordered.
+     *
+     * @param event event to be dispatched
+     * @return partition key
+     */
+    private static Object partitionKey(Event event) {
+        if (event instanceof DeviceEvent) {
+            return ((DeviceEvent) event).subject().id();
+        } else if (event instanceof LinkEvent) {
+            return canonicalLinkKey(((LinkEvent) event).subject());
+        } else if (event instanceof FlowRuleEvent) {
+            return ((FlowRuleEvent) event).subject().deviceId();
+        } else if (event instanceof HostEvent) {
+            return ((HostEvent) event).subject().id();
+        } else if (event instanceof IntentEvent) {
+            return ((IntentEvent) event).subject().key();
+        } else if (event instanceof TopologyEvent || event.subject() == null) {
+            // Each topology is a distinct subject, but topology events must remain ordered.
+            return event.getClass();
+        }
+        return event.subject();
+    }
+
+    // Key of the link in the direction of its lowest end point.
+    private static LinkKey canonicalLinkKey(Link link) {
+        return END_POINT_ORDER.compare(link.src(), link.dst()) <= 0 ?
+                LinkKey.linkKey(link.src(), link.dst()) :
+                LinkKey.linkKey(link.dst(), link.src());
+    }
+
+    private Set<DispatchLoop> allDispatchers() {
+        return ImmutableSet.<DispatchLoop>builder()
+                .addAll(dispatchers)
+                .addAll(partitions)
+                .build();
+    }
+
     @Override
     public void post(Event event) {
 
@@ -111,22 +239,146 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
     }
 
     @Activate
-    public void activate() {
+    public void activate(ComponentContext context) {
 
         if (maxProcessMillis != 0) {
             dispatchers.forEach(DispatchLoop::startWatchdog);
         }
+        modified(context);
 
         log.info("Started");
     }
 
     @Deactivate
     public void deactivate() {
+        setPartitions(0);
         dispatchers.forEach(DispatchLoop::stop);
+        dispatchers.forEach(this::unregisterMetrics);
 
         log.info("Stopped");
     }
 
+    @Modified
+    public void modified(ComponentContext context) {
+        if (context != null) {
+            Dictionary<?, ?> properties = context.getProperties();
+            Integer newDispatchPartitions = Tools.getIntegerProperty(properties, "dispatchPartitions");
+            if (newDispatchPartitions != null && newDispatchPartitions >= 0) {
+                dispatchPartitions = newDispatchPartitions;
+            } else if (Tools.get(properties, "dispatchPartitions") != null) {
+                log.warn("dispatchPartitions must be a non-negative integer; keeping {}", dispatchPartitions);
+            }
+        }
+
+        if (dispatchPartitions != partitions.size()) {
+            setPartitions(dispatchPartitions);
+            log.info("Settings: dispatchPartitions={}", dispatchPartitions);
+        }
+    }
+
+    /**
+     * Replaces the partitioned dispatch loops. The events already queued on
+     * the replaced loops are dispatched before those loops terminate, and
+     * the loops dispatching the events from now on only start once they
+     * have been, so that events of the same subject are never dispatched
+     * concurrently or out of order across the change.
+     *
+     * @param count number of partitions; 0 to disable partitioned mode
+     */
+    private synchronized void setPartitions(int count) {
+        List<DispatchLoop> oldPartitions = partitions;
+        if (count == 0 && oldPartitions.isEmpty()) {
+            return;
+        }
+        Collection<DispatchLoop> oldLoops = oldPartitions.isEmpty() ? dispatchers : oldPartitions;
+        CountDownLatch handover = new CountDownLatch(oldLoops.size());
+
+        ImmutableList.Builder<DispatchLoop> builder = ImmutableList.builder();
+        for (int i = 0; i < count; i++) {
+            DispatchLoop loop = new DispatchLoop("partition-" + i);
+            loop.add(new Handover(handover, true));
+            if (maxProcessMillis != 0) {
+                loop.startWatchdog();
+            }
+            builder.add(loop);
+        }
+        if (count == 0) {
+            dispatchers.forEach(loop -> loop.add(new Handover(handover, true)));
+        }
+
+        oldPartitions.forEach(this::unregisterMetrics);
+        partitions = builder.build();
+        partitions.forEach(this::registerMetrics);
+        oldLoops.forEach(loop -> loop.add(new Handover(handover, false)));
+        oldPartitions.forEach(DispatchLoop::drain);
+    }
+
+    /**
+     * Hook for wiring up optional reference to a service.
+     *
+     * @param service service being announced
+     */
+    protected void bindComponentConfigService(ComponentConfigService service) {
+        if (cfgService == null) {
+            cfgService = service;
+            service.registerProperties(getClass());
+        }
+    }
+
+    /**
+     * Hook for unwiring optional reference to a service.
+     *
+     * @param service service being withdrawn
+     */
+    protected void unbindComponentConfigService(ComponentConfigService service) {
+        if (cfgService == service) {
+            service.unregisterProperties(getClass(), false);
+            cfgService = null;
+        }
+    }
+
+    /**
+     * Hook for wiring up optional reference to a service.
+     *
+     * @param service service being announced
+     */
+    protected synchronized void bindMetricsService(MetricsService service) {
+        if (metricsService == null) {
+            metricsService = service;
+            allDispatchers().forEach(this::registerMetrics);
+        }
+    }
+
+    /**
+     * Hook for unwiring optional reference to a service.
+     *
+     * @param service service being withdrawn
+     */
+    protected synchronized void unbindMetricsService(MetricsService service) {
+        if (metricsService == service) {
+            allDispatchers().forEach(this::unregisterMetrics);
+            metricsService = null;
+        }
+    }
+
+    private void registerMetrics(DispatchLoop loop) {
+        MetricsService service = metricsService;
+        if (service != null) {
+            MetricsComponent component = service.registerComponent(METRICS_COMPONENT);
+            MetricsFeature feature = component.registerFeature(loop.name);
+            service.registerMetric(component, feature, QUEUE_DEPTH, (Gauge<Integer>) loop::queueDepth);
+        }
+    }
+
+    private void unregisterMetrics(DispatchLoop loop) {
+        MetricsService service = metricsService;
+        if (service != null) {
+            MetricsComponent component = service.registerComponent(METRICS_COMPONENT);
+            MetricsFeature feature = component.registerFeature(loop.name);
+            service.removeMetric(component, feature, QUEUE_DEPTH);
+        }
+    }
+
     @Override
     public void setDispatchTimeLimit(long millis) {
         checkPermission(EVENT_WRITE);
@@ -136,9 +388,9 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
         maxProcessMillis = millis;
 
         if (millis == 0 && oldMillis != 0) {
-            dispatchers.forEach(DispatchLoop::stopWatchdog);
+            allDispatchers().forEach(DispatchLoop::stopWatchdog);
         } else if (millis != 0 && oldMillis == 0) {
-            dispatchers.forEach(DispatchLoop::startWatchdog);
+            allDispatchers().forEach(DispatchLoop::startWatchdog);
         }
     }
 
@@ -152,6 +404,7 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
     private class DispatchLoop implements Runnable {
         private final String name;
         private volatile boolean stopped;
+        private volatile boolean draining;
         private volatile EventSink lastSink;
         // Means to detect long-running sinks
         private final Stopwatch stopwatch = Stopwatch.createUnstarted();
@@ -173,6 +426,10 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
             return eventsQueue.add(event);
         }
 
+        int queueDepth() {
+            return eventsQueue.size();
+        }
+
         @Override
         public void run() {
             stopped = false;
@@ -181,8 +438,12 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
                 try {
                     // Fetch the next event and if it is the kill-pill, bail
                     Event event = eventsQueue.take();
-                    if (event != KILL_PILL) {
+                    if (event instanceof Handover) {
+                        ((Handover) event).pass();
+                    } else if (event != KILL_PILL) {
                         process(event);
+                    } else if (draining) {
+                        break;
                     }
                 } catch (InterruptedException e) {
                     log.warn("Dispatch loop interrupted");
@@ -190,6 +451,14 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
                     log.warn("Error encountered while dispatching event:", e);
                 }
             }
+            if (draining) {
+                // Hand over events posted while the partitions changed
+                List<Event> late = new ArrayList<>();
+                eventsQueue.drainTo(late);
+                late.stream()
+                        .filter(event -> event != KILL_PILL && !(event instanceof Handover))
+                        .forEach(CoreEventDispatcher.this::post);
+            }
             log.info("Dispatch loop({}) terminated", name);
         }
 
@@ -213,6 +482,14 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
             add(KILL_PILL);
         }
 
+        // Stops the loop once the events already queued have been dispatched.
+        void drain() {
+            stopWatchdog();
+            draining = true;
+            add(KILL_PILL);
+            executor.shutdown();
+        }
+
         void restart() {
             dispatchFuture.cancel(true);
             dispatchFuture = executor.submit(this);
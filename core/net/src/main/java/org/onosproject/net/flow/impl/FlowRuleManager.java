@@ -16,6 +16,7 @@
 package org.onosproject.net.flow.impl;
 
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -72,6 +73,7 @@ import java.util.Dictionary;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -295,46 +297,26 @@ public class FlowRuleManager
     public Iterable<FlowRule> getFlowRulesById(ApplicationId id) {
         checkPermission(FLOWRULE_READ);
 
-        Set<FlowRule> flowEntries = Sets.newHashSet();
-        for (Device d : deviceService.getDevices()) {
-            for (FlowEntry flowEntry : store.getFlowEntries(d.id())) {
-                if (flowEntry.appId() == id.id()) {
-                    flowEntries.add(flowEntry);
-                }
-            }
-        }
-        return flowEntries;
+        return ImmutableSet.copyOf(store.getFlowEntriesById(deviceIds(), id));
     }
 
     @Override
     public Iterable<FlowEntry> getFlowEntriesById(ApplicationId id) {
         checkPermission(FLOWRULE_READ);
 
-        Set<FlowEntry> flowEntries = Sets.newHashSet();
-        for (Device d : deviceService.getDevices()) {
-            for (FlowEntry flowEntry : store.getFlowEntries(d.id())) {
-                if (flowEntry.appId() == id.id()) {
-                    flowEntries.add(flowEntry);
-                }
-            }
-        }
-        return flowEntries;
+        return store.getFlowEntriesById(deviceIds(), id);
+    }
+
+    // Identifiers of all the devices
+    private Iterable<DeviceId> deviceIds() {
+        return Iterables.transform(deviceService.getDevices(), Device::id);
     }
 
     @Override
     public Iterable<FlowRule> getFlowRulesByGroupId(ApplicationId appId, short groupId) {
         checkPermission(FLOWRULE_READ);
 
-        Set<FlowRule> matches = Sets.newHashSet();
-        long toLookUp = ((long) appId.id() << 16) | groupId;
-        for (Device d : deviceService.getDevices()) {
-            for (FlowEntry flowEntry : store.getFlowEntries(d.id())) {
-                if ((flowEntry.id().value() >>> 32) == toLookUp) {
-                    matches.add(flowEntry);
-                }
-            }
-        }
-        return matches;
+        return ImmutableSet.copyOf(store.getFlowEntriesByGroupId(deviceIds(), appId, groupId));
     }
 
     @Override
@@ -467,21 +449,19 @@ public class FlowRuleManager
             log.debug("Flow {} is on switch but not in store.", flowRule);
         }
 
-        private void flowAdded(FlowEntry flowEntry) {
-            checkNotNull(flowEntry, FLOW_RULE_NULL);
+        private void flowsAdded(DeviceId deviceId, List<FlowEntry> flowEntries) {
+            if (flowEntries.isEmpty()) {
+                return;
+            }
             checkValidity();
 
-            if (checkRuleLiveness(flowEntry, store.getFlowEntry(flowEntry))) {
-                FlowRuleEvent event = store.addOrUpdateFlowRule(flowEntry);
-                if (event == null) {
-                    log.debug("No flow store event generated.");
-                } else {
-                    log.trace("Flow {} {}", flowEntry, event.type());
-                    post(event);
-                }
-            } else {
-                log.debug("Removing flow rules....");
-                removeFlowRules(flowEntry);
+            List<FlowRuleEvent> events = store.addOrUpdateFlowRules(deviceId, flowEntries);
+            if (events.isEmpty()) {
+                log.debug("No flow store event generated.");
+            }
+            for (FlowRuleEvent event : events) {
+                log.trace("Flow {} {}", event.subject(), event.type());
+                post(event);
             }
         }
 
@@ -538,16 +518,27 @@ public class FlowRuleManager
 
         private void pushFlowMetricsInternal(DeviceId deviceId, Iterable<FlowEntry> flowEntries,
                                              boolean useMissingFlow) {
-            Map<FlowEntry, FlowEntry> storedRules = Maps.newHashMap();
-            store.getFlowEntries(deviceId).forEach(f -> storedRules.put(f, f));
-
-            for (FlowEntry rule : flowEntries) {
+            // Look up the reported rules in the store in a single batch rather than copying the stored entries,
+            // and defer the statistics updates so the store can apply them in a single batch.
+            List<FlowEntry> switchRules = flowEntries instanceof List
+                    ? (List<FlowEntry>) flowEntries : Lists.newArrayList(flowEntries);
+            List<FlowEntry> storedRules = store.getFlowEntries(deviceId, switchRules);
+            List<FlowEntry> liveRules = Lists.newArrayList();
+            int matchedRules = 0;
+            for (int i = 0; i < switchRules.size(); i++) {
+                FlowEntry rule = switchRules.get(i);
+                FlowEntry storedRule = storedRules.get(i);
                 try {
-                    FlowEntry storedRule = storedRules.remove(rule);
                     if (storedRule != null) {
+                        matchedRules++;
                         if (storedRule.exactMatch(rule)) {
                             // we both have the rule, let's update some info then.
-                            flowAdded(rule);
+                            if (checkRuleLiveness(rule, storedRule)) {
+                                liveRules.add(rule);
+                            } else {
+                                log.debug("Removing flow rules....");
+                                removeFlowRules(rule);
+                            }
                         } else {
                             // the two rules are not an exact match - remove the
                             // switch's rule and install our rule
@@ -566,9 +557,21 @@ public class FlowRuleManager
                 }
             }
 
+            try {
+                flowsAdded(deviceId, liveRules);
+            } catch (Exception e) {
+                log.warn("Can't update rules for device {}:{}", deviceId, e);
+            }
+
             // DO NOT reinstall
-            if (useMissingFlow) {
-                for (FlowEntry rule : storedRules.keySet()) {
+            // Stored rules can only be missing from the switch if fewer rules were matched than are in the store.
+            if (useMissingFlow && matchedRules < store.getFlowRuleCount(deviceId)) {
+                Set<FlowEntry> matched = Sets.newHashSetWithExpectedSize(matchedRules);
+                storedRules.stream().filter(Objects::nonNull).forEach(matched::add);
+                for (FlowEntry rule : store.getFlowEntries(deviceId)) {
+                    if (matched.contains(rule)) {
+                        continue;
+                    }
                     try {
                         // there are rules in the store that aren't on the switch
                         log.debug("Adding the rule that is present in store but not on switch : {}", rule);
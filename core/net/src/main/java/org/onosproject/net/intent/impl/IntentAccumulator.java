@@ -25,10 +25,14 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Timer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkArgument;
 
 /**
- * An accumulator for building batches of intent operations. Only one batch should
- * be in process per instance at a time.
+ * An accumulator for building batches of intent operations. Up to a
+ * configurable number of batches may be in process per instance at a time;
+ * the delegate signals the completion of each batch using {@link #ready()}.
  */
 public class IntentAccumulator extends AbstractAccumulator<IntentData> {
 
@@ -42,23 +46,44 @@ public class IntentAccumulator extends AbstractAccumulator<IntentData> {
 
     private final IntentBatchDelegate delegate;
 
-    private volatile boolean ready;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int maxInFlight;
 
     /**
-     * Creates an intent operation accumulator.
+     * Creates an intent operation accumulator with a single batch in
+     * process at a time.
      *
      * @param delegate the intent batch delegate
      */
     protected IntentAccumulator(IntentBatchDelegate delegate) {
+        this(delegate, 1);
+    }
+
+    /**
+     * Creates an intent operation accumulator.
+     *
+     * @param delegate    the intent batch delegate
+     * @param maxInFlight maximum number of batches in process at a time
+     */
+    protected IntentAccumulator(IntentBatchDelegate delegate, int maxInFlight) {
         super(TIMER, DEFAULT_MAX_EVENTS, DEFAULT_MAX_BATCH_MS, DEFAULT_MAX_IDLE_MS);
         this.delegate = delegate;
-        // Assume that the delegate is ready for work at the start
-        ready = true; //TODO validate the assumption that delegate is ready
+        setMaxInFlight(maxInFlight);
+    }
+
+    /**
+     * Sets the maximum number of batches in process at a time.
+     *
+     * @param maxInFlight maximum number of batches; must be positive
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        checkArgument(maxInFlight > 0, "Maximum number of batches must be positive");
+        this.maxInFlight = maxInFlight;
     }
 
     @Override
     public void processItems(List<IntentData> items) {
-        ready = false;
+        inFlight.incrementAndGet();
         delegate.execute(reduce(items));
     }
 
@@ -73,10 +98,13 @@ public class IntentAccumulator extends AbstractAccumulator<IntentData> {
 
     @Override
     public boolean isReady() {
-        return ready;
+        return inFlight.get() < maxInFlight;
     }
 
+    /**
+     * Signals that the delegate has finished processing a batch.
+     */
     public void ready() {
-        ready = true;
+        inFlight.updateAndGet(n -> Math.max(n - 1, 0));
     }
 }
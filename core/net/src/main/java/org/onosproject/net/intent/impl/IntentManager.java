@@ -66,16 +66,15 @@ import java.util.Collection;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static java.util.concurrent.Executors.newFixedThreadPool;
-import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.net.intent.IntentState.*;
 import static org.onosproject.net.intent.constraint.PartialFailureConstraint.intentAllowsPartialFailure;
@@ -116,6 +115,12 @@ public class IntentManager
             label = "Number of worker threads")
     private int numThreads = DEFAULT_NUM_THREADS;
 
+    private static final int DEFAULT_MAX_IN_FLIGHT_BATCHES = 4;
+    @Property(name = "maxInFlightBatches",
+            intValue = DEFAULT_MAX_IN_FLIGHT_BATCHES,
+            label = "Maximum number of intent batches processed concurrently")
+    private int maxInFlightBatches = DEFAULT_MAX_IN_FLIGHT_BATCHES;
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected CoreService coreService;
 
@@ -146,7 +151,6 @@ public class IntentManager
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     private NetworkConfigService networkConfigService;
 
-    private ExecutorService batchExecutor;
     private ExecutorService workerExecutor;
 
     private final CompilerRegistry compilerRegistry = new CompilerRegistry();
@@ -159,7 +163,12 @@ public class IntentManager
     private InstallCoordinator installCoordinator;
     private IdGenerator idGenerator;
 
-    private final IntentAccumulator accumulator = new IntentAccumulator(batchDelegate);
+    private final IntentAccumulator accumulator =
+            new IntentAccumulator(batchDelegate, DEFAULT_MAX_IN_FLIGHT_BATCHES);
+
+    // Last operation in process for each intent key; operations on the same
+    // key in concurrent batches are chained after one another.
+    private final Map<Key, CompletableFuture<Void>> inProcess = new ConcurrentHashMap<>();
 
     @Activate
     public void activate() {
@@ -171,7 +180,6 @@ public class IntentManager
         }
         trackerService.setDelegate(topoDelegate);
         eventDispatcher.addSink(IntentEvent.class, listenerRegistry);
-        batchExecutor = newSingleThreadExecutor(groupedThreads("onos/intent", "batch", log));
         workerExecutor = newFixedThreadPool(numThreads, groupedThreads("onos/intent", "worker-%d", log));
         idGenerator = coreService.getIdGenerator("intent-ids");
         Intent.unbindIdGenerator(idGenerator);
@@ -190,7 +198,6 @@ public class IntentManager
         configService.unregisterProperties(getClass(), false);
         trackerService.unsetDelegate(topoDelegate);
         eventDispatcher.removeSink(IntentEvent.class);
-        batchExecutor.shutdown();
         workerExecutor.shutdown();
         Intent.unbindIdGenerator(idGenerator);
         log.info("Stopped");
@@ -229,6 +236,14 @@ public class IntentManager
             }
             logConfig("Reconfigured number of worker threads");
         }
+
+        s = Tools.get(context.getProperties(), "maxInFlightBatches");
+        int newMaxInFlightBatches = isNullOrEmpty(s) ? maxInFlightBatches : Integer.parseInt(s.trim());
+        if (newMaxInFlightBatches > 0 && newMaxInFlightBatches != maxInFlightBatches) {
+            maxInFlightBatches = newMaxInFlightBatches;
+            accumulator.setMaxInFlight(maxInFlightBatches);
+            log.info("Reconfigured maximum number of in-flight batches to {}", maxInFlightBatches);
+        }
     }
 
     private void logConfig(String prefix) {
@@ -513,54 +528,59 @@ public class IntentManager
             log.debug("Execute {} operation(s).", operations.size());
             log.trace("Execute operations: {}", operations);
 
-            // batchExecutor is single-threaded, so only one batch is in flight at a time
-            CompletableFuture.runAsync(() -> {
-                // process intent until the phase reaches one of the final phases
-                List<CompletableFuture<IntentData>> futures = operations.stream()
-                        .map(data -> {
-                            log.debug("Start processing of {} {}@{}", data.request(), data.key(), data.version());
-                            return data;
-                        })
-                        .map(x -> CompletableFuture.completedFuture(x)
-                                .thenApply(IntentManager.this::createInitialPhase)
-                                .thenApplyAsync(IntentProcessPhase::process, workerExecutor)
-                                .thenApply(FinalIntentProcessPhase::data)
-                                .exceptionally(e -> {
-                                    // When the future fails, we update the Intent to simulate the failure of
-                                    // the installation/withdrawal phase and we save in the current map. In
-                                    // the next round the CleanUp Thread will pick this Intent again.
-                                    log.warn("Future failed", e);
-                                    log.warn("Intent {} - state {} - request {}",
-                                             x.key(), x.state(), x.request());
-                                    switch (x.state()) {
-                                        case INSTALL_REQ:
-                                        case INSTALLING:
-                                        case WITHDRAW_REQ:
-                                        case WITHDRAWING:
-                                            // TODO should we swtich based on current
-                                            IntentData current = store.getIntentData(x.key());
-                                            return IntentData.nextState(current, FAILED);
-                                        default:
-                                            return null;
-                                    }
-                                }))
-                        .collect(Collectors.toList());
-
-                // write multiple data to store in order
-                store.batchWrite(Tools.allOf(futures).join().stream()
-                                         .filter(Objects::nonNull)
-                                         .collect(Collectors.toList()));
-            }, batchExecutor).exceptionally(e -> {
-                log.error("Error submitting batches:", e);
-                // FIXME incomplete Intents should be cleaned up
-                //       (transition to FAILED, etc.)
-
-                // the batch has failed
-                // TODO: maybe we should do more?
-                log.error("Walk the plank, matey...");
-                return null;
-            }).thenRun(accumulator::ready);
+            // Several batches may be in flight; the batch is done once each
+            // of its intents has been processed and written to the store.
+            List<CompletableFuture<Void>> futures = operations.stream()
+                    .map(this::process)
+                    .collect(Collectors.toList());
+            Tools.allOf(futures).whenComplete((result, error) -> accumulator.ready());
+        }
 
+        // Processes the intent after any operation in process on the same
+        // key, until the phase reaches one of the final phases, and then
+        // writes the result to the store.
+        private CompletableFuture<Void> process(IntentData data) {
+            log.debug("Start processing of {} {}@{}", data.request(), data.key(), data.version());
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            CompletableFuture<Void> previous = inProcess.put(data.key(), done);
+            CompletableFuture<Void> start = previous != null ? previous : CompletableFuture.completedFuture(null);
+
+            start.thenApplyAsync(v -> createInitialPhase(data), workerExecutor)
+                    .thenApply(IntentProcessPhase::process)
+                    .thenApply(FinalIntentProcessPhase::data)
+                    .exceptionally(e -> {
+                        // When the future fails, we update the Intent to simulate the failure of
+                        // the installation/withdrawal phase and we save in the current map. In
+                        // the next round the CleanUp Thread will pick this Intent again.
+                        log.warn("Future failed", e);
+                        log.warn("Intent {} - state {} - request {}",
+                                 data.key(), data.state(), data.request());
+                        switch (data.state()) {
+                            case INSTALL_REQ:
+                            case INSTALLING:
+                            case WITHDRAW_REQ:
+                            case WITHDRAWING:
+                                // TODO should we swtich based on current
+                                IntentData current = store.getIntentData(data.key());
+                                return IntentData.nextState(current, FAILED);
+                            default:
+                                return null;
+                        }
+                    })
+                    .thenAccept(result -> {
+                        // write each result as soon as it is ready
+                        if (result != null) {
+                            store.write(result);
+                        }
+                    })
+                    .whenComplete((result, error) -> {
+                        if (error != null) {
+                            log.error("Error processing intent {}", data.key(), error);
+                        }
+                        inProcess.remove(data.key(), done);
+                        done.complete(null);
+                    });
+            return done;
         }
     }
 
@@ -15,9 +15,9 @@
  */
 package org.onosproject.net.intent.impl;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.SetMultimap;
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
@@ -25,6 +25,9 @@ import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.ReferencePolicy;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onosproject.event.Event;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.ElementId;
@@ -57,6 +60,7 @@ import org.onosproject.net.topology.TopologyListener;
 import org.onosproject.net.topology.TopologyService;
 import org.slf4j.Logger;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -69,7 +73,6 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.collect.Multimaps.synchronizedSetMultimap;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static org.onlab.util.Tools.groupedThreads;
@@ -91,12 +94,18 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
 
     private final Logger log = getLogger(getClass());
 
-    private final SetMultimap<LinkKey, Key> intentsByLink =
-            //TODO this could be slow as a point of synchronization
-            synchronizedSetMultimap(HashMultimap.<LinkKey, Key>create());
+    private static final String METRICS_COMPONENT = "ObjectiveTracker";
+    private static final String METRICS_FEATURE = "index";
+    private static final String TRACKED_LINKS = "trackedLinks";
+    private static final String TRACKED_ELEMENTS = "trackedElements";
+    private static final String RECOMPILE_FAN_OUT = "recompileFanOut";
 
-    private final SetMultimap<ElementId, Key> intentsByDevice =
-            synchronizedSetMultimap(HashMultimap.<ElementId, Key>create());
+    private final TrackedResourceIndex<LinkKey> intentsByLink = new TrackedResourceIndex<>();
+
+    private final TrackedResourceIndex<ElementId> intentsByDevice = new TrackedResourceIndex<>();
+
+    // Number of intents to recompile for each topology, device or host change
+    private final Histogram recompileFanOut = new Histogram(new ExponentiallyDecayingReservoir());
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected TopologyService topologyService;
@@ -119,6 +128,12 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected WorkPartitionService partitionService;
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL_UNARY,
+            bind = "bindMetricsService",
+            unbind = "unbindMetricsService",
+            policy = ReferencePolicy.DYNAMIC)
+    protected volatile MetricsService metricsService;
+
     private ExecutorService executorService =
             newSingleThreadExecutor(groupedThreads("onos/intent", "objectivetracker", log));
     private ScheduledExecutorService executor =
@@ -156,6 +171,40 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
         }
     }
 
+    /**
+     * Hook for wiring up optional reference to a service.
+     *
+     * @param service service being announced
+     */
+    protected synchronized void bindMetricsService(MetricsService service) {
+        if (metricsService == null) {
+            metricsService = service;
+            MetricsComponent component = service.registerComponent(METRICS_COMPONENT);
+            MetricsFeature feature = component.registerFeature(METRICS_FEATURE);
+            service.registerMetric(component, feature, TRACKED_LINKS,
+                                   (Gauge<Integer>) intentsByLink::size);
+            service.registerMetric(component, feature, TRACKED_ELEMENTS,
+                                   (Gauge<Integer>) intentsByDevice::size);
+            service.registerMetric(component, feature, RECOMPILE_FAN_OUT, recompileFanOut);
+        }
+    }
+
+    /**
+     * Hook for unwiring optional reference to a service.
+     *
+     * @param service service being withdrawn
+     */
+    protected synchronized void unbindMetricsService(MetricsService service) {
+        if (metricsService == service) {
+            MetricsComponent component = service.registerComponent(METRICS_COMPONENT);
+            MetricsFeature feature = component.registerFeature(METRICS_FEATURE);
+            service.removeMetric(component, feature, TRACKED_LINKS);
+            service.removeMetric(component, feature, TRACKED_ELEMENTS);
+            service.removeMetric(component, feature, RECOMPILE_FAN_OUT);
+            metricsService = null;
+        }
+    }
+
     @Activate
     public void activate() {
         topologyService.addListener(listener);
@@ -206,25 +255,60 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
     @Override
     public void addTrackedResources(Key intentKey,
                                     Collection<NetworkResource> resources) {
-        for (NetworkResource resource : resources) {
-            if (resource instanceof Link) {
-                intentsByLink.put(linkKey((Link) resource), intentKey);
-            } else if (resource instanceof ElementId) {
-                intentsByDevice.put((ElementId) resource, intentKey);
-            }
-        }
+        List<LinkKey> links = new ArrayList<>();
+        List<ElementId> elements = new ArrayList<>();
+        splitResources(resources, links, elements);
+        intentsByLink.addAll(intentKey, links);
+        intentsByDevice.addAll(intentKey, elements);
     }
 
     @Override
     public void removeTrackedResources(Key intentKey,
                                        Collection<NetworkResource> resources) {
+        List<LinkKey> links = new ArrayList<>();
+        List<ElementId> elements = new ArrayList<>();
+        splitResources(resources, links, elements);
+        intentsByLink.removeAll(intentKey, links);
+        intentsByDevice.removeAll(intentKey, elements);
+    }
+
+    // Sorts the resources into the links and elements to be indexed.
+    private static void splitResources(Collection<NetworkResource> resources,
+                                       List<LinkKey> links, List<ElementId> elements) {
         for (NetworkResource resource : resources) {
             if (resource instanceof Link) {
-                intentsByLink.remove(linkKey((Link) resource), intentKey);
+                links.add(linkKey((Link) resource));
             } else if (resource instanceof ElementId) {
-                intentsByDevice.remove(resource, intentKey);
+                elements.add((ElementId) resource);
+            }
+        }
+    }
+
+    /**
+     * Returns the intents affected by the given topology change reasons,
+     * looked up in a single pass over the links changed by the reasons.
+     *
+     * @param reasons topology change reasons
+     * @return keys of the affected intents
+     */
+    Set<Key> affectedIntents(List<Event> reasons) {
+        Set<LinkKey> links = new HashSet<>();
+        for (Event reason : reasons) {
+            if (reason instanceof LinkEvent) {
+                links.add(linkKey(((LinkEvent) reason).subject()));
             }
         }
+        return intentsByLink.getAll(links);
+    }
+
+    /**
+     * Returns the distribution of the number of intents to recompile for
+     * each change.
+     *
+     * @return recompilation fan-out histogram
+     */
+    Histogram recompileFanOut() {
+        return recompileFanOut;
     }
 
     @Override
@@ -243,7 +327,7 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
         if (log.isTraceEnabled()) {
             log.trace("intent {}, old: {}, new: {}, installableCount: {}, resourceCount: {}",
                       key,
-                      intentsByDevice.values().contains(key),
+                      intentsByDevice.contains(key),
                       isLocal && isInstalled,
                       installables.size(),
                       intent.resources().size() +
@@ -257,17 +341,15 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
 
         // FIXME Intents will be added 3 times (once directly using addTracked,
         //       then when installing and when installed)
+        List<NetworkResource> resources = new ArrayList<>(intent.resources());
+        for (Intent installable : installables) {
+            resources.addAll(installable.resources());
+        }
         if (isLocal && isInstalled) {
-            addTrackedResources(key, intent.resources());
-            for (Intent installable : installables) {
-                addTrackedResources(key, installable.resources());
-            }
+            addTrackedResources(key, resources);
             // FIXME check all resources against current topo service(s); recompile if necessary
         } else {
-            removeTrackedResources(key, intent.resources());
-            for (Intent installable : installables) {
-                removeTrackedResources(key, installable.resources());
-            }
+            removeTrackedResources(key, resources);
         }
     }
 
@@ -299,21 +381,17 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
                 delegate.triggerCompile(Collections.emptySet(), true);
 
             } else {
-                Set<Key> intentsToRecompile = new HashSet<>();
-                boolean dontRecompileAllFailedIntents = true;
+                // Accrue all intents that need to be recompiled in one pass
+                // over the links of the reasons.
+                Set<Key> intentsToRecompile = affectedIntents(event.reasons());
+                recompileFanOut.update(intentsToRecompile.size());
+                log.debug("recompile triggered by {} reasons for {} intents",
+                          event.reasons().size(), intentsToRecompile.size());
 
-                // Scan through the list of reasons and keep accruing all
-                // intents that need to be recompiled.
+                boolean dontRecompileAllFailedIntents = true;
                 for (Event reason : event.reasons()) {
                     if (reason instanceof LinkEvent) {
                         LinkEvent linkEvent = (LinkEvent) reason;
-                        final LinkKey linkKey = linkKey(linkEvent.subject());
-                        synchronized (intentsByLink) {
-                            Set<Key> intentKeys = intentsByLink.get(linkKey);
-                            log.debug("recompile triggered by LinkEvent {} ({}) for {}",
-                                    linkKey, linkEvent.type(), intentKeys);
-                            intentsToRecompile.addAll(intentKeys);
-                        }
                         dontRecompileAllFailedIntents = dontRecompileAllFailedIntents &&
                                 (linkEvent.type() == LINK_REMOVED ||
                                 (linkEvent.type() == LINK_UPDATED &&
@@ -364,10 +442,8 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
 
             // TODO should we recompile on available==true?
 
-            final ImmutableSet<Key> snapshot;
-            synchronized (intentsByDevice) {
-                snapshot = ImmutableSet.copyOf(intentsByDevice.get(id));
-            }
+            Set<Key> snapshot = intentsByDevice.get(id);
+            recompileFanOut.update(snapshot.size());
             delegate.triggerCompile(snapshot, available);
         }
     }
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.intent.impl;
+
+import com.google.common.collect.ImmutableSet;
+import org.onosproject.net.intent.Key;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Concurrent inverted index of the intents tracking each network resource.
+ * <p>
+ * Updates of different resources do not contend with one another and
+ * lookups never block; each update of a resource is atomic with respect to
+ * the other updates of the same resource, and the entry of a resource is
+ * dropped once no intent tracks it any longer.
+ *
+ * @param <R> type of the indexed resources
+ */
+final class TrackedResourceIndex<R> {
+
+    private final ConcurrentMap<R, Set<Key>> index = new ConcurrentHashMap<>();
+
+    /**
+     * Adds the given intent to the intents tracking each of the resources.
+     *
+     * @param key       intent key
+     * @param resources resources tracked by the intent
+     */
+    void addAll(Key key, Collection<? extends R> resources) {
+        for (R resource : resources) {
+            index.compute(resource, (r, keys) -> {
+                Set<Key> set = keys != null ? keys : ConcurrentHashMap.newKeySet();
+                set.add(key);
+                return set;
+            });
+        }
+    }
+
+    /**
+     * Removes the given intent from the intents tracking each of the
+     * resources.
+     *
+     * @param key       intent key
+     * @param resources resources no longer tracked by the intent
+     */
+    void removeAll(Key key, Collection<? extends R> resources) {
+        for (R resource : resources) {
+            index.computeIfPresent(resource, (r, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    /**
+     * Returns a snapshot of the intents tracking the given resource.
+     *
+     * @param resource resource
+     * @return keys of the tracking intents
+     */
+    Set<Key> get(R resource) {
+        Set<Key> keys = index.get(resource);
+        return keys != null ? ImmutableSet.copyOf(keys) : ImmutableSet.of();
+    }
+
+    /**
+     * Returns the intents tracking any of the given resources, computed in a
+     * single pass over the resources.
+     *
+     * @param resources resources
+     * @return keys of the tracking intents
+     */
+    Set<Key> getAll(Collection<? extends R> resources) {
+        Set<Key> result = new HashSet<>();
+        for (R resource : resources) {
+            Set<Key> keys = index.get(resource);
+            if (keys != null) {
+                result.addAll(keys);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns whether the given intent tracks any resource; this requires a
+     * scan of the whole index.
+     *
+     * @param key intent key
+     * @return true if the intent tracks a resource
+     */
+    boolean contains(Key key) {
+        return index.values().stream().anyMatch(keys -> keys.contains(key));
+    }
+
+    /**
+     * Returns the number of tracked resources.
+     *
+     * @return number of resources
+     */
+    int size() {
+        return index.size();
+    }
+}
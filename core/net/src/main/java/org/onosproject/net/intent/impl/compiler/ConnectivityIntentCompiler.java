@@ -58,6 +58,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -345,6 +346,7 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
     protected class ConstraintBasedLinkWeigher extends DefaultEdgeWeigher<TopologyVertex, TopologyEdge>
             implements LinkWeigher {
 
+        // constraints contributing to the weight of links
         private final List<Constraint> constraints;
 
         /**
@@ -357,7 +359,10 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
             if (constraints == null) {
                 this.constraints = Collections.emptyList();
             } else {
-                this.constraints = ImmutableList.copyOf(constraints);
+                this.constraints = constraints.stream()
+                        .filter(c -> !(c instanceof MarkerConstraint))
+                        .filter(c -> !(c instanceof PathViabilityConstraint))
+                        .collect(ImmutableList.toImmutableList());
             }
         }
 
@@ -366,10 +371,7 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
 
             // iterate over all constraints in order and return the weight of
             // the first one with fast fail over the first failure
-            Iterator<Constraint> it = constraints.stream()
-                    .filter(c -> !(c instanceof MarkerConstraint))
-                    .filter(c -> !(c instanceof PathViabilityConstraint))
-                    .iterator();
+            Iterator<Constraint> it = constraints.iterator();
 
             if (!it.hasNext()) {
                 return DEFAULT_HOP_WEIGHT;
@@ -385,6 +387,30 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
             return ScalarWeight.toWeight(cost);
 
         }
+
+        // Without constraints all links weigh the same, whereas constraint
+        // costs may depend on the availability of resources.
+        @Override
+        public boolean isCacheable() {
+            return constraints.isEmpty();
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(getClass(), constraints);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            ConstraintBasedLinkWeigher that = (ConstraintBasedLinkWeigher) obj;
+            return Objects.equals(this.constraints, that.constraints);
+        }
     }
 
 }
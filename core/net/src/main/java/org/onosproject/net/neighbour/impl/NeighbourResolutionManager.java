@@ -29,10 +29,13 @@ import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
 import org.onlab.packet.Ethernet;
+import org.onlab.packet.EthernetView;
 import org.onlab.packet.ICMP6;
 import org.onlab.packet.IPv6;
+import org.onlab.packet.IPv6View;
 import org.onlab.packet.IpAddress;
 import org.onlab.packet.MacAddress;
+import org.onlab.packet.TransportView;
 import org.onlab.packet.VlanId;
 import org.onlab.util.Tools;
 import org.onosproject.cfg.ComponentConfigService;
@@ -453,26 +456,46 @@ public class NeighbourResolutionManager implements NeighbourResolutionService {
                 return;
             }
 
+            // Use the header view if possible, so that only the neighbour
+            // messages are fully parsed
             InboundPacket pkt = context.inPacket();
-            Ethernet ethPkt = pkt.parsed();
+            EthernetView view = pkt.headerView();
+            if (view != null ? isNeighbourMessage(view) : isNeighbourMessage(pkt.parsed())) {
+                handlePacket(context);
+            }
+        }
+
+        private boolean isNeighbourMessage(EthernetView view) {
+            if (view.etherType() == TYPE_ARP) {
+                return true;
+            }
+            IPv6View ipv6 = view.ipv6();
+            if (ipv6 != null && ipv6.nextHeader() == PROTOCOL_ICMP6) {
+                TransportView icmp6 = ipv6.transport();
+                return icmp6 != null && (icmp6.icmpType() == NEIGHBOR_SOLICITATION ||
+                        icmp6.icmpType() == NEIGHBOR_ADVERTISEMENT);
+            }
+            return false;
+        }
+
+        private boolean isNeighbourMessage(Ethernet ethPkt) {
             if (ethPkt == null) {
-                return;
+                return false;
             }
 
             if (ethPkt.getEtherType() == TYPE_ARP) {
                 // handle ARP packets
-                handlePacket(context);
+                return true;
             } else if (ethPkt.getEtherType() == TYPE_IPV6) {
                 IPv6 ipv6 = (IPv6) ethPkt.getPayload();
                 if (ipv6.getNextHeader() == IPv6.PROTOCOL_ICMP6) {
                     ICMP6 icmp6 = (ICMP6) ipv6.getPayload();
-                    if (icmp6.getIcmpType() == NEIGHBOR_SOLICITATION ||
-                            icmp6.getIcmpType() == NEIGHBOR_ADVERTISEMENT) {
-                        // handle ICMPv6 solicitations and advertisements (NDP)
-                        handlePacket(context);
-                    }
+                    // handle ICMPv6 solicitations and advertisements (NDP)
+                    return icmp6.getIcmpType() == NEIGHBOR_SOLICITATION ||
+                            icmp6.getIcmpType() == NEIGHBOR_ADVERTISEMENT;
                 }
             }
+            return false;
         }
     }
 }
@@ -34,6 +34,7 @@ import org.onosproject.net.device.DeviceListener;
 import org.onosproject.net.device.DeviceService;
 import org.onosproject.net.driver.Driver;
 import org.onosproject.net.driver.DriverService;
+import org.onosproject.net.flow.DefaultTrafficSelector;
 import org.onosproject.net.flow.DefaultTrafficTreatment;
 import org.onosproject.net.flow.TrafficSelector;
 import org.onosproject.net.flow.TrafficTreatment;
@@ -65,6 +66,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.onlab.util.Tools.groupedThreads;
@@ -117,6 +119,11 @@ public class PacketManager
 
     private final List<ProcessorEntry> processors = Lists.newCopyOnWriteArrayList();
 
+    private volatile PacketProcessorIndex<ProcessorEntry> processorIndex =
+            PacketProcessorIndex.build(ImmutableList.of(), ProcessorEntry::selector);
+
+    private final LongAdder packets = new LongAdder();
+
     private final PacketDriverProvider defaultProvider = new PacketDriverProvider();
 
     private ApplicationId appId;
@@ -161,18 +168,28 @@ public class PacketManager
 
     @Override
     public void addProcessor(PacketProcessor processor, int priority) {
+        addProcessor(processor, priority, DefaultTrafficSelector.emptySelector());
+    }
+
+    @Override
+    public void addProcessor(PacketProcessor processor, int priority, TrafficSelector selector) {
         checkPermission(PACKET_EVENT);
         checkNotNull(processor, ERROR_NULL_PROCESSOR);
-        ProcessorEntry entry = new ProcessorEntry(processor, priority);
-
-        // Insert the new processor according to its priority.
-        int i = 0;
-        for (; i < processors.size(); i++) {
-            if (priority < processors.get(i).priority()) {
-                break;
+        checkNotNull(selector, ERROR_NULL_SELECTOR);
+        PacketProcessorIndex.checkSelector(selector);
+        ProcessorEntry entry = new ProcessorEntry(processor, priority, selector);
+
+        synchronized (processors) {
+            // Insert the new processor according to its priority.
+            int i = 0;
+            for (; i < processors.size(); i++) {
+                if (priority < processors.get(i).priority()) {
+                    break;
+                }
             }
+            processors.add(i, entry);
+            processorIndex = PacketProcessorIndex.build(processors, ProcessorEntry::selector);
         }
-        processors.add(i, entry);
     }
 
     @Override
@@ -180,12 +197,15 @@ public class PacketManager
         checkPermission(PACKET_EVENT);
         checkNotNull(processor, ERROR_NULL_PROCESSOR);
 
-        // Remove the processor entry.
-        for (int i = 0; i < processors.size(); i++) {
-            if (processors.get(i).processor() == processor) {
-                processors.remove(i);
-                break;
+        synchronized (processors) {
+            // Remove the processor entry.
+            for (int i = 0; i < processors.size(); i++) {
+                if (processors.get(i).processor() == processor) {
+                    processors.remove(i);
+                    break;
+                }
             }
+            processorIndex = PacketProcessorIndex.build(processors, ProcessorEntry::selector);
         }
     }
 
@@ -397,25 +417,28 @@ public class PacketManager
 
         @Override
         public void processPacket(PacketContext context) {
-            // TODO filter packets sent to processors based on registrations
-            for (ProcessorEntry entry : processors) {
-                try {
-                    if (log.isTraceEnabled()) {
-                        log.trace("Starting packet processing by {}",
-                                entry.processor().getClass().getName());
-                    }
+            packets.increment();
+            processorIndex.forEachMatch(context, entry -> process(entry, context));
+        }
 
-                    long start = System.nanoTime();
-                    entry.processor().process(context);
-                    entry.addNanos(System.nanoTime() - start);
+        private void process(ProcessorEntry entry, PacketContext context) {
+            try {
+                if (log.isTraceEnabled()) {
+                    log.trace("Starting packet processing by {}",
+                            entry.processor().getClass().getName());
+                }
 
-                    if (log.isTraceEnabled()) {
-                        log.trace("Finished packet processing by {}",
-                                entry.processor().getClass().getName());
-                    }
-                } catch (Exception e) {
-                    log.warn("Packet processor {} threw an exception", entry.processor(), e);
+                entry.addHit();
+                long start = System.nanoTime();
+                entry.processor().process(context);
+                entry.addNanos(System.nanoTime() - start);
+
+                if (log.isTraceEnabled()) {
+                    log.trace("Finished packet processing by {}",
+                            entry.processor().getClass().getName());
                 }
+            } catch (Exception e) {
+                log.warn("Packet processor {} threw an exception", entry.processor(), e);
             }
         }
 
@@ -506,12 +529,17 @@ public class PacketManager
     private class ProcessorEntry implements PacketProcessorEntry {
         private final PacketProcessor processor;
         private final int priority;
+        private final TrafficSelector selector;
+        private final long packetsOnAdd;
         private long invocations = 0;
         private long nanos = 0;
+        private long hits = 0;
 
-        public ProcessorEntry(PacketProcessor processor, int priority) {
+        public ProcessorEntry(PacketProcessor processor, int priority, TrafficSelector selector) {
             this.processor = processor;
             this.priority = priority;
+            this.selector = selector;
+            this.packetsOnAdd = packets.sum();
         }
 
         @Override
@@ -524,6 +552,11 @@ public class PacketManager
             return priority;
         }
 
+        @Override
+        public TrafficSelector selector() {
+            return selector;
+        }
+
         @Override
         public long invocations() {
             return invocations;
@@ -539,6 +572,21 @@ public class PacketManager
             return invocations > 0 ? nanos / invocations : 0;
         }
 
+        @Override
+        public long hits() {
+            return hits;
+        }
+
+        @Override
+        public long skips() {
+            // Packets are counted before being dispatched, so a packet being dispatched may not be a hit yet.
+            return Math.max(packets.sum() - packetsOnAdd - hits, 0);
+        }
+
+        void addHit() {
+            this.hits++;
+        }
+
         void addNanos(long nanos) {
             this.nanos += nanos;
             this.invocations++;
@@ -0,0 +1,294 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.packet.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.EthernetView;
+import org.onlab.packet.IPv4;
+import org.onlab.packet.IPv6;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.flow.TrafficSelector;
+import org.onosproject.net.flow.criteria.Criterion;
+import org.onosproject.net.flow.criteria.EthTypeCriterion;
+import org.onosproject.net.flow.criteria.IPProtocolCriterion;
+import org.onosproject.net.flow.criteria.PortCriterion;
+import org.onosproject.net.packet.InboundPacket;
+import org.onosproject.net.packet.PacketContext;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Decision index used to dispatch packets only to the processors whose
+ * selector matches them.
+ * <p>
+ * The processors are numbered by their position in the processing order.
+ * For each supported criterion, the index maps every value used by a
+ * selector to the set of processors that either match that value or do not
+ * constrain the criterion; values not used by any selector map to the
+ * processors that do not constrain the criterion. The processors matching a
+ * packet are the intersection of the sets for the packet's values.
+ *
+ * @param <E> type of the indexed processor entries
+ */
+final class PacketProcessorIndex<E> {
+
+    /**
+     * Criteria supported in packet processor selectors.
+     */
+    static final Set<Criterion.Type> SUPPORTED_CRITERIA =
+            EnumSet.of(Criterion.Type.ETH_TYPE, Criterion.Type.IP_PROTO, Criterion.Type.IN_PORT);
+
+    private static final int NONE = -1;
+
+    private final List<E> entries;
+    private final IntDimension ethTypes;
+    private final IntDimension ipProtos;
+    private final PortDimension inPorts;
+
+    private PacketProcessorIndex(List<E> entries, IntDimension ethTypes,
+                                 IntDimension ipProtos, PortDimension inPorts) {
+        this.entries = entries;
+        this.ethTypes = ethTypes;
+        this.ipProtos = ipProtos;
+        this.inPorts = inPorts;
+    }
+
+    /**
+     * Checks that the given selector only uses supported criteria.
+     *
+     * @param selector packet processor selector
+     * @throws IllegalArgumentException if the selector uses unsupported criteria
+     */
+    static void checkSelector(TrafficSelector selector) {
+        for (Criterion criterion : selector.criteria()) {
+            checkArgument(SUPPORTED_CRITERIA.contains(criterion.type()),
+                          "Unsupported packet processor criterion %s", criterion.type());
+        }
+    }
+
+    /**
+     * Builds the decision index of the given processor entries.
+     *
+     * @param entries  processor entries in processing order
+     * @param selector function returning the selector of an entry
+     * @param <E>      type of the processor entries
+     * @return decision index
+     */
+    static <E> PacketProcessorIndex<E> build(List<E> entries, Function<E, TrafficSelector> selector) {
+        int words = (entries.size() + Long.SIZE - 1) / Long.SIZE;
+        IntDimension.Builder ethTypes = new IntDimension.Builder(words);
+        IntDimension.Builder ipProtos = new IntDimension.Builder(words);
+        PortDimension.Builder inPorts = new PortDimension.Builder(words);
+
+        for (int i = 0; i < entries.size(); i++) {
+            TrafficSelector entrySelector = selector.apply(entries.get(i));
+            EthTypeCriterion ethType =
+                    (EthTypeCriterion) entrySelector.getCriterion(Criterion.Type.ETH_TYPE);
+            IPProtocolCriterion ipProto =
+                    (IPProtocolCriterion) entrySelector.getCriterion(Criterion.Type.IP_PROTO);
+            PortCriterion inPort =
+                    (PortCriterion) entrySelector.getCriterion(Criterion.Type.IN_PORT);
+            ethTypes.add(i, ethType != null ? Short.toUnsignedInt(ethType.ethType().toShort()) : NONE);
+            ipProtos.add(i, ipProto != null ? ipProto.protocol() : NONE);
+            inPorts.add(i, inPort != null ? inPort.port() : null);
+        }
+        return new PacketProcessorIndex<>(ImmutableList.copyOf(entries),
+                                          ethTypes.build(), ipProtos.build(), inPorts.build());
+    }
+
+    /**
+     * Returns the indexed processor entries.
+     *
+     * @return processor entries in processing order
+     */
+    List<E> entries() {
+        return entries;
+    }
+
+    /**
+     * Applies the given action to the entries whose selector matches the
+     * packet, in processing order.
+     *
+     * @param context packet context
+     * @param action  action to apply to the matching entries
+     */
+    void forEachMatch(PacketContext context, Consumer<E> action) {
+        InboundPacket packet = context.inPacket();
+        ConnectPoint receivedFrom = packet != null ? packet.receivedFrom() : null;
+
+        // Prefer the header view, which does not require the packet to be parsed
+        EthernetView view = packet != null ? packet.headerView() : null;
+        int ethType;
+        int ipProto;
+        if (view != null) {
+            ethType = Short.toUnsignedInt(view.etherType());
+            ipProto = view.ipProtocol();
+        } else {
+            Ethernet eth = packet != null ? packet.parsed() : null;
+            ethType = eth != null ? Short.toUnsignedInt(eth.getEtherType()) : NONE;
+            ipProto = ipProto(eth);
+        }
+
+        long[] ethTypeMask = ethTypes.mask(ethType);
+        long[] ipProtoMask = ipProtos.mask(ipProto);
+        long[] inPortMask = inPorts.mask(receivedFrom != null ? receivedFrom.port() : null);
+
+        for (int word = 0; word < ethTypeMask.length; word++) {
+            long mask = ethTypeMask[word] & ipProtoMask[word] & inPortMask[word];
+            while (mask != 0) {
+                action.accept(entries.get(word * Long.SIZE + Long.numberOfTrailingZeros(mask)));
+                mask &= mask - 1;
+            }
+        }
+    }
+
+    private static int ipProto(Ethernet eth) {
+        if (eth == null) {
+            return NONE;
+        } else if (eth.getPayload() instanceof IPv4) {
+            return Byte.toUnsignedInt(((IPv4) eth.getPayload()).getProtocol());
+        } else if (eth.getPayload() instanceof IPv6) {
+            return Byte.toUnsignedInt(((IPv6) eth.getPayload()).getNextHeader());
+        }
+        return NONE;
+    }
+
+    private static void set(long[] mask, int i) {
+        mask[i / Long.SIZE] |= 1L << (i % Long.SIZE);
+    }
+
+    /**
+     * Index of a criterion with integer values. The number of distinct values
+     * is expected to be small, so they are searched linearly.
+     */
+    private static final class IntDimension {
+        private final int[] values;
+        private final long[][] masks;
+        private final long[] wildcard;
+
+        private IntDimension(int[] values, long[][] masks, long[] wildcard) {
+            this.values = values;
+            this.masks = masks;
+            this.wildcard = wildcard;
+        }
+
+        long[] mask(int value) {
+            if (value != NONE) {
+                for (int i = 0; i < values.length; i++) {
+                    if (values[i] == value) {
+                        return masks[i];
+                    }
+                }
+            }
+            return wildcard;
+        }
+
+        private static final class Builder {
+            private final int words;
+            private final Map<Integer, long[]> exact = Maps.newLinkedHashMap();
+            private final long[] wildcard;
+
+            private Builder(int words) {
+                this.words = words;
+                this.wildcard = new long[words];
+            }
+
+            void add(int entry, int value) {
+                if (value == NONE) {
+                    set(wildcard, entry);
+                } else {
+                    set(exact.computeIfAbsent(value, v -> new long[words]), entry);
+                }
+            }
+
+            IntDimension build() {
+                int[] values = new int[exact.size()];
+                long[][] masks = new long[exact.size()][];
+                int i = 0;
+                for (Map.Entry<Integer, long[]> entry : exact.entrySet()) {
+                    values[i] = entry.getKey();
+                    masks[i] = or(entry.getValue(), wildcard);
+                    i++;
+                }
+                return new IntDimension(values, masks, wildcard);
+            }
+        }
+    }
+
+    /**
+     * Index of the ingress port criterion.
+     */
+    private static final class PortDimension {
+        private final Map<PortNumber, long[]> masks;
+        private final long[] wildcard;
+
+        private PortDimension(Map<PortNumber, long[]> masks, long[] wildcard) {
+            this.masks = masks;
+            this.wildcard = wildcard;
+        }
+
+        long[] mask(PortNumber port) {
+            if (port == null || masks.isEmpty()) {
+                return wildcard;
+            }
+            return masks.getOrDefault(port, wildcard);
+        }
+
+        private static final class Builder {
+            private final int words;
+            private final Map<PortNumber, long[]> exact = Maps.newHashMap();
+            private final long[] wildcard;
+
+            private Builder(int words) {
+                this.words = words;
+                this.wildcard = new long[words];
+            }
+
+            void add(int entry, PortNumber port) {
+                if (port == null) {
+                    set(wildcard, entry);
+                } else {
+                    set(exact.computeIfAbsent(port, p -> new long[words]), entry);
+                }
+            }
+
+            PortDimension build() {
+                Map<PortNumber, long[]> masks = Maps.newHashMap();
+                exact.forEach((port, mask) -> masks.put(port, or(mask, wildcard)));
+                return new PortDimension(masks, wildcard);
+            }
+        }
+    }
+
+    private static long[] or(long[] mask, long[] other) {
+        long[] result = Arrays.copyOf(mask, mask.length);
+        for (int i = 0; i < result.length; i++) {
+            result[i] |= other[i];
+        }
+        return result;
+    }
+}
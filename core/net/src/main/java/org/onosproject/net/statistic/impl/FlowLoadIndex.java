@@ -0,0 +1,392 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.statistic.impl;
+
+import com.google.common.collect.ImmutableList;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowEntry.FlowLiveType;
+import org.onosproject.net.flow.FlowId;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.instructions.Instruction;
+import org.onosproject.net.statistic.DefaultLoad;
+import org.onosproject.net.statistic.FlowEntryWithLoad;
+import org.onosproject.net.statistic.Load;
+import org.onosproject.net.statistic.PollInterval;
+import org.onosproject.net.statistic.SummaryFlowEntryWithLoad;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Load of the flows forwarding to each port, maintained incrementally as the
+ * flow statistics arrive.
+ * <p>
+ * The flows of each port are kept ordered by decreasing rate, so that the
+ * top-N flows are read without sorting all of them, also when filtered by
+ * flow live type or instruction type, and the byte counters of
+ * the port are summed per flow live type as the flows are updated. Each port
+ * also keeps the history of its rate in a fixed-size ring buffer, sampled at
+ * most once per flow poll interval.
+ * </p>
+ */
+final class FlowLoadIndex {
+
+    /**
+     * Number of rate samples kept per port.
+     */
+    static final int HISTORY_SIZE = 32;
+
+    private static final int LIVE_TYPES = FlowLiveType.values().length;
+
+    private static final Comparator<FlowLoad> RATE_ORDER =
+            Comparator.comparingLong((FlowLoad flow) -> flow.rate).reversed()
+                    .thenComparingLong(flow -> flow.id.value());
+
+    private final Map<ConnectPoint, PortLoad> ports = new ConcurrentHashMap<>();
+    // Port each flow is indexed under, as its output port may change
+    private final Map<FlowId, ConnectPoint> flowPorts = new ConcurrentHashMap<>();
+
+    /**
+     * Records the statistics of a flow forwarding to the given port, moving
+     * it from the port it was previously forwarding to, if different.
+     *
+     * @param cp    output port of the flow
+     * @param entry flow entry with its latest statistics
+     * @param now   time of the statistics in milliseconds
+     */
+    void update(ConnectPoint cp, FlowEntry entry, long now) {
+        ConnectPoint previous = flowPorts.put(entry.id(), cp);
+        if (previous != null && !previous.equals(cp)) {
+            removeFromPort(previous, entry.id());
+        }
+        ports.computeIfAbsent(cp, PortLoad::new).update(entry, now);
+    }
+
+    /**
+     * Removes a flow from the port it is indexed under, if any.
+     *
+     * @param rule flow rule
+     */
+    void remove(FlowRule rule) {
+        ConnectPoint cp = flowPorts.remove(rule.id());
+        if (cp != null) {
+            removeFromPort(cp, rule.id());
+        }
+    }
+
+    private void removeFromPort(ConnectPoint cp, FlowId flowId) {
+        ports.computeIfPresent(cp, (k, port) -> port.remove(flowId) ? null : port);
+    }
+
+    /**
+     * Removes the flows of all the ports of a device.
+     *
+     * @param deviceId device identifier
+     */
+    void removeDevice(DeviceId deviceId) {
+        ports.keySet().removeIf(cp -> cp.deviceId().equals(deviceId));
+        flowPorts.values().removeIf(cp -> cp.deviceId().equals(deviceId));
+    }
+
+    /**
+     * Returns the load of the flows forwarding to the given port.
+     *
+     * @param cp port
+     * @return port load, or null if no flow forwarding to the port is known
+     */
+    PortLoad port(ConnectPoint cp) {
+        return ports.get(cp);
+    }
+
+    /**
+     * Removes all the flows.
+     */
+    void clear() {
+        ports.clear();
+        flowPorts.clear();
+    }
+
+    // Poll interval of the flows of the given live type, as used by the loads
+    private static long pollInterval(FlowLiveType liveType) {
+        PollInterval pollInterval = PollInterval.getInstance();
+        switch (liveType) {
+            case LONG:
+                return pollInterval.getLongPollInterval();
+            case MID:
+                return pollInterval.getMidPollInterval();
+            default:
+                return pollInterval.getPollInterval();
+        }
+    }
+
+    /**
+     * Load of the flows forwarding to a port.
+     */
+    static final class PortLoad {
+
+        private final ConnectPoint cp;
+        private final Map<FlowId, FlowLoad> flows = new HashMap<>();
+        private final NavigableSet<FlowLoad> byRate = new TreeSet<>(RATE_ORDER);
+        private final Map<FlowLiveType, NavigableSet<FlowLoad>> byLiveType =
+                new EnumMap<>(FlowLiveType.class);
+        private final Map<Instruction.Type, NavigableSet<FlowLoad>> byInstructionType =
+                new EnumMap<>(Instruction.Type.class);
+        private final long[] currentBytes = new long[LIVE_TYPES];
+        private final long[] previousBytes = new long[LIVE_TYPES];
+        private long rate;
+
+        private final long[] history = new long[HISTORY_SIZE];
+        private int historyEnd;
+        private int historySize;
+        private long lastSample;
+
+        private PortLoad(ConnectPoint cp) {
+            this.cp = cp;
+        }
+
+        private synchronized void update(FlowEntry entry, long now) {
+            FlowLoad flow = flows.get(entry.id());
+            if (flow == null) {
+                flow = new FlowLoad(entry.id());
+                flows.put(entry.id(), flow);
+            } else {
+                unindex(flow);
+                account(flow, -1);
+            }
+            flow.update(entry);
+            account(flow, 1);
+            index(flow);
+            sample(now);
+        }
+
+        // Returns true if the port has no flow left.
+        private synchronized boolean remove(FlowId flowId) {
+            FlowLoad flow = flows.remove(flowId);
+            if (flow != null) {
+                unindex(flow);
+                account(flow, -1);
+            }
+            return flows.isEmpty();
+        }
+
+        // Flows must be unindexed before any change of their rate or types.
+        private void index(FlowLoad flow) {
+            byRate.add(flow);
+            byLiveType.computeIfAbsent(flow.liveType, t -> new TreeSet<>(RATE_ORDER)).add(flow);
+            flow.instructionTypes.forEach(type -> byInstructionType
+                    .computeIfAbsent(type, t -> new TreeSet<>(RATE_ORDER)).add(flow));
+        }
+
+        private void unindex(FlowLoad flow) {
+            byRate.remove(flow);
+            removeIndexed(byLiveType, flow.liveType, flow);
+            flow.instructionTypes.forEach(type -> removeIndexed(byInstructionType, type, flow));
+        }
+
+        private <K> void removeIndexed(Map<K, NavigableSet<FlowLoad>> index,
+                                       K key, FlowLoad flow) {
+            NavigableSet<FlowLoad> indexed = index.get(key);
+            if (indexed != null && indexed.remove(flow) && indexed.isEmpty()) {
+                index.remove(key);
+            }
+        }
+
+        // Smallest indexed set of flows including all the flows matching the
+        // given types.
+        private NavigableSet<FlowLoad> candidates(FlowLiveType liveType,
+                                                  Instruction.Type instType) {
+            NavigableSet<FlowLoad> candidates = byRate;
+            if (liveType != null) {
+                candidates = byLiveType.getOrDefault(liveType, Collections.emptyNavigableSet());
+            }
+            if (instType != null) {
+                NavigableSet<FlowLoad> ofType =
+                        byInstructionType.getOrDefault(instType, Collections.emptyNavigableSet());
+                if (ofType.size() < candidates.size()) {
+                    candidates = ofType;
+                }
+            }
+            return candidates;
+        }
+
+        private void account(FlowLoad flow, int sign) {
+            currentBytes[flow.liveType.ordinal()] += sign * flow.currentBytes;
+            previousBytes[flow.liveType.ordinal()] += sign * flow.previousBytes;
+            rate += sign * flow.rate;
+        }
+
+        private void sample(long now) {
+            long interval = TimeUnit.SECONDS.toMillis(PollInterval.getInstance().getPollInterval());
+            if (historySize > 0 && now - lastSample < interval) {
+                // Still in the same poll interval; keep the latest rate
+                history[(historyEnd + HISTORY_SIZE - 1) % HISTORY_SIZE] = rate;
+                return;
+            }
+            history[historyEnd] = rate;
+            historyEnd = (historyEnd + 1) % HISTORY_SIZE;
+            historySize = Math.min(historySize + 1, HISTORY_SIZE);
+            lastSample = now;
+        }
+
+        /**
+         * Returns the number of flows forwarding to the port.
+         *
+         * @return number of flows
+         */
+        synchronized int size() {
+            return flows.size();
+        }
+
+        /**
+         * Returns the summary of the load of the flows, in total and by
+         * flow live type.
+         *
+         * @return summary load
+         */
+        synchronized SummaryFlowEntryWithLoad summary() {
+            long current = 0;
+            long previous = 0;
+            for (int i = 0; i < LIVE_TYPES; i++) {
+                current += currentBytes[i];
+                previous += previousBytes[i];
+            }
+            PollInterval pollInterval = PollInterval.getInstance();
+            return new SummaryFlowEntryWithLoad(cp,
+                    new DefaultLoad(current, previous, pollInterval.getPollInterval()),
+                    typeLoad(FlowLiveType.IMMEDIATE),
+                    typeLoad(FlowLiveType.SHORT),
+                    typeLoad(FlowLiveType.MID),
+                    typeLoad(FlowLiveType.LONG),
+                    typeLoad(FlowLiveType.UNKNOWN));
+        }
+
+        private Load typeLoad(FlowLiveType liveType) {
+            return new DefaultLoad(currentBytes[liveType.ordinal()],
+                                   previousBytes[liveType.ordinal()],
+                                   pollInterval(liveType));
+        }
+
+        /**
+         * Returns the loads of the flows of the given live type and
+         * instruction type with the highest rates, by decreasing rate.
+         *
+         * @param liveType flow live type, null for all
+         * @param instType instruction type, null for all
+         * @param topn     maximum number of flows
+         * @return flow loads
+         */
+        synchronized List<FlowEntryWithLoad> top(FlowLiveType liveType,
+                                                 Instruction.Type instType,
+                                                 int topn) {
+            checkArgument(topn >= 0, "Number of flows must not be negative");
+            List<FlowEntryWithLoad> loads = new ArrayList<>(Math.min(topn, flows.size()));
+            for (FlowLoad flow : candidates(liveType, instType)) {
+                if (loads.size() == topn) {
+                    break;
+                }
+                if (flow.matches(liveType, instType)) {
+                    loads.add(flow.withLoad(cp));
+                }
+            }
+            return loads;
+        }
+
+        /**
+         * Returns the loads of all the flows of the given live type and
+         * instruction type, by decreasing rate.
+         *
+         * @param liveType flow live type, null for all
+         * @param instType instruction type, null for all
+         * @return flow loads
+         */
+        List<FlowEntryWithLoad> all(FlowLiveType liveType, Instruction.Type instType) {
+            return top(liveType, instType, Integer.MAX_VALUE);
+        }
+
+        /**
+         * Returns the rates of the port sampled once per poll interval, from
+         * the oldest to the latest.
+         *
+         * @return rates in bytes per second
+         */
+        synchronized List<Long> rateHistory() {
+            ImmutableList.Builder<Long> rates = ImmutableList.builder();
+            int start = (historyEnd + HISTORY_SIZE - historySize) % HISTORY_SIZE;
+            for (int i = 0; i < historySize; i++) {
+                rates.add(history[(start + i) % HISTORY_SIZE]);
+            }
+            return rates.build();
+        }
+    }
+
+    // Byte counters of a flow at its last two polls; guarded by its port.
+    private static final class FlowLoad {
+
+        private final FlowId id;
+        private FlowEntry entry;
+        private FlowLiveType liveType;
+        private final Set<Instruction.Type> instructionTypes = EnumSet.noneOf(Instruction.Type.class);
+        private long currentBytes;
+        private long previousBytes;
+        private long rate;
+
+        private FlowLoad(FlowId id) {
+            this.id = id;
+        }
+
+        private void update(FlowEntry newEntry) {
+            boolean firstSample = entry == null;
+            if (firstSample || !entry.treatment().equals(newEntry.treatment())) {
+                instructionTypes.clear();
+                newEntry.treatment().allInstructions()
+                        .forEach(instruction -> instructionTypes.add(instruction.type()));
+            }
+            entry = newEntry;
+            liveType = newEntry.liveType() == null ? FlowLiveType.UNKNOWN : newEntry.liveType();
+            // The counter of a flow first seen covers its whole lifetime,
+            // not one poll interval; its load is unknown until the next poll.
+            previousBytes = firstSample ? newEntry.bytes() : currentBytes;
+            currentBytes = newEntry.bytes();
+            rate = (currentBytes - previousBytes) / pollInterval(liveType);
+        }
+
+        private boolean matches(FlowLiveType type, Instruction.Type instType) {
+            return (type == null || type == liveType) &&
+                    (instType == null || instructionTypes.contains(instType));
+        }
+
+        private FlowEntryWithLoad withLoad(ConnectPoint cp) {
+            return new FlowEntryWithLoad(cp, entry,
+                                         new DefaultLoad(currentBytes, previousBytes,
+                                                         pollInterval(liveType)));
+        }
+    }
+}
@@ -31,6 +31,9 @@ import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onosproject.mastership.MastershipEvent;
+import org.onosproject.mastership.MastershipListener;
+import org.onosproject.mastership.MastershipService;
 import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.Device;
 import org.onosproject.net.Port;
@@ -40,9 +43,13 @@ import org.onosproject.net.flow.DefaultFlowEntry;
 import org.onosproject.net.flow.DefaultTypedFlowEntry;
 import org.onosproject.net.flow.FlowEntry;
 import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.FlowRuleEvent;
+import org.onosproject.net.flow.FlowRuleListener;
+import org.onosproject.net.flow.FlowRuleService;
 import org.onosproject.net.flow.StoredFlowEntry;
 import org.onosproject.net.flow.TypedStoredFlowEntry;
 import org.onosproject.net.flow.instructions.Instruction;
+import org.onosproject.net.flow.instructions.Instructions;
 import org.onosproject.net.statistic.DefaultLoad;
 import org.onosproject.net.statistic.FlowEntryWithLoad;
 import org.onosproject.net.statistic.FlowStatisticService;
@@ -56,6 +63,7 @@ import org.slf4j.Logger;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -65,6 +73,12 @@ import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * Provides an implementation of the Flow Statistic Service.
+ * <p>
+ * The loads of the flows of the devices mastered by this instance are
+ * maintained incrementally in a per-port index as their statistics arrive.
+ * The loads of the other devices are computed from the statistics snapshots
+ * of the statistic store.
+ * </p>
  */
 @Component(immediate = true)
 @Service
@@ -77,13 +91,28 @@ public class FlowStatisticManager implements FlowStatisticService {
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected DeviceService deviceService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected FlowRuleService flowRuleService;
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MastershipService mastershipService;
+
+    private final FlowLoadIndex loadIndex = new FlowLoadIndex();
+    private final FlowRuleListener flowRuleListener = new InternalFlowRuleListener();
+    private final MastershipListener mastershipListener = new InternalMastershipListener();
+
     @Activate
     public void activate() {
+        flowRuleService.addListener(flowRuleListener);
+        mastershipService.addListener(mastershipListener);
         log.info("Started");
     }
 
     @Deactivate
     public void deactivate() {
+        mastershipService.removeListener(mastershipListener);
+        flowRuleService.removeListener(flowRuleListener);
+        loadIndex.clear();
         log.info("Stopped");
     }
 
@@ -187,9 +216,31 @@ public class FlowStatisticManager implements FlowStatisticService {
         return loadTopnPortInternal(cp, liveType, instType, topn);
     }
 
+    @Override
+    public List<Long> loadRateHistory(Device device, PortNumber pNumber) {
+        checkPermission(STATISTIC_READ);
+
+        FlowLoadIndex.PortLoad portLoad = indexedLoad(new ConnectPoint(device.id(), pNumber));
+        return portLoad == null ? ImmutableList.of() : portLoad.rateHistory();
+    }
+
+    // Returns the indexed load of the given port, or null if the statistics
+    // of the port are not collected by this instance.
+    private FlowLoadIndex.PortLoad indexedLoad(ConnectPoint cp) {
+        if (!mastershipService.isLocalMaster(cp.deviceId())) {
+            return null;
+        }
+        return loadIndex.port(cp);
+    }
+
     private SummaryFlowEntryWithLoad loadSummaryPortInternal(ConnectPoint cp) {
         checkPermission(STATISTIC_READ);
 
+        FlowLoadIndex.PortLoad portLoad = indexedLoad(cp);
+        if (portLoad != null) {
+            return portLoad.summary();
+        }
+
         Set<FlowEntry> currentStats;
         Set<FlowEntry> previousStats;
 
@@ -255,6 +306,11 @@ public class FlowStatisticManager implements FlowStatisticService {
                                                              Instruction.Type instType) {
         checkPermission(STATISTIC_READ);
 
+        FlowLoadIndex.PortLoad portLoad = indexedLoad(cp);
+        if (portLoad != null) {
+            return portLoad.all(liveType, instType);
+        }
+
         List<FlowEntryWithLoad> retFel = new ArrayList<>();
 
         Set<FlowEntry> currentStats;
@@ -346,6 +402,11 @@ public class FlowStatisticManager implements FlowStatisticService {
                                                              FlowEntry.FlowLiveType liveType,
                                                              Instruction.Type instType,
                                                              int topn) {
+        FlowLoadIndex.PortLoad portLoad = indexedLoad(cp);
+        if (portLoad != null) {
+            return portLoad.top(liveType, instType, topn);
+        }
+
         List<FlowEntryWithLoad> fel = loadAllPortInternal(cp, liveType, instType);
 
         // Sort with descending order of load
@@ -663,4 +724,60 @@ public class FlowStatisticManager implements FlowStatisticService {
     private static Predicate<FlowEntry> hasLiveType(FlowEntry.FlowLiveType liveType) {
         return flowEntry -> flowEntry.liveType() == liveType;
     }
+
+    // Returns the port a flow rule forwards to, as the statistic store does.
+    private static ConnectPoint outputPoint(FlowRule rule) {
+        for (Instruction i : rule.treatment().allInstructions()) {
+            if (i.type() == Instruction.Type.OUTPUT) {
+                return new ConnectPoint(rule.deviceId(),
+                                        ((Instructions.OutputInstruction) i).port());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Internal flow rule event listener, maintaining the load index as the
+     * flow statistics arrive.
+     */
+    private class InternalFlowRuleListener implements FlowRuleListener {
+
+        @Override
+        public void event(FlowRuleEvent event) {
+            FlowRule rule = event.subject();
+            switch (event.type()) {
+                case RULE_ADDED:
+                case RULE_UPDATED:
+                    ConnectPoint cp = outputPoint(rule);
+                    if (cp != null && rule instanceof FlowEntry) {
+                        loadIndex.update(cp, (FlowEntry) rule, event.time());
+                    } else {
+                        // The flow no longer forwards to a port
+                        loadIndex.remove(rule);
+                    }
+                    break;
+                case RULE_REMOVE_REQUESTED:
+                case RULE_REMOVED:
+                    loadIndex.remove(rule);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Internal mastership listener, dropping the loads of the devices whose
+     * statistics are no longer collected by this instance.
+     */
+    private class InternalMastershipListener implements MastershipListener {
+
+        @Override
+        public void event(MastershipEvent event) {
+            if (event.type() == MastershipEvent.Type.MASTER_CHANGED &&
+                    !mastershipService.isLocalMaster(event.subject())) {
+                loadIndex.removeDevice(event.subject());
+            }
+        }
+    }
 }
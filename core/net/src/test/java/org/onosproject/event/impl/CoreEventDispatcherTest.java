@@ -15,14 +15,25 @@
  */
 package org.onosproject.event.impl;
 
+import com.google.common.collect.ImmutableSet;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.osgi.ComponentContextAdapter;
 import org.onosproject.event.AbstractEvent;
 import org.onosproject.event.EventSink;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Link;
+import org.onosproject.net.NetTestTools;
+import org.onosproject.net.link.LinkEvent;
 
 import java.util.ArrayList;
+import java.util.Dictionary;
+import java.util.Hashtable;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
@@ -40,7 +51,7 @@ public class CoreEventDispatcherTest {
 
     @Before
     public void setUp() {
-        dispatcher.activate();
+        dispatcher.activate(null);
         dispatcher.addSink(Prickle.class, prickleSink);
         dispatcher.addSink(Goo.class, gooSink);
     }
@@ -88,6 +99,83 @@ public class CoreEventDispatcherTest {
         assertTrue(takesTooLong.interrupted);
     }
 
+    private void setPartitions(int partitions) {
+        dispatcher.modified(new ComponentContextAdapter() {
+            @Override
+            public Dictionary getProperties() {
+                Hashtable<String, String> props = new Hashtable<>();
+                props.put("dispatchPartitions", String.valueOf(partitions));
+                return props;
+            }
+        });
+    }
+
+    @Test
+    public void postPartitioned() throws Exception {
+        setPartitions(4);
+
+        OrderSink orderSink = new OrderSink();
+        dispatcher.addSink(Ordered.class, orderSink);
+        orderSink.latch = new CountDownLatch(400);
+        for (int i = 0; i < 100; i++) {
+            for (String subject : new String[]{"a", "b", "c", "d"}) {
+                dispatcher.post(new Ordered(subject, i));
+            }
+        }
+        assertTrue("events not dispatched", orderSink.latch.await(1000, TimeUnit.MILLISECONDS));
+        assertTrue("events dispatched out of order", orderSink.ordered);
+        dispatcher.removeSink(Ordered.class);
+    }
+
+    @Test
+    public void postPartitionedLinks() throws Exception {
+        setPartitions(4);
+
+        LinkOrderSink linkSink = new LinkOrderSink();
+        dispatcher.addSink(LinkEvent.class, linkSink);
+        linkSink.latch = new CountDownLatch(400);
+        for (int i = 0; i < 100; i++) {
+            for (String[] ends : new String[][]{{"a", "b"}, {"c", "d"}, {"e", "f"}, {"g", "h"}}) {
+                // alternate between the two directions of the link
+                Link link = i % 2 == 0 ?
+                        NetTestTools.link(ends[0], 1, ends[1], 2) :
+                        NetTestTools.link(ends[1], 2, ends[0], 1);
+                dispatcher.post(new LinkEvent(LinkEvent.Type.LINK_UPDATED, link, i));
+            }
+        }
+        assertTrue("events not dispatched", linkSink.latch.await(1000, TimeUnit.MILLISECONDS));
+        assertTrue("events of a link and its reverse dispatched out of order", linkSink.ordered);
+        dispatcher.removeSink(LinkEvent.class);
+    }
+
+    @Test
+    public void changePartitionsInOrder() throws Exception {
+        setPartitions(4);
+
+        LinkOrderSink linkSink = new LinkOrderSink();
+        dispatcher.addSink(LinkEvent.class, linkSink);
+        linkSink.latch = new CountDownLatch(600);
+        // Events queued on the replaced loops are dispatched before those
+        // posted after the change, when partitioning and when disabling it
+        postLinkEvents(0, 50);
+        setPartitions(3);
+        postLinkEvents(50, 100);
+        setPartitions(0);
+        postLinkEvents(100, 150);
+        assertTrue("events not dispatched", linkSink.latch.await(1000, TimeUnit.MILLISECONDS));
+        assertTrue("events dispatched out of order across the change", linkSink.ordered);
+        dispatcher.removeSink(LinkEvent.class);
+    }
+
+    private void postLinkEvents(int from, int to) {
+        for (int i = from; i < to; i++) {
+            for (String[] ends : new String[][]{{"a", "b"}, {"c", "d"}, {"e", "f"}, {"g", "h"}}) {
+                Link link = NetTestTools.link(ends[0], 1, ends[1], 2);
+                dispatcher.post(new LinkEvent(LinkEvent.Type.LINK_UPDATED, link, i));
+            }
+        }
+    }
+
     private void validate(Sink sink, String... strings) {
         int i = 0;
         assertEquals("incorrect event count", strings.length, sink.subjects.size());
@@ -141,6 +229,47 @@ public class CoreEventDispatcherTest {
         }
     }
 
+    private static class Ordered extends AbstractEvent<Type, String> {
+        private final int sequence;
+
+        protected Ordered(String subject, int sequence) {
+            super(Type.FOO, subject);
+            this.sequence = sequence;
+        }
+    }
+
+    private static class OrderSink implements EventSink<Ordered> {
+        private final Map<String, Integer> sequences = new ConcurrentHashMap<>();
+        volatile boolean ordered = true;
+        CountDownLatch latch;
+
+        @Override
+        public void process(Ordered event) {
+            Integer last = sequences.put(event.subject(), event.sequence);
+            if (last != null && last >= event.sequence) {
+                ordered = false;
+            }
+            latch.countDown();
+        }
+    }
+
+    private static class LinkOrderSink implements EventSink<LinkEvent> {
+        private final Map<Set<DeviceId>, Long> times = new ConcurrentHashMap<>();
+        volatile boolean ordered = true;
+        CountDownLatch latch;
+
+        @Override
+        public void process(LinkEvent event) {
+            Set<DeviceId> ends = ImmutableSet.of(event.subject().src().deviceId(),
+                                                 event.subject().dst().deviceId());
+            Long last = times.put(ends, event.time());
+            if (last != null && last >= event.time()) {
+                ordered = false;
+            }
+            latch.countDown();
+        }
+    }
+
     private static class TooLongEvent extends AbstractEvent<Type, String> {
         protected TooLongEvent(String subject) {
             super(Type.FOO, subject);
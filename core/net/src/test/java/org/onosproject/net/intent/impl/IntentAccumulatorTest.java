@@ -30,15 +30,24 @@ import org.onosproject.net.intent.IntentTestsMocks.MockTimestamp;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Unit tests for the intent accumulator.
  */
 public class IntentAccumulatorTest extends AbstractIntentTest {
 
+    private static final long BATCH_TIMEOUT_MS = 1000;
+    private static final long HELD_BACK_MS = 200;
+
     Intent intent1;
     Intent intent2;
     Intent intent3;
@@ -143,5 +152,34 @@ public class IntentAccumulatorTest extends AbstractIntentTest {
         accumulator.processItems(intentDataItems);
     }
 
-
+    /**
+     * Tests that no more than the maximum number of batches are handed to
+     * the delegate until the delegate signals their completion.
+     */
+    @Test
+    public void checkMaxInFlight() throws InterruptedException {
+        BlockingQueue<Collection<IntentData>> batches = new LinkedBlockingQueue<>();
+        IntentAccumulator accumulator = new IntentAccumulator(batches::add, 2);
+
+        accumulator.add(new IntentData(intent1, IntentState.INSTALL_REQ, new MockTimestamp(1)));
+        assertThat(batches.poll(BATCH_TIMEOUT_MS, TimeUnit.MILLISECONDS), hasSize(1));
+        accumulator.add(new IntentData(intent2, IntentState.INSTALL_REQ, new MockTimestamp(1)));
+        assertThat(batches.poll(BATCH_TIMEOUT_MS, TimeUnit.MILLISECONDS), hasSize(1));
+        assertFalse(accumulator.isReady());
+
+        // Two batches in flight; the next operations are held back
+        accumulator.add(new IntentData(intent3, IntentState.INSTALL_REQ, new MockTimestamp(1)));
+        accumulator.add(new IntentData(intent1, IntentState.WITHDRAW_REQ, new MockTimestamp(2)));
+        assertNull(batches.poll(HELD_BACK_MS, TimeUnit.MILLISECONDS));
+
+        // and released as one batch once a batch is done
+        accumulator.ready();
+        Collection<IntentData> batch = batches.poll(BATCH_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertThat(batch, hasSize(2));
+        assertFalse(accumulator.isReady());
+
+        accumulator.ready();
+        accumulator.ready();
+        assertTrue(accumulator.isReady());
+    }
 }
@@ -64,6 +64,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -194,6 +195,23 @@ public class IntentManagerTest {
     }
 
 
+    // Slow compiler recording the operations in process on the same key.
+    private static class TestIntentCompilerSlow implements IntentCompiler<MockIntent> {
+        private final Map<Key, AtomicInteger> inProcess = Maps.newConcurrentMap();
+        private final AtomicInteger compilations = new AtomicInteger();
+        private final AtomicInteger maxSameKey = new AtomicInteger();
+
+        @Override
+        public List<Intent> compile(MockIntent intent, List<Intent> installable) {
+            AtomicInteger count = inProcess.computeIfAbsent(intent.key(), k -> new AtomicInteger());
+            maxSameKey.accumulateAndGet(count.incrementAndGet(), Math::max);
+            delay(20);
+            count.decrementAndGet();
+            compilations.incrementAndGet();
+            return Lists.newArrayList(new MockInstallableIntent());
+        }
+    }
+
     private static class TestIntentCompilerError implements IntentCompiler<MockIntent> {
         @Override
         public List<Intent> compile(MockIntent intent, List<Intent> installable) {
@@ -422,6 +440,36 @@ public class IntentManagerTest {
     }
 
 
+    /**
+     * Tests that operations on the same intent in batches processed
+     * concurrently are processed one after the other.
+     */
+    @Test
+    public void sameKeyOperationsSerialized() {
+        TestIntentCompilerSlow slowCompiler = new TestIntentCompilerSlow();
+        extensionService.registerCompiler(MockIntent.class, slowCompiler);
+        flowRuleService.setFuture(true);
+
+        int count = 8;
+        Intent intent1 = new MockIntent(MockIntent.nextId());
+        Intent intent2 = new MockIntent(MockIntent.nextId());
+        for (int i = 0; i < count; i++) {
+            // one batch per submission, several of them in flight
+            service.submit(intent1);
+            service.submit(intent2);
+            delay(15);
+        }
+
+        assertAfter(SUBMIT_TIMEOUT_MS, () -> {
+            assertEquals(INSTALLED, service.getIntentState(intent1.key()));
+            assertEquals(INSTALLED, service.getIntentState(intent2.key()));
+            assertTrue(slowCompiler.inProcess.values().stream().allMatch(n -> n.get() == 0));
+        });
+        assertTrue(slowCompiler.compilations.get() > 2);
+        assertEquals(1, slowCompiler.maxSameKey.get());
+        verifyState();
+    }
+
     /**
      * Tests for proper behavior of installation of an intent that triggers
      * a compilation error.
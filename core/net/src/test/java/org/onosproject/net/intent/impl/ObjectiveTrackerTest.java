@@ -216,6 +216,42 @@ public class ObjectiveTrackerTest extends AbstractIntentTest {
                    equalTo("0x333"));
     }
 
+    /**
+     * Tests that the intents affected by several link events are collected
+     * in one pass and that removed resources are no longer tracked.
+     *
+     * @throws InterruptedException if the latch wait fails.
+     */
+    @Test
+    public void testEventLinksDownAffectedIntents() throws Exception {
+        final Link link1 = link("src", 1, "dst", 2);
+        final Link link2 = link("src", 3, "dst", 4);
+        final Link link3 = link("src", 5, "dst", 6);
+        reasons.add(new LinkEvent(LinkEvent.Type.LINK_REMOVED, link1));
+        reasons.add(new LinkEvent(LinkEvent.Type.LINK_REMOVED, link2));
+
+        final Key key1 = Key.of(0x333L, APP_ID);
+        final Key key2 = Key.of(0x444L, APP_ID);
+        final Key key3 = Key.of(0x555L, APP_ID);
+        tracker.addTrackedResources(key1, ImmutableSet.of(link1, link2));
+        tracker.addTrackedResources(key2, ImmutableSet.of(link2, link3));
+        tracker.addTrackedResources(key3, ImmutableSet.of(link3));
+        assertThat(tracker.affectedIntents(reasons), containsInAnyOrder(key1, key2));
+
+        tracker.removeTrackedResources(key2, ImmutableSet.of(link2, link3));
+        assertThat(tracker.affectedIntents(reasons), contains(key1));
+
+        listener.event(new TopologyEvent(TopologyEvent.Type.TOPOLOGY_CHANGED,
+                                         topology, reasons));
+        assertThat(
+                delegate.latch.await(WAIT_TIMEOUT_SECONDS, TimeUnit.SECONDS),
+                is(true));
+
+        assertThat(delegate.intentIdsFromEvent, hasSize(1));
+        assertThat(tracker.recompileFanOut().getCount(), is(1L));
+        assertThat(tracker.recompileFanOut().getSnapshot().getMax(), is(1L));
+    }
+
     /**
      * Tests a resource available event.
      *
@@ -20,11 +20,16 @@ import org.hamcrest.Matchers;
 import org.junit.Test;
 import org.onlab.util.Bandwidth;
 import org.onosproject.TestApplicationId;
+import org.onosproject.common.DefaultTopology;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
+import org.onosproject.net.ElementId;
 import org.onosproject.net.FilteredConnectPoint;
 import org.onosproject.net.Link;
+import org.onosproject.net.NetTestTools;
+import org.onosproject.net.Path;
 import org.onosproject.net.PortNumber;
 import org.onosproject.net.ResourceGroup;
 import org.onosproject.net.flow.TrafficSelector;
@@ -43,7 +48,11 @@ import org.onosproject.net.resource.MockResourceService;
 import org.onosproject.net.resource.ResourceAllocation;
 import org.onosproject.net.resource.ResourceService;
 import org.onosproject.net.resource.Resources;
+import org.onosproject.net.topology.DefaultGraphDescription;
+import org.onosproject.net.topology.LinkWeigher;
+import org.onosproject.net.topology.PathServiceAdapter;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -582,4 +591,43 @@ public class PointToPointIntentCompilerTest extends AbstractIntentTest {
         assertThat(resourceAllocations, hasSize(6));
         assertEquals(expectedresourceAllocations, resourceAllocations);
     }
+
+    /**
+     * Tests that repeated compilation of an intent without constraints
+     * reuses the path search results cached by the topology.
+     */
+    @Test
+    public void testRepeatedCompilationHitsPathCache() {
+        String[] hops = {S1, S2, S3};
+        List<Device> devices = new ArrayList<>();
+        List<Link> links = new ArrayList<>();
+        for (int i = 0; i < hops.length; i++) {
+            devices.add(NetTestTools.device(hops[i]));
+            if (i > 0) {
+                links.add(NetTestTools.link(hops[i - 1], 2, hops[i], 1));
+                links.add(NetTestTools.link(hops[i], 1, hops[i - 1], 2));
+            }
+        }
+        DefaultTopology topology = new DefaultTopology(NetTestTools.PID,
+                new DefaultGraphDescription(System.nanoTime(), System.currentTimeMillis(),
+                                            devices, links));
+
+        PointToPointIntentCompiler compiler = makeCompiler(hops);
+        compiler.pathService = new PathServiceAdapter() {
+            @Override
+            public Set<Path> getPaths(ElementId src, ElementId dst, LinkWeigher weigher) {
+                return topology.getPaths((DeviceId) src, (DeviceId) dst, weigher);
+            }
+        };
+
+        PointToPointIntent intent = makeIntent(new ConnectPoint(DID_1, PORT_1),
+                                               new ConnectPoint(DID_3, PORT_2));
+        for (int i = 0; i < 3; i++) {
+            List<Intent> result = compiler.compile(intent, null);
+            assertThat(result, hasSize(1));
+            assertThat(((LinkCollectionIntent) result.get(0)).links(), hasSize(2));
+        }
+        assertEquals("incorrect cache miss count", 1, topology.pathCacheStats().missCount());
+        assertEquals("incorrect cache hit count", 2, topology.pathCacheStats().hitCount());
+    }
 }
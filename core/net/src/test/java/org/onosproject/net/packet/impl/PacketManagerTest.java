@@ -20,16 +20,22 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.packet.ARP;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.IPv4;
+import org.onlab.packet.VlanId;
 import org.onosproject.cluster.ClusterServiceAdapter;
 import org.onosproject.common.event.impl.TestEventDispatcher;
 import org.onosproject.core.CoreServiceAdapter;
 import org.onosproject.core.IdGenerator;
 import org.onosproject.event.TestListener;
 import org.onosproject.net.AnnotationKeys;
+import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DefaultAnnotations;
 import org.onosproject.net.DefaultDevice;
 import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
 import org.onosproject.net.config.NetworkConfigServiceAdapter;
 import org.onosproject.net.device.DeviceServiceAdapter;
 import org.onosproject.net.driver.AbstractHandlerBehaviour;
@@ -37,12 +43,21 @@ import org.onosproject.net.driver.DefaultDriver;
 import org.onosproject.net.driver.DriverRegistry;
 import org.onosproject.net.driver.impl.DriverManager;
 import org.onosproject.net.driver.impl.DriverRegistryManager;
+import org.onosproject.net.flow.DefaultTrafficSelector;
 import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.packet.DefaultInboundPacket;
 import org.onosproject.net.packet.DefaultOutboundPacket;
+import org.onosproject.net.packet.DefaultPacketContext;
 import org.onosproject.net.packet.OutboundPacket;
+import org.onosproject.net.packet.PacketContext;
+import org.onosproject.net.packet.PacketProcessor;
+import org.onosproject.net.packet.PacketProcessorEntry;
 import org.onosproject.net.packet.PacketProgrammable;
+import org.onosproject.net.packet.PacketProvider;
 import org.onosproject.net.packet.PacketProviderRegistry;
+import org.onosproject.net.packet.PacketProviderService;
 import org.onosproject.net.pi.PiPipeconfServiceAdapter;
+import org.onosproject.net.provider.AbstractProvider;
 import org.onosproject.net.provider.ProviderId;
 import org.onosproject.net.provider.TestProvider;
 import org.onosproject.store.trivial.SimplePacketStore;
@@ -108,6 +123,87 @@ public class PacketManagerTest {
         assertEquals("Packet not emitted correctly", packet, emittedPacket);
     }
 
+    /**
+     * Tests that packets are only dispatched to the processors whose selector matches them.
+     */
+    @Test
+    public void processorSelectors() {
+        TestProcessor all = new TestProcessor();
+        TestProcessor arp = new TestProcessor();
+        TestProcessor tcp = new TestProcessor();
+        TestProcessor inPort = new TestProcessor();
+        mgr.addProcessor(all, PacketProcessor.director(0));
+        mgr.addProcessor(arp, PacketProcessor.director(1),
+                         DefaultTrafficSelector.builder().matchEthType(Ethernet.TYPE_ARP).build());
+        mgr.addProcessor(tcp, PacketProcessor.director(2),
+                         DefaultTrafficSelector.builder()
+                                 .matchEthType(Ethernet.TYPE_IPV4)
+                                 .matchIPProtocol(IPv4.PROTOCOL_TCP)
+                                 .build());
+        mgr.addProcessor(inPort, PacketProcessor.director(3),
+                         DefaultTrafficSelector.builder().matchInPort(PortNumber.portNumber(1)).build());
+
+        Ethernet arpPacket = new Ethernet();
+        arpPacket.setEtherType(Ethernet.TYPE_ARP);
+        arpPacket.setPayload(new ARP());
+        Ethernet tcpPacket = new Ethernet();
+        tcpPacket.setEtherType(Ethernet.TYPE_IPV4);
+        tcpPacket.setPayload(new IPv4().setProtocol(IPv4.PROTOCOL_TCP));
+
+        PacketProviderService providerService = providerRegistry.register(new TestPacketProvider());
+        providerService.processPacket(new TestPacketContext(arpPacket, PortNumber.portNumber(2)));
+        providerService.processPacket(new TestPacketContext(tcpPacket, PortNumber.portNumber(1)));
+
+        assertEquals(2, all.packets);
+        assertEquals(1, arp.packets);
+        assertEquals(1, tcp.packets);
+        assertEquals(1, inPort.packets);
+
+        PacketProcessorEntry arpEntry = mgr.getProcessors().get(1);
+        assertEquals(arp, arpEntry.processor());
+        assertEquals(1, arpEntry.hits());
+        assertEquals(1, arpEntry.skips());
+    }
+
+    /**
+     * Tests that processor selectors with unsupported criteria are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void unsupportedProcessorSelector() {
+        mgr.addProcessor(new TestProcessor(), PacketProcessor.director(0),
+                         DefaultTrafficSelector.builder().matchVlanId(VlanId.vlanId((short) 10)).build());
+    }
+
+    private static class TestProcessor implements PacketProcessor {
+        private int packets;
+
+        @Override
+        public void process(PacketContext context) {
+            packets++;
+        }
+    }
+
+    private static class TestPacketProvider extends AbstractProvider implements PacketProvider {
+        TestPacketProvider() {
+            super(FOO_PID);
+        }
+
+        @Override
+        public void emit(OutboundPacket packet) {
+        }
+    }
+
+    private static class TestPacketContext extends DefaultPacketContext {
+        TestPacketContext(Ethernet packet, PortNumber inPort) {
+            super(0, new DefaultInboundPacket(new ConnectPoint(FOO_DID, inPort), packet, ByteBuffer.allocate(0)),
+                  null, false);
+        }
+
+        @Override
+        public void send() {
+        }
+    }
+
     private static class TestDeviceService extends DeviceServiceAdapter {
         @Override
         public int getDeviceCount() {
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.statistic.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.core.DefaultApplicationId;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.flow.DefaultFlowEntry;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowEntry.FlowEntryState;
+import org.onosproject.net.flow.FlowEntry.FlowLiveType;
+import org.onosproject.net.flow.FlowId;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.TrafficTreatment;
+import org.onosproject.net.flow.instructions.Instruction;
+import org.onosproject.net.statistic.FlowEntryWithLoad;
+import org.onosproject.net.statistic.PollInterval;
+import org.onosproject.net.statistic.SummaryFlowEntryWithLoad;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the incrementally maintained flow load index.
+ */
+public class FlowLoadIndexTest {
+
+    private static final DeviceId DID = DeviceId.deviceId("of:0000000000000001");
+    private static final ConnectPoint CP = new ConnectPoint(DID, PortNumber.portNumber(2));
+    private static final ConnectPoint CP2 = new ConnectPoint(DID, PortNumber.portNumber(3));
+
+    private final long interval = PollInterval.getInstance().getPollInterval();
+    private final long second = 1000 * interval;
+    private FlowLoadIndex index;
+
+    @Before
+    public void setUp() {
+        index = new FlowLoadIndex();
+    }
+
+    private static FlowRule rule(int id, boolean setVlan) {
+        return rule(id, setVlan, CP);
+    }
+
+    private static FlowRule rule(int id, boolean setVlan, ConnectPoint output) {
+        TrafficTreatment.Builder treatment = DefaultTrafficTreatment.builder();
+        if (setVlan) {
+            treatment.popVlan();
+        }
+        return DefaultFlowRule.builder()
+                .forDevice(DID)
+                .withSelector(DefaultTrafficSelector.builder()
+                                      .matchInPort(PortNumber.portNumber(id)).build())
+                .withTreatment(treatment.setOutput(output.port()).build())
+                .withPriority(100)
+                .fromApp(new DefaultApplicationId(1, "test"))
+                .makePermanent()
+                .build();
+    }
+
+    private static FlowEntry entry(FlowRule rule, FlowLiveType liveType, long bytes) {
+        return new DefaultFlowEntry(rule, FlowEntryState.ADDED, 10, liveType, 0, bytes);
+    }
+
+    private static List<Long> ratesOf(List<FlowEntryWithLoad> loads) {
+        return loads.stream().map(load -> load.load().rate()).collect(Collectors.toList());
+    }
+
+    private static List<FlowId> idsOf(List<FlowEntryWithLoad> loads) {
+        return loads.stream().map(load -> load.storedFlowEntry().id()).collect(Collectors.toList());
+    }
+
+    @Test
+    public void topFlows() {
+        FlowRule r1 = rule(1, false);
+        FlowRule r2 = rule(2, true);
+        FlowRule r3 = rule(3, false);
+        index.update(CP, entry(r1, FlowLiveType.SHORT, 0), 0);
+        index.update(CP, entry(r2, FlowLiveType.SHORT, 0), 0);
+        index.update(CP, entry(r3, FlowLiveType.SHORT, 0), 0);
+
+        index.update(CP, entry(r1, FlowLiveType.SHORT, 10 * interval), second);
+        index.update(CP, entry(r2, FlowLiveType.SHORT, 30 * interval), second);
+        index.update(CP, entry(r3, FlowLiveType.SHORT, 20 * interval), second);
+
+        FlowLoadIndex.PortLoad port = index.port(CP);
+        assertEquals(3, port.size());
+        assertEquals(Arrays.asList(30L, 20L), ratesOf(port.top(null, null, 2)));
+        assertEquals(Arrays.asList(30L, 20L, 10L), ratesOf(port.all(null, null)));
+        assertEquals(Arrays.asList(30L),
+                     ratesOf(port.top(null, Instruction.Type.L2MODIFICATION, 5)));
+        assertTrue(port.top(FlowLiveType.LONG, null, 5).isEmpty());
+
+        // The order follows the updates of the rates
+        index.update(CP, entry(r1, FlowLiveType.SHORT, 60 * interval), 2 * second);
+        assertEquals(r1.id(), port.top(null, null, 1).get(0).storedFlowEntry().id());
+        assertEquals(50L, port.top(null, null, 1).get(0).load().rate());
+    }
+
+    @Test
+    public void summary() {
+        FlowRule r1 = rule(1, false);
+        FlowRule r2 = rule(2, false);
+        index.update(CP, entry(r1, FlowLiveType.SHORT, 100), 0);
+        index.update(CP, entry(r2, FlowLiveType.LONG, 1000), 0);
+        index.update(CP, entry(r1, FlowLiveType.SHORT, 300), second);
+
+        SummaryFlowEntryWithLoad summary = index.port(CP).summary();
+        assertEquals(1300, summary.totalLoad().latest());
+        assertEquals(300, summary.shortLoad().latest());
+        assertEquals(200 / interval, summary.shortLoad().rate());
+        assertEquals(1000, summary.longLoad().latest());
+        assertEquals(0, summary.immediateLoad().latest());
+    }
+
+    @Test
+    public void removal() {
+        FlowRule r1 = rule(1, false);
+        FlowRule r2 = rule(2, false);
+        index.update(CP, entry(r1, FlowLiveType.SHORT, 100), 0);
+        index.update(CP, entry(r2, FlowLiveType.SHORT, 100), 0);
+
+        index.remove(r1);
+        assertEquals(1, index.port(CP).size());
+        assertEquals(100, index.port(CP).summary().totalLoad().latest());
+
+        index.remove(r2);
+        assertNull(index.port(CP));
+
+        index.update(CP, entry(r1, FlowLiveType.SHORT, 100), 0);
+        index.removeDevice(DID);
+        assertNull(index.port(CP));
+    }
+
+    @Test
+    public void filteredTopFlows() {
+        FlowRule r1 = rule(1, false);
+        FlowRule r2 = rule(2, true);
+        FlowRule r3 = rule(3, true);
+        index.update(CP, entry(r1, FlowLiveType.SHORT, 0), 0);
+        index.update(CP, entry(r2, FlowLiveType.LONG, 0), 0);
+        index.update(CP, entry(r3, FlowLiveType.SHORT, 0), 0);
+        index.update(CP, entry(r1, FlowLiveType.SHORT, 30 * interval), second);
+        index.update(CP, entry(r2, FlowLiveType.LONG, 60 * interval), second);
+        index.update(CP, entry(r3, FlowLiveType.SHORT, 10 * interval), second);
+
+        FlowLoadIndex.PortLoad port = index.port(CP);
+        assertEquals(Arrays.asList(r1.id(), r3.id()),
+                     idsOf(port.top(FlowLiveType.SHORT, null, 5)));
+        assertEquals(Arrays.asList(r2.id(), r3.id()),
+                     idsOf(port.top(null, Instruction.Type.L2MODIFICATION, 5)));
+        assertEquals(Arrays.asList(r3.id()),
+                     idsOf(port.top(FlowLiveType.SHORT, Instruction.Type.L2MODIFICATION, 5)));
+        assertTrue(port.top(FlowLiveType.MID, null, 5).isEmpty());
+
+        // A flow changing live type and instructions moves between filters
+        index.update(CP, entry(rule(3, false), FlowLiveType.LONG, 1000 * interval), 2 * second);
+        assertEquals(Arrays.asList(r3.id(), r2.id()),
+                     idsOf(port.top(FlowLiveType.LONG, null, 5)));
+        assertEquals(Arrays.asList(r2.id()),
+                     idsOf(port.top(null, Instruction.Type.L2MODIFICATION, 5)));
+        assertEquals(Arrays.asList(r1.id()),
+                     idsOf(port.top(FlowLiveType.SHORT, null, 5)));
+    }
+
+    @Test
+    public void firstSample() {
+        FlowRule r1 = rule(1, false);
+        FlowRule r2 = rule(2, false);
+        index.update(CP, entry(r1, FlowLiveType.SHORT, 0), 0);
+        index.update(CP, entry(r1, FlowLiveType.SHORT, 10 * interval), second);
+
+        // A long-lived flow first seen, e.g. after a restart, has no load yet
+        index.update(CP, entry(r2, FlowLiveType.SHORT, 1000000 * interval), second);
+        FlowLoadIndex.PortLoad port = index.port(CP);
+        assertEquals(Arrays.asList(r1.id(), r2.id()), idsOf(port.top(null, null, 2)));
+        assertEquals(Arrays.asList(10L, 0L), ratesOf(port.all(null, null)));
+        assertEquals(10L, port.summary().shortLoad().rate());
+        assertEquals(Long.valueOf(10), port.rateHistory().get(port.rateHistory().size() - 1));
+
+        // and is loaded from its next poll on
+        index.update(CP, entry(r2, FlowLiveType.SHORT, 1000020 * interval), 2 * second);
+        assertEquals(Arrays.asList(r2.id(), r1.id()), idsOf(port.top(null, null, 2)));
+        assertEquals(Arrays.asList(20L, 10L), ratesOf(port.all(null, null)));
+    }
+
+    @Test
+    public void outputPortChange() {
+        FlowRule r1 = rule(1, false);
+        FlowRule r2 = rule(2, false);
+        index.update(CP, entry(r1, FlowLiveType.SHORT, 100), 0);
+        index.update(CP, entry(r2, FlowLiveType.SHORT, 100), 0);
+
+        // The flow is modified to forward to another port
+        FlowRule moved = rule(1, false, CP2);
+        assertEquals(r1.id(), moved.id());
+        index.update(CP2, entry(moved, FlowLiveType.SHORT, 200), second);
+        assertEquals(1, index.port(CP).size());
+        assertEquals(100, index.port(CP).summary().totalLoad().latest());
+        assertEquals(1, index.port(CP2).size());
+
+        // and is removed from the port it was last indexed under
+        index.remove(moved);
+        assertNull(index.port(CP2));
+        assertEquals(1, index.port(CP).size());
+    }
+
+    @Test
+    public void rateHistory() {
+        FlowRule r1 = rule(1, false);
+        for (int i = 0; i <= FlowLoadIndex.HISTORY_SIZE + 4; i++) {
+            index.update(CP, entry(r1, FlowLiveType.SHORT, i * i * interval), i * second);
+        }
+        List<Long> history = index.port(CP).rateHistory();
+        assertEquals(FlowLoadIndex.HISTORY_SIZE, history.size());
+        // rate at poll i is i * i - (i - 1) * (i - 1) = 2 * i - 1
+        assertEquals(Long.valueOf(2 * 5 - 1), history.get(0));
+        assertEquals(Long.valueOf(2 * (FlowLoadIndex.HISTORY_SIZE + 4) - 1),
+                     history.get(FlowLoadIndex.HISTORY_SIZE - 1));
+
+        // Updates within the same poll interval replace the latest sample
+        long last = (FlowLoadIndex.HISTORY_SIZE + 4) * (FlowLoadIndex.HISTORY_SIZE + 4) * interval;
+        index.update(CP, entry(r1, FlowLiveType.SHORT, last + 7 * interval),
+                     (FlowLoadIndex.HISTORY_SIZE + 4) * second + 1);
+        List<Long> updated = index.port(CP).rateHistory();
+        assertEquals(history.subList(0, FlowLoadIndex.HISTORY_SIZE - 1),
+                     updated.subList(0, FlowLoadIndex.HISTORY_SIZE - 1));
+        assertEquals(Long.valueOf(7), updated.get(FlowLoadIndex.HISTORY_SIZE - 1));
+    }
+}
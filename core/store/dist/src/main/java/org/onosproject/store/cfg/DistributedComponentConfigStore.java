@@ -56,6 +56,7 @@ public class DistributedComponentConfigStore
         implements ComponentConfigStore {
 
     private static final String SEP = "#";
+    private static final int PROPERTY_CACHE_SIZE = 4096;
 
     private final Logger log = getLogger(getClass());
 
@@ -71,7 +72,7 @@ public class DistributedComponentConfigStore
         properties = storageService.<String, String>consistentMapBuilder()
                 .withName("onos-component-cfg")
                 .withSerializer(Serializer.using(KryoNamespaces.API))
-                .withRelaxedReadConsistency()
+                .withNearCache(PROPERTY_CACHE_SIZE)
                 .build();
 
         properties.addListener(propertiesListener);
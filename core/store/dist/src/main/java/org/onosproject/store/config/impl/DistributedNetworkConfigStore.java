@@ -77,6 +77,8 @@ public class DistributedNetworkConfigStore
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
+    private static final int CONFIG_CACHE_SIZE = 4096;
+
     private static final String INVALID_CONFIG_JSON =
             "JSON node does not contain valid configuration";
     private static final String INVALID_JSON_LIST =
@@ -107,7 +109,7 @@ public class DistributedNetworkConfigStore
         configs = storageService.<ConfigKey, JsonNode>consistentMapBuilder()
                 .withSerializer(Serializer.using(kryoBuilder.build()))
                 .withName("onos-network-configs")
-                .withRelaxedReadConsistency()
+                .withNearCache(CONFIG_CACHE_SIZE)
                 .build();
         configs.addListener(listener);
         log.info("Started");
@@ -52,6 +52,8 @@ import com.google.common.collect.Maps;
 @Service
 public class DistributedApplicationIdStore implements ApplicationIdStore {
 
+    private static final int APP_ID_CACHE_SIZE = 1024;
+
     private final Logger log = getLogger(getClass());
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
@@ -73,7 +75,7 @@ public class DistributedApplicationIdStore implements ApplicationIdStore {
         registeredIds = storageService.<String, ApplicationId>consistentMapBuilder()
                 .withName("onos-app-ids")
                 .withSerializer(Serializer.using(KryoNamespaces.API))
-                .withRelaxedReadConsistency()
+                .withNearCache(APP_ID_CACHE_SIZE)
                 .build();
 
         primeIdToAppIdCache();
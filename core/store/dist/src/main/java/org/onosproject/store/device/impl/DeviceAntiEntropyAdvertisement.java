@@ -18,6 +18,7 @@ package org.onosproject.store.device.impl;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.util.Map;
+import java.util.Set;
 
 import org.onosproject.cluster.NodeId;
 import org.onosproject.net.DeviceId;
@@ -33,16 +34,35 @@ public class DeviceAntiEntropyAdvertisement {
     private final Map<DeviceFragmentId, Timestamp> deviceFingerPrints;
     private final Map<PortFragmentId, Timestamp> portFingerPrints;
     private final Map<DeviceId, Timestamp> offline;
+    private final Set<DeviceId> scope;
 
 
     public DeviceAntiEntropyAdvertisement(NodeId sender,
                 Map<DeviceFragmentId, Timestamp> devices,
                 Map<PortFragmentId, Timestamp> ports,
                 Map<DeviceId, Timestamp> offline) {
+        this(sender, devices, ports, offline, null);
+    }
+
+    /**
+     * Creates an advertisement limited to the given devices.
+     *
+     * @param sender sender of the advertisement
+     * @param devices device fragment timestamps
+     * @param ports port fragment timestamps
+     * @param offline device offline timestamps
+     * @param scope devices covered by the advertisement; null for all devices
+     */
+    public DeviceAntiEntropyAdvertisement(NodeId sender,
+                Map<DeviceFragmentId, Timestamp> devices,
+                Map<PortFragmentId, Timestamp> ports,
+                Map<DeviceId, Timestamp> offline,
+                Set<DeviceId> scope) {
         this.sender = checkNotNull(sender);
         this.deviceFingerPrints = checkNotNull(devices);
         this.portFingerPrints = checkNotNull(ports);
         this.offline = checkNotNull(offline);
+        this.scope = scope;
     }
 
     public NodeId sender() {
@@ -61,6 +81,15 @@ public class DeviceAntiEntropyAdvertisement {
         return offline;
     }
 
+    /**
+     * Returns the devices covered by this advertisement.
+     *
+     * @return device identifiers; null if all devices are covered
+     */
+    public Set<DeviceId> scope() {
+        return scope;
+    }
+
     // For serializer
     @SuppressWarnings("unused")
     private DeviceAntiEntropyAdvertisement() {
@@ -68,5 +97,6 @@ public class DeviceAntiEntropyAdvertisement {
         this.deviceFingerPrints = null;
         this.portFingerPrints = null;
         this.offline = null;
+        this.scope = null;
     }
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.device.impl;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.device.DeviceDescription;
+import org.onosproject.net.device.PortDescription;
+import org.onosproject.store.Timestamp;
+import org.onosproject.store.impl.Timestamped;
+
+/**
+ * Bulk transfer of device, port and offline descriptions of a set of devices.
+ * <p>
+ * Used for the bootstrap of a joining node and to push the fragments found
+ * out-dated on a peer by anti-entropy, in place of one message per fragment.
+ */
+public class DeviceBulkUpdate {
+
+    private final Map<DeviceFragmentId, Timestamped<DeviceDescription>> devices;
+    private final Map<PortFragmentId, Timestamped<PortDescription>> ports;
+    private final Map<DeviceId, Timestamp> offline;
+
+    /**
+     * Creates an empty bulk update.
+     */
+    public DeviceBulkUpdate() {
+        this.devices = new HashMap<>();
+        this.ports = new HashMap<>();
+        this.offline = new HashMap<>();
+    }
+
+    public Map<DeviceFragmentId, Timestamped<DeviceDescription>> devices() {
+        return devices;
+    }
+
+    public Map<PortFragmentId, Timestamped<PortDescription>> ports() {
+        return ports;
+    }
+
+    public Map<DeviceId, Timestamp> offline() {
+        return offline;
+    }
+
+    /**
+     * Adds the description of a device given by a provider.
+     *
+     * @param fragmentId device and provider identifiers
+     * @param description timestamped device description
+     */
+    public void addDevice(DeviceFragmentId fragmentId,
+                          Timestamped<DeviceDescription> description) {
+        devices.put(checkNotNull(fragmentId), checkNotNull(description));
+    }
+
+    /**
+     * Adds the description of a port given by a provider.
+     *
+     * @param fragmentId device, provider and port identifiers
+     * @param description timestamped port description
+     */
+    public void addPort(PortFragmentId fragmentId,
+                        Timestamped<PortDescription> description) {
+        ports.put(checkNotNull(fragmentId), checkNotNull(description));
+    }
+
+    /**
+     * Adds the time a device was marked offline.
+     *
+     * @param deviceId device identifier
+     * @param timestamp offline timestamp
+     */
+    public void addOffline(DeviceId deviceId, Timestamp timestamp) {
+        offline.put(checkNotNull(deviceId), checkNotNull(timestamp));
+    }
+
+    /**
+     * Returns whether this update holds no description.
+     *
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        return devices.isEmpty() && ports.isEmpty() && offline.isEmpty();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.device.impl;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Map;
+
+import org.onosproject.cluster.NodeId;
+import org.onosproject.net.DeviceId;
+
+/**
+ * Digest based anti-entropy advertisement.
+ * <p>
+ * Carries a single digest of all the device, port and offline timestamps
+ * known for each device, instead of the timestamp of every fragment, so
+ * that peers in sync exchange one entry per device.
+ */
+public class DeviceDigestAdvertisement {
+
+    private final NodeId sender;
+    private final Map<DeviceId, Long> digests;
+
+    public DeviceDigestAdvertisement(NodeId sender,
+                                     Map<DeviceId, Long> digests) {
+        this.sender = checkNotNull(sender);
+        this.digests = checkNotNull(digests);
+    }
+
+    public NodeId sender() {
+        return sender;
+    }
+
+    public Map<DeviceId, Long> digests() {
+        return digests;
+    }
+
+    // For serializer
+    @SuppressWarnings("unused")
+    private DeviceDigestAdvertisement() {
+        this.sender = null;
+        this.digests = null;
+    }
+}
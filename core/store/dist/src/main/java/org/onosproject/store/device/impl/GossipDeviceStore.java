@@ -17,8 +17,11 @@ package org.onosproject.store.device.impl;
 
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.common.io.ByteStreams;
 import org.apache.commons.lang3.RandomUtils;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
@@ -70,7 +73,12 @@ import org.onosproject.store.service.StorageService;
 import org.onosproject.store.service.WallClockTimestamp;
 import org.slf4j.Logger;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -90,6 +98,8 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Predicates.notNull;
@@ -120,6 +130,8 @@ public class GossipDeviceStore
     private static final String DEVICE_NOT_FOUND = "Device with ID %s not found";
     // Timeout in milliseconds to process device or ports on remote master node
     private static final int REMOTE_MASTER_TIMEOUT = 1000;
+    // Maximum number of devices described by a bulk update or advertisement
+    private static final int BULK_CHUNK_SIZE = 500;
 
     // innerMap is used to lock a Device, thus instance should never be replaced.
     // collection of Description given from various providers
@@ -173,6 +185,8 @@ public class GossipDeviceStore
                     .register(DeviceAntiEntropyAdvertisement.class)
                     .register(DeviceFragmentId.class)
                     .register(PortFragmentId.class)
+                    .register(DeviceDigestAdvertisement.class)
+                    .register(DeviceBulkUpdate.class)
                     .build("GossipDevice"));
 
     private ExecutorService executor;
@@ -197,6 +211,10 @@ public class GossipDeviceStore
         addSubscriber(PORT_UPDATE, this::handlePortEvent);
         addSubscriber(PORT_STATUS_UPDATE, this::handlePortStatusEvent);
         addSubscriber(DEVICE_ADVERTISE, this::handleDeviceAdvertisement);
+        addSubscriber(DEVICE_DIGEST, this::handleDigestAdvertisement);
+        addSubscriber(DEVICE_BOOTSTRAP_REQ, this::handleBootstrapRequest);
+        clusterCommunicator.addSubscriber(DEVICE_BULK_UPDATE, GossipDeviceStore::decodeCompressed,
+                                          this::handleBulkUpdate, executor);
 
         // start anti-entropy thread
         backgroundExecutor.scheduleAtFixedRate(new SendAdvertisementTask(),
@@ -224,6 +242,9 @@ public class GossipDeviceStore
                 .withTombstonesDisabled()
                 .build();
         devicePortStats.addListener(portStatsListener);
+
+        // fetch the current state in bulk rather than waiting for anti-entropy
+        requestBootstrap();
         log.info("Started");
     }
 
@@ -259,6 +280,9 @@ public class GossipDeviceStore
         clusterCommunicator.removeSubscriber(PORT_UPDATE);
         clusterCommunicator.removeSubscriber(PORT_STATUS_UPDATE);
         clusterCommunicator.removeSubscriber(DEVICE_ADVERTISE);
+        clusterCommunicator.removeSubscriber(DEVICE_DIGEST);
+        clusterCommunicator.removeSubscriber(DEVICE_BOOTSTRAP_REQ);
+        clusterCommunicator.removeSubscriber(DEVICE_BULK_UPDATE);
         log.info("Stopped");
     }
 
@@ -1261,6 +1285,46 @@ public class GossipDeviceStore
         clusterCommunicator.unicast(event, subject, SERIALIZER::encode, recipient);
     }
 
+    private void sendBulkUpdate(NodeId recipient, DeviceBulkUpdate update) {
+        if (!update.isEmpty()) {
+            clusterCommunicator.unicast(update, DEVICE_BULK_UPDATE,
+                                        GossipDeviceStore::encodeCompressed, recipient);
+        }
+    }
+
+    /**
+     * Serializes and deflates a message.
+     *
+     * @param message message to encode
+     * @return compressed bytes
+     */
+    static byte[] encodeCompressed(Object message) {
+        byte[] bytes = SERIALIZER.encode(message);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+        try (OutputStream out = new DeflaterOutputStream(compressed)) {
+            out.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * Inflates and deserializes a message encoded with
+     * {@link #encodeCompressed(Object)}.
+     *
+     * @param bytes compressed bytes
+     * @param <T> message type
+     * @return decoded message
+     */
+    static <T> T decodeCompressed(byte[] bytes) {
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(bytes))) {
+            return SERIALIZER.decode(ByteStreams.toByteArray(in));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     private void broadcastMessage(MessageSubject subject, Object event) {
         clusterCommunicator.broadcast(event, subject, SERIALIZER::encode);
     }
@@ -1285,56 +1349,25 @@ public class GossipDeviceStore
         broadcastMessage(GossipDeviceStoreMessageSubjects.PORT_STATUS_UPDATE, event);
     }
 
-    private void notifyPeer(NodeId recipient, InternalDeviceEvent event) {
-        try {
-            unicastMessage(recipient, DEVICE_UPDATE, event);
-        } catch (IOException e) {
-            log.error("Failed to send" + event + " to " + recipient, e);
-        }
-    }
-
-    private void notifyPeer(NodeId recipient, InternalDeviceStatusChangeEvent event) {
-        try {
-            unicastMessage(recipient, GossipDeviceStoreMessageSubjects.DEVICE_STATUS_CHANGE, event);
-        } catch (IOException e) {
-            log.error("Failed to send" + event + " to " + recipient, e);
-        }
-    }
-
-    private void notifyPeer(NodeId recipient, InternalDeviceRemovedEvent event) {
-        try {
-            unicastMessage(recipient, GossipDeviceStoreMessageSubjects.DEVICE_REMOVED, event);
-        } catch (IOException e) {
-            log.error("Failed to send" + event + " to " + recipient, e);
-        }
-    }
-
-    private void notifyPeer(NodeId recipient, InternalPortEvent event) {
-        try {
-            unicastMessage(recipient, GossipDeviceStoreMessageSubjects.PORT_UPDATE, event);
-        } catch (IOException e) {
-            log.error("Failed to send" + event + " to " + recipient, e);
-        }
-    }
-
-    private void notifyPeer(NodeId recipient, InternalPortStatusEvent event) {
-        try {
-            unicastMessage(recipient, GossipDeviceStoreMessageSubjects.PORT_STATUS_UPDATE, event);
-        } catch (IOException e) {
-            log.error("Failed to send" + event + " to " + recipient, e);
-        }
-    }
-
-    private DeviceAntiEntropyAdvertisement createAdvertisement() {
+    /**
+     * Creates an advertisement of the fragment timestamps of the given devices.
+     *
+     * @param scope devices to advertise; null for all devices
+     * @return advertisement
+     */
+    private DeviceAntiEntropyAdvertisement createAdvertisement(Set<DeviceId> scope) {
         final NodeId self = clusterService.getLocalNode().id();
 
-        final int numDevices = deviceDescs.size();
+        final int numDevices = scope == null ? deviceDescs.size() : scope.size();
         Map<DeviceFragmentId, Timestamp> adDevices = new HashMap<>(numDevices);
         final int portsPerDevice = 8; // random factor to minimize reallocation
         Map<PortFragmentId, Timestamp> adPorts = new HashMap<>(numDevices * portsPerDevice);
         Map<DeviceId, Timestamp> adOffline = new HashMap<>(numDevices);
 
         deviceDescs.forEach((deviceId, devDescs) -> {
+            if (scope != null && !scope.contains(deviceId)) {
+                return;
+            }
 
             // for each Device...
             synchronized (devDescs) {
@@ -1366,7 +1399,116 @@ public class GossipDeviceStore
             }
         });
 
-        return new DeviceAntiEntropyAdvertisement(self, adDevices, adPorts, adOffline);
+        return new DeviceAntiEntropyAdvertisement(self, adDevices, adPorts, adOffline, scope);
+    }
+
+    private DeviceDigestAdvertisement createDigestAdvertisement() {
+        final NodeId self = clusterService.getLocalNode().id();
+
+        Map<DeviceId, Long> digests = new HashMap<>(deviceDescs.size());
+        deviceDescs.forEach((deviceId, devDescs) -> digests.put(deviceId, digest(deviceId, devDescs)));
+        return new DeviceDigestAdvertisement(self, digests);
+    }
+
+    /**
+     * Computes a digest of the timestamps of all the fragments of a device.
+     * <p>
+     * Fragments are combined regardless of their order, so that two nodes
+     * holding the same fragments compute the same digest. A device without
+     * any fragment has a zero digest, like an unknown device.
+     *
+     * @param deviceId device identifier
+     * @param devDescs descriptions of the device by provider
+     * @return digest
+     */
+    private long digest(DeviceId deviceId, Map<ProviderId, DeviceDescriptions> devDescs) {
+        synchronized (devDescs) {
+            long digest = 0;
+            Timestamp lOffline = offline.get(deviceId);
+            if (lOffline != null) {
+                digest += mix(Objects.hash(deviceId, lOffline));
+            }
+            for (Entry<ProviderId, DeviceDescriptions> prov : devDescs.entrySet()) {
+                final ProviderId provId = prov.getKey();
+                final DeviceDescriptions descs = prov.getValue();
+
+                digest += mix(Objects.hash(provId, descs.getDeviceDesc().timestamp()));
+                for (Entry<PortNumber, Timestamped<PortDescription>>
+                        portDesc : descs.getPortDescs().entrySet()) {
+                    digest += mix(Objects.hash(provId, portDesc.getKey(),
+                                               portDesc.getValue().timestamp()));
+                }
+            }
+            return digest;
+        }
+    }
+
+    // Spreads the bits of a fragment hash (MurmurHash3 64-bit finalizer)
+    private static long mix(long hash) {
+        long h = hash;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Creates a bulk update holding all the fragments of the given devices.
+     *
+     * @param deviceIds devices to describe
+     * @return bulk update
+     */
+    private DeviceBulkUpdate createBulkUpdate(Collection<DeviceId> deviceIds) {
+        DeviceBulkUpdate update = new DeviceBulkUpdate();
+        for (DeviceId deviceId : deviceIds) {
+            Map<ProviderId, DeviceDescriptions> devDescs = deviceDescs.get(deviceId);
+            if (devDescs == null) {
+                continue;
+            }
+            synchronized (devDescs) {
+                Timestamp lOffline = offline.get(deviceId);
+                if (lOffline != null) {
+                    update.addOffline(deviceId, lOffline);
+                }
+                for (Entry<ProviderId, DeviceDescriptions> prov : devDescs.entrySet()) {
+                    final ProviderId provId = prov.getKey();
+                    final DeviceDescriptions descs = prov.getValue();
+
+                    update.addDevice(new DeviceFragmentId(deviceId, provId), descs.getDeviceDesc());
+                    descs.getPortDescs().forEach((number, portDesc) ->
+                            update.addPort(new PortFragmentId(deviceId, provId, number), portDesc));
+                }
+            }
+        }
+        return update;
+    }
+
+    /**
+     * Requests a random active peer to send the state of all its devices.
+     */
+    private void requestBootstrap() {
+        final NodeId self = clusterService.getLocalNode().id();
+        List<NodeId> peers = new ArrayList<>();
+        for (ControllerNode node : clusterService.getNodes()) {
+            ControllerNode.State state = clusterService.getState(node.id());
+            if (!node.id().equals(self) && state != null && state.isActive()) {
+                peers.add(node.id());
+            }
+        }
+        if (peers.isEmpty()) {
+            log.debug("No active peer to bootstrap devices from");
+            return;
+        }
+
+        NodeId peer = peers.get(RandomUtils.nextInt(0, peers.size()));
+        log.debug("Requesting devices bootstrap from {}", peer);
+        try {
+            unicastMessage(peer, DEVICE_BOOTSTRAP_REQ, self);
+        } catch (IOException e) {
+            log.warn("Failed to request devices bootstrap from {}", peer, e);
+        }
     }
 
     /**
@@ -1380,6 +1522,7 @@ public class GossipDeviceStore
     private void handleAdvertisement(DeviceAntiEntropyAdvertisement advertisement) {
 
         final NodeId sender = advertisement.sender();
+        final Set<DeviceId> scope = advertisement.scope();
 
         Map<DeviceFragmentId, Timestamp> devAds = new HashMap<>(advertisement.deviceFingerPrints());
         Map<PortFragmentId, Timestamp> portAds = new HashMap<>(advertisement.ports());
@@ -1388,10 +1531,15 @@ public class GossipDeviceStore
         // Fragments to request
         Collection<DeviceFragmentId> reqDevices = new ArrayList<>();
         Collection<PortFragmentId> reqPorts = new ArrayList<>();
+        // Fragments to suggest
+        DeviceBulkUpdate update = new DeviceBulkUpdate();
 
         for (Entry<DeviceId, Map<ProviderId, DeviceDescriptions>> de : deviceDescs.entrySet()) {
             final DeviceId deviceId = de.getKey();
             final Map<ProviderId, DeviceDescriptions> lDevice = de.getValue();
+            if (scope != null && !scope.contains(deviceId)) {
+                continue;
+            }
 
             synchronized (lDevice) {
                 // latestTimestamp across provider
@@ -1412,7 +1560,7 @@ public class GossipDeviceStore
                     if (advDevTimestamp == null || lProvDevice.isNewerThan(
                             advDevTimestamp)) {
                         // remote does not have it or outdated, suggest
-                        notifyPeer(sender, new InternalDeviceEvent(provId, deviceId, lProvDevice));
+                        update.addDevice(devFragId, lProvDevice);
                     } else if (!lProvDevice.timestamp().equals(advDevTimestamp)) {
                         // local is outdated, request
                         reqDevices.add(devFragId);
@@ -1431,7 +1579,7 @@ public class GossipDeviceStore
                         if (advPortTimestamp == null || lPort.isNewerThan(
                                 advPortTimestamp)) {
                             // remote does not have it or outdated, suggest
-                            notifyPeer(sender, new InternalPortStatusEvent(provId, deviceId, lPort));
+                            update.addPort(portFragId, lPort);
                         } else if (!lPort.timestamp().equals(advPortTimestamp)) {
                             // local is outdated, request
                             log.trace("need update {} < {}", lPort.timestamp(), advPortTimestamp);
@@ -1464,7 +1612,7 @@ public class GossipDeviceStore
                 Timestamp lOffline = offline.get(deviceId);
                 if (lOffline != null && rOffline == null) {
                     // locally offline, but remote is online, suggest offline
-                    notifyPeer(sender, new InternalDeviceStatusChangeEvent(deviceId, lOffline, false));
+                    update.addOffline(deviceId, lOffline);
                 }
 
                 // remove device offline Ad already processed
@@ -1472,6 +1620,8 @@ public class GossipDeviceStore
             } // end local device loop
         } // device lock
 
+        sendBulkUpdate(sender, update);
+
         // If there is any Ads left, request them
         log.trace("Ads left {}, {}", devAds, portAds);
         reqDevices.addAll(devAds.keySet());
@@ -1486,7 +1636,7 @@ public class GossipDeviceStore
 
         // 2-way Anti-Entropy for now
         try {
-            unicastMessage(sender, DEVICE_ADVERTISE, createAdvertisement());
+            unicastMessage(sender, DEVICE_ADVERTISE, createAdvertisement(scope));
         } catch (IOException e) {
             log.error("Failed to send response advertisement to " + sender, e);
         }
@@ -1540,7 +1690,7 @@ public class GossipDeviceStore
                     peer = nodeIds.get(idx);
                 } while (peer.equals(self));
 
-                DeviceAntiEntropyAdvertisement ad = createAdvertisement();
+                DeviceDigestAdvertisement ad = createDigestAdvertisement();
 
                 if (Thread.currentThread().isInterrupted()) {
                     log.debug("Interrupted, quitting");
@@ -1548,7 +1698,7 @@ public class GossipDeviceStore
                 }
 
                 try {
-                    unicastMessage(peer, DEVICE_ADVERTISE, ad);
+                    unicastMessage(peer, DEVICE_DIGEST, ad);
                 } catch (IOException e) {
                     log.debug("Failed to send anti-entropy advertisement to {}", peer);
                     return;
@@ -1653,6 +1803,89 @@ public class GossipDeviceStore
         }
     }
 
+    /**
+     * Responds to a digest advertisement by advertising the fragment
+     * timestamps of the devices whose digests differ, in chunks the sender
+     * can process in parallel.
+     *
+     * @param advertisement to respond to
+     */
+    private void handleDigestAdvertisement(DeviceDigestAdvertisement advertisement) {
+        try {
+            final NodeId sender = advertisement.sender();
+            final Map<DeviceId, Long> digests = advertisement.digests();
+
+            Set<DeviceId> outOfSync = new HashSet<>();
+            deviceDescs.forEach((deviceId, devDescs) -> {
+                if (digest(deviceId, devDescs) != digests.getOrDefault(deviceId, 0L)) {
+                    outOfSync.add(deviceId);
+                }
+            });
+            digests.forEach((deviceId, digest) -> {
+                if (digest != 0L && !deviceDescs.containsKey(deviceId)) {
+                    outOfSync.add(deviceId);
+                }
+            });
+
+            if (outOfSync.isEmpty()) {
+                log.trace("In sync with remote peer {}", sender);
+                return;
+            }
+            log.debug("{} devices out of sync with {}", outOfSync.size(), sender);
+
+            for (List<DeviceId> chunk : Iterables.partition(outOfSync, BULK_CHUNK_SIZE)) {
+                unicastMessage(sender, DEVICE_ADVERTISE, createAdvertisement(ImmutableSet.copyOf(chunk)));
+            }
+        } catch (Exception e) {
+            log.warn("Exception thrown handling Device digest advertisements.", e);
+        }
+    }
+
+    private void handleBootstrapRequest(NodeId requester) {
+        try {
+            List<DeviceId> deviceIds = ImmutableList.copyOf(deviceDescs.keySet());
+            log.debug("Sending {} devices to {}", deviceIds.size(), requester);
+            for (List<DeviceId> chunk : Iterables.partition(deviceIds, BULK_CHUNK_SIZE)) {
+                sendBulkUpdate(requester, createBulkUpdate(chunk));
+            }
+        } catch (Exception e) {
+            log.warn("Exception thrown handling Device bootstrap request.", e);
+        }
+    }
+
+    private void handleBulkUpdate(DeviceBulkUpdate update) {
+        update.devices().forEach((fragId, deviceDescription) -> {
+            try {
+                notifyDelegateIfNotNull(createOrUpdateDeviceInternal(fragId.providerId, fragId.deviceId,
+                                                                     deviceDescription));
+            } catch (Exception e) {
+                log.warn("Exception thrown handling device update", e);
+            }
+        });
+
+        update.ports().forEach((fragId, portDescription) -> {
+            if (getDevice(fragId.deviceId) == null) {
+                log.debug("{} not found on this node yet, ignoring.", fragId.deviceId);
+                // Note: dropped information will be recovered by anti-entropy
+                return;
+            }
+            try {
+                notifyDelegateIfNotNull(updatePortStatusInternal(fragId.providerId, fragId.deviceId,
+                                                                 portDescription));
+            } catch (Exception e) {
+                log.warn("Exception thrown handling port update", e);
+            }
+        });
+
+        update.offline().forEach((deviceId, timestamp) -> {
+            try {
+                notifyDelegateIfNotNull(markOfflineInternal(deviceId, timestamp));
+            } catch (Exception e) {
+                log.warn("Exception thrown handling device status change event", e);
+            }
+        });
+    }
+
     private class InternalPortStatsListener
             implements EventuallyConsistentMapListener<DeviceId, Map<PortNumber, PortStatistics>> {
         @Override
@@ -32,6 +32,9 @@ public final class GossipDeviceStoreMessageSubjects {
     public static final MessageSubject PORT_STATUS_UPDATE = new MessageSubject("peer-port-status-update");
 
     public static final MessageSubject DEVICE_ADVERTISE = new MessageSubject("peer-device-advertisements");
+    public static final MessageSubject DEVICE_DIGEST = new MessageSubject("peer-device-digests");
+    public static final MessageSubject DEVICE_BOOTSTRAP_REQ = new MessageSubject("peer-device-bootstrap-request");
+    public static final MessageSubject DEVICE_BULK_UPDATE = new MessageSubject("peer-device-bulk-update");
     // to be used with 3-way anti-entropy process
     public static final MessageSubject DEVICE_REQUEST = new MessageSubject("peer-device-request");
 
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowId;
+import org.onosproject.net.flow.StoredFlowEntry;
+
+/**
+ * Secondary indexes of the flows in a device flow table by application and by application group.
+ * <p>
+ * The indexes map to flow identifiers rather than flow entries. Entries are always read back from the flow
+ * buckets, so an index may transiently contain identifiers for which no matching entries remain, but never
+ * misses an identifier for which a matching entry exists.
+ */
+class DeviceFlowIndex {
+    private final Map<Short, Set<FlowId>> flowsByApp = Maps.newConcurrentMap();
+    private final Map<Long, Set<FlowId>> flowsByGroup = Maps.newConcurrentMap();
+
+    /**
+     * Returns the group index key for the given application and group.
+     *
+     * @param appId   the application identifier
+     * @param groupId the group identifier
+     * @return the group index key
+     */
+    static long groupKey(short appId, short groupId) {
+        return (Short.toUnsignedLong(appId) << 16) | Short.toUnsignedLong(groupId);
+    }
+
+    /**
+     * Returns the group index key for the given flow identifier.
+     *
+     * @param flowId the flow identifier
+     * @return the group index key, composed of the application and group bits of the flow identifier
+     */
+    private static long groupKey(FlowId flowId) {
+        return flowId.value() >>> 32;
+    }
+
+    /**
+     * Returns the identifiers of the flows added by the given application.
+     *
+     * @param appId the application identifier
+     * @return the identifiers of the flows added by the application
+     */
+    Set<FlowId> getFlowIds(short appId) {
+        Set<FlowId> flowIds = flowsByApp.get(appId);
+        return flowIds != null ? ImmutableSet.copyOf(flowIds) : Collections.emptySet();
+    }
+
+    /**
+     * Returns the identifiers of the flows in the given group key.
+     *
+     * @param groupKey the group index key
+     * @return the identifiers of the flows in the group
+     * @see #groupKey(short, short)
+     */
+    Set<FlowId> getFlowIds(long groupKey) {
+        Set<FlowId> flowIds = flowsByGroup.get(groupKey);
+        return flowIds != null ? ImmutableSet.copyOf(flowIds) : Collections.emptySet();
+    }
+
+    /**
+     * Indexes the given flow entry.
+     *
+     * @param entry the entry that was added to the flow table
+     */
+    void add(FlowEntry entry) {
+        addId(flowsByApp, entry.appId(), entry.id());
+        addId(flowsByGroup, groupKey(entry.id()), entry.id());
+    }
+
+    /**
+     * Indexes all flow entries in the given bucket.
+     *
+     * @param bucket the bucket to index
+     */
+    void addAll(FlowBucket bucket) {
+        bucket.getFlowBucket().values().forEach(entries -> entries.keySet().forEach(this::add));
+    }
+
+    /**
+     * Removes the given flow entry from the indexes if no other entries in the bucket require it.
+     *
+     * @param entry  the entry that was removed from the flow table
+     * @param bucket the bucket from which the entry was removed
+     */
+    void remove(FlowEntry entry, FlowBucket bucket) {
+        if (!hasApp(bucket, entry.id(), entry.appId())) {
+            removeId(flowsByApp, entry.appId(), entry.id());
+
+            // Recheck to handle an entry that was concurrently added for the same flow.
+            if (hasApp(bucket, entry.id(), entry.appId())) {
+                addId(flowsByApp, entry.appId(), entry.id());
+            }
+        }
+
+        if (!hasFlow(bucket, entry.id())) {
+            removeId(flowsByGroup, groupKey(entry.id()), entry.id());
+            if (hasFlow(bucket, entry.id())) {
+                addId(flowsByGroup, groupKey(entry.id()), entry.id());
+            }
+        }
+    }
+
+    /**
+     * Reindexes a bucket that has been replaced.
+     *
+     * @param oldBucket the replaced bucket
+     * @param newBucket the new bucket
+     */
+    void replace(FlowBucket oldBucket, FlowBucket newBucket) {
+        oldBucket.getFlowBucket().values()
+            .forEach(entries -> entries.keySet().forEach(entry -> remove(entry, newBucket)));
+        addAll(newBucket);
+    }
+
+    /**
+     * Clears the indexes.
+     */
+    void clear() {
+        flowsByApp.clear();
+        flowsByGroup.clear();
+    }
+
+    private static boolean hasFlow(FlowBucket bucket, FlowId flowId) {
+        Map<StoredFlowEntry, StoredFlowEntry> entries = bucket.getFlowBucket().get(flowId);
+        return entries != null && !entries.isEmpty();
+    }
+
+    private static boolean hasApp(FlowBucket bucket, FlowId flowId, short appId) {
+        Map<StoredFlowEntry, StoredFlowEntry> entries = bucket.getFlowBucket().get(flowId);
+        return entries != null && entries.keySet().stream().anyMatch(entry -> entry.appId() == appId);
+    }
+
+    private static <K> void addId(Map<K, Set<FlowId>> index, K key, FlowId flowId) {
+        index.compute(key, (k, flowIds) -> {
+            Set<FlowId> ids = flowIds != null ? flowIds : Sets.newConcurrentHashSet();
+            ids.add(flowId);
+            return ids;
+        });
+    }
+
+    private static <K> void removeId(Map<K, Set<FlowId>> index, K key, FlowId flowId) {
+        index.computeIfPresent(key, (k, flowIds) -> {
+            flowIds.remove(flowId);
+            return flowIds.isEmpty() ? null : flowIds;
+        });
+    }
+}
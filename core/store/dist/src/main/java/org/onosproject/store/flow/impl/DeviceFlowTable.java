@@ -26,15 +26,20 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import com.codahale.metrics.Counter;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.onlab.util.KryoNamespace;
 import org.onlab.util.Tools;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.NodeId;
+import org.onosproject.core.ApplicationId;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.flow.FlowEntry;
 import org.onosproject.net.flow.FlowId;
@@ -59,6 +64,10 @@ import org.slf4j.LoggerFactory;
  * anti-entropy protocol is used to detect missing flows on backups (e.g. due to a node restart). Finally, when a
  * device mastership change occurs, the new master synchronizes flows with the prior master and/or backups for the
  * device, allowing mastership to be reassigned to non-backup nodes.
+ * <p>
+ * When delta backups are enabled, once a bucket has been backed up to a node only the flow entries that changed since
+ * the last successful backup to that node are replicated. A full copy of the bucket is sent only for the first backup
+ * to a node, or once the anti-entropy protocol or the backup itself has detected divergence.
  */
 public class DeviceFlowTable {
     private static final int NUM_BUCKETS = 1024;
@@ -69,6 +78,7 @@ public class DeviceFlowTable {
         .register(FlowBucketDigest.class)
         .register(LogicalTimestamp.class)
         .register(Timestamped.class)
+        .register(FlowBucketDelta.class)
         .build());
 
     private final Logger log = LoggerFactory.getLogger(getClass());
@@ -76,6 +86,7 @@ public class DeviceFlowTable {
     private final MessageSubject getDigestsSubject;
     private final MessageSubject getBucketSubject;
     private final MessageSubject backupSubject;
+    private final MessageSubject backupDeltaSubject;
 
     private final DeviceId deviceId;
     private final ClusterCommunicationService clusterCommunicator;
@@ -87,6 +98,10 @@ public class DeviceFlowTable {
 
     private volatile DeviceReplicaInfo replicaInfo;
     private volatile long activeTerm;
+    private volatile boolean deltaBackupEnabled;
+
+    private final Counter backupBytes;
+    private final Counter backupEntries;
 
     private final LifecycleEventListener lifecycleEventListener = new LifecycleEventListener() {
         @Override
@@ -100,6 +115,7 @@ public class DeviceFlowTable {
 
     private final Map<Integer, Queue<Runnable>> flowTasks = Maps.newConcurrentMap();
     private final Map<Integer, FlowBucket> flowBuckets = Maps.newConcurrentMap();
+    private final DeviceFlowIndex flowIndex = new DeviceFlowIndex();
 
     private final Map<BackupOperation, LogicalTimestamp> lastBackupTimes = Maps.newConcurrentMap();
     private final Set<BackupOperation> inFlightUpdates = Sets.newConcurrentHashSet();
@@ -111,12 +127,18 @@ public class DeviceFlowTable {
         LifecycleManager lifecycleManager,
         ScheduledExecutorService executorService,
         long backupPeriod,
-        long antiEntropyPeriod) {
+        long antiEntropyPeriod,
+        boolean deltaBackupEnabled,
+        Counter backupBytes,
+        Counter backupEntries) {
         this.deviceId = deviceId;
         this.clusterCommunicator = clusterCommunicator;
         this.lifecycleManager = lifecycleManager;
         this.executorService = executorService;
         this.localNodeId = clusterService.getLocalNode().id();
+        this.deltaBackupEnabled = deltaBackupEnabled;
+        this.backupBytes = backupBytes;
+        this.backupEntries = backupEntries;
 
         addListeners();
 
@@ -127,6 +149,7 @@ public class DeviceFlowTable {
         getDigestsSubject = new MessageSubject(String.format("flow-store-%s-digests", deviceId));
         getBucketSubject = new MessageSubject(String.format("flow-store-%s-bucket", deviceId));
         backupSubject = new MessageSubject(String.format("flow-store-%s-backup", deviceId));
+        backupDeltaSubject = new MessageSubject(String.format("flow-store-%s-backup-delta", deviceId));
 
         setBackupPeriod(backupPeriod);
         setAntiEntropyPeriod(antiEntropyPeriod);
@@ -163,6 +186,15 @@ public class DeviceFlowTable {
             this::runAntiEntropy, antiEntropyPeriod, antiEntropyPeriod, TimeUnit.MILLISECONDS);
     }
 
+    /**
+     * Sets whether backups should only replicate changes since the last successful backup.
+     *
+     * @param deltaBackupEnabled whether delta backups are enabled
+     */
+    void setDeltaBackupEnabled(boolean deltaBackupEnabled) {
+        this.deltaBackupEnabled = deltaBackupEnabled;
+    }
+
     /**
      * Counts the flows in the table.
      *
@@ -198,6 +230,43 @@ public class DeviceFlowTable {
             .collect(Collectors.toSet());
     }
 
+    /**
+     * Returns the set of flow entries in the table that were added by the given application.
+     *
+     * @param appId the application identifier
+     * @return the set of flow entries added by the given application
+     */
+    public Set<FlowEntry> getFlowEntries(ApplicationId appId) {
+        return flowIndex.getFlowIds(appId.id()).stream()
+            .flatMap(this::getFlowEntries)
+            .filter(entry -> entry.appId() == appId.id())
+            .collect(Collectors.toSet());
+    }
+
+    /**
+     * Returns the set of flow entries in the table that were added by the given application in the given group.
+     *
+     * @param appId   the application identifier
+     * @param groupId the group identifier
+     * @return the set of flow entries in the given application group
+     */
+    public Set<FlowEntry> getFlowEntries(ApplicationId appId, short groupId) {
+        return flowIndex.getFlowIds(DeviceFlowIndex.groupKey(appId.id(), groupId)).stream()
+            .flatMap(this::getFlowEntries)
+            .collect(Collectors.toSet());
+    }
+
+    /**
+     * Returns the flow entries for the given flow identifier.
+     *
+     * @param flowId the flow identifier
+     * @return the flow entries for the given flow identifier
+     */
+    private Stream<FlowEntry> getFlowEntries(FlowId flowId) {
+        Map<StoredFlowEntry, StoredFlowEntry> entries = getBucket(flowId).getFlowBucket().get(flowId);
+        return entries != null ? entries.values().stream().map(entry -> (FlowEntry) entry) : Stream.empty();
+    }
+
     /**
      * Returns the bucket for the given flow identifier.
      *
@@ -259,6 +328,7 @@ public class DeviceFlowTable {
     public CompletableFuture<Void> add(FlowEntry rule) {
         return runInTerm(rule.id(), (bucket, term) -> {
             bucket.add(rule, term, clock);
+            flowIndex.add(rule);
             return null;
         });
     }
@@ -288,6 +358,37 @@ public class DeviceFlowTable {
         return runInTerm(rule.id(), (bucket, term) -> bucket.update(rule, function, term, clock));
     }
 
+    /**
+     * Applies the given update function to a batch of rules.
+     * <p>
+     * The rules are grouped by bucket and each bucket is updated in a single operation.
+     *
+     * @param rules    the rules to update
+     * @param modified predicate indicating whether updating a stored entry modifies its replicated state
+     * @param function the update function to apply; called with a {@code null} stored entry for rules that are not
+     *                 in the table
+     * @param <R>      the rule type
+     * @param <T>      the result type
+     * @return a future to be completed with the update results, grouped by bucket
+     */
+    public <R extends FlowRule, T> CompletableFuture<List<T>> update(
+        Collection<R> rules,
+        BiPredicate<R, StoredFlowEntry> modified,
+        BiFunction<R, StoredFlowEntry, T> function) {
+        Map<Integer, List<R>> bucketRules = Maps.newHashMap();
+        for (R rule : rules) {
+            bucketRules.computeIfAbsent(bucket(rule.id()), bucket -> Lists.newArrayList()).add(rule);
+        }
+
+        List<CompletableFuture<List<T>>> futures = bucketRules.values().stream()
+            .map(bucketBatch -> runInTerm(bucketBatch.get(0).id(), (bucket, term) ->
+                bucket.update(bucketBatch, modified, function, term, clock)))
+            .collect(Collectors.toList());
+        return Tools.allOf(futures).thenApply(results -> results.stream()
+            .flatMap(List::stream)
+            .collect(Collectors.toList()));
+    }
+
     /**
      * Removes an entry from the table.
      *
@@ -295,7 +396,13 @@ public class DeviceFlowTable {
      * @return a future to be completed once the rule has been removed
      */
     public CompletableFuture<FlowEntry> remove(FlowEntry rule) {
-        return runInTerm(rule.id(), (bucket, term) -> bucket.remove(rule, term, clock));
+        return runInTerm(rule.id(), (bucket, term) -> {
+            FlowEntry removed = bucket.remove(rule, term, clock);
+            if (removed != null) {
+                flowIndex.remove(removed, bucket);
+            }
+            return removed;
+        });
     }
 
     /**
@@ -338,11 +445,17 @@ public class DeviceFlowTable {
     private void backup() {
         DeviceReplicaInfo replicaInfo = lifecycleManager.getReplicaInfo();
 
-        // If the local node is not currently the master, skip the backup.
-        if (!replicaInfo.isMaster(localNodeId)) {
+        // If the local node is not currently the master or there are no backups, skip the backup. Changes
+        // tracked by the buckets will never be replicated as deltas, so discard them.
+        if (!replicaInfo.isMaster(localNodeId) || replicaInfo.backups().isEmpty()) {
+            flowBuckets.values().forEach(bucket -> bucket.compact(bucket.timestamp()));
             return;
         }
 
+        // Forget backups to nodes that are no longer backups for the device to ensure they're sent a full copy of
+        // each bucket if they become backups again.
+        lastBackupTimes.keySet().removeIf(operation -> !replicaInfo.backups().contains(operation.nodeId()));
+
         // Otherwise, iterate through backup nodes and backup the device.
         for (NodeId nodeId : replicaInfo.backups()) {
             try {
@@ -373,13 +486,25 @@ public class DeviceFlowTable {
             // If the backup can be run (no concurrent backup to the node in progress) then run it.
             BackupOperation operation = new BackupOperation(nodeId, bucket.bucketId().bucket());
             if (startBackup(operation, timestamp)) {
-                backup(bucket.copy(), nodeId).whenCompleteAsync((succeeded, error) -> {
+                // If the node has already been sent a full copy of the bucket, send only the changes since.
+                LogicalTimestamp lastBackupTime = lastBackupTimes.get(operation);
+                boolean delta = deltaBackupEnabled && lastBackupTime != null;
+                CompletableFuture<Boolean> future = delta
+                    ? backup(bucket.delta(lastBackupTime), nodeId)
+                    : backup(bucket.copy(), nodeId);
+                future.whenCompleteAsync((succeeded, error) -> {
                     if (error != null) {
                         log.debug("Backup operation {} failed", operation, error);
                         failBackup(operation);
                     } else if (succeeded) {
                         succeedBackup(operation, timestamp);
+                        compactBucket(bucket);
                         backup(nodeId, term);
+                    } else if (delta) {
+                        // The backup could not apply the delta, so the next backup must send the full bucket.
+                        log.debug("Backup operation {} failed: delta rejected", operation);
+                        failBackup(operation);
+                        resetBackup(operation);
                     } else {
                         log.debug("Backup operation {} failed: term mismatch", operation);
                         failBackup(operation);
@@ -389,6 +514,31 @@ public class DeviceFlowTable {
         }
     }
 
+    /**
+     * Discards changes tracked by the given bucket that have been replicated to all backups.
+     * <p>
+     * Backups that have never completed a backup of the bucket are ignored since they'll be sent a full copy
+     * of the bucket.
+     *
+     * @param bucket the bucket to compact
+     */
+    private void compactBucket(FlowBucket bucket) {
+        LogicalTimestamp timestamp = bucket.timestamp();
+        for (NodeId nodeId : lifecycleManager.getReplicaInfo().backups()) {
+            BackupOperation operation = new BackupOperation(nodeId, bucket.bucketId().bucket());
+            LogicalTimestamp lastBackupTime = lastBackupTimes.get(operation);
+            if (lastBackupTime == null) {
+                // If a full backup is in progress, the time up to which it will replicate changes is unknown.
+                if (inFlightUpdates.contains(operation)) {
+                    return;
+                }
+            } else if (lastBackupTime.isOlderThan(timestamp)) {
+                timestamp = lastBackupTime;
+            }
+        }
+        bucket.compact(timestamp);
+    }
+
     /**
      * Returns a boolean indicating whether the given {@link BackupOperation} can be started.
      * <p>
@@ -446,10 +596,39 @@ public class DeviceFlowTable {
      * @return a future to be completed with a boolean indicating whether the backup operation was successful
      */
     private CompletableFuture<Boolean> backup(FlowBucket bucket, NodeId nodeId) {
+        int count = bucket.count();
         if (log.isDebugEnabled()) {
-            log.debug("Backing up {} flow entries in bucket {} to {}", bucket.count(), bucket.bucketId(), nodeId);
+            log.debug("Backing up {} flow entries in bucket {} to {}", count, bucket.bucketId(), nodeId);
         }
-        return sendWithTimestamp(bucket, backupSubject, nodeId);
+        backupEntries.inc(count);
+        return sendWithTimestamp(bucket, backupSubject, this::encodeBackup, nodeId);
+    }
+
+    /**
+     * Performs the given delta backup operation.
+     *
+     * @param delta  the bucket changes to backup
+     * @param nodeId the node to which to backup the changes
+     * @return a future to be completed with a boolean indicating whether the delta was applied by the node
+     */
+    private CompletableFuture<Boolean> backup(FlowBucketDelta delta, NodeId nodeId) {
+        if (log.isDebugEnabled()) {
+            log.debug("Backing up {} changed flow entries in bucket {} to {}", delta.count(), delta.bucketId(), nodeId);
+        }
+        backupEntries.inc(delta.count());
+        return sendWithTimestamp(delta, backupDeltaSubject, this::encodeBackup, nodeId);
+    }
+
+    /**
+     * Encodes a backup message, recording the number of bytes replicated.
+     *
+     * @param message the message to encode
+     * @return the encoded message
+     */
+    private byte[] encodeBackup(Object message) {
+        byte[] bytes = SERIALIZER.encode(message);
+        backupBytes.inc(bytes.length);
+        return bytes;
     }
 
     /**
@@ -473,8 +652,43 @@ public class DeviceFlowTable {
                 return false;
             }
 
-            flowBuckets.compute(flowBucket.bucketId().bucket(),
-                (id, bucket) -> flowBucket.getDigest().isNewerThan(bucket.getDigest()) ? flowBucket : bucket);
+            replaceBucket(flowBucket);
+            return true;
+        } catch (Exception e) {
+            log.warn("Failure processing backup request", e);
+            return false;
+        }
+    }
+
+    /**
+     * Handles a flow bucket delta backup from a remote peer.
+     *
+     * @param delta the flow bucket changes to back up
+     * @return indicates whether the changes were applied
+     */
+    private boolean onBackupDelta(FlowBucketDelta delta) {
+        if (log.isDebugEnabled()) {
+            log.debug("{} - Received {} changed flow entries in bucket {} to backup",
+                deviceId, delta.count(), delta.bucketId());
+        }
+
+        try {
+            DeviceReplicaInfo replicaInfo = lifecycleManager.getReplicaInfo();
+
+            // If the backup is for a different term, reject the request until we learn about the new term.
+            if (delta.term() != replicaInfo.term()) {
+                log.debug("Term mismatch for device {}: {} != {}", deviceId, delta.term(), replicaInfo);
+                return false;
+            }
+
+            // If the local bucket has diverged from the master's, reject the delta to request a full backup.
+            FlowBucket bucket = getBucket(delta.bucketId().bucket());
+            if (!bucket.apply(delta)) {
+                log.debug("Rejected delta {} for device {}", delta, deviceId);
+                return false;
+            }
+            delta.removals().forEach(entry -> flowIndex.remove(entry, bucket));
+            delta.updates().forEach(flowIndex::add);
             return true;
         } catch (Exception e) {
             log.warn("Failure processing backup request", e);
@@ -618,10 +832,21 @@ public class DeviceFlowTable {
      */
     private CompletableFuture<Void> syncBucketOn(NodeId nodeId, int bucketNumber) {
         return requestBucket(nodeId, bucketNumber)
-            .thenAcceptAsync(flowBucket -> {
-                flowBuckets.compute(flowBucket.bucketId().bucket(),
-                    (id, bucket) -> flowBucket.getDigest().isNewerThan(bucket.getDigest()) ? flowBucket : bucket);
-            }, executorService);
+            .thenAcceptAsync(this::replaceBucket, executorService);
+    }
+
+    /**
+     * Replaces the local bucket with the given bucket if the given bucket is newer.
+     *
+     * @param flowBucket the bucket with which to replace the local bucket
+     */
+    private void replaceBucket(FlowBucket flowBucket) {
+        FlowBucket oldBucket = getBucket(flowBucket.bucketId().bucket());
+        FlowBucket newBucket = flowBuckets.compute(flowBucket.bucketId().bucket(),
+            (id, bucket) -> flowBucket.getDigest().isNewerThan(bucket.getDigest()) ? flowBucket : bucket);
+        if (newBucket != oldBucket) {
+            flowIndex.replace(oldBucket, newBucket);
+        }
     }
 
     /**
@@ -703,6 +928,8 @@ public class DeviceFlowTable {
         DeviceReplicaInfo oldReplicaInfo = this.replicaInfo;
         this.replicaInfo = replicaInfo;
         if (replicaInfo.isMaster(localNodeId)) {
+            // Backups may have diverged during prior terms, so start the new term with full backups.
+            lastBackupTimes.clear();
             log.info("Synchronizing device {} flows for term {}", deviceId, replicaInfo.term());
             syncFlows(oldReplicaInfo, replicaInfo);
         }
@@ -722,6 +949,7 @@ public class DeviceFlowTable {
         // If the local node is neither the master or a backup for the device, clear the flow table.
         if (!replicaInfo.isMaster(localNodeId) && !replicaInfo.isBackup(localNodeId)) {
             flowBuckets.values().forEach(bucket -> bucket.clear());
+            flowIndex.clear();
         }
         activeTerm = replicaInfo.term();
     }
@@ -739,6 +967,7 @@ public class DeviceFlowTable {
                 && !replicaInfo.isMaster(localNodeId)
                 && !replicaInfo.isBackup(localNodeId)) {
                 flowBuckets.values().forEach(bucket -> bucket.clear());
+                flowIndex.clear();
             }
         }
     }
@@ -757,8 +986,24 @@ public class DeviceFlowTable {
      * @return a future to be completed with the response
      */
     private <M, R> CompletableFuture<R> sendWithTimestamp(M message, MessageSubject subject, NodeId toNodeId) {
+        return sendWithTimestamp(message, subject, SERIALIZER::encode, toNodeId);
+    }
+
+    /**
+     * Sends a message to the given node wrapped in a Lamport timestamp using the given encoder.
+     *
+     * @param message  the message to send
+     * @param subject  the message subject
+     * @param encoder  the encoder with which to encode the timestamped message
+     * @param toNodeId the node to which to send the message
+     * @param <M>      the message type
+     * @param <R>      the response type
+     * @return a future to be completed with the response
+     */
+    private <M, R> CompletableFuture<R> sendWithTimestamp(
+        M message, MessageSubject subject, Function<Object, byte[]> encoder, NodeId toNodeId) {
         return clusterCommunicator.<Timestamped<M>, Timestamped<R>>sendAndReceive(
-            clock.timestamp(message), subject, SERIALIZER::encode, SERIALIZER::decode, toNodeId)
+            clock.timestamp(message), subject, encoder::apply, SERIALIZER::decode, toNodeId)
             .thenApply(response -> {
                 clock.tick(response.timestamp());
                 return response.value();
@@ -790,6 +1035,7 @@ public class DeviceFlowTable {
         receiveWithTimestamp(getDigestsSubject, v -> getDigests());
         receiveWithTimestamp(getBucketSubject, this::onGetBucket);
         receiveWithTimestamp(backupSubject, this::onBackup);
+        receiveWithTimestamp(backupDeltaSubject, this::onBackupDelta);
     }
 
     /**
@@ -799,6 +1045,7 @@ public class DeviceFlowTable {
         clusterCommunicator.removeSubscriber(getDigestsSubject);
         clusterCommunicator.removeSubscriber(getBucketSubject);
         clusterCommunicator.removeSubscriber(backupSubject);
+        clusterCommunicator.removeSubscriber(backupDeltaSubject);
     }
 
     /**
@@ -836,6 +1083,7 @@ public class DeviceFlowTable {
     public void purge() {
         flowTasks.clear();
         flowBuckets.values().forEach(bucket -> bucket.purge());
+        flowIndex.clear();
         lastBackupTimes.clear();
         inFlightUpdates.clear();
     }
@@ -15,6 +15,8 @@
 */
 package org.onosproject.store.flow.impl;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Dictionary;
 import java.util.HashSet;
@@ -22,14 +24,20 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import com.codahale.metrics.Counter;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Streams;
@@ -40,12 +48,17 @@ import org.apache.felix.scr.annotations.Modified;
 import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.apache.felix.scr.annotations.ReferencePolicy;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.KryoNamespace;
 import org.onlab.util.Tools;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.NodeId;
+import org.onosproject.core.ApplicationId;
 import org.onosproject.core.CoreService;
 import org.onosproject.core.IdGenerator;
 import org.onosproject.event.AbstractListenerManager;
@@ -95,6 +108,7 @@ import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
+import static org.onlab.util.Tools.isPropertyEnabled;
 import static org.onlab.util.Tools.get;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.net.flow.FlowRuleEvent.Type.RULE_REMOVED;
@@ -102,6 +116,8 @@ import static org.onosproject.store.flow.impl.ECFlowRuleStoreMessageSubjects.APP
 import static org.onosproject.store.flow.impl.ECFlowRuleStoreMessageSubjects.FLOW_TABLE_BACKUP;
 import static org.onosproject.store.flow.impl.ECFlowRuleStoreMessageSubjects.GET_DEVICE_FLOW_COUNT;
 import static org.onosproject.store.flow.impl.ECFlowRuleStoreMessageSubjects.GET_DEVICE_FLOW_ENTRIES;
+import static org.onosproject.store.flow.impl.ECFlowRuleStoreMessageSubjects.GET_DEVICE_FLOW_ENTRIES_BY_ID;
+import static org.onosproject.store.flow.impl.ECFlowRuleStoreMessageSubjects.GET_FLOW_ENTRIES_BY_ID;
 import static org.onosproject.store.flow.impl.ECFlowRuleStoreMessageSubjects.GET_FLOW_ENTRY;
 import static org.onosproject.store.flow.impl.ECFlowRuleStoreMessageSubjects.REMOTE_APPLY_COMPLETED;
 import static org.onosproject.store.flow.impl.ECFlowRuleStoreMessageSubjects.REMOVE_FLOW_ENTRY;
@@ -123,8 +139,13 @@ public class ECFlowRuleStore
     private static final boolean DEFAULT_PERSISTENCE_ENABLED = false;
     private static final int DEFAULT_BACKUP_PERIOD_MILLIS = 2000;
     private static final int DEFAULT_ANTI_ENTROPY_PERIOD_MILLIS = 5000;
+    private static final boolean DEFAULT_DELTA_BACKUP_ENABLED = true;
     private static final long FLOW_RULE_STORE_TIMEOUT_MILLIS = 5000;
 
+    private static final String METRICS_COMPONENT = "FlowRuleStore";
+    private static final String BACKUP_BYTES = "backupBytes";
+    private static final String BACKUP_ENTRIES = "backupEntries";
+
     @Property(name = "msgHandlerPoolSize", intValue = MESSAGE_HANDLER_THREAD_POOL_SIZE,
         label = "Number of threads in the message handler pool")
     private int msgHandlerPoolSize = MESSAGE_HANDLER_THREAD_POOL_SIZE;
@@ -145,6 +166,10 @@ public class ECFlowRuleStore
         label = "Max number of backup copies for each device")
     private volatile int backupCount = DEFAULT_MAX_BACKUP_COUNT;
 
+    @Property(name = "deltaBackupEnabled", boolValue = DEFAULT_DELTA_BACKUP_ENABLED,
+        label = "Indicates whether backups should only replicate flows changed since the last backup")
+    private boolean deltaBackupEnabled = DEFAULT_DELTA_BACKUP_ENABLED;
+
     private InternalFlowTable flowTable = new InternalFlowTable();
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
@@ -171,6 +196,10 @@ public class ECFlowRuleStore
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected PersistenceService persistenceService;
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL_UNARY,
+            policy = ReferencePolicy.DYNAMIC)
+    protected volatile MetricsService metricsService;
+
     private Map<Long, NodeId> pendingResponses = Maps.newConcurrentMap();
     private ExecutorService messageHandlingExecutor;
     private ExecutorService eventHandler;
@@ -189,6 +218,7 @@ public class ECFlowRuleStore
         .register(KryoNamespaces.API)
         .register(BucketId.class)
         .register(FlowBucket.class)
+        .register(FlowEntryQuery.class)
         .build());
 
     protected final KryoNamespace.Builder serializerBuilder = KryoNamespace.newBuilder()
@@ -262,6 +292,7 @@ public class ECFlowRuleStore
         int newBackupPeriod;
         int newBackupCount;
         int newAntiEntropyPeriod;
+        boolean newDeltaBackupEnabled;
         try {
             String s = get(properties, "msgHandlerPoolSize");
             newPoolSize = isNullOrEmpty(s) ? msgHandlerPoolSize : Integer.parseInt(s.trim());
@@ -274,11 +305,15 @@ public class ECFlowRuleStore
 
             s = get(properties, "antiEntropyPeriod");
             newAntiEntropyPeriod = isNullOrEmpty(s) ? antiEntropyPeriod : Integer.parseInt(s.trim());
+
+            Boolean deltaEnabled = isPropertyEnabled(properties, "deltaBackupEnabled");
+            newDeltaBackupEnabled = deltaEnabled == null ? deltaBackupEnabled : deltaEnabled;
         } catch (NumberFormatException | ClassCastException e) {
             newPoolSize = MESSAGE_HANDLER_THREAD_POOL_SIZE;
             newBackupPeriod = DEFAULT_BACKUP_PERIOD_MILLIS;
             newBackupCount = DEFAULT_MAX_BACKUP_COUNT;
             newAntiEntropyPeriod = DEFAULT_ANTI_ENTROPY_PERIOD_MILLIS;
+            newDeltaBackupEnabled = DEFAULT_DELTA_BACKUP_ENABLED;
         }
 
         if (newBackupPeriod != backupPeriod) {
@@ -291,6 +326,11 @@ public class ECFlowRuleStore
             flowTable.setAntiEntropyPeriod(newAntiEntropyPeriod);
         }
 
+        if (newDeltaBackupEnabled != deltaBackupEnabled) {
+            deltaBackupEnabled = newDeltaBackupEnabled;
+            flowTable.setDeltaBackupEnabled(newDeltaBackupEnabled);
+        }
+
         if (newPoolSize != msgHandlerPoolSize) {
             msgHandlerPoolSize = newPoolSize;
             ExecutorService oldMsgHandler = messageHandlingExecutor;
@@ -316,6 +356,12 @@ public class ECFlowRuleStore
             GET_FLOW_ENTRY, serializer::decode, flowTable::getFlowEntry, serializer::encode, executor);
         clusterCommunicator.addSubscriber(
             GET_DEVICE_FLOW_ENTRIES, serializer::decode, flowTable::getFlowEntries, serializer::encode, executor);
+        clusterCommunicator.addSubscriber(
+            GET_DEVICE_FLOW_ENTRIES_BY_ID, serializer::decode, flowTable::queryFlowEntries, serializer::encode,
+            executor);
+        clusterCommunicator.addSubscriber(
+            GET_FLOW_ENTRIES_BY_ID, serializer::decode, flowTable::queryAllFlowEntries, serializer::encode,
+            executor);
         clusterCommunicator.addSubscriber(
             GET_DEVICE_FLOW_COUNT, serializer::decode, flowTable::getFlowRuleCount, serializer::encode, executor);
         clusterCommunicator.addSubscriber(
@@ -325,6 +371,8 @@ public class ECFlowRuleStore
     private void unregisterMessageHandlers() {
         clusterCommunicator.removeSubscriber(REMOVE_FLOW_ENTRY);
         clusterCommunicator.removeSubscriber(GET_DEVICE_FLOW_ENTRIES);
+        clusterCommunicator.removeSubscriber(GET_DEVICE_FLOW_ENTRIES_BY_ID);
+        clusterCommunicator.removeSubscriber(GET_FLOW_ENTRIES_BY_ID);
         clusterCommunicator.removeSubscriber(GET_DEVICE_FLOW_COUNT);
         clusterCommunicator.removeSubscriber(GET_FLOW_ENTRY);
         clusterCommunicator.removeSubscriber(APPLY_BATCH_FLOWS);
@@ -333,8 +381,8 @@ public class ECFlowRuleStore
     }
 
     private void logConfig(String prefix) {
-        log.info("{} with msgHandlerPoolSize = {}; backupPeriod = {}, backupCount = {}",
-            prefix, msgHandlerPoolSize, backupPeriod, backupCount);
+        log.info("{} with msgHandlerPoolSize = {}; backupPeriod = {}, backupCount = {}, deltaBackupEnabled = {}",
+            prefix, msgHandlerPoolSize, backupPeriod, backupCount, deltaBackupEnabled);
     }
 
     @Override
@@ -394,6 +442,15 @@ public class ECFlowRuleStore
             null);
     }
 
+    @Override
+    public List<FlowEntry> getFlowEntries(DeviceId deviceId, List<? extends FlowRule> rules) {
+        NodeId master = mastershipService.getMasterFor(deviceId);
+        if (Objects.equals(local, master)) {
+            return flowTable.lookupFlowEntries(deviceId, rules);
+        }
+        return FlowRuleStore.super.getFlowEntries(deviceId, rules);
+    }
+
     @Override
     public Iterable<FlowEntry> getFlowEntries(DeviceId deviceId) {
         NodeId master = mastershipService.getMasterFor(deviceId);
@@ -420,6 +477,87 @@ public class ECFlowRuleStore
             Collections.emptyList());
     }
 
+    @Override
+    public Iterable<FlowEntry> getFlowEntriesById(DeviceId deviceId, ApplicationId appId) {
+        return getFlowEntries(new FlowEntryQuery(deviceId, appId, null));
+    }
+
+    @Override
+    public Iterable<FlowEntry> getFlowEntriesById(Iterable<DeviceId> deviceIds, ApplicationId appId) {
+        return getFlowEntries(deviceIds, appId, null);
+    }
+
+    @Override
+    public Iterable<FlowEntry> getFlowEntriesByGroupId(Iterable<DeviceId> deviceIds, ApplicationId appId,
+                                                       short groupId) {
+        return getFlowEntries(deviceIds, appId, groupId);
+    }
+
+    private Iterable<FlowEntry> getFlowEntries(Iterable<DeviceId> deviceIds, ApplicationId appId, Short groupId) {
+        // Query the index of each master once for all of its devices
+        Map<NodeId, List<FlowEntryQuery>> queries = Maps.newHashMap();
+        for (DeviceId deviceId : deviceIds) {
+            NodeId master = mastershipService.getMasterFor(deviceId);
+            if (master == null) {
+                log.debug("Failed to getFlowEntries: No master for {}", deviceId);
+                continue;
+            }
+            queries.computeIfAbsent(master, nodeId -> new ArrayList<>())
+                .add(new FlowEntryQuery(deviceId, appId, groupId));
+        }
+
+        Set<FlowEntry> entries = new HashSet<>();
+        List<CompletableFuture<Set<FlowEntry>>> futures = new ArrayList<>();
+        queries.forEach((master, masterQueries) -> {
+            if (Objects.equals(local, master)) {
+                entries.addAll(flowTable.queryAllFlowEntries(masterQueries));
+            } else {
+                log.trace("Forwarding getFlowEntries to {}, which is the primary (master) for devices {}",
+                    master, masterQueries);
+                futures.add(clusterCommunicator.sendAndReceive(masterQueries,
+                    GET_FLOW_ENTRIES_BY_ID,
+                    serializer::encode,
+                    serializer::decode,
+                    master));
+            }
+        });
+        futures.forEach(future -> entries.addAll(Tools.futureGetOrElse(future,
+            FLOW_RULE_STORE_TIMEOUT_MILLIS,
+            TimeUnit.MILLISECONDS,
+            Collections.emptySet())));
+        return entries;
+    }
+
+    @Override
+    public Iterable<FlowEntry> getFlowEntriesByGroupId(DeviceId deviceId, ApplicationId appId, short groupId) {
+        return getFlowEntries(new FlowEntryQuery(deviceId, appId, groupId));
+    }
+
+    private Iterable<FlowEntry> getFlowEntries(FlowEntryQuery query) {
+        NodeId master = mastershipService.getMasterFor(query.deviceId());
+
+        if (master == null) {
+            log.debug("Failed to getFlowEntries: No master for {}", query.deviceId());
+            return Collections.emptyList();
+        }
+
+        if (Objects.equals(local, master)) {
+            return flowTable.queryFlowEntries(query);
+        }
+
+        log.trace("Forwarding getFlowEntries to {}, which is the primary (master) for device {}",
+            master, query.deviceId());
+
+        return Tools.futureGetOrElse(clusterCommunicator.sendAndReceive(query,
+            GET_DEVICE_FLOW_ENTRIES_BY_ID,
+            serializer::encode,
+            serializer::decode,
+            master),
+            FLOW_RULE_STORE_TIMEOUT_MILLIS,
+            TimeUnit.MILLISECONDS,
+            Collections.emptyList());
+    }
+
     @Override
     public void storeFlowRule(FlowRule rule) {
         storeBatch(new FlowRuleBatchOperation(
@@ -561,18 +699,7 @@ public class ECFlowRuleStore
     }
 
     private FlowRuleEvent addOrUpdateFlowRuleInternal(FlowEntry rule) {
-        FlowRuleEvent event = flowTable.update(rule, stored -> {
-            stored.setBytes(rule.bytes());
-            stored.setLife(rule.life(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
-            stored.setLiveType(rule.liveType());
-            stored.setPackets(rule.packets());
-            stored.setLastSeen();
-            if (stored.state() == FlowEntryState.PENDING_ADD) {
-                stored.setState(FlowEntryState.ADDED);
-                return new FlowRuleEvent(Type.RULE_ADDED, rule);
-            }
-            return new FlowRuleEvent(Type.RULE_UPDATED, rule);
-        });
+        FlowRuleEvent event = flowTable.update(rule, stored -> updateStatistics(rule, stored));
         if (event != null) {
             return event;
         }
@@ -583,6 +710,72 @@ public class ECFlowRuleStore
         return null;
     }
 
+    @Override
+    public List<FlowRuleEvent> addOrUpdateFlowRules(DeviceId deviceId, Collection<FlowEntry> rules) {
+        NodeId master = mastershipService.getMasterFor(deviceId);
+        if (Objects.equals(local, master)) {
+            return addOrUpdateFlowRulesInternal(deviceId, rules);
+        }
+
+        log.warn("Tried to update {} FlowRules of device {},"
+            + " while the Node was not the master.", rules.size(), deviceId);
+        return Collections.emptyList();
+    }
+
+    private List<FlowRuleEvent> addOrUpdateFlowRulesInternal(DeviceId deviceId, Collection<FlowEntry> rules) {
+        Queue<FlowEntry> missingRules = new ConcurrentLinkedQueue<>();
+        List<FlowRuleEvent> events = flowTable.update(deviceId, rules,
+            ECFlowRuleStore::isStatisticsModified,
+            (rule, stored) -> {
+                if (stored == null) {
+                    missingRules.add(rule);
+                    return null;
+                }
+                return updateStatistics(rule, stored);
+            });
+
+        // Rules missing from the store are added without an event, as by addOrUpdateFlowRuleInternal.
+        missingRules.forEach(flowTable::add);
+        return events.stream().filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns whether updating the stored entry with the statistics of the given rule modifies its replicated state.
+     * <p>
+     * The life of the entry always changes between statistics updates and is not considered a modification, so the
+     * entries of idle flows are not replicated to backups on every update.
+     *
+     * @param rule   the rule reported by the device
+     * @param stored the stored flow entry
+     * @return whether the stored entry's replicated state is modified
+     */
+    private static boolean isStatisticsModified(FlowEntry rule, StoredFlowEntry stored) {
+        return stored.state() == FlowEntryState.PENDING_ADD
+            || stored.bytes() != rule.bytes()
+            || stored.packets() != rule.packets()
+            || stored.liveType() != rule.liveType();
+    }
+
+    /**
+     * Updates the stored flow entry with the statistics of the given rule.
+     *
+     * @param rule   the rule reported by the device
+     * @param stored the stored flow entry
+     * @return the flow rule event
+     */
+    private static FlowRuleEvent updateStatistics(FlowEntry rule, StoredFlowEntry stored) {
+        stored.setBytes(rule.bytes());
+        stored.setLife(rule.life(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        stored.setLiveType(rule.liveType());
+        stored.setPackets(rule.packets());
+        stored.setLastSeen();
+        if (stored.state() == FlowEntryState.PENDING_ADD) {
+            stored.setState(FlowEntryState.ADDED);
+            return new FlowRuleEvent(Type.RULE_ADDED, rule);
+        }
+        return new FlowRuleEvent(Type.RULE_UPDATED, rule);
+    }
+
     @Override
     public FlowRuleEvent removeFlowRule(FlowEntry rule) {
         final DeviceId deviceId = rule.deviceId();
@@ -687,14 +880,7 @@ public class ECFlowRuleStore
          * @param deviceId the device to add to the table
          */
         public void addDevice(DeviceId deviceId) {
-            flowTables.computeIfAbsent(deviceId, id -> new DeviceFlowTable(
-                id,
-                clusterService,
-                clusterCommunicator,
-                new InternalLifecycleManager(id),
-                backupSenderExecutor,
-                backupPeriod,
-                antiEntropyPeriod));
+            flowTables.computeIfAbsent(deviceId, this::createFlowTable);
         }
 
         /**
@@ -715,6 +901,15 @@ public class ECFlowRuleStore
             flowTables.values().forEach(flowTable -> flowTable.setAntiEntropyPeriod(antiEntropyPeriod));
         }
 
+        /**
+         * Sets whether flow table backups should only replicate changes.
+         *
+         * @param deltaBackupEnabled whether delta backups are enabled
+         */
+        void setDeltaBackupEnabled(boolean deltaBackupEnabled) {
+            flowTables.values().forEach(flowTable -> flowTable.setDeltaBackupEnabled(deltaBackupEnabled));
+        }
+
         /**
          * Returns the flow table for a specific device.
          *
@@ -723,14 +918,61 @@ public class ECFlowRuleStore
          */
         private DeviceFlowTable getFlowTable(DeviceId deviceId) {
             DeviceFlowTable flowTable = flowTables.get(deviceId);
-            return flowTable != null ? flowTable : flowTables.computeIfAbsent(deviceId, id -> new DeviceFlowTable(
+            return flowTable != null ? flowTable : flowTables.computeIfAbsent(deviceId, this::createFlowTable);
+        }
+
+        /**
+         * Creates a new flow table for the given device.
+         *
+         * @param deviceId the device identifier
+         * @return the flow table for the given device
+         */
+        private DeviceFlowTable createFlowTable(DeviceId deviceId) {
+            return new DeviceFlowTable(
                 deviceId,
                 clusterService,
                 clusterCommunicator,
                 new InternalLifecycleManager(deviceId),
                 backupSenderExecutor,
                 backupPeriod,
-                antiEntropyPeriod));
+                antiEntropyPeriod,
+                deltaBackupEnabled,
+                createCounter(deviceId, BACKUP_BYTES),
+                createCounter(deviceId, BACKUP_ENTRIES));
+        }
+
+        /**
+         * Creates a replication counter for the given device.
+         * <p>
+         * If no metrics service is available, an unregistered counter is returned.
+         *
+         * @param deviceId the device identifier
+         * @param name     the counter name
+         * @return the counter
+         */
+        private Counter createCounter(DeviceId deviceId, String name) {
+            MetricsService metrics = metricsService;
+            if (metrics == null) {
+                return new Counter();
+            }
+            MetricsComponent component = metrics.registerComponent(METRICS_COMPONENT);
+            MetricsFeature feature = component.registerFeature(deviceId.toString());
+            return metrics.createCounter(component, feature, name);
+        }
+
+        /**
+         * Removes the replication counters for the given device.
+         *
+         * @param deviceId the device identifier
+         */
+        private void removeCounters(DeviceId deviceId) {
+            MetricsService metrics = metricsService;
+            if (metrics != null) {
+                MetricsComponent component = metrics.registerComponent(METRICS_COMPONENT);
+                MetricsFeature feature = component.registerFeature(deviceId.toString());
+                metrics.removeMetric(component, feature, BACKUP_BYTES);
+                metrics.removeMetric(component, feature, BACKUP_ENTRIES);
+            }
         }
 
         /**
@@ -753,6 +995,22 @@ public class ECFlowRuleStore
             return getFlowTable(rule.deviceId()).getFlowEntry(rule);
         }
 
+        /**
+         * Returns the flow entries for the given rules of a device.
+         *
+         * @param deviceId the device for which to lookup flow entries
+         * @param rules    the rules for which to return the flow entries
+         * @return the flow entries, in the order of the rules
+         */
+        public List<FlowEntry> lookupFlowEntries(DeviceId deviceId, List<? extends FlowRule> rules) {
+            DeviceFlowTable flowTable = getFlowTable(deviceId);
+            List<FlowEntry> entries = new ArrayList<>(rules.size());
+            for (FlowRule rule : rules) {
+                entries.add(flowTable.getFlowEntry(rule));
+            }
+            return entries;
+        }
+
         /**
          * Returns the set of flow entries for the given device.
          *
@@ -763,6 +1021,31 @@ public class ECFlowRuleStore
             return getFlowTable(deviceId).getFlowEntries();
         }
 
+        /**
+         * Returns the set of flow entries matching the given query.
+         *
+         * @param query the query for which to lookup flow entries
+         * @return the set of flow entries matching the query
+         */
+        public Set<FlowEntry> queryFlowEntries(FlowEntryQuery query) {
+            DeviceFlowTable flowTable = getFlowTable(query.deviceId());
+            return query.groupId() == null
+                ? flowTable.getFlowEntries(query.appId())
+                : flowTable.getFlowEntries(query.appId(), query.groupId());
+        }
+
+        /**
+         * Returns the set of flow entries matching any of the given queries.
+         *
+         * @param queries the queries for which to lookup flow entries
+         * @return the set of flow entries matching the queries
+         */
+        public Set<FlowEntry> queryAllFlowEntries(List<FlowEntryQuery> queries) {
+            Set<FlowEntry> entries = new HashSet<>();
+            queries.forEach(query -> entries.addAll(queryFlowEntries(query)));
+            return entries;
+        }
+
         /**
          * Adds the given flow rule.
          *
@@ -803,6 +1086,27 @@ public class ECFlowRuleStore
                 null);
         }
 
+        /**
+         * Applies the given update function to a batch of rules of a device.
+         *
+         * @param deviceId the device identifier
+         * @param rules    the rules to update
+         * @param modified predicate indicating whether updating a stored entry modifies its replicated state
+         * @param function the update function to apply
+         * @return the update results
+         */
+        public <T> List<T> update(
+            DeviceId deviceId,
+            Collection<FlowEntry> rules,
+            BiPredicate<FlowEntry, StoredFlowEntry> modified,
+            BiFunction<FlowEntry, StoredFlowEntry, T> function) {
+            return Tools.futureGetOrElse(
+                getFlowTable(deviceId).update(rules, modified, function),
+                FLOW_RULE_STORE_TIMEOUT_MILLIS,
+                TimeUnit.MILLISECONDS,
+                Collections.emptyList());
+        }
+
         /**
          * Removes the given flow rule.
          *
@@ -833,6 +1137,7 @@ public class ECFlowRuleStore
                 DeviceFlowTable flowTable = flowTables.remove(deviceId);
                 if (flowTable != null) {
                     flowTable.close();
+                    removeCounters(deviceId);
                 }
             }
         }
@@ -841,9 +1146,11 @@ public class ECFlowRuleStore
          * Purges all flow rules from the table.
          */
         public void purgeFlowRules() {
-            Iterator<DeviceFlowTable> iterator = flowTables.values().iterator();
+            Iterator<Map.Entry<DeviceId, DeviceFlowTable>> iterator = flowTables.entrySet().iterator();
             while (iterator.hasNext()) {
-                iterator.next().close();
+                Map.Entry<DeviceId, DeviceFlowTable> entry = iterator.next();
+                entry.getValue().close();
+                removeCounters(entry.getKey());
                 iterator.remove();
             }
         }
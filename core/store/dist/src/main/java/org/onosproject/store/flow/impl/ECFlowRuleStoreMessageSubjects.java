@@ -32,6 +32,12 @@ public final class ECFlowRuleStoreMessageSubjects {
     public static final MessageSubject GET_DEVICE_FLOW_ENTRIES
         = new MessageSubject("peer-forward-get-device-flow-entries");
 
+    public static final MessageSubject GET_DEVICE_FLOW_ENTRIES_BY_ID
+        = new MessageSubject("peer-forward-get-device-flow-entries-by-id");
+
+    public static final MessageSubject GET_FLOW_ENTRIES_BY_ID
+        = new MessageSubject("peer-forward-get-flow-entries-by-id");
+
     public static final MessageSubject GET_DEVICE_FLOW_COUNT
         = new MessageSubject("peer-forward-get-flow-count");
 
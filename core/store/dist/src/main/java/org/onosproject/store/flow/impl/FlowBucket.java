@@ -15,11 +15,15 @@
  */
 package org.onosproject.store.flow.impl;
 
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import org.onosproject.net.flow.DefaultFlowEntry;
 import org.onosproject.net.flow.FlowEntry;
@@ -34,7 +38,8 @@ import org.slf4j.LoggerFactory;
  * Container for a bucket of flows assigned to a specific device.
  * <p>
  * The bucket is mutable. When changes are made to the bucket, the term and timestamp in which the change
- * occurred is recorded for ordering changes.
+ * occurred is recorded for ordering changes. The timestamp of each individual change is also tracked until the
+ * change has been replicated, allowing deltas to be computed for backups.
  */
 public class FlowBucket {
     private static final Logger LOGGER = LoggerFactory.getLogger(FlowBucket.class);
@@ -42,6 +47,8 @@ public class FlowBucket {
     private volatile long term;
     private volatile LogicalTimestamp timestamp;
     private final Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> flowBucket;
+    private final Map<StoredFlowEntry, LogicalTimestamp> updateTimes;
+    private final Map<StoredFlowEntry, LogicalTimestamp> removeTimes;
 
     FlowBucket(BucketId bucketId) {
         this(bucketId, 0, new LogicalTimestamp(0), Maps.newConcurrentMap());
@@ -56,6 +63,8 @@ public class FlowBucket {
         this.term = term;
         this.timestamp = timestamp;
         this.flowBucket = flowBucket;
+        this.updateTimes = Maps.newConcurrentMap();
+        this.removeTimes = Maps.newConcurrentMap();
     }
 
     /**
@@ -138,16 +147,111 @@ public class FlowBucket {
             timestamp,
             flowBucket.entrySet()
                 .stream()
-                .map(e -> Maps.immutableEntry(e.getKey(), Maps.newHashMap(e.getValue())))
-                .collect(Collectors.toMap(e -> e.getKey(), e -> e.getValue())));
+                .map(e -> Maps.immutableEntry(e.getKey(), copyEntries(e.getValue())))
+                .collect(Collectors.toConcurrentMap(e -> e.getKey(), e -> e.getValue())));
+    }
+
+    /**
+     * Returns a concurrent copy of the given flow entries.
+     */
+    private static Map<StoredFlowEntry, StoredFlowEntry> copyEntries(Map<StoredFlowEntry, StoredFlowEntry> entries) {
+        Map<StoredFlowEntry, StoredFlowEntry> copy = Maps.newConcurrentMap();
+        copy.putAll(entries);
+        return copy;
+    }
+
+    /**
+     * Returns the changes made to the bucket after the given timestamp.
+     * <p>
+     * Changes are only tracked until they're {@link #compact(LogicalTimestamp) compacted}, so the caller must
+     * ensure the given timestamp is not older than the last compaction.
+     *
+     * @param baseTimestamp the timestamp after which to return changes
+     * @return the delta of changes made to the bucket after the given timestamp
+     */
+    FlowBucketDelta delta(LogicalTimestamp baseTimestamp) {
+        long term = this.term;
+        LogicalTimestamp timestamp = this.timestamp;
+        List<StoredFlowEntry> updates = Lists.newArrayList();
+        updateTimes.forEach((entry, updateTime) -> {
+            if (updateTime.isNewerThan(baseTimestamp)) {
+                Map<StoredFlowEntry, StoredFlowEntry> flowEntries = flowBucket.get(entry.id());
+                StoredFlowEntry current = flowEntries != null ? flowEntries.get(entry) : null;
+                if (current != null) {
+                    updates.add(current);
+                }
+            }
+        });
+        List<StoredFlowEntry> removals = Lists.newArrayList();
+        removeTimes.forEach((entry, removeTime) -> {
+            if (removeTime.isNewerThan(baseTimestamp)) {
+                removals.add(entry);
+            }
+        });
+        return new FlowBucketDelta(bucketId, term, baseTimestamp, timestamp, updates, removals);
+    }
+
+    /**
+     * Applies the given delta to the bucket.
+     * <p>
+     * The delta is only applied if the bucket is in the same term as the delta and has already seen all changes
+     * up to the delta's base timestamp.
+     *
+     * @param delta the delta to apply
+     * @return indicates whether the delta was applied
+     */
+    synchronized boolean apply(FlowBucketDelta delta) {
+        if (delta.term() != term || timestamp.isOlderThan(delta.baseTimestamp())) {
+            return false;
+        }
+        for (StoredFlowEntry entry : delta.removals()) {
+            flowBucket.computeIfPresent(entry.id(), (flowId, flowEntries) -> {
+                flowEntries.remove(entry);
+                return flowEntries.isEmpty() ? null : flowEntries;
+            });
+        }
+        for (StoredFlowEntry entry : delta.updates()) {
+            getFlowEntries(entry.id()).put(entry, entry);
+        }
+        if (delta.timestamp().isNewerThan(timestamp)) {
+            timestamp = delta.timestamp();
+        }
+        return true;
+    }
+
+    /**
+     * Discards tracked changes that occurred at or before the given timestamp.
+     * <p>
+     * This should be called once changes up to the given timestamp have been replicated to all backups.
+     *
+     * @param timestamp the timestamp up to which to discard changes
+     */
+    void compact(LogicalTimestamp timestamp) {
+        if (updateTimes.isEmpty() && removeTimes.isEmpty()) {
+            return;
+        }
+        updateTimes.values().removeIf(updateTime -> !updateTime.isNewerThan(timestamp));
+        removeTimes.values().removeIf(removeTime -> !removeTime.isNewerThan(timestamp));
     }
 
     /**
      * Records an update to the bucket.
      */
-    private void recordUpdate(long term, LogicalTimestamp timestamp) {
+    private void recordUpdate(StoredFlowEntry entry, long term, LogicalTimestamp timestamp) {
         this.term = term;
         this.timestamp = timestamp;
+        removeTimes.remove(entry);
+        updateTimes.put(entry, timestamp);
+    }
+
+    /**
+     * Records a removal from the bucket.
+     */
+    private void recordRemove(StoredFlowEntry entry, long term, LogicalTimestamp timestamp) {
+        this.term = term;
+        this.timestamp = timestamp;
+        updateTimes.remove(entry);
+        removeTimes.put(entry, timestamp);
     }
 
     /**
@@ -163,7 +267,7 @@ public class FlowBucket {
             flowEntries = flowBucket.computeIfAbsent(rule.id(), id -> Maps.newConcurrentMap());
         }
         flowEntries.put((StoredFlowEntry) rule, (StoredFlowEntry) rule);
-        recordUpdate(term, clock.getTimestamp());
+        recordUpdate((StoredFlowEntry) rule, term, clock.getTimestamp());
     }
 
     /**
@@ -184,7 +288,7 @@ public class FlowBucket {
                 if (stored instanceof DefaultFlowEntry) {
                     DefaultFlowEntry storedEntry = (DefaultFlowEntry) stored;
                     if (updated.created() >= storedEntry.created()) {
-                        recordUpdate(term, clock.getTimestamp());
+                        recordUpdate(updated, term, clock.getTimestamp());
                         return updated;
                     } else {
                         LOGGER.debug("Trying to update more recent flow entry {} (stored: {})", updated, stored);
@@ -217,7 +321,7 @@ public class FlowBucket {
             if (stored != null) {
                 T result = function.apply(stored);
                 if (result != null) {
-                    recordUpdate(term, clock.getTimestamp());
+                    recordUpdate(stored, term, clock.getTimestamp());
                     resultRef.set(result);
                 }
             }
@@ -226,6 +330,56 @@ public class FlowBucket {
         return resultRef.get();
     }
 
+    /**
+     * Applies the given update function to a batch of rules in the bucket.
+     * <p>
+     * A change is only recorded for the entries for which the {@code modified} predicate holds, so entries whose
+     * replicated state is left unchanged by the update are not included in subsequent deltas.
+     *
+     * @param rules    the rules to update
+     * @param modified predicate indicating whether updating the stored entry with the rule modifies its replicated
+     *                 state; evaluated before the update function is applied
+     * @param function the update function to apply; called with a {@code null} stored entry for rules that are not
+     *                 in the bucket
+     * @param term     the term in which the change occurred
+     * @param clock    the logical clock
+     * @param <R>      the rule type
+     * @param <T>      the result type
+     * @return the update results, in the order of the given rules
+     */
+    public <R extends FlowRule, T> List<T> update(
+        List<R> rules,
+        BiPredicate<R, StoredFlowEntry> modified,
+        BiFunction<R, StoredFlowEntry, T> function,
+        long term,
+        LogicalClock clock) {
+        List<T> results = Lists.newArrayListWithCapacity(rules.size());
+        AtomicReference<T> resultRef = new AtomicReference<>();
+        for (R rule : rules) {
+            Map<StoredFlowEntry, StoredFlowEntry> flowEntries = flowBucket.get(rule.id());
+            StoredFlowEntry entry = null;
+            if (flowEntries != null) {
+                entry = flowEntries.computeIfPresent(key(rule), (k, stored) -> {
+                    boolean changed = modified.test(rule, stored);
+                    resultRef.set(function.apply(rule, stored));
+                    if (changed) {
+                        recordUpdate(stored, term, clock.getTimestamp());
+                    }
+                    return stored;
+                });
+            }
+            results.add(entry != null ? resultRef.getAndSet(null) : function.apply(rule, null));
+        }
+        return results;
+    }
+
+    /**
+     * Returns the key under which the given rule is stored.
+     */
+    private static StoredFlowEntry key(FlowRule rule) {
+        return rule instanceof StoredFlowEntry ? (StoredFlowEntry) rule : new DefaultFlowEntry(rule);
+    }
+
     /**
      * Removes the given flow rule from the bucket.
      *
@@ -235,7 +389,7 @@ public class FlowBucket {
      * @return the removed flow entry
      */
     public FlowEntry remove(FlowEntry rule, long term, LogicalClock clock) {
-        final AtomicReference<FlowEntry> removedRule = new AtomicReference<>();
+        final AtomicReference<StoredFlowEntry> removedRule = new AtomicReference<>();
         flowBucket.computeIfPresent(rule.id(), (flowId, flowEntries) -> {
             flowEntries.computeIfPresent((StoredFlowEntry) rule, (k, stored) -> {
                 if (rule instanceof DefaultFlowEntry) {
@@ -256,7 +410,7 @@ public class FlowBucket {
         });
 
         if (removedRule.get() != null) {
-            recordUpdate(term, clock.getTimestamp());
+            recordRemove(removedRule.get(), term, clock.getTimestamp());
             return removedRule.get();
         } else {
             return null;
@@ -268,6 +422,8 @@ public class FlowBucket {
      */
     public void purge() {
         flowBucket.clear();
+        updateTimes.clear();
+        removeTimes.clear();
     }
 
     /**
@@ -277,5 +433,7 @@ public class FlowBucket {
         term = 0;
         timestamp = new LogicalTimestamp(0);
         flowBucket.clear();
+        updateTimes.clear();
+        removeTimes.clear();
     }
 }
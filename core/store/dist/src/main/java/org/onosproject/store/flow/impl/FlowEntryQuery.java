@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import org.onosproject.core.ApplicationId;
+import org.onosproject.net.DeviceId;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * Query for the flow entries of a device added by an application, optionally restricted to a group.
+ */
+public class FlowEntryQuery {
+    private final DeviceId deviceId;
+    private final ApplicationId appId;
+    private final Short groupId;
+
+    FlowEntryQuery(DeviceId deviceId, ApplicationId appId, Short groupId) {
+        this.deviceId = deviceId;
+        this.appId = appId;
+        this.groupId = groupId;
+    }
+
+    /**
+     * Returns the device identifier.
+     *
+     * @return the device identifier
+     */
+    public DeviceId deviceId() {
+        return deviceId;
+    }
+
+    /**
+     * Returns the application identifier.
+     *
+     * @return the application identifier
+     */
+    public ApplicationId appId() {
+        return appId;
+    }
+
+    /**
+     * Returns the group identifier.
+     *
+     * @return the group identifier or {@code null} if the query is not restricted to a group
+     */
+    public Short groupId() {
+        return groupId;
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+            .add("deviceId", deviceId())
+            .add("appId", appId())
+            .add("groupId", groupId())
+            .toString();
+    }
+}
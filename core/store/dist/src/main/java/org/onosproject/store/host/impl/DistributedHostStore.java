@@ -61,7 +61,6 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Consumer;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -89,6 +88,16 @@ public class DistributedHostStore
     private ConsistentMap<HostId, DefaultHost> hostsConsistentMap;
     private Map<HostId, DefaultHost> hosts;
     private Map<IpAddress, Set<Host>> hostsByIp;
+    private final HostIndex<ConnectPoint> hostsByLocation =
+            new HostIndex<>(host -> ImmutableSet.<ConnectPoint>copyOf(host.locations()));
+    private final HostIndex<DeviceId> hostsByDevice =
+            new HostIndex<>(host -> host.locations().stream()
+                    .map(HostLocation::deviceId)
+                    .collect(Collectors.toSet()));
+    private final HostIndex<MacAddress> hostsByMac =
+            new HostIndex<>(host -> ImmutableSet.of(host.mac()));
+    private final HostIndex<VlanId> hostsByVlan =
+            new HostIndex<>(host -> ImmutableSet.of(host.vlan()));
     private MapEventListener<HostId, DefaultHost> hostLocationTracker =
             new HostLocationTracker();
 
@@ -111,11 +120,11 @@ public class DistributedHostStore
         executor = newSingleThreadScheduledExecutor(groupedThreads("onos/hosts", "status-listener", log));
         statusChangeListener = status -> {
             if (status == Status.ACTIVE) {
-                executor.execute(this::loadHostsByIp);
+                executor.execute(this::loadHostIndexes);
             }
         };
         hostsConsistentMap.addStatusChangeListener(statusChangeListener);
-        loadHostsByIp();
+        loadHostIndexes();
         log.info("Started");
     }
 
@@ -127,6 +136,15 @@ public class DistributedHostStore
         log.info("Stopped");
     }
 
+    private void loadHostIndexes() {
+        loadHostsByIp();
+        Collection<DefaultHost> allHosts = hostsConsistentMap.asJavaMap().values();
+        hostsByLocation.load(allHosts);
+        hostsByDevice.load(allHosts);
+        hostsByMac.load(allHosts);
+        hostsByVlan.load(allHosts);
+    }
+
     private void loadHostsByIp() {
         hostsByIp = new ConcurrentHashMap<IpAddress, Set<Host>>();
         hostsConsistentMap.asJavaMap().values().forEach(host -> {
@@ -329,12 +347,12 @@ public class DistributedHostStore
 
     @Override
     public Set<Host> getHosts(VlanId vlanId) {
-        return filter(hosts.values(), host -> Objects.equals(host.vlan(), vlanId));
+        return hostsByVlan.get(vlanId);
     }
 
     @Override
     public Set<Host> getHosts(MacAddress mac) {
-        return filter(hosts.values(), host -> Objects.equals(host.mac(), mac));
+        return hostsByMac.get(mac);
     }
 
     @Override
@@ -345,25 +363,12 @@ public class DistributedHostStore
 
     @Override
     public Set<Host> getConnectedHosts(ConnectPoint connectPoint) {
-        Set<Host> filtered = hosts.entrySet().stream()
-                .filter(entry -> entry.getValue().locations().contains(connectPoint))
-                .map(Map.Entry::getValue)
-                .collect(Collectors.toSet());
-        return ImmutableSet.copyOf(filtered);
+        return hostsByLocation.get(connectPoint);
     }
 
     @Override
     public Set<Host> getConnectedHosts(DeviceId deviceId) {
-        Set<Host> filtered = hosts.entrySet().stream()
-                .filter(entry -> entry.getValue().locations().stream()
-                        .map(HostLocation::deviceId).anyMatch(dpid -> dpid.equals(deviceId)))
-                .map(Map.Entry::getValue)
-                .collect(Collectors.toSet());
-        return ImmutableSet.copyOf(filtered);
-    }
-
-    private Set<Host> filter(Collection<DefaultHost> collection, Predicate<DefaultHost> predicate) {
-        return collection.stream().filter(predicate).collect(Collectors.toSet());
+        return hostsByDevice.get(deviceId);
     }
 
     private Set<Host> addHosts(Host host) {
@@ -418,6 +423,20 @@ public class DistributedHostStore
         hostsByIp.computeIfPresent(ip, (k, v) -> removeHosts(v, host));
     }
 
+    private void updateHostIndexes(DefaultHost prevHost, DefaultHost host) {
+        hostsByLocation.update(prevHost, host);
+        hostsByDevice.update(prevHost, host);
+        hostsByMac.update(prevHost, host);
+        hostsByVlan.update(prevHost, host);
+    }
+
+    private void removeHostIndexes(DefaultHost host) {
+        hostsByLocation.remove(host);
+        hostsByDevice.remove(host);
+        hostsByMac.remove(host);
+        hostsByVlan.remove(host);
+    }
+
     private class HostLocationTracker implements MapEventListener<HostId, DefaultHost> {
         @Override
         public void event(MapEvent<HostId, DefaultHost> event) {
@@ -426,11 +445,13 @@ public class DistributedHostStore
             switch (event.type()) {
                 case INSERT:
                     updateHostsByIp(host);
+                    updateHostIndexes(null, host);
                     notifyDelegate(new HostEvent(HOST_ADDED, host));
                     break;
                 case UPDATE:
                     updateHostsByIp(host);
                     DefaultHost prevHost = checkNotNull(event.oldValue().value());
+                    updateHostIndexes(prevHost, host);
                     if (!Objects.equals(prevHost.locations(), host.locations())) {
                         notifyDelegate(new HostEvent(HOST_MOVED, host, prevHost));
                     } else if (!Objects.equals(prevHost, host)) {
@@ -439,6 +460,7 @@ public class DistributedHostStore
                     break;
                 case REMOVE:
                     removeHostsByIp(host);
+                    removeHostIndexes(host);
                     notifyDelegate(new HostEvent(HOST_REMOVED, host));
                     break;
                 default:
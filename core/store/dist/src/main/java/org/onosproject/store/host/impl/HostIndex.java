@@ -0,0 +1,108 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.host.impl;
+
+import com.google.common.collect.ImmutableSet;
+import org.onosproject.net.Host;
+import org.onosproject.net.HostId;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Secondary index of hosts by an attribute, such as a location or a MAC
+ * address, so that hosts can be looked up in time proportional to the
+ * number of matching hosts rather than to the number of all hosts.
+ *
+ * @param <K> type of the indexed attribute
+ */
+final class HostIndex<K> {
+
+    private final Function<Host, Collection<K>> keys;
+    private volatile Map<K, Map<HostId, Host>> index = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an index of hosts by the given attribute.
+     *
+     * @param keys function returning the attribute values of a host
+     */
+    HostIndex(Function<Host, Collection<K>> keys) {
+        this.keys = keys;
+    }
+
+    /**
+     * Replaces the contents of the index with the given hosts.
+     *
+     * @param hosts all hosts
+     */
+    void load(Collection<? extends Host> hosts) {
+        Map<K, Map<HostId, Host>> newIndex = new ConcurrentHashMap<>();
+        hosts.forEach(host -> keys.apply(host).forEach(
+                key -> newIndex.computeIfAbsent(key, k -> new ConcurrentHashMap<>())
+                        .put(host.id(), host)));
+        index = newIndex;
+    }
+
+    /**
+     * Updates the index for an added or updated host.
+     *
+     * @param previous previous version of the host; null if it was added
+     * @param host     current version of the host
+     */
+    void update(Host previous, Host host) {
+        Collection<K> newKeys = keys.apply(host);
+        if (previous != null) {
+            keys.apply(previous).stream()
+                    .filter(key -> !newKeys.contains(key))
+                    .forEach(key -> remove(key, previous));
+        }
+        newKeys.forEach(key -> index.compute(key, (k, hosts) -> {
+            Map<HostId, Host> map = hosts != null ? hosts : new ConcurrentHashMap<>();
+            map.put(host.id(), host);
+            return map;
+        }));
+    }
+
+    /**
+     * Updates the index for a removed host.
+     *
+     * @param host removed host
+     */
+    void remove(Host host) {
+        keys.apply(host).forEach(key -> remove(key, host));
+    }
+
+    private void remove(K key, Host host) {
+        index.computeIfPresent(key, (k, hosts) -> {
+            hosts.remove(host.id());
+            return hosts.isEmpty() ? null : hosts;
+        });
+    }
+
+    /**
+     * Returns the hosts with the given attribute value.
+     *
+     * @param key attribute value
+     * @return set of hosts
+     */
+    Set<Host> get(K key) {
+        Map<HostId, Host> hosts = index.get(key);
+        return hosts != null ? ImmutableSet.copyOf(hosts.values()) : ImmutableSet.of();
+    }
+}
@@ -15,6 +15,8 @@
  */
 package org.onosproject.store.topology.impl;
 
+import com.codahale.metrics.Gauge;
+import com.google.common.cache.CacheStats;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
@@ -22,9 +24,14 @@ import org.apache.felix.scr.annotations.Modified;
 import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.apache.felix.scr.annotations.ReferencePolicy;
 import org.apache.felix.scr.annotations.Service;
 import org.onlab.graph.GraphPathSearch;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.KryoNamespace;
+import org.onlab.util.Tools;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.common.DefaultTopology;
 import org.onosproject.event.Event;
@@ -91,7 +98,12 @@ public class DistributedTopologyStore
 
     private final Logger log = getLogger(getClass());
 
-    private static final String FORMAT = "Settings: linkWeightFunction={}";
+    private static final String FORMAT = "Settings: linkWeightFunction={}, pathCacheSize={}";
+
+    private static final String METRICS_COMPONENT = "TopologyStore";
+    private static final String METRICS_FEATURE = "pathCache";
+    private static final String PATH_CACHE_HITS = "hits";
+    private static final String PATH_CACHE_MISSES = "misses";
 
     private volatile DefaultTopology current =
             new DefaultTopology(ProviderId.NONE,
@@ -114,6 +126,12 @@ public class DistributedTopologyStore
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected DeviceService deviceService;
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL_UNARY,
+            bind = "bindMetricsService",
+            unbind = "unbindMetricsService",
+            policy = ReferencePolicy.DYNAMIC)
+    protected volatile MetricsService metricsService;
+
     private static final String HOP_COUNT = "hopCount";
     private static final String LINK_METRIC = "linkMetric";
     private static final String GEO_DISTANCE = "geoDistance";
@@ -123,6 +141,11 @@ public class DistributedTopologyStore
             label = "Default link-weight function: hopCount, linkMetric, geoDistance")
     private String linkWeightFunction = DEFAULT_LINK_WEIGHT_FUNCTION;
 
+    @Property(name = "pathCacheSize", intValue = DefaultTopology.DEFAULT_PATH_CACHE_SIZE,
+            label = "Maximum number of shortest path search results cached per topology; " +
+                    "0 disables the cache")
+    private int pathCacheSize = DefaultTopology.DEFAULT_PATH_CACHE_SIZE;
+
     // Cluster root to broadcast points bindings to allow convergence to
     // a shared broadcast tree; node that is the master of the cluster root
     // is the primary.
@@ -131,6 +154,41 @@ public class DistributedTopologyStore
     private EventuallyConsistentMapListener<DeviceId, Set<ConnectPoint>> listener =
             new InternalBroadcastPointListener();
 
+    // Path cache statistics accumulated by the superseded topologies
+    private CacheStats supersededPathCacheStats = new CacheStats(0, 0, 0, 0, 0, 0);
+
+    /**
+     * Hook for wiring up optional reference to a service.
+     *
+     * @param service service being announced
+     */
+    protected synchronized void bindMetricsService(MetricsService service) {
+        if (metricsService == null) {
+            metricsService = service;
+            MetricsComponent component = service.registerComponent(METRICS_COMPONENT);
+            MetricsFeature feature = component.registerFeature(METRICS_FEATURE);
+            service.registerMetric(component, feature, PATH_CACHE_HITS,
+                                   (Gauge<Long>) () -> pathCacheStats().hitCount());
+            service.registerMetric(component, feature, PATH_CACHE_MISSES,
+                                   (Gauge<Long>) () -> pathCacheStats().missCount());
+        }
+    }
+
+    /**
+     * Hook for unwiring optional reference to a service.
+     *
+     * @param service service being withdrawn
+     */
+    protected synchronized void unbindMetricsService(MetricsService service) {
+        if (metricsService == service) {
+            MetricsComponent component = service.registerComponent(METRICS_COMPONENT);
+            MetricsFeature feature = component.registerFeature(METRICS_FEATURE);
+            service.removeMetric(component, feature, PATH_CACHE_HITS);
+            service.removeMetric(component, feature, PATH_CACHE_MISSES);
+            metricsService = null;
+        }
+    }
+
     @Activate
     protected void activate(ComponentContext context) {
         configService.registerProperties(getClass());
@@ -169,7 +227,14 @@ public class DistributedTopologyStore
                             new GeoDistanceLinkWeight(deviceService) : null;
             setDefaultLinkWeigher(weight);
         }
-        log.info(FORMAT, linkWeightFunction);
+
+        Integer newPathCacheSize = Tools.getIntegerProperty(properties, "pathCacheSize");
+        if (newPathCacheSize != null && newPathCacheSize >= 0 &&
+                newPathCacheSize != pathCacheSize) {
+            pathCacheSize = newPathCacheSize;
+            DefaultTopology.setPathCacheSize(pathCacheSize);
+        }
+        log.info(FORMAT, linkWeightFunction, pathCacheSize);
     }
 
     @Override
@@ -290,9 +355,11 @@ public class DistributedTopologyStore
     public TopologyEvent updateTopology(ProviderId providerId,
                                         GraphDescription graphDescription,
                                         List<Event> reasons) {
-        // Have the default topology construct self from the description data.
+        // Have the default topology construct self from the description data,
+        // deriving what it can from the current topology.
         DefaultTopology newTopology =
-                new DefaultTopology(providerId, graphDescription, this::isBroadcastPoint);
+                new DefaultTopology(providerId, graphDescription,
+                                    this::isBroadcastPoint, current);
         updateBroadcastPoints(newTopology);
 
         // Promote the new topology to current and return a ready-to-send event.
@@ -302,11 +369,22 @@ public class DistributedTopologyStore
             if (current != null && newTopology.time() < current.time()) {
                 return null;
             }
+            if (current != null) {
+                log.debug("Path cache of superseded topology: {}",
+                          current.pathCacheStats());
+                supersededPathCacheStats =
+                        supersededPathCacheStats.plus(current.pathCacheStats());
+            }
             current = newTopology;
             return new TopologyEvent(TOPOLOGY_CHANGED, current, reasons);
         }
     }
 
+    // Returns the path cache statistics of all topologies seen so far.
+    private synchronized CacheStats pathCacheStats() {
+        return supersededPathCacheStats.plus(current.pathCacheStats());
+    }
+
     private void updateBroadcastPoints(DefaultTopology topology) {
         // Remove any broadcast trees rooted by devices for which we are master.
         Set<DeviceId> toRemove = broadcastPoints.keySet().stream()
@@ -317,8 +395,11 @@ public class DistributedTopologyStore
         topology.getClusters().forEach(c -> {
             toRemove.remove(c.root().deviceId());
             if (mastershipService.isLocalMaster(c.root().deviceId())) {
-                broadcastPoints.put(c.root().deviceId(),
-                                    topology.broadcastPoints(c.id()));
+                // Avoid disseminating broadcast trees which did not change.
+                Set<ConnectPoint> points = topology.broadcastPoints(c.id());
+                if (!points.equals(broadcastPoints.get(c.root().deviceId()))) {
+                    broadcastPoints.put(c.root().deviceId(), points);
+                }
             }
         });
 
@@ -53,9 +53,11 @@ import org.onosproject.net.provider.ProviderId;
 import org.onosproject.store.Timestamp;
 import org.onosproject.store.cluster.StaticClusterService;
 import org.onosproject.store.cluster.messaging.ClusterCommunicationService;
+import org.onosproject.store.cluster.messaging.ClusterCommunicationServiceAdapter;
 import org.onosproject.store.cluster.messaging.ClusterMessage;
 import org.onosproject.store.cluster.messaging.MessageSubject;
 import org.onosproject.store.impl.MastershipBasedTimestamp;
+import org.onosproject.store.impl.Timestamped;
 import org.onosproject.store.service.EventuallyConsistentMap;
 import org.onosproject.store.service.EventuallyConsistentMapBuilder;
 import org.onosproject.store.service.StorageService;
@@ -70,8 +72,10 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import static java.util.Arrays.asList;
@@ -894,6 +898,114 @@ public class GossipDeviceStoreTest {
         assertTrue("Remove event fired", removeLatch.await(1, TimeUnit.SECONDS));
     }
 
+    @Test
+    public final void testBootstrapAndDigestAntiEntropy() {
+        Map<NodeId, Map<MessageSubject, Consumer<byte[]>>> network = new HashMap<>();
+
+        GossipDeviceStore remote = createPeerStore(ONOS2, network);
+        remote.createOrUpdateDevice(PID, DID1, new DefaultDeviceDescription(DID1.uri(), SWITCH, MFR,
+                                                                            HW, SW1, SN, CID));
+        remote.updatePorts(PID, DID1, Arrays.asList(
+                DefaultPortDescription.builder().withPortNumber(P1).isEnabled(true).build(),
+                DefaultPortDescription.builder().withPortNumber(P2).isEnabled(true).build()));
+
+        // local node joins and bootstraps from the remote node
+        GossipDeviceStore local = createPeerStore(ONOS1, network);
+        try {
+            assertDevice(DID1, SW1, local.getDevice(DID1));
+            assertEquals(2, local.getPorts(DID1).size());
+            assertTrue(local.getPort(DID1, P2).isEnabled());
+
+            // update missed by the local node
+            Map<MessageSubject, Consumer<byte[]>> localSubscribers = network.remove(NID1);
+            remote.updatePortStatus(PID, DID1,
+                    DefaultPortDescription.builder().withPortNumber(P2).isEnabled(false).build());
+            network.put(NID1, localSubscribers);
+            assertTrue(local.getPort(DID1, P2).isEnabled());
+
+            // digests differ, local node advertises DID1 and is sent the update
+            localSubscribers.get(GossipDeviceStoreMessageSubjects.DEVICE_DIGEST)
+                    .accept(GossipDeviceStore.SERIALIZER.encode(
+                            new DeviceDigestAdvertisement(NID2, new HashMap<>())));
+            assertFalse(local.getPort(DID1, P2).isEnabled());
+        } finally {
+            local.deactivate();
+            remote.deactivate();
+        }
+    }
+
+    @Test
+    public final void testCompressedBulkUpdate() {
+        putDevice(DID1, SW1);
+        DeviceBulkUpdate update = new DeviceBulkUpdate();
+        update.addOffline(DID1, new MastershipBasedTimestamp(1, 10));
+        update.addPort(new PortFragmentId(DID1, PID, P1),
+                       new Timestamped<>(
+                               DefaultPortDescription.builder().withPortNumber(P1).build(),
+                               new MastershipBasedTimestamp(1, 9)));
+
+        DeviceBulkUpdate decoded = GossipDeviceStore.decodeCompressed(
+                GossipDeviceStore.encodeCompressed(update));
+        assertEquals(update.offline(), decoded.offline());
+        assertEquals(update.ports().keySet(), decoded.ports().keySet());
+        assertTrue(decoded.devices().isEmpty());
+    }
+
+    private GossipDeviceStore createPeerStore(ControllerNode self,
+                                              Map<NodeId, Map<MessageSubject, Consumer<byte[]>>> network) {
+        GossipDeviceStore store = new TestGossipDeviceStore(deviceClockService, new TestClusterService(self),
+                                                            new TestClusterCommunicator(self.id(), network));
+        store.mastershipService = new MastershipServiceAdapter() {
+            @Override
+            public NodeId getMasterFor(DeviceId deviceId) {
+                return NID2;
+            }
+        };
+        store.storageService = testStorageService;
+        store.activate();
+        return store;
+    }
+
+    /**
+     * Cluster communicator delivering messages synchronously to the stores
+     * attached to the same network.
+     */
+    private static final class TestClusterCommunicator extends ClusterCommunicationServiceAdapter {
+
+        private final NodeId self;
+        private final Map<NodeId, Map<MessageSubject, Consumer<byte[]>>> network;
+
+        private TestClusterCommunicator(NodeId self,
+                                        Map<NodeId, Map<MessageSubject, Consumer<byte[]>>> network) {
+            this.self = self;
+            this.network = network;
+            network.put(self, new HashMap<>());
+        }
+
+        @Override
+        public <M> void addSubscriber(MessageSubject subject, Function<byte[], M> decoder,
+                                      Consumer<M> handler, Executor executor) {
+            network.get(self).put(subject, bytes -> handler.accept(decoder.apply(bytes)));
+        }
+
+        @Override
+        public <M> void broadcast(M message, MessageSubject subject, Function<M, byte[]> encoder) {
+            network.keySet().stream()
+                    .filter(nodeId -> !nodeId.equals(self))
+                    .forEach(nodeId -> unicast(message, subject, encoder, nodeId));
+        }
+
+        @Override
+        public <M> CompletableFuture<Void> unicast(M message, MessageSubject subject,
+                                                   Function<M, byte[]> encoder, NodeId toNodeId) {
+            Map<MessageSubject, Consumer<byte[]>> subscribers = network.get(toNodeId);
+            if (subscribers != null && subscribers.containsKey(subject)) {
+                subscribers.get(subject).accept(encoder.apply(message));
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
     private final class TestMastershipService extends MastershipServiceAdapter {
         @Override
         public NodeId getMasterFor(DeviceId deviceId) {
@@ -920,7 +1032,11 @@ public class GossipDeviceStoreTest {
     private static final class TestClusterService extends StaticClusterService {
 
         public TestClusterService() {
-            localNode = ONOS1;
+            this(ONOS1);
+        }
+
+        public TestClusterService(ControllerNode self) {
+            localNode = self;
             nodes.put(NID1, ONOS1);
             nodeStates.put(NID1, ACTIVE);
 
@@ -16,6 +16,7 @@
 package org.onosproject.store.flow.impl;
 
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Multimap;
 import org.junit.After;
@@ -27,6 +28,7 @@ import org.onosproject.cfg.ComponentConfigAdapter;
 import org.onosproject.cluster.NodeId;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.ControllerNode;
+import org.onosproject.TestApplicationId;
 import org.onosproject.core.CoreServiceAdapter;
 import org.onosproject.mastership.MastershipInfo;
 import org.onosproject.mastership.MastershipServiceAdapter;
@@ -38,6 +40,7 @@ import org.onosproject.net.flow.FlowRule;
 import org.onosproject.net.flow.oldbatch.FlowRuleBatchEntry;
 import org.onosproject.net.flow.DefaultFlowEntry;
 import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowRuleEvent;
 import org.onosproject.net.flow.DefaultFlowRule;
 import org.onosproject.net.flow.oldbatch.FlowRuleBatchOperation;
 import org.onosproject.net.intent.IntentTestsMocks;
@@ -51,7 +54,9 @@ import org.onosproject.store.service.TestStorageService;
 
 import org.onlab.packet.Ip4Address;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import org.osgi.service.component.ComponentContext;
 
@@ -59,9 +64,12 @@ import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.emptyIterable;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertEquals;
 import static org.onosproject.net.NetTestTools.APP_ID;
 import static org.onosproject.net.NetTestTools.did;
@@ -310,4 +318,101 @@ public class ECFlowRuleStoreTest {
         }
         assertThat(sum3, is(0));
     }
+
+    /**
+     * Tests looking up flows by application and group.
+     */
+    @Test
+    public void testGetFlowEntriesById() {
+        FlowRule otherAppRule = DefaultFlowRule.builder()
+                .forDevice(deviceId)
+                .withSelector(SELECTOR)
+                .withTreatment(TREATMENT)
+                .withPriority(55)
+                .makePermanent()
+                .fromApp(new TestApplicationId("bar"))
+                .build();
+        flowStoreImpl.addOrUpdateFlowRule(new DefaultFlowEntry(flowRule));
+        flowStoreImpl.addOrUpdateFlowRule(new DefaultFlowEntry(flowRule1));
+        flowStoreImpl.addOrUpdateFlowRule(new DefaultFlowEntry(otherAppRule));
+
+        assertThat(flowStoreImpl.getFlowEntriesById(deviceId, APP_ID), containsInAnyOrder(flowRule, flowRule1));
+        assertThat(flowStoreImpl.getFlowEntriesByGroupId(deviceId, APP_ID, (short) 0),
+                containsInAnyOrder(flowRule, flowRule1));
+
+        flowStoreImpl.removeFlowRule(new DefaultFlowEntry(flowRule));
+        assertThat(flowStoreImpl.getFlowEntriesById(deviceId, APP_ID), contains(flowRule1));
+        assertThat(flowStoreImpl.getFlowEntriesByGroupId(deviceId, APP_ID, (short) 0), contains(flowRule1));
+
+        flowStoreImpl.purgeFlowRule(deviceId);
+        assertThat(flowStoreImpl.getFlowEntriesById(deviceId, APP_ID), is(emptyIterable()));
+    }
+
+    /**
+     * Tests looking up the flows of an application and group on several devices.
+     */
+    @Test
+    public void testGetFlowEntriesByIdOfDevices() {
+        DeviceId deviceId2 = did("device2");
+        FlowRule device2Rule = DefaultFlowRule.builder()
+                .forDevice(deviceId2)
+                .withSelector(SELECTOR)
+                .withTreatment(TREATMENT)
+                .withPriority(22)
+                .makePermanent()
+                .fromApp(APP_ID)
+                .build();
+        flowStoreImpl.addOrUpdateFlowRule(new DefaultFlowEntry(flowRule));
+        flowStoreImpl.addOrUpdateFlowRule(new DefaultFlowEntry(device2Rule));
+
+        assertThat(flowStoreImpl.getFlowEntriesById(ImmutableList.of(deviceId, deviceId2), APP_ID),
+                containsInAnyOrder(flowRule, device2Rule));
+        assertThat(flowStoreImpl.getFlowEntriesById(ImmutableList.of(deviceId2), APP_ID),
+                contains(device2Rule));
+        assertThat(flowStoreImpl.getFlowEntriesById(ImmutableList.of(deviceId, deviceId2),
+                                                    new TestApplicationId("bar")),
+                is(emptyIterable()));
+        assertThat(flowStoreImpl.getFlowEntriesByGroupId(ImmutableList.of(deviceId, deviceId2), APP_ID, (short) 0),
+                containsInAnyOrder(flowRule, device2Rule));
+        assertThat(flowStoreImpl.getFlowEntriesByGroupId(ImmutableList.of(deviceId, deviceId2), APP_ID, (short) 1),
+                is(emptyIterable()));
+    }
+
+    /**
+     * Tests updating the statistics of a batch of flows.
+     */
+    @Test
+    public void testAddOrUpdateFlowRules() {
+        flowStoreImpl.addOrUpdateFlowRule(new DefaultFlowEntry(flowRule));
+        flowStoreImpl.addOrUpdateFlowRule(new DefaultFlowEntry(flowRule1, FlowEntry.FlowEntryState.ADDED));
+
+        DefaultFlowEntry flowEntry = new DefaultFlowEntry(flowRule, FlowEntry.FlowEntryState.ADDED, 1, 10, 100);
+        DefaultFlowEntry flowEntry1 = new DefaultFlowEntry(flowRule1, FlowEntry.FlowEntryState.ADDED, 1, 20, 200);
+        List<FlowRuleEvent> events = flowStoreImpl.addOrUpdateFlowRules(
+                deviceId, ImmutableList.of(flowEntry, flowEntry1));
+        assertThat(events.stream().map(FlowRuleEvent::type).collect(Collectors.toList()),
+                containsInAnyOrder(FlowRuleEvent.Type.RULE_ADDED, FlowRuleEvent.Type.RULE_UPDATED));
+
+        FlowEntry stored = flowStoreImpl.getFlowEntry(flowRule);
+        assertEquals("ADDED", stored.state().toString());
+        assertThat(stored.packets(), is(10L));
+        assertThat(stored.bytes(), is(100L));
+        assertThat(flowStoreImpl.getFlowEntry(flowRule1).packets(), is(20L));
+    }
+
+    @Test
+    public void testAddOrUpdateMissingFlowRules() {
+        flowStoreImpl.addOrUpdateFlowRule(new DefaultFlowEntry(flowRule));
+        assertThat(flowStoreImpl.getFlowEntries(deviceId, ImmutableList.of(flowRule, flowRule1)),
+                contains(notNullValue(), nullValue()));
+
+        // Rules missing from the store are added, without an event
+        DefaultFlowEntry flowEntry1 = new DefaultFlowEntry(flowRule1, FlowEntry.FlowEntryState.ADDED, 1, 20, 200);
+        List<FlowRuleEvent> events = flowStoreImpl.addOrUpdateFlowRules(deviceId, ImmutableList.of(flowEntry1));
+        assertThat(events, emptyIterable());
+
+        List<FlowEntry> stored = flowStoreImpl.getFlowEntries(deviceId, ImmutableList.of(flowRule1, flowRule));
+        assertThat(stored.get(0).packets(), is(20L));
+        assertEquals(flowRule, stored.get(1));
+    }
 }
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.DefaultFlowEntry;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.StoredFlowEntry;
+import org.onosproject.net.intent.IntentTestsMocks;
+import org.onosproject.store.LogicalTimestamp;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.onosproject.net.NetTestTools.APP_ID;
+import static org.onosproject.net.NetTestTools.did;
+
+/**
+ * Unit tests for flow bucket delta tracking.
+ */
+public class FlowBucketTest {
+
+    private static final DeviceId DEVICE_ID = did("device1");
+
+    private final LogicalClock clock = new LogicalClock();
+
+    private static StoredFlowEntry entry(int priority) {
+        FlowRule rule = DefaultFlowRule.builder()
+            .forDevice(DEVICE_ID)
+            .withSelector(new IntentTestsMocks.MockSelector())
+            .withTreatment(new IntentTestsMocks.MockTreatment())
+            .withPriority(priority)
+            .makePermanent()
+            .fromApp(APP_ID)
+            .build();
+        return new DefaultFlowEntry(rule);
+    }
+
+    private static FlowBucket newBucket() {
+        return new FlowBucket(new BucketId(DEVICE_ID, 0));
+    }
+
+    /**
+     * Tests that a delta only contains changes after its base timestamp.
+     */
+    @Test
+    public void testDelta() {
+        FlowBucket bucket = newBucket();
+        StoredFlowEntry entry1 = entry(1);
+        StoredFlowEntry entry2 = entry(2);
+
+        bucket.add(entry1, 1, clock);
+        LogicalTimestamp base = bucket.timestamp();
+        bucket.add(entry2, 1, clock);
+
+        FlowBucketDelta delta = bucket.delta(base);
+        assertThat(delta.updates(), contains(entry2));
+        assertThat(delta.removals(), is(empty()));
+        assertThat(delta.timestamp(), is(bucket.timestamp()));
+
+        bucket.remove(entry1, 1, clock);
+        delta = bucket.delta(base);
+        assertThat(delta.updates(), contains(entry2));
+        assertThat(delta.removals(), contains(entry1));
+    }
+
+    /**
+     * Tests applying a delta to a replica of the bucket.
+     */
+    @Test
+    public void testApply() {
+        FlowBucket bucket = newBucket();
+        StoredFlowEntry entry1 = entry(1);
+        StoredFlowEntry entry2 = entry(2);
+        bucket.add(entry1, 1, clock);
+
+        FlowBucket replica = bucket.copy();
+        LogicalTimestamp base = bucket.timestamp();
+        bucket.add(entry2, 1, clock);
+        bucket.remove(entry1, 1, clock);
+
+        assertThat(replica.apply(bucket.delta(base)), is(true));
+        assertThat(replica.count(), is(1));
+        assertThat(replica.getFlowEntries(entry2.id()).get(entry2), is(entry2));
+        assertThat(replica.timestamp(), is(bucket.timestamp()));
+    }
+
+    /**
+     * Tests that a delta is rejected by a replica that has diverged.
+     */
+    @Test
+    public void testApplyDiverged() {
+        FlowBucket bucket = newBucket();
+        bucket.add(entry(1), 1, clock);
+        LogicalTimestamp base = bucket.timestamp();
+        bucket.add(entry(2), 1, clock);
+
+        // The replica has not seen the changes up to the base timestamp.
+        assertThat(newBucket().apply(bucket.delta(base)), is(false));
+
+        // The replica is in a different term.
+        FlowBucket replica = bucket.copy();
+        bucket.add(entry(3), 2, clock);
+        assertThat(replica.apply(bucket.delta(base)), is(false));
+    }
+
+    /**
+     * Tests that compaction discards changes that have been replicated.
+     */
+    @Test
+    public void testCompact() {
+        FlowBucket bucket = newBucket();
+        StoredFlowEntry entry1 = entry(1);
+        StoredFlowEntry entry2 = entry(2);
+        LogicalTimestamp base = bucket.timestamp();
+
+        bucket.add(entry1, 1, clock);
+        bucket.remove(entry1, 1, clock);
+        LogicalTimestamp compacted = bucket.timestamp();
+        bucket.add(entry2, 1, clock);
+
+        bucket.compact(compacted);
+        FlowBucketDelta delta = bucket.delta(base);
+        assertThat(delta.updates(), contains(entry2));
+        assertThat(delta.removals(), is(empty()));
+    }
+
+    /**
+     * Tests that a batch update only records changes for modified entries.
+     */
+    @Test
+    public void testBatchUpdate() {
+        FlowBucket bucket = newBucket();
+        StoredFlowEntry entry1 = entry(1);
+        StoredFlowEntry entry2 = entry(2);
+        StoredFlowEntry entry3 = entry(3);
+        bucket.add(entry1, 1, clock);
+        bucket.add(entry2, 1, clock);
+        LogicalTimestamp base = bucket.timestamp();
+
+        List<Integer> results = bucket.update(
+            ImmutableList.of(entry1, entry2, entry3),
+            (rule, stored) -> rule.priority() == 1,
+            (rule, stored) -> stored != null ? rule.priority() : null,
+            1,
+            clock);
+        assertThat(results, contains(1, 2, null));
+
+        FlowBucketDelta delta = bucket.delta(base);
+        assertThat(delta.updates(), contains(entry1));
+        assertThat(delta.removals(), is(empty()));
+    }
+}
@@ -20,14 +20,19 @@ import org.junit.Before;
 import org.junit.Test;
 import org.onlab.packet.IpAddress;
 import org.onlab.packet.MacAddress;
+import org.onlab.packet.VlanId;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DeviceId;
 import org.onosproject.net.Host;
 import org.onosproject.net.HostId;
 import org.onosproject.net.HostLocation;
+import org.onosproject.net.PortNumber;
 import org.onosproject.net.host.DefaultHostDescription;
 import org.onosproject.net.host.HostDescription;
 import org.onosproject.net.provider.ProviderId;
 import org.onosproject.store.service.TestStorageService;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 
 import java.util.HashSet;
@@ -146,6 +151,50 @@ public class DistributedHostStoreTest {
         assertEquals(PID2, hostInStore.providerId());
     }
 
+    /**
+     * Tests the lookups of hosts by location, device, MAC and VLAN as hosts
+     * are added, moved and removed.
+     */
+    @Test
+    public void testIndexedLookups() {
+        DeviceId dev1 = DeviceId.deviceId("of:1");
+        DeviceId dev2 = DeviceId.deviceId("of:2");
+        HostLocation loc1 = new HostLocation(dev1, PortNumber.portNumber(1), 0);
+        HostLocation loc2 = new HostLocation(dev2, PortNumber.portNumber(2), 0);
+        ConnectPoint cp1 = new ConnectPoint(dev1, PortNumber.portNumber(1));
+        VlanId vlan = VlanId.vlanId((short) 10);
+        HostId hostId = HostId.hostId(MacAddress.valueOf("1a:1a:1a:1a:1a:1c"), vlan);
+
+        ecXHostStore.createOrUpdateHost(PID, hostId,
+                new DefaultHostDescription(hostId.mac(), vlan, loc1, ImmutableSet.of(IP1)), false);
+        ecXHostStore.createOrUpdateHost(PID, HOSTID, HOST_LEARNT, false);
+        assertEquals(ImmutableSet.of(hostId), ids(ecXHostStore.getConnectedHosts(cp1)));
+        assertEquals(ImmutableSet.of(hostId), ids(ecXHostStore.getConnectedHosts(dev1)));
+        assertEquals(ImmutableSet.of(hostId), ids(ecXHostStore.getHosts(hostId.mac())));
+        assertEquals(ImmutableSet.of(hostId), ids(ecXHostStore.getHosts(vlan)));
+        assertEquals(ImmutableSet.of(HOSTID), ids(ecXHostStore.getHosts(VlanId.NONE)));
+
+        ecXHostStore.appendLocation(hostId, loc2);
+        assertEquals(ImmutableSet.of(hostId), ids(ecXHostStore.getConnectedHosts(dev2)));
+        assertEquals(2, ecXHostStore.getConnectedHosts(dev1).iterator().next().locations().size());
+
+        ecXHostStore.removeLocation(hostId, loc1);
+        assertTrue(ecXHostStore.getConnectedHosts(cp1).isEmpty());
+        assertTrue(ecXHostStore.getConnectedHosts(dev1).isEmpty());
+        assertEquals(ImmutableSet.of(hostId), ids(ecXHostStore.getConnectedHosts(loc2)));
+
+        ecXHostStore.removeHost(hostId);
+        assertTrue(ecXHostStore.getConnectedHosts(dev2).isEmpty());
+        assertTrue(ecXHostStore.getHosts(hostId.mac()).isEmpty());
+        assertTrue(ecXHostStore.getHosts(vlan).isEmpty());
+    }
+
+    private static Set<HostId> ids(Set<Host> hosts) {
+        Set<HostId> ids = new HashSet<>();
+        hosts.forEach(host -> ids.add(host.id()));
+        return ids;
+    }
+
     private static HostDescription createHostDesc(HostId hostId, Set<IpAddress> ips) {
         return createHostDesc(hostId, ips, false);
     }
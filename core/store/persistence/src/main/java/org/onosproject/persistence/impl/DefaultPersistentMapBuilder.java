@@ -16,30 +16,30 @@
 
 package org.onosproject.persistence.impl;
 
-import org.mapdb.DB;
 import org.onosproject.persistence.PersistentMapBuilder;
 import org.onosproject.store.service.Serializer;
 
 import java.util.Map;
+import java.util.function.Function;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
- * Default builder for persistent maps stored in the mapDB local database via the persistence service.
+ * Default builder for persistent maps stored in memory-mapped logs via the persistence service.
  */
 public class DefaultPersistentMapBuilder<K, V> implements PersistentMapBuilder<K, V> {
 
-    private final DB localDB;
+    private final Function<String, MappedLog> logs;
 
     private String name = null;
 
     private Serializer serializer = null;
 
 
-    public DefaultPersistentMapBuilder(DB localDB) {
-        checkNotNull(localDB, "The local database cannot be null.");
-        this.localDB = localDB;
+    public DefaultPersistentMapBuilder(Function<String, MappedLog> logs) {
+        checkNotNull(logs, "The log provider cannot be null.");
+        this.logs = logs;
     }
 
     public PersistentMapBuilder<K, V> withName(String name) {
@@ -58,6 +58,6 @@ public class DefaultPersistentMapBuilder<K, V> implements PersistentMapBuilder<K
         checkNotNull(name, "The name must be assigned.");
         checkNotNull(serializer, "The key serializer must be assigned.");
 
-        return new PersistentMap<K, V>(serializer, localDB, name);
+        return new MappedPersistentMap<>(serializer, logs.apply(name));
     }
 }
\ No newline at end of file
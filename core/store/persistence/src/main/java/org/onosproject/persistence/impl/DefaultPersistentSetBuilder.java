@@ -16,26 +16,27 @@
 
 package org.onosproject.persistence.impl;
 
-import org.mapdb.DB;
 import org.onosproject.persistence.PersistentSetBuilder;
 import org.onosproject.store.service.Serializer;
 
+import java.util.function.Function;
+
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
- * Default builder for persistent sets stored in the mapDB local database via the persistence service..
+ * Default builder for persistent sets stored in memory-mapped logs via the persistence service.
  */
 public class DefaultPersistentSetBuilder<E> implements PersistentSetBuilder<E> {
 
-    private final DB localDB;
+    private final Function<String, MappedLog> logs;
 
     private String name = null;
 
     private Serializer serializer = null;
 
-    public DefaultPersistentSetBuilder(DB localDB) {
-        this.localDB = checkNotNull(localDB, "The local database cannot be null.");
+    public DefaultPersistentSetBuilder(Function<String, MappedLog> logs) {
+        this.logs = checkNotNull(logs, "The log provider cannot be null.");
     }
 
     public PersistentSetBuilder<E> withName(String name) {
@@ -50,10 +51,10 @@ public class DefaultPersistentSetBuilder<E> implements PersistentSetBuilder<E> {
         return this;
     }
 
-    public PersistentSet<E> build() {
+    public MappedPersistentSet<E> build() {
         checkNotNull(name, "The name must be assigned.");
         checkNotNull(serializer, "The serializer must be assigned.");
 
-        return new PersistentSet<E>(serializer, localDB, name);
+        return new MappedPersistentSet<>(serializer, logs.apply(name));
     }
 }
\ No newline at end of file
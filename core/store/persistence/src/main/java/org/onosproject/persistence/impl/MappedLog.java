@@ -0,0 +1,613 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.persistence.impl;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkState;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Append-only log of binary key/value records kept in memory-mapped segment
+ * files, with an in-memory index of the location of the latest record of
+ * each key.
+ * <p>
+ * Each record is laid out as its body length, the CRC32 of its body and the
+ * body itself, which holds the record type, the key length, the key and the
+ * value. The length is written last, so a zero length marks the end of a
+ * segment. Values stay in the mapped segments and are only copied on heap
+ * when read.
+ * </p>
+ * <p>
+ * When the log is reopened, segments are replayed in order and the active
+ * segment is truncated at its first torn or corrupt record. Segments in which
+ * most records have been superseded are compacted one at a time by copying
+ * their live records to the active segment before deleting them, so that a
+ * crash in the middle of a compaction leaves at worst duplicate records, of
+ * which the latest wins. The removal record of a key is only kept while an
+ * older segment still holds a value for that key, and it counts as live
+ * until then, so that removals neither pile up nor trigger compactions of
+ * their own.
+ * </p>
+ */
+final class MappedLog {
+
+    static final int DEFAULT_SEGMENT_SIZE = 8 * 1024 * 1024;
+
+    private static final double COMPACTION_THRESHOLD = 0.5;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final int HEADER_LENGTH = 2 * Integer.BYTES;
+    private static final int BODY_HEADER_LENGTH = 1 + Integer.BYTES;
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final Logger log = getLogger(getClass());
+
+    private final File directory;
+    private final int segmentSize;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<Long, Segment> segments = Maps.newTreeMap();
+    private final Map<ByteBuffer, Location> index = Maps.newHashMap();
+    // removal records still needed to mask a value in an older segment
+    private final Map<ByteBuffer, Location> tombstones = Maps.newHashMap();
+    private Segment head;
+
+    /**
+     * Opens the log kept in the given directory, creating it if needed.
+     *
+     * @param directory   directory of the segment files
+     * @param segmentSize size of new segments in bytes
+     */
+    MappedLog(File directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        try {
+            Files.createDirectories(directory.toPath());
+            recover();
+        } catch (IOException e) {
+            throw new PersistenceException("Unable to open " + directory + ": " + e.getMessage());
+        }
+    }
+
+    // Replays the existing segments in order and rebuilds the index.
+    private void recover() throws IOException {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) &&
+                name.endsWith(SEGMENT_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                String id = file.getName().substring(SEGMENT_PREFIX.length(),
+                                                     file.getName().length() - SEGMENT_SUFFIX.length());
+                try {
+                    long segmentId = Long.parseLong(id);
+                    if (file.length() == 0) {
+                        // Left behind by a crash before the segment was mapped.
+                        Files.delete(file.toPath());
+                        continue;
+                    }
+                    segments.put(segmentId, new Segment(segmentId, file, (int) file.length()));
+                } catch (NumberFormatException e) {
+                    log.warn("Ignoring unexpected file {}", file);
+                }
+            }
+        }
+        for (Segment segment : segments.values()) {
+            replay(segment, segment.id == segments.lastKey());
+        }
+        head = segments.isEmpty() ? createSegment(0, segmentSize) : segments.lastEntry().getValue();
+    }
+
+    // Applies the records of a segment to the index, checking their CRC if
+    // the segment might contain a torn write.
+    private void replay(Segment segment, boolean active) {
+        ByteBuffer buffer = segment.buffer.duplicate();
+        int offset = 0;
+        boolean corrupt = false;
+        while (offset + HEADER_LENGTH <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length == 0) {
+                break;
+            }
+            if (length < BODY_HEADER_LENGTH ||
+                    offset + HEADER_LENGTH + length > buffer.capacity() ||
+                    (active && buffer.getInt(offset + Integer.BYTES) != crc(buffer, offset, length))) {
+                corrupt = true;
+                break;
+            }
+            byte type = buffer.get(offset + HEADER_LENGTH);
+            byte[] key = readKey(buffer, offset);
+            Location location = new Location(segment, offset, HEADER_LENGTH + length);
+            if (type == PUT) {
+                index(key, location);
+            } else {
+                tombstone(key, location);
+            }
+            offset += HEADER_LENGTH + length;
+        }
+        segment.position = offset;
+        if (corrupt) {
+            log.warn("Truncating {} at offset {} after a torn or corrupt record", segment.file, offset);
+            // Zero the tail so that stale records are never replayed after
+            // new ones are appended in their place.
+            for (int i = offset; i < buffer.capacity(); i++) {
+                buffer.put(i, (byte) 0);
+            }
+            segment.buffer.force();
+        }
+    }
+
+    private Segment createSegment(long id, int size) throws IOException {
+        File file = new File(directory, SEGMENT_PREFIX + id + SEGMENT_SUFFIX);
+        Segment segment = new Segment(id, file, size);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    /**
+     * Returns the number of keys in the log.
+     *
+     * @return number of keys
+     */
+    int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns whether the log holds no keys.
+     *
+     * @return true if the log is empty
+     */
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns whether the log holds a value for the given key.
+     *
+     * @param key key bytes
+     * @return true if the key is present
+     */
+    boolean containsKey(byte[] key) {
+        lock.readLock().lock();
+        try {
+            return index.containsKey(ByteBuffer.wrap(key));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the value of the given key.
+     *
+     * @param key key bytes
+     * @return value bytes; null if the key is absent
+     */
+    byte[] get(byte[] key) {
+        lock.readLock().lock();
+        try {
+            Location location = index.get(ByteBuffer.wrap(key));
+            return location == null ? null : readValue(location);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Appends a new value for the given key.
+     *
+     * @param key   key bytes
+     * @param value value bytes
+     * @return previous value bytes; null if the key was absent
+     */
+    byte[] put(byte[] key, byte[] value) {
+        lock.writeLock().lock();
+        try {
+            Location previous = index.get(ByteBuffer.wrap(key));
+            byte[] previousValue = previous == null ? null : readValue(previous);
+            index(key, append(PUT, key, value));
+            return previousValue;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Appends a removal of the given key.
+     *
+     * @param key key bytes
+     * @return previous value bytes; null if the key was absent
+     */
+    byte[] remove(byte[] key) {
+        lock.writeLock().lock();
+        try {
+            Location previous = index.get(ByteBuffer.wrap(key));
+            if (previous == null) {
+                return null;
+            }
+            byte[] previousValue = readValue(previous);
+            tombstone(key, append(REMOVE, key, EMPTY));
+            return previousValue;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Appends a removal of every key; the superseded segments are reclaimed
+     * by later compactions.
+     */
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            for (ByteBuffer key : Lists.newArrayList(index.keySet())) {
+                tombstone(key.array(), append(REMOVE, key.array(), EMPTY));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the keys in the log.
+     *
+     * @return key bytes
+     */
+    List<byte[]> keys() {
+        lock.readLock().lock();
+        try {
+            List<byte[]> keys = Lists.newArrayListWithCapacity(index.size());
+            index.keySet().forEach(key -> keys.add(key.array()));
+            return keys;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Passes every key and value of the log to the given consumer.
+     *
+     * @param consumer consumer of the key and value bytes
+     */
+    void forEach(BiConsumer<byte[], byte[]> consumer) {
+        lock.readLock().lock();
+        try {
+            index.forEach((key, location) -> consumer.accept(key.array(), readValue(location)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Forces the active segment to disk.
+     */
+    void flush() {
+        lock.readLock().lock();
+        try {
+            head.buffer.force();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Compacts the oldest sealed segment in which the live records make up
+     * less than half of the written bytes.
+     *
+     * @return true if a segment was compacted
+     */
+    boolean compact() {
+        lock.writeLock().lock();
+        try {
+            Segment victim = segments.values().stream()
+                    .filter(segment -> segment != head &&
+                            segment.liveBytes < segment.position * COMPACTION_THRESHOLD)
+                    .findFirst().orElse(null);
+            if (victim == null) {
+                return false;
+            }
+            ByteBuffer buffer = victim.buffer.duplicate();
+            int offset = 0;
+            while (offset < victim.position) {
+                int length = HEADER_LENGTH + buffer.getInt(offset);
+                byte type = buffer.get(offset + HEADER_LENGTH);
+                byte[] key = readKey(buffer, offset);
+                if (type == PUT) {
+                    if (isAt(index.get(ByteBuffer.wrap(key)), victim, offset)) {
+                        index(key, appendRecord(buffer, offset, length));
+                    }
+                } else if (isAt(tombstones.get(ByteBuffer.wrap(key)), victim, offset)) {
+                    tombstone(key, appendRecord(buffer, offset, length));
+                }
+                offset += length;
+            }
+            head.buffer.force();
+            segments.remove(victim.id);
+            releaseTombstones(victim);
+            Files.delete(victim.file.toPath());
+            unmap(victim.buffer);
+            log.debug("Compacted {}", victim.file);
+            return true;
+        } catch (IOException e) {
+            throw new PersistenceException("Unable to compact " + directory + ": " + e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Forces all segments to disk and releases the log.
+     */
+    void close() {
+        lock.writeLock().lock();
+        try {
+            segments.values().forEach(segment -> {
+                segment.buffer.force();
+                unmap(segment.buffer);
+            });
+            segments.clear();
+            index.clear();
+            tombstones.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Releases the log and deletes its segments and directory.
+     */
+    void delete() {
+        lock.writeLock().lock();
+        try {
+            for (Segment segment : segments.values()) {
+                Files.deleteIfExists(segment.file.toPath());
+                unmap(segment.buffer);
+            }
+            segments.clear();
+            index.clear();
+            tombstones.clear();
+            Files.deleteIfExists(directory.toPath());
+        } catch (IOException e) {
+            throw new PersistenceException("Unable to delete " + directory + ": " + e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Points the key to its latest record, releasing the previous one and
+    // any removal of the key.
+    private void index(byte[] key, Location location) {
+        ByteBuffer wrappedKey = ByteBuffer.wrap(key);
+        location.segment.liveBytes += location.length;
+        location.segment.keys.add(wrappedKey);
+        release(index.put(wrappedKey, location));
+        release(tombstones.remove(wrappedKey));
+    }
+
+    // Records the removal of the key, which is only kept, and counted as
+    // live, if an older segment still holds a value for the key.
+    private void tombstone(byte[] key, Location location) {
+        ByteBuffer wrappedKey = ByteBuffer.wrap(key);
+        release(index.remove(wrappedKey));
+        if (hasOlderValue(wrappedKey, location.segment)) {
+            location.segment.liveBytes += location.length;
+            release(tombstones.put(wrappedKey, location));
+        } else {
+            release(tombstones.remove(wrappedKey));
+        }
+    }
+
+    // Drops the removals which no longer mask any value once the given
+    // segment is deleted.
+    private void releaseTombstones(Segment deleted) {
+        for (ByteBuffer key : deleted.keys) {
+            Location tombstone = tombstones.get(key);
+            if (tombstone != null && !hasOlderValue(key, tombstone.segment)) {
+                release(tombstones.remove(key));
+            }
+        }
+    }
+
+    private boolean hasOlderValue(ByteBuffer key, Segment segment) {
+        return segments.headMap(segment.id, false).values().stream()
+                .anyMatch(older -> older.keys.contains(key));
+    }
+
+    private static void release(Location location) {
+        if (location != null) {
+            location.segment.liveBytes -= location.length;
+        }
+    }
+
+    private static boolean isAt(Location location, Segment segment, int offset) {
+        return location != null && location.segment == segment && location.offset == offset;
+    }
+
+    // Unmaps the buffer of a deleted or closed segment right away rather than
+    // when it is garbage collected, using the cleaner of the running JDK.
+    private void unmap(MappedByteBuffer buffer) {
+        try {
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                invokeCleaner.invoke(theUnsafe.get(null), buffer);
+            } catch (NoSuchMethodException e) {
+                // Before Java 9, the cleaner is exposed by the buffer itself.
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.debug("Unable to unmap a segment of {}; it will be unmapped when collected", directory, e);
+        }
+    }
+
+    private Location append(byte type, byte[] key, byte[] value) {
+        int bodyLength = BODY_HEADER_LENGTH + key.length + value.length;
+        int offset = reserve(HEADER_LENGTH + bodyLength);
+        ByteBuffer buffer = head.buffer.duplicate();
+        buffer.position(offset + HEADER_LENGTH);
+        buffer.put(type);
+        buffer.putInt(key.length);
+        buffer.put(key);
+        buffer.put(value);
+        return commit(buffer, offset, bodyLength);
+    }
+
+    // Copies a record of a segment being compacted to the active segment.
+    private Location appendRecord(ByteBuffer source, int sourceOffset, int length) {
+        int offset = reserve(length);
+        ByteBuffer record = source.duplicate();
+        record.position(sourceOffset + HEADER_LENGTH);
+        record.limit(sourceOffset + length);
+        ByteBuffer buffer = head.buffer.duplicate();
+        buffer.position(offset + HEADER_LENGTH);
+        buffer.put(record);
+        return commit(buffer, offset, length - HEADER_LENGTH);
+    }
+
+    // Returns the offset at which a record of the given length fits,
+    // rolling over to a new segment if the active one is full.
+    private int reserve(int length) {
+        if (head.position + length > head.buffer.capacity()) {
+            head.buffer.force();
+            try {
+                head = createSegment(head.id + 1, Math.max(segmentSize, length));
+            } catch (IOException e) {
+                throw new PersistenceException("Unable to create a segment in " + directory + ": " +
+                                                       e.getMessage());
+            }
+        }
+        int offset = head.position;
+        head.position += length;
+        return offset;
+    }
+
+    // Writes the CRC and then the length, which makes the record visible.
+    private Location commit(ByteBuffer buffer, int offset, int bodyLength) {
+        buffer.putInt(offset + Integer.BYTES, crc(buffer, offset, bodyLength));
+        buffer.putInt(offset, bodyLength);
+        return new Location(head, offset, HEADER_LENGTH + bodyLength);
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int bodyLength) {
+        ByteBuffer body = buffer.duplicate();
+        body.position(offset + HEADER_LENGTH);
+        body.limit(offset + HEADER_LENGTH + bodyLength);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] readKey(ByteBuffer buffer, int offset) {
+        int keyLength = buffer.getInt(offset + HEADER_LENGTH + 1);
+        byte[] key = new byte[keyLength];
+        ByteBuffer source = buffer.duplicate();
+        source.position(offset + HEADER_LENGTH + BODY_HEADER_LENGTH);
+        source.get(key);
+        return key;
+    }
+
+    private static byte[] readValue(Location location) {
+        ByteBuffer buffer = location.segment.buffer.duplicate();
+        int keyLength = buffer.getInt(location.offset + HEADER_LENGTH + 1);
+        int valueOffset = location.offset + HEADER_LENGTH + BODY_HEADER_LENGTH + keyLength;
+        byte[] value = new byte[location.offset + location.length - valueOffset];
+        buffer.position(valueOffset);
+        buffer.get(value);
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .add("directory", directory)
+                .toString();
+    }
+
+    /**
+     * Memory-mapped segment file.
+     */
+    private static final class Segment {
+        private final long id;
+        private final File file;
+        private final MappedByteBuffer buffer;
+        // keys of the values written to the segment, live or not
+        private final Set<ByteBuffer> keys = Sets.newHashSet();
+        private int position;
+        private int liveBytes;
+
+        private Segment(long id, File file, int size) throws IOException {
+            checkState(size > 0, "Empty segment %s", file);
+            this.id = id;
+            this.file = file;
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+                 FileChannel channel = raf.getChannel()) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            }
+        }
+    }
+
+    /**
+     * Location of a record in a segment.
+     */
+    private static final class Location {
+        private final Segment segment;
+        private final int offset;
+        private final int length;
+
+        private Location(Segment segment, int offset, int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
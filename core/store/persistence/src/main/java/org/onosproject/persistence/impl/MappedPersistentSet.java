@@ -0,0 +1,192 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.persistence.impl;
+
+import com.google.common.collect.Iterators;
+import org.onosproject.store.service.Serializer;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A set whose serialized elements are kept as the keys of a memory-mapped log.
+ */
+public class MappedPersistentSet<E> implements Set<E> {
+
+    private static final byte[] PRESENT = new byte[0];
+
+    private final Serializer serializer;
+
+    private final MappedLog items;
+
+    /**
+     * Creates a set backed by the given log.
+     *
+     * @param serializer serializer of the elements
+     * @param items      log of the serialized elements
+     */
+    MappedPersistentSet(Serializer serializer, MappedLog items) {
+        this.serializer = checkNotNull(serializer);
+        this.items = checkNotNull(items);
+    }
+
+    /**
+     * Reads this set in deserialized form into the provided set.
+     *
+     * @param items the set to be populated
+     */
+    public void readInto(Set<E> items) {
+        this.items.keys().forEach(item -> items.add(serializer.decode(item)));
+    }
+
+    @Override
+    public int size() {
+        return items.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        checkNotNull(o, "The argument cannot be null");
+        return items.containsKey(serializer.encode(o));
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return Iterators.transform(items.keys().iterator(), serializer::decode);
+    }
+
+    @Override
+    public Object[] toArray() {
+        List<byte[]> keys = items.keys();
+        Object[] retArray = new Object[keys.size()];
+        int index = 0;
+        for (byte[] item : keys) {
+            retArray[index++] = serializer.decode(item);
+        }
+        return retArray;
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        checkNotNull(a, "The passed in array cannot be null.");
+        List<byte[]> keys = items.keys();
+        T[] retArray;
+        if (a.length >= keys.size()) {
+            retArray = a;
+        } else {
+            retArray = (T[]) new Object[keys.size()];
+        }
+        int index = 0;
+        for (byte[] item : keys) {
+            retArray[index++] = serializer.decode(item);
+        }
+        if (retArray.length > keys.size()) {
+            retArray[index] = null;
+        }
+        return retArray;
+    }
+
+    @Override
+    public boolean add(E item) {
+        checkNotNull(item, "Item to be added cannot be null.");
+        return items.put(serializer.encode(item), PRESENT) == null;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        checkNotNull(o, "Item to be removed cannot be null.");
+        return items.remove(serializer.encode(o)) != null;
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        checkNotNull(c, "Collection cannot be internal.");
+        for (Object item : c) {
+            if (!items.containsKey(serializer.encode(item))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        checkNotNull(c, "The collection to be added cannot be null.");
+        boolean changed = false;
+        for (E item : c) {
+            changed = add(item) || changed;
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        boolean changed = false;
+        for (byte[] item : items.keys()) {
+            E deserialized = serializer.decode(item);
+            if (!c.contains(deserialized)) {
+                changed = items.remove(item) != null || changed;
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        boolean changed = false;
+        for (Object item : c) {
+            changed = remove(item) || changed;
+        }
+        return changed;
+    }
+
+    @Override
+    public void clear() {
+        items.clear();
+    }
+
+    @Override
+    public boolean equals(Object set) {
+        //This is not threadsafe and on larger sets incurs a significant processing cost
+        if (!(set instanceof Set)) {
+            return false;
+        }
+        Set asSet = (Set) set;
+        if (asSet.size() != this.size()) {
+            return false;
+        }
+        for (Object item : this) {
+            if (!asSet.contains(item)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+}
@@ -29,12 +29,15 @@ import org.slf4j.Logger;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Map;
 import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.onosproject.security.AppGuard.checkPermission;
 import static org.onosproject.security.AppPermission.Type.PERSISTENCE_WRITE;
@@ -42,6 +45,9 @@ import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * Service that maintains local disk backed maps and sets.
+ * Each structure is kept in its own memory-mapped log, which is compacted
+ * incrementally in the background. Structures found in the legacy MapDB
+ * database are migrated to logs on activation.
  * This implementation automatically deletes empty structures on shutdown.
  */
 @Component(immediate = true)
@@ -53,12 +59,20 @@ public class PersistenceManager implements PersistenceService {
 
     private static final String DATABASE_PATH = "cache";
 
+    private static final String LOGS_PATH = "logs";
+
+    private static final String[] DATABASE_FILE_SUFFIXES = {"", ".p", ".t"};
+
+    private static final String MIGRATED_SUFFIX = ".migrated";
+
     static final String MAP_PREFIX = "map:";
     static final String SET_PREFIX = "set:";
 
     private final Logger log = getLogger(getClass());
 
-    private DB localDB = null;
+    private final Map<String, MappedLog> logs = new ConcurrentHashMap<>();
+
+    private Path logsPath;
 
     private static final int FLUSH_FREQUENCY_MILLIS = 3000;
 
@@ -84,18 +98,18 @@ public class PersistenceManager implements PersistenceService {
                 throw new PersistenceException("Database folder could not be created.");
             }
         }
-        //Notify if the database file does not exist.
-        boolean dbFound = Files.exists(dbPath);
-        if (!dbFound) {
-            log.info("The database file could not be located, a new database will be constructed.");
-
-        } else {
-            log.info("A previous database file has been found.");
+        logsPath = dbFolderPath.toPath().resolve(LOGS_PATH);
+        //Migrate the structures of a previous MapDB database, if any.
+        if (Files.exists(dbPath)) {
+            if (Files.exists(migratedMarker(dbPath))) {
+                //Already migrated; the logs may be newer than the database.
+                log.info("A previous database file has already been migrated and will be deleted.");
+                deleteDatabase(dbPath);
+            } else {
+                log.info("A previous database file has been found and will be migrated.");
+                migrate(dbPath);
+            }
         }
-        localDB = DBMaker.newFileDB(dbPath.toFile())
-                .asyncWriteEnable()
-                .closeOnJvmShutdown()
-                .make();
         timer.schedule(commitTask, FLUSH_FREQUENCY_MILLIS, FLUSH_FREQUENCY_MILLIS);
         log.info("Started");
     }
@@ -103,47 +117,109 @@ public class PersistenceManager implements PersistenceService {
     @Deactivate
     public void deactivate() {
         timer.cancel();
-        for (Map.Entry<String, Object> entry : localDB.getAll().entrySet()) {
-            String key = entry.getKey();
-            Object value = entry.getValue();
-            if (value instanceof Map) {
-                // This is a map implementation to be handled as such
-                Map asMap = (Map) value;
-                if (asMap.isEmpty()) {
-                    //the map is empty and may be deleted
-                    localDB.delete(key);
-                }
-            } else if (value instanceof Set) {
-                // This is a set implementation and can be handled as such
-                Set asSet = (Set) value;
-                if (asSet.isEmpty()) {
-                    //the set is empty and may be deleted
-                    localDB.delete(key);
-                }
+        logs.values().forEach(mappedLog -> {
+            if (mappedLog.isEmpty()) {
+                //the structure is empty and may be deleted
+                mappedLog.delete();
+            } else {
+                mappedLog.close();
             }
-        }
-        localDB.commit();
-        localDB.close();
+        });
+        logs.clear();
         log.info("Stopped");
     }
 
     @Override
     public <K, V> PersistentMapBuilder<K, V> persistentMapBuilder() {
         checkPermission(PERSISTENCE_WRITE);
-        return new DefaultPersistentMapBuilder<>(localDB);
+        return new DefaultPersistentMapBuilder<>(this::openLog);
     }
 
     @Override
     public <E> PersistentSetBuilder<E> persistentSetBuilder() {
         checkPermission(PERSISTENCE_WRITE);
-        return new DefaultPersistentSetBuilder<>(localDB);
+        return new DefaultPersistentSetBuilder<>(this::openLog);
+    }
+
+    /**
+     * Returns the log of the structure with the given name, opening it if
+     * needed.
+     *
+     * @param name structure name, including its type prefix
+     * @return log of the structure
+     */
+    MappedLog openLog(String name) {
+        return logs.computeIfAbsent(name, n -> new MappedLog(logsPath.resolve(encode(n)).toFile(),
+                                                             MappedLog.DEFAULT_SEGMENT_SIZE));
+    }
+
+    private static String encode(String name) {
+        try {
+            return URLEncoder.encode(name, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new PersistenceException("Unable to encode " + name);
+        }
+    }
+
+    // Copies the raw entries of the maps and sets of a MapDB database to
+    // logs and deletes the database. The database is marked as migrated
+    // before it is deleted, so that it is never migrated again if it cannot
+    // be deleted.
+    private void migrate(Path dbPath) {
+        DB legacyDB = DBMaker.newFileDB(dbPath.toFile()).make();
+        try {
+            for (Map.Entry<String, Object> entry : legacyDB.getAll().entrySet()) {
+                String name = entry.getKey();
+                Object value = entry.getValue();
+                if (name.startsWith(MAP_PREFIX) && value instanceof Map) {
+                    MappedLog mappedLog = openLog(name);
+                    ((Map<?, ?>) value).forEach((k, v) -> mappedLog.put((byte[]) k, (byte[]) v));
+                } else if (name.startsWith(SET_PREFIX) && value instanceof Set) {
+                    MappedLog mappedLog = openLog(name);
+                    ((Set<?>) value).forEach(item -> mappedLog.put((byte[]) item, new byte[0]));
+                }
+            }
+        } finally {
+            legacyDB.close();
+        }
+        logs.values().forEach(MappedLog::flush);
+        try {
+            Files.createFile(migratedMarker(dbPath));
+        } catch (IOException e) {
+            throw new PersistenceException("Unable to mark " + dbPath + " as migrated");
+        }
+        log.info("Migrated {} structures from {}", logs.size(), dbPath);
+        deleteDatabase(dbPath);
+    }
+
+    // Deletes the files of a migrated MapDB database, and then its marker.
+    private void deleteDatabase(Path dbPath) {
+        try {
+            for (String suffix : DATABASE_FILE_SUFFIXES) {
+                Files.deleteIfExists(dbPath.resolveSibling(dbPath.getFileName() + suffix));
+            }
+            Files.deleteIfExists(migratedMarker(dbPath));
+        } catch (IOException e) {
+            log.warn("Unable to delete the migrated database {}", dbPath, e);
+        }
+    }
+
+    private static Path migratedMarker(Path dbPath) {
+        return dbPath.resolveSibling(dbPath.getFileName() + MIGRATED_SUFFIX);
     }
 
     private class CommitTask extends TimerTask {
 
         @Override
         public void run() {
-            localDB.commit();
+            logs.values().forEach(mappedLog -> {
+                try {
+                    mappedLog.flush();
+                    mappedLog.compact();
+                } catch (PersistenceException e) {
+                    log.warn("Unable to flush or compact {}", mappedLog, e);
+                }
+            });
         }
     }
 }
\ No newline at end of file
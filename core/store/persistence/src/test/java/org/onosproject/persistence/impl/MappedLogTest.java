@@ -0,0 +1,199 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.persistence.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test suite for the memory-mapped log.
+ */
+public class MappedLogTest {
+
+    private static final int SEGMENT_SIZE = 1024;
+
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    private File directory;
+    private MappedLog log;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = new File(tmpFolder.getRoot(), "log");
+        log = new MappedLog(directory, SEGMENT_SIZE);
+    }
+
+    @After
+    public void tearDown() {
+        log.close();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private MappedLog reopen() {
+        log.close();
+        log = new MappedLog(directory, SEGMENT_SIZE);
+        return log;
+    }
+
+    private int segmentCount() {
+        return directory.list().length;
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        assertNull(log.put(bytes("a"), bytes("1")));
+        assertArrayEquals(bytes("1"), log.put(bytes("a"), bytes("2")));
+        assertArrayEquals(bytes("2"), log.get(bytes("a")));
+        assertTrue(log.containsKey(bytes("a")));
+        assertEquals(1, log.size());
+
+        assertArrayEquals(bytes("2"), log.remove(bytes("a")));
+        assertNull(log.remove(bytes("a")));
+        assertNull(log.get(bytes("a")));
+        assertTrue(log.isEmpty());
+    }
+
+    @Test
+    public void testReopen() {
+        for (int i = 0; i < 100; i++) {
+            log.put(bytes("key" + i), bytes("value" + i));
+        }
+        for (int i = 0; i < 100; i += 2) {
+            log.remove(bytes("key" + i));
+        }
+        log.put(bytes("key1"), bytes("updated"));
+        assertTrue("The log should span several segments", segmentCount() > 1);
+
+        reopen();
+        assertEquals(50, log.size());
+        assertArrayEquals(bytes("updated"), log.get(bytes("key1")));
+        assertArrayEquals(bytes("value3"), log.get(bytes("key3")));
+        assertNull(log.get(bytes("key2")));
+    }
+
+    @Test
+    public void testCompaction() {
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 20; i++) {
+                log.put(bytes("key" + i), bytes("value" + round));
+            }
+        }
+        log.remove(bytes("key0"));
+        int segments = segmentCount();
+        int compactions = 0;
+        while (log.compact()) {
+            compactions++;
+        }
+        assertTrue("Superseded segments should have been compacted", compactions > 0);
+        assertTrue(segmentCount() < segments);
+        assertEquals(19, log.size());
+        assertArrayEquals(bytes("value9"), log.get(bytes("key1")));
+
+        reopen();
+        assertEquals(19, log.size());
+        assertNull(log.get(bytes("key0")));
+        assertArrayEquals(bytes("value9"), log.get(bytes("key19")));
+    }
+
+    @Test
+    public void testCompactionConvergesWithRemovals() {
+        log.close();
+        log = new MappedLog(directory, 4 * SEGMENT_SIZE);
+        for (int i = 0; i < 100; i++) {
+            log.put(bytes("live" + i), bytes("value" + i));
+        }
+        int maxSegments = 0;
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 50; i++) {
+                log.put(bytes("gone" + round + "-" + i), bytes("value" + i));
+                log.remove(bytes("gone" + round + "-" + i));
+            }
+            int compactions = 0;
+            while (log.compact()) {
+                compactions++;
+                assertTrue("Compaction should converge", compactions < 20);
+            }
+            maxSegments = Math.max(maxSegments, segmentCount());
+        }
+        assertFalse("Nothing should be left to compact", log.compact());
+        assertTrue("Removals should not accumulate", maxSegments <= 4);
+        assertEquals(100, log.size());
+
+        log.close();
+        log = new MappedLog(directory, 4 * SEGMENT_SIZE);
+        assertEquals(100, log.size());
+        assertNull(log.get(bytes("gone0-0")));
+        assertArrayEquals(bytes("value99"), log.get(bytes("live99")));
+    }
+
+    @Test
+    public void testClear() {
+        for (int i = 0; i < 50; i++) {
+            log.put(bytes("key" + i), bytes("value" + i));
+        }
+        log.clear();
+        assertTrue(log.isEmpty());
+        while (log.compact()) {
+            assertTrue(log.isEmpty());
+        }
+        assertTrue(reopen().isEmpty());
+    }
+
+    @Test
+    public void testTornWrite() throws Exception {
+        log.put(bytes("a"), bytes("1"));
+        log.put(bytes("b"), bytes("2"));
+        log.close();
+
+        // Corrupts the body of the last record, as a crash in the middle of
+        // its write would.
+        File segment = directory.listFiles()[0];
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            ByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, file.length());
+            int second = Integer.BYTES * 2 + buffer.getInt(0);
+            int lastByte = second + Integer.BYTES * 2 + buffer.getInt(second) - 1;
+            buffer.put(lastByte, (byte) (buffer.get(lastByte) + 1));
+        }
+
+        log = new MappedLog(directory, SEGMENT_SIZE);
+        assertArrayEquals(bytes("1"), log.get(bytes("a")));
+        assertFalse(log.containsKey(bytes("b")));
+
+        log.put(bytes("c"), bytes("3"));
+        reopen();
+        assertEquals(2, log.size());
+        assertArrayEquals(bytes("3"), log.get(bytes("c")));
+    }
+}
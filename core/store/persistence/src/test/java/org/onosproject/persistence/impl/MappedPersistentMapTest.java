@@ -0,0 +1,117 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.persistence.impl;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.onlab.util.KryoNamespace;
+import org.onosproject.store.service.Serializer;
+
+import java.io.File;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test suite for the maps and sets backed by memory-mapped logs.
+ */
+public class MappedPersistentMapTest {
+
+    private static final Serializer SERIALIZER = Serializer.using(
+            KryoNamespace.newBuilder().register(String.class, Integer.class).build());
+
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    private File directory;
+    private MappedLog log;
+    private MappedPersistentMap<String, Integer> map;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = tmpFolder.newFolder();
+        log = new MappedLog(directory, MappedLog.DEFAULT_SEGMENT_SIZE);
+        map = new MappedPersistentMap<>(SERIALIZER, log);
+    }
+
+    @After
+    public void tearDown() {
+        log.close();
+    }
+
+    @Test
+    public void testMapOperations() {
+        assertTrue(map.isEmpty());
+        assertNull(map.put("one", 1));
+        assertEquals(Integer.valueOf(1), map.put("one", 11));
+        map.putAll(ImmutableMap.of("two", 2, "three", 3));
+        assertEquals(3, map.size());
+        assertEquals(Integer.valueOf(11), map.get("one"));
+        assertTrue(map.containsKey("two"));
+        assertTrue(map.containsValue(3));
+        assertFalse(map.containsValue(1));
+        assertEquals(ImmutableSet.of("one", "two", "three"), map.keySet());
+        assertEquals(ImmutableSet.of(11, 2, 3), map.values());
+        assertTrue(map.entrySet().contains(Maps.immutableEntry("two", 2)));
+
+        assertEquals(Integer.valueOf(2), map.remove("two"));
+        assertNull(map.remove("two"));
+        assertEquals(2, map.size());
+
+        map.clear();
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testReadIntoAfterReopen() {
+        for (int i = 0; i < 1000; i++) {
+            map.put("key" + i, i);
+        }
+        log.close();
+        log = new MappedLog(directory, MappedLog.DEFAULT_SEGMENT_SIZE);
+        map = new MappedPersistentMap<>(SERIALIZER, log);
+
+        Map<String, Integer> contents = Maps.newHashMap();
+        map.readInto(contents);
+        assertEquals(1000, contents.size());
+        assertEquals(Integer.valueOf(999), contents.get("key999"));
+    }
+
+    @Test
+    public void testSetOperations() {
+        MappedPersistentSet<String> set = new MappedPersistentSet<>(SERIALIZER, log);
+        assertTrue(set.add("a"));
+        assertFalse(set.add("a"));
+        assertTrue(set.addAll(ImmutableSet.of("b", "c")));
+        assertEquals(3, set.size());
+        assertTrue(set.containsAll(ImmutableSet.of("a", "c")));
+        assertTrue(set.retainAll(ImmutableSet.of("a", "b")));
+        assertEquals(ImmutableSet.of("a", "b"), Sets.newHashSet(set));
+        assertTrue(set.remove("a"));
+        assertFalse(set.contains("a"));
+        assertEquals(1, set.toArray().length);
+    }
+}
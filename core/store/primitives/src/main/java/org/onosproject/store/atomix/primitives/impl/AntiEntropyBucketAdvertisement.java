@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.atomix.primitives.impl;
+
+import com.google.common.base.MoreObjects;
+import org.onosproject.cluster.NodeId;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Anti-entropy advertisement message for eventually consistent map, carrying
+ * one hash per bucket of map entries instead of a digest of every entry.
+ * <p>
+ * Entries are assigned to buckets by the hash of their serialized key, and
+ * the hash of a bucket is the sum of the hashes of its serialized keys and
+ * entry digests. The receiver replies with the buckets whose hashes differ
+ * from its own and its digest of the entries in those buckets, which the
+ * sender then reconciles with its own entries.
+ */
+final class AntiEntropyBucketAdvertisement {
+
+    private final NodeId sender;
+    private final long[] bucketHashes;
+
+    /**
+     * Creates a new bucketed anti-entropy advertisement message.
+     *
+     * @param sender       the sender's node ID
+     * @param bucketHashes hash of each bucket; the number of buckets must be
+     *                     a power of two
+     */
+    AntiEntropyBucketAdvertisement(NodeId sender, long[] bucketHashes) {
+        checkArgument(Long.bitCount(bucketHashes.length) == 1,
+                      "Bucket count must be a power of two");
+        this.sender = checkNotNull(sender);
+        this.bucketHashes = bucketHashes;
+    }
+
+    /**
+     * Returns the sender's node ID.
+     *
+     * @return the sender's node ID
+     */
+    public NodeId sender() {
+        return sender;
+    }
+
+    /**
+     * Returns the number of buckets.
+     *
+     * @return number of buckets
+     */
+    public int bucketCount() {
+        return bucketHashes.length;
+    }
+
+    /**
+     * Returns the hash of the given bucket.
+     *
+     * @param bucket bucket index
+     * @return bucket hash
+     */
+    public long bucketHash(int bucket) {
+        return bucketHashes[bucket];
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("sender", sender)
+                .add("bucketCount", bucketHashes.length)
+                .toString();
+    }
+
+    @SuppressWarnings("unused")
+    private AntiEntropyBucketAdvertisement() {
+        this.sender = null;
+        this.bucketHashes = null;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.atomix.primitives.impl;
+
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Response to a bucketed anti-entropy advertisement, listing the buckets
+ * whose hashes differ between the sender and the receiver, along with the
+ * receiver's digest of the entries in those buckets.
+ *
+ * @param <K> type of key
+ */
+final class AntiEntropyBucketResponse<K> {
+
+    private final AntiEntropyResponse status;
+    private final Set<Integer> buckets;
+    private final Map<K, MapValue.Digest> digest;
+
+    /**
+     * Creates a new bucketed anti-entropy response.
+     *
+     * @param status  status of the advertisement processing
+     * @param buckets buckets whose hashes differ
+     * @param digest  for map entries in the differing buckets
+     */
+    AntiEntropyBucketResponse(AntiEntropyResponse status, Set<Integer> buckets,
+                              Map<K, MapValue.Digest> digest) {
+        this.status = checkNotNull(status);
+        this.buckets = ImmutableSet.copyOf(buckets);
+        this.digest = ImmutableMap.copyOf(digest);
+    }
+
+    /**
+     * Returns the status of the advertisement processing.
+     *
+     * @return anti-entropy status
+     */
+    public AntiEntropyResponse status() {
+        return status;
+    }
+
+    /**
+     * Returns the buckets whose hashes differ.
+     *
+     * @return set of bucket indexes
+     */
+    public Set<Integer> buckets() {
+        return buckets;
+    }
+
+    /**
+     * Returns the receiver's digest of the entries in the differing buckets.
+     *
+     * @return mapping from key to value digest
+     */
+    public Map<K, MapValue.Digest> digest() {
+        return digest;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("status", status)
+                .add("buckets", buckets.size())
+                .add("totalEntries", digest.size())
+                .toString();
+    }
+
+    @SuppressWarnings("unused")
+    private AntiEntropyBucketResponse() {
+        this.status = null;
+        this.buckets = null;
+        this.digest = null;
+    }
+}
@@ -22,11 +22,14 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 import io.atomix.core.collection.impl.TranscodingAsyncDistributedCollection;
 import io.atomix.core.set.impl.TranscodingAsyncDistributedSet;
+import io.atomix.primitive.PrimitiveState;
 import org.onosproject.store.primitives.MapUpdate;
 import org.onosproject.store.primitives.TransactionId;
 import org.onosproject.store.service.AsyncConsistentMap;
@@ -46,6 +49,8 @@ public class AtomixConsistentMap<K, V> implements AsyncConsistentMap<K, V> {
     private final io.atomix.core.map.AsyncAtomicMap<K, V> atomixMap;
     private final Map<MapEventListener<K, V>, io.atomix.core.map.AtomicMapEventListener<K, V>> listenerMap =
         Maps.newIdentityHashMap();
+    private final Map<Consumer<Status>, Consumer<PrimitiveState>> statusListenerMap =
+        Maps.newIdentityHashMap();
 
     public AtomixConsistentMap(io.atomix.core.map.AsyncAtomicMap<K, V> atomixMap) {
         this.atomixMap = atomixMap;
@@ -205,6 +210,26 @@ public class AtomixConsistentMap<K, V> implements AsyncConsistentMap<K, V> {
         return CompletableFuture.completedFuture(null);
     }
 
+    @Override
+    public synchronized void addStatusChangeListener(Consumer<Status> listener) {
+        Consumer<PrimitiveState> atomixListener = state -> listener.accept(toStatus(state));
+        statusListenerMap.put(listener, atomixListener);
+        atomixMap.addStateChangeListener(atomixListener);
+    }
+
+    @Override
+    public synchronized void removeStatusChangeListener(Consumer<Status> listener) {
+        Consumer<PrimitiveState> atomixListener = statusListenerMap.remove(listener);
+        if (atomixListener != null) {
+            atomixMap.removeStateChangeListener(atomixListener);
+        }
+    }
+
+    @Override
+    public synchronized Collection<Consumer<Status>> statusChangeListeners() {
+        return ImmutableSet.copyOf(statusListenerMap.keySet());
+    }
+
     @Override
     public CompletableFuture<Version> begin(TransactionId transactionId) {
         throw new UnsupportedOperationException();
@@ -230,6 +255,17 @@ public class AtomixConsistentMap<K, V> implements AsyncConsistentMap<K, V> {
         throw new UnsupportedOperationException();
     }
 
+    private static Status toStatus(PrimitiveState state) {
+        switch (state) {
+            case CONNECTED:
+                return Status.ACTIVE;
+            case SUSPENDED:
+                return Status.SUSPENDED;
+            default:
+                return Status.INACTIVE;
+        }
+    }
+
     private Versioned<V> toVersioned(io.atomix.utils.time.Versioned<V> versioned) {
         return versioned != null
             ? new Versioned<>(versioned.value(), versioned.version(), versioned.creationTime())
@@ -15,6 +15,9 @@
  */
 package org.onosproject.store.atomix.primitives.impl;
 
+import java.util.Map;
+
+import com.google.common.collect.Maps;
 import io.atomix.core.Atomix;
 import io.atomix.primitive.Recovery;
 import io.atomix.protocols.raft.MultiRaftProtocol;
@@ -32,10 +35,25 @@ public class AtomixConsistentMapBuilder<K, V> extends ConsistentMapBuilder<K, V>
     private static final int MAX_RETRIES = 5;
     private final Atomix atomix;
     private final String group;
+    private final Map<String, NearCachingAsyncConsistentMap<?, ?>> nearCaches;
 
     public AtomixConsistentMapBuilder(Atomix atomix, String group) {
+        this(atomix, group, Maps.newConcurrentMap());
+    }
+
+    /**
+     * Creates a builder registering the near caches of the maps it builds
+     * in the given map, by map name.
+     *
+     * @param atomix     Atomix instance
+     * @param group      partition group of the maps
+     * @param nearCaches registry of near caches
+     */
+    public AtomixConsistentMapBuilder(Atomix atomix, String group,
+                                      Map<String, NearCachingAsyncConsistentMap<?, ?>> nearCaches) {
         this.atomix = atomix;
         this.group = group;
+        this.nearCaches = nearCaches;
     }
 
     @Override
@@ -45,7 +63,7 @@ public class AtomixConsistentMapBuilder<K, V> extends ConsistentMapBuilder<K, V>
 
     @Override
     public AsyncConsistentMap<K, V> buildAsyncMap() {
-        return new AtomixConsistentMap<>(atomix.<K, V>atomicMapBuilder(name())
+        AsyncConsistentMap<K, V> map = new AtomixConsistentMap<>(atomix.<K, V>atomicMapBuilder(name())
             .withRegistrationRequired()
             .withProtocol(MultiRaftProtocol.builder(group)
                 .withRecoveryStrategy(Recovery.RECOVER)
@@ -56,5 +74,9 @@ public class AtomixConsistentMapBuilder<K, V> extends ConsistentMapBuilder<K, V>
             .withSerializer(new AtomixSerializerAdapter(serializer()))
             .build()
             .async());
+        if (nearCacheSize() > 0) {
+            return new NearCachingAsyncConsistentMap<>(map, nearCacheSize(), nearCaches);
+        }
+        return map;
     }
 }
\ No newline at end of file
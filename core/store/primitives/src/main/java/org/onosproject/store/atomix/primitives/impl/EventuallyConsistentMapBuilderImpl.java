@@ -23,6 +23,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.function.Supplier;
 
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.KryoNamespace;
 import org.onosproject.cluster.NodeId;
 import org.onosproject.persistence.PersistenceService;
@@ -59,6 +60,7 @@ public class EventuallyConsistentMapBuilderImpl<K, V>
     private final PersistenceService persistenceService;
     private Supplier<List<NodeId>> peersSupplier;
     private Supplier<List<NodeId>> bootstrapPeersSupplier;
+    private final MetricsService metricsService;
 
     /**
      * Creates a new eventually consistent map builder.
@@ -74,12 +76,35 @@ public class EventuallyConsistentMapBuilderImpl<K, V>
             PersistenceService persistenceService,
             Supplier<List<NodeId>> peersSupplier,
             Supplier<List<NodeId>> bootstrapPeersSupplier
+    ) {
+        this(localNodeId, clusterCommunicator, persistenceService,
+             peersSupplier, bootstrapPeersSupplier, null);
+    }
+
+    /**
+     * Creates a new eventually consistent map builder whose maps expose
+     * their anti-entropy statistics through the given metrics service.
+     * @param localNodeId               local node id
+     * @param clusterCommunicator       cluster communication service
+     * @param persistenceService        persistence service
+     * @param peersSupplier             supplier for peers
+     * @param bootstrapPeersSupplier    supplier for peers for bootstrap
+     * @param metricsService            metrics service; may be null
+     */
+    public EventuallyConsistentMapBuilderImpl(
+            NodeId localNodeId,
+            ClusterCommunicationService clusterCommunicator,
+            PersistenceService persistenceService,
+            Supplier<List<NodeId>> peersSupplier,
+            Supplier<List<NodeId>> bootstrapPeersSupplier,
+            MetricsService metricsService
     ) {
         this.localNodeId = localNodeId;
         this.persistenceService = persistenceService;
         this.clusterCommunicator = checkNotNull(clusterCommunicator);
         this.peersSupplier = peersSupplier;
         this.bootstrapPeersSupplier = bootstrapPeersSupplier;
+        this.metricsService = metricsService;
     }
 
     @Override
@@ -188,7 +213,8 @@ public class EventuallyConsistentMapBuilderImpl<K, V>
                 persistent,
                 persistenceService,
                 peersSupplier,
-                bootstrapPeersSupplier
+                bootstrapPeersSupplier,
+                metricsService
         );
     }
 }
@@ -18,6 +18,7 @@ package org.onosproject.store.atomix.primitives.impl;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -35,19 +36,27 @@ import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import com.codahale.metrics.Gauge;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.commons.lang3.tuple.Pair;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.AbstractAccumulator;
 import org.onlab.util.KryoNamespace;
 import org.onlab.util.SlidingWindowCounter;
@@ -90,6 +99,18 @@ public class EventuallyConsistentMapImpl<K, V>
     private static final int HIGH_LOAD_THRESHOLD = 2;
     private static final int LOAD_WINDOW = 2;
 
+    private static final String METRICS_COMPONENT = "EventuallyConsistentMap";
+    private static final String ANTI_ENTROPY_ROUNDS = "antiEntropyRounds";
+    private static final String ANTI_ENTROPY_BYTES = "antiEntropyBytes";
+    private static final String ANTI_ENTROPY_REPAIRED_KEYS = "antiEntropyRepairedKeys";
+
+    // Maps with fewer entries exchange the digests of all entries directly.
+    private static final int BUCKETED_ANTI_ENTROPY_THRESHOLD = 1024;
+    private static final int ENTRIES_PER_BUCKET = 64;
+    private static final int MIN_BUCKETS = 16;
+    private static final int MAX_BUCKETS = 65536;
+    private static final HashFunction BUCKET_HASH = Hashing.murmur3_128();
+
     private final Map<K, MapValue<V>> items;
     private final ClusterCommunicationService clusterCommunicator;
     private final Serializer serializer;
@@ -99,6 +120,7 @@ public class EventuallyConsistentMapImpl<K, V>
     private final MessageSubject initializeMessageSubject;
     private final MessageSubject updateMessageSubject;
     private final MessageSubject antiEntropyAdvertisementSubject;
+    private final MessageSubject antiEntropyBucketsSubject;
     private final MessageSubject updateRequestSubject;
     private final Set<EventuallyConsistentMapListener<K, V>> listeners
             = Sets.newCopyOnWriteArraySet();
@@ -120,6 +142,10 @@ public class EventuallyConsistentMapImpl<K, V>
     private long previousTombstonePurgeTime;
     private volatile boolean destroyed = false;
     private SlidingWindowCounter counter = new SlidingWindowCounter(WINDOW_SIZE);
+    private final LongAdder antiEntropyRounds = new LongAdder();
+    private final LongAdder antiEntropyBytes = new LongAdder();
+    private final LongAdder antiEntropyRepairedKeys = new LongAdder();
+    private final MetricsService metricsService;
 
     /**
      * Creates a new eventually consistent map shared amongst multiple instances.
@@ -146,6 +172,8 @@ public class EventuallyConsistentMapImpl<K, V>
      * @param persistenceService     persistence service
      * @param peersSupplier          supplier for peers
      * @param bootstrapPeersSupplier supplier for bootstrap peers
+     * @param metricsService         metrics service exposing the anti-entropy
+     *                               statistics; may be null
      */
     //CHECKSTYLE:OFF
     EventuallyConsistentMapImpl(
@@ -165,7 +193,8 @@ public class EventuallyConsistentMapImpl<K, V>
             boolean persistent,
             PersistenceService persistenceService,
             Supplier<List<NodeId>> peersSupplier,
-            Supplier<List<NodeId>> bootstrapPeersSupplier
+            Supplier<List<NodeId>> bootstrapPeersSupplier,
+            MetricsService metricsService
     ) {
         //CHECKSTYLE:ON
         this.localNodeId = localNodeId;
@@ -267,16 +296,25 @@ public class EventuallyConsistentMapImpl<K, V>
         antiEntropyAdvertisementSubject = new MessageSubject("ecm-" + mapName + "-anti-entropy");
         clusterCommunicator.addSubscriber(
                 antiEntropyAdvertisementSubject,
-                serializer::decode,
+                this::decodeAntiEntropy,
                 this::handleAntiEntropyAdvertisement,
-                serializer::encode,
+                this::encodeAntiEntropy,
+                this.backgroundExecutor
+        );
+
+        antiEntropyBucketsSubject = new MessageSubject("ecm-" + mapName + "-anti-entropy-buckets");
+        clusterCommunicator.addSubscriber(
+                antiEntropyBucketsSubject,
+                this::decodeAntiEntropy,
+                this::handleAntiEntropyBucketAdvertisement,
+                this::encodeAntiEntropy,
                 this.backgroundExecutor
         );
 
         updateRequestSubject = new MessageSubject("ecm-" + mapName + "-update-request");
         clusterCommunicator.addSubscriber(
                 updateRequestSubject,
-                serializer::decode,
+                this::decodeAntiEntropy,
                 this::handleUpdateRequests,
                 this.backgroundExecutor
         );
@@ -294,10 +332,37 @@ public class EventuallyConsistentMapImpl<K, V>
         this.tombstonesDisabled = tombstonesDisabled;
         this.lightweightAntiEntropy = !convergeFaster;
 
+        this.metricsService = metricsService;
+        registerMetrics();
+
         // Initiate first round of Gossip
         this.bootstrap();
     }
 
+    // Exposes the anti-entropy statistics, if the metrics service is available.
+    private void registerMetrics() {
+        if (metricsService != null) {
+            MetricsComponent component = metricsService.registerComponent(METRICS_COMPONENT);
+            MetricsFeature feature = component.registerFeature(mapName);
+            metricsService.registerMetric(component, feature, ANTI_ENTROPY_ROUNDS,
+                                          (Gauge<Long>) this::antiEntropyRounds);
+            metricsService.registerMetric(component, feature, ANTI_ENTROPY_BYTES,
+                                          (Gauge<Long>) this::antiEntropyBytes);
+            metricsService.registerMetric(component, feature, ANTI_ENTROPY_REPAIRED_KEYS,
+                                          (Gauge<Long>) this::antiEntropyRepairedKeys);
+        }
+    }
+
+    private void removeMetrics() {
+        if (metricsService != null) {
+            MetricsComponent component = metricsService.registerComponent(METRICS_COMPONENT);
+            MetricsFeature feature = component.registerFeature(mapName);
+            metricsService.removeMetric(component, feature, ANTI_ENTROPY_ROUNDS);
+            metricsService.removeMetric(component, feature, ANTI_ENTROPY_BYTES);
+            metricsService.removeMetric(component, feature, ANTI_ENTROPY_REPAIRED_KEYS);
+        }
+    }
+
     private Serializer createSerializer(KryoNamespace ns) {
         return Serializer.using(KryoNamespace.newBuilder()
                 .register(ns)
@@ -313,6 +378,8 @@ public class EventuallyConsistentMapImpl<K, V>
                 .register(MapValue.class)
                 .register(MapValue.Digest.class)
                 .register(UpdateRequest.class)
+                .register(AntiEntropyBucketAdvertisement.class)
+                .register(AntiEntropyBucketResponse.class)
                 .build(name() + "-ecmap"));
     }
 
@@ -569,6 +636,8 @@ public class EventuallyConsistentMapImpl<K, V>
         clusterCommunicator.removeSubscriber(updateMessageSubject);
         clusterCommunicator.removeSubscriber(updateRequestSubject);
         clusterCommunicator.removeSubscriber(antiEntropyAdvertisementSubject);
+        clusterCommunicator.removeSubscriber(antiEntropyBucketsSubject);
+        removeMetrics();
         return CompletableFuture.completedFuture(null);
     }
 
@@ -612,13 +681,58 @@ public class EventuallyConsistentMapImpl<K, V>
         return activePeers.stream().findFirst();
     }
 
-    private void sendAdvertisementToPeer(NodeId peer) {
+    // Package-private for testing.
+    void sendAdvertisementToPeer(NodeId peer) {
         long adCreationTime = System.currentTimeMillis();
-        AntiEntropyAdvertisement<K> ad = createAdvertisement();
+        antiEntropyRounds.increment();
+        int size = items.size();
+        if (size < BUCKETED_ANTI_ENTROPY_THRESHOLD) {
+            sendAdvertisementToPeer(peer, createAdvertisement(), adCreationTime);
+            return;
+        }
+
+        // Advertise the bucket hashes; the peer answers with its digests of
+        // the entries in the buckets that differ, if any.
+        AntiEntropyBucketAdvertisement ad = createBucketAdvertisement(bucketCount(size));
+        clusterCommunicator.<AntiEntropyBucketAdvertisement, AntiEntropyBucketResponse<K>>sendAndReceive(ad,
+                antiEntropyBucketsSubject,
+                this::encodeAntiEntropy,
+                this::decodeAntiEntropy,
+                peer)
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        // The peer may not handle bucket advertisements yet,
+                        // e.g. during a rolling upgrade; advertise all digests.
+                        log.debug("Failed to send anti-entropy bucket advertisement to {}: {}",
+                                peer, error.getMessage());
+                        if (!destroyed) {
+                            backgroundExecutor.execute(() -> sendAdvertisementToPeer(peer,
+                                    createAdvertisement(), adCreationTime));
+                        }
+                    } else if (result.status() != AntiEntropyResponse.PROCESSED) {
+                        log.trace("Anti-entropy bucket advertisement to {} was {}", peer, result.status());
+                    } else if (result.buckets().isEmpty()) {
+                        antiEntropyTimes.put(peer, adCreationTime);
+                    } else if (!destroyed) {
+                        backgroundExecutor.execute(() -> {
+                            try {
+                                antiEntropyCheckLocalItems(peer, result.digest(), ad.bucketCount(),
+                                        result.buckets()).forEach(this::notifyListeners);
+                                antiEntropyTimes.put(peer, adCreationTime);
+                            } catch (Exception e) {
+                                log.warn("Error handling anti-entropy bucket response", e);
+                            }
+                        });
+                    }
+                });
+    }
+
+    private void sendAdvertisementToPeer(NodeId peer, AntiEntropyAdvertisement<K> ad,
+                                         long adCreationTime) {
         clusterCommunicator.sendAndReceive(ad,
                 antiEntropyAdvertisementSubject,
-                serializer::encode,
-                serializer::decode,
+                this::encodeAntiEntropy,
+                this::decodeAntiEntropy,
                 peer)
                 .whenComplete((result, error) -> {
                     if (error != null) {
@@ -634,7 +748,7 @@ public class EventuallyConsistentMapImpl<K, V>
         UpdateRequest<K> request = new UpdateRequest<>(localNodeId, keys);
         clusterCommunicator.unicast(request,
                 updateRequestSubject,
-                serializer::encode,
+                this::encodeAntiEntropy,
                 peer)
                 .whenComplete((result, error) -> {
                     if (error != null) {
@@ -649,6 +763,78 @@ public class EventuallyConsistentMapImpl<K, V>
                 ImmutableMap.copyOf(Maps.transformValues(items, MapValue::digest)));
     }
 
+    private Map<K, MapValue.Digest> createDigest(int bucketCount, Set<Integer> buckets) {
+        Map<K, MapValue.Digest> digest = new HashMap<>();
+        items.forEach((key, value) -> {
+            if (buckets.contains(bucket(keyHash(key), bucketCount))) {
+                digest.put(key, value.digest());
+            }
+        });
+        return digest;
+    }
+
+    /**
+     * Creates a bucketed anti-entropy advertisement of the local entries.
+     *
+     * @param bucketCount number of buckets; must be a power of two
+     * @return bucketed anti-entropy advertisement
+     */
+    AntiEntropyBucketAdvertisement createBucketAdvertisement(int bucketCount) {
+        return new AntiEntropyBucketAdvertisement(localNodeId, bucketHashes(bucketCount));
+    }
+
+    // Sums the hashes of the entries of each bucket. Keys and digests are
+    // hashed in their serialized form, so that all nodes agree on the hashes.
+    private long[] bucketHashes(int bucketCount) {
+        long[] hashes = new long[bucketCount];
+        items.forEach((key, value) -> {
+            long keyHash = keyHash(key);
+            hashes[bucket(keyHash, bucketCount)] += BUCKET_HASH.newHasher()
+                    .putLong(keyHash)
+                    .putBytes(serializer.encode(value.digest()))
+                    .hash().asLong();
+        });
+        return hashes;
+    }
+
+    private long keyHash(K key) {
+        return BUCKET_HASH.hashBytes(serializer.encode(key)).asLong();
+    }
+
+    private static int bucket(long keyHash, int bucketCount) {
+        return (int) (keyHash >>> Integer.SIZE) & (bucketCount - 1);
+    }
+
+    // Sizes the buckets so that each holds a few dozen entries on average.
+    private static int bucketCount(int size) {
+        int buckets = Integer.highestOneBit(Math.max(size / ENTRIES_PER_BUCKET, 1));
+        return Math.min(Math.max(buckets, MIN_BUCKETS), MAX_BUCKETS);
+    }
+
+    private AntiEntropyBucketResponse<K> handleAntiEntropyBucketAdvertisement(AntiEntropyBucketAdvertisement ad) {
+        if (destroyed || underHighLoad()) {
+            return new AntiEntropyBucketResponse<>(AntiEntropyResponse.IGNORED, ImmutableSet.of(), ImmutableMap.of());
+        }
+        try {
+            long[] hashes = bucketHashes(ad.bucketCount());
+            Set<Integer> buckets = new HashSet<>();
+            for (int i = 0; i < hashes.length; i++) {
+                if (hashes[i] != ad.bucketHash(i)) {
+                    buckets.add(i);
+                }
+            }
+            if (log.isTraceEnabled()) {
+                log.trace("Received anti-entropy bucket advertisement from {} for {}; {} of {} buckets differ",
+                        ad.sender(), mapName, buckets.size(), hashes.length);
+            }
+            return new AntiEntropyBucketResponse<>(AntiEntropyResponse.PROCESSED, buckets,
+                    createDigest(hashes.length, buckets));
+        } catch (Exception e) {
+            log.warn("Error handling anti-entropy bucket advertisement", e);
+            return new AntiEntropyBucketResponse<>(AntiEntropyResponse.FAILED, ImmutableSet.of(), ImmutableMap.of());
+        }
+    }
+
     private AntiEntropyResponse handleAntiEntropyAdvertisement(AntiEntropyAdvertisement<K> ad) {
         if (destroyed || underHighLoad()) {
             return AntiEntropyResponse.IGNORED;
@@ -658,7 +844,8 @@ public class EventuallyConsistentMapImpl<K, V>
                 log.trace("Received anti-entropy advertisement from {} for {} with {} entries in it",
                         ad.sender(), mapName, ad.digest().size());
             }
-            antiEntropyCheckLocalItems(ad).forEach(this::notifyListeners);
+            antiEntropyCheckLocalItems(ad.sender(), ad.digest(), 0, ImmutableSet.of())
+                    .forEach(this::notifyListeners);
         } catch (Exception e) {
             log.warn("Error handling anti-entropy advertisement", e);
             return AntiEntropyResponse.FAILED;
@@ -667,25 +854,37 @@ public class EventuallyConsistentMapImpl<K, V>
     }
 
     /**
-     * Processes anti-entropy ad from peer by taking following actions:
+     * Processes anti-entropy digest from peer by taking following actions:
      * 1. If peer has an old entry, updates peer.
      * 2. If peer indicates an entry is removed and has a more recent
      * timestamp than the local entry, update local state.
+     * If the digest covers only some buckets of entries, the local entries in
+     * other buckets are left out.
+     *
+     * @param sender      peer the digest comes from
+     * @param digest      peer's digest of its entries
+     * @param bucketCount number of buckets; 0 if the digest covers all entries
+     * @param buckets     buckets covered by the digest
+     * @return events to notify the local listeners of
      */
     private List<EventuallyConsistentMapEvent<K, V>> antiEntropyCheckLocalItems(
-            AntiEntropyAdvertisement<K> ad) {
+            NodeId sender, Map<K, MapValue.Digest> digest, int bucketCount, Set<Integer> buckets) {
         final List<EventuallyConsistentMapEvent<K, V>> externalEvents = Lists.newLinkedList();
-        final NodeId sender = ad.sender();
-        final List<NodeId> peers = ImmutableList.of(sender);
+        List<UpdateEntry<K, V>> updates = new ArrayList<>();
         Set<K> staleOrMissing = new HashSet<>();
-        Set<K> locallyUnknown = new HashSet<>(ad.digest().keySet());
+        Set<K> locallyUnknown = new HashSet<>(digest.keySet());
 
         items.forEach((key, localValue) -> {
+            MapValue.Digest remoteValueDigest = digest.get(key);
+            if (remoteValueDigest == null && bucketCount > 0 &&
+                    !buckets.contains(bucket(keyHash(key), bucketCount))) {
+                // not covered by the ad
+                return;
+            }
             locallyUnknown.remove(key);
-            MapValue.Digest remoteValueDigest = ad.digest().get(key);
             if (remoteValueDigest == null || localValue.isNewerThan(remoteValueDigest.timestamp())) {
                 // local value is more recent, push to sender
-                queueUpdate(new UpdateEntry<>(key, localValue), peers);
+                updates.add(new UpdateEntry<>(key, localValue));
             } else if (remoteValueDigest.isNewerThan(localValue.digest()) && remoteValueDigest.isTombstone()) {
                 // remote value is more recent and a tombstone: update local value
                 MapValue<V> tombstone = MapValue.tombstone(remoteValueDigest.timestamp());
@@ -695,6 +894,7 @@ public class EventuallyConsistentMapImpl<K, V>
                 if (previousValue != null && previousValue.isAlive()) {
                     externalEvents.add(new EventuallyConsistentMapEvent<>(mapName, REMOVE, key, previousValue.get()));
                 }
+                antiEntropyRepairedKeys.increment();
             } else if (remoteValueDigest.isNewerThan(localValue.digest())) {
                 // Not a tombstone and remote is newer
                 staleOrMissing.add(key);
@@ -702,18 +902,83 @@ public class EventuallyConsistentMapImpl<K, V>
         });
         // Keys missing in local map
         staleOrMissing.addAll(locallyUnknown);
+        sendUpdates(sender, updates);
         // Request updates that we missed out on
-        sendUpdateRequestToPeer(sender, staleOrMissing);
+        if (!staleOrMissing.isEmpty()) {
+            sendUpdateRequestToPeer(sender, staleOrMissing);
+        }
+        antiEntropyRepairedKeys.add(updates.size() + staleOrMissing.size());
         return externalEvents;
     }
 
     private void handleUpdateRequests(UpdateRequest<K> request) {
         final Set<K> keys = request.keys();
-        final NodeId sender = request.sender();
-        final List<NodeId> peers = ImmutableList.of(sender);
-        keys.forEach(key ->
-                queueUpdate(new UpdateEntry<>(key, items.get(key)), peers)
-        );
+        List<UpdateEntry<K, V>> updates = new ArrayList<>(keys.size());
+        keys.forEach(key -> updates.add(new UpdateEntry<>(key, items.get(key))));
+        sendUpdates(request.sender(), updates);
+    }
+
+    // Sends anti-entropy updates to a peer in batches, bypassing the event
+    // accumulators used for regular updates.
+    private void sendUpdates(NodeId peer, List<UpdateEntry<K, V>> updates) {
+        Lists.partition(updates, DEFAULT_MAX_EVENTS).forEach(batch ->
+                communicationExecutor.execute(() -> unicastUpdates(peer, batch)));
+    }
+
+    private void unicastUpdates(NodeId peer, Collection<UpdateEntry<K, V>> updates) {
+        try {
+            clusterCommunicator.unicast(ImmutableList.copyOf(updates),
+                    updateMessageSubject,
+                    serializer::encode,
+                    peer)
+                    .whenComplete((result, error) -> {
+                        if (error != null) {
+                            log.debug("Failed to send to {}", peer, error);
+                        }
+                    });
+        } catch (Exception e) {
+            log.warn("Failed to send to {}", peer, e);
+        }
+    }
+
+    private byte[] encodeAntiEntropy(Object message) {
+        byte[] bytes = serializer.encode(message);
+        antiEntropyBytes.add(bytes.length);
+        return bytes;
+    }
+
+    private <T> T decodeAntiEntropy(byte[] bytes) {
+        antiEntropyBytes.add(bytes.length);
+        return serializer.decode(bytes);
+    }
+
+    /**
+     * Returns the number of anti-entropy rounds initiated by this node.
+     *
+     * @return number of anti-entropy rounds
+     */
+    long antiEntropyRounds() {
+        return antiEntropyRounds.sum();
+    }
+
+    /**
+     * Returns the number of bytes of anti-entropy advertisements, responses
+     * and update requests sent and received by this node.
+     *
+     * @return number of anti-entropy bytes
+     */
+    long antiEntropyBytes() {
+        return antiEntropyBytes.sum();
+    }
+
+    /**
+     * Returns the number of keys found out of sync by anti-entropy, whether
+     * repaired locally or at a peer.
+     *
+     * @return number of repaired keys
+     */
+    long antiEntropyRepairedKeys() {
+        return antiEntropyRepairedKeys.sum();
     }
 
     private void purgeTombstones() {
@@ -910,21 +1175,7 @@ public class EventuallyConsistentMapImpl<K, V>
             Map<K, UpdateEntry<K, V>> map = Maps.newHashMap();
             items.forEach(item -> map.compute(item.key(), (key, existing) ->
                     item.isNewerThan(existing) ? item : existing));
-            communicationExecutor.execute(() -> {
-                try {
-                    clusterCommunicator.unicast(ImmutableList.copyOf(map.values()),
-                            updateMessageSubject,
-                            serializer::encode,
-                            peer)
-                            .whenComplete((result, error) -> {
-                                if (error != null) {
-                                    log.debug("Failed to send to {}", peer, error);
-                                }
-                            });
-                } catch (Exception e) {
-                    log.warn("Failed to send to {}", peer, e);
-                }
-            });
+            communicationExecutor.execute(() -> unicastUpdates(peer, map.values()));
         }
     }
 }
@@ -0,0 +1,377 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.atomix.primitives.impl;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.onosproject.store.primitives.MapUpdate;
+import org.onosproject.store.primitives.TransactionId;
+import org.onosproject.store.service.AsyncConsistentMap;
+import org.onosproject.store.service.AsyncIterator;
+import org.onosproject.store.service.MapEvent;
+import org.onosproject.store.service.MapEventListener;
+import org.onosproject.store.service.NearCacheStats;
+import org.onosproject.store.service.TransactionLog;
+import org.onosproject.store.service.Version;
+import org.onosproject.store.service.Versioned;
+
+/**
+ * Consistent map with a bounded, local read-through cache of its entries.
+ * <p>
+ * The cache is kept coherent by the events of the map: a cached entry is
+ * replaced by the value of an event with a higher version, and dropped when
+ * the key is removed. Local updates invalidate the updated keys as soon as
+ * they complete, so they are visible to subsequent local reads. A read that
+ * misses the cache only populates it if no invalidation happened while the
+ * read was in flight, so that a stale value never replaces a newer one.
+ * </p>
+ * <p>
+ * Events may be missed while the map is not {@link Status#ACTIVE active}, so
+ * the cache is cleared on every status change and only populated again once
+ * the map is active.
+ * </p>
+ */
+public class NearCachingAsyncConsistentMap<K, V> implements AsyncConsistentMap<K, V> {
+
+    private final AsyncConsistentMap<K, V> backingMap;
+    private final int maxSize;
+    private final Map<K, Versioned<V>> cache;
+    private final MapEventListener<K, V> cacheUpdater = this::updateCache;
+    private final Consumer<Status> statusUpdater = this::updateStatus;
+    private final Map<String, NearCachingAsyncConsistentMap<?, ?>> registry;
+    private volatile Status status = Status.ACTIVE;
+
+    private final AtomicLong invalidationCount = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Creates a near cache in front of the given map.
+     *
+     * @param backingMap map to cache
+     * @param maxSize    maximum number of cached entries
+     */
+    public NearCachingAsyncConsistentMap(AsyncConsistentMap<K, V> backingMap, int maxSize) {
+        this(backingMap, maxSize, Maps.newConcurrentMap());
+    }
+
+    /**
+     * Creates a near cache in front of the given map, registering it by map
+     * name in the given registry until the map is destroyed.
+     *
+     * @param backingMap map to cache
+     * @param maxSize    maximum number of cached entries
+     * @param registry   registry of near caches
+     */
+    public NearCachingAsyncConsistentMap(AsyncConsistentMap<K, V> backingMap, int maxSize,
+                                         Map<String, NearCachingAsyncConsistentMap<?, ?>> registry) {
+        this.backingMap = backingMap;
+        this.registry = registry;
+        this.maxSize = maxSize;
+        this.cache = new LinkedHashMap<K, Versioned<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Versioned<V>> eldest) {
+                if (size() > NearCachingAsyncConsistentMap.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        backingMap.addListener(cacheUpdater, MoreExecutors.directExecutor()).join();
+        backingMap.addStatusChangeListener(statusUpdater);
+        registry.put(backingMap.name(), this);
+    }
+
+    /**
+     * Returns the statistics of the cache.
+     *
+     * @return near cache statistics
+     */
+    public NearCacheStats stats() {
+        int size;
+        synchronized (cache) {
+            size = cache.size();
+        }
+        return NearCacheStats.builder()
+                .withSize(size)
+                .withMaxSize(maxSize)
+                .withHits(hits.get())
+                .withMisses(misses.get())
+                .withInvalidations(invalidationCount.get())
+                .withEvictions(evictions.get())
+                .build();
+    }
+
+    private void updateCache(MapEvent<K, V> event) {
+        synchronized (cache) {
+            Versioned<V> cached = cache.get(event.key());
+            if (cached == null) {
+                // Still invalidate, as a read of the key may be in flight.
+                invalidationCount.incrementAndGet();
+                return;
+            }
+            Versioned<V> newValue = event.newValue();
+            if (event.type() != MapEvent.Type.REMOVE && newValue != null) {
+                if (newValue.version() > cached.version()) {
+                    cache.put(event.key(), newValue);
+                    invalidationCount.incrementAndGet();
+                }
+            } else {
+                cache.remove(event.key());
+                invalidationCount.incrementAndGet();
+            }
+        }
+    }
+
+    private void updateStatus(Status newStatus) {
+        synchronized (cache) {
+            status = newStatus;
+            cache.clear();
+            invalidationCount.incrementAndGet();
+        }
+    }
+
+    private void invalidate(K key) {
+        synchronized (cache) {
+            cache.remove(key);
+            invalidationCount.incrementAndGet();
+        }
+    }
+
+    private void invalidateAll() {
+        synchronized (cache) {
+            cache.clear();
+            invalidationCount.incrementAndGet();
+        }
+    }
+
+    // Invalidates the key once the update completes, successfully or not.
+    private <T> CompletableFuture<T> invalidating(K key, CompletableFuture<T> update) {
+        return update.whenComplete((result, error) -> invalidate(key));
+    }
+
+    @Override
+    public String name() {
+        return backingMap.name();
+    }
+
+    @Override
+    public CompletableFuture<Integer> size() {
+        return backingMap.size();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> containsKey(K key) {
+        synchronized (cache) {
+            if (cache.containsKey(key)) {
+                hits.incrementAndGet();
+                return CompletableFuture.completedFuture(true);
+            }
+        }
+        return backingMap.containsKey(key);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> containsValue(V value) {
+        return backingMap.containsValue(value);
+    }
+
+    @Override
+    public CompletableFuture<Versioned<V>> get(K key) {
+        long invalidations;
+        synchronized (cache) {
+            Versioned<V> cached = cache.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return CompletableFuture.completedFuture(cached);
+            }
+            invalidations = invalidationCount.get();
+        }
+        misses.incrementAndGet();
+        return backingMap.get(key).thenApply(value -> {
+            if (value != null) {
+                synchronized (cache) {
+                    if (invalidationCount.get() == invalidations && status == Status.ACTIVE) {
+                        cache.put(key, value);
+                    }
+                }
+            }
+            return value;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Versioned<V>> getOrDefault(K key, V defaultValue) {
+        synchronized (cache) {
+            Versioned<V> cached = cache.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return CompletableFuture.completedFuture(cached);
+            }
+        }
+        misses.incrementAndGet();
+        return backingMap.getOrDefault(key, defaultValue);
+    }
+
+    @Override
+    public CompletableFuture<Versioned<V>> computeIf(K key,
+            Predicate<? super V> condition,
+            BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        return invalidating(key, backingMap.computeIf(key, condition, remappingFunction));
+    }
+
+    @Override
+    public CompletableFuture<Versioned<V>> put(K key, V value) {
+        return invalidating(key, backingMap.put(key, value));
+    }
+
+    @Override
+    public CompletableFuture<Versioned<V>> putAndGet(K key, V value) {
+        return invalidating(key, backingMap.putAndGet(key, value));
+    }
+
+    @Override
+    public CompletableFuture<Versioned<V>> remove(K key) {
+        return invalidating(key, backingMap.remove(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> clear() {
+        return backingMap.clear().whenComplete((result, error) -> invalidateAll());
+    }
+
+    @Override
+    public CompletableFuture<Set<K>> keySet() {
+        return backingMap.keySet();
+    }
+
+    @Override
+    public CompletableFuture<Collection<Versioned<V>>> values() {
+        return backingMap.values();
+    }
+
+    @Override
+    public CompletableFuture<Set<Map.Entry<K, Versioned<V>>>> entrySet() {
+        return backingMap.entrySet();
+    }
+
+    @Override
+    public CompletableFuture<Versioned<V>> putIfAbsent(K key, V value) {
+        return invalidating(key, backingMap.putIfAbsent(key, value));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> remove(K key, V value) {
+        return invalidating(key, backingMap.remove(key, value));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> remove(K key, long version) {
+        return invalidating(key, backingMap.remove(key, version));
+    }
+
+    @Override
+    public CompletableFuture<Versioned<V>> replace(K key, V value) {
+        return invalidating(key, backingMap.replace(key, value));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> replace(K key, V oldValue, V newValue) {
+        return invalidating(key, backingMap.replace(key, oldValue, newValue));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> replace(K key, long oldVersion, V newValue) {
+        return invalidating(key, backingMap.replace(key, oldVersion, newValue));
+    }
+
+    @Override
+    public CompletableFuture<AsyncIterator<Map.Entry<K, Versioned<V>>>> iterator() {
+        return backingMap.iterator();
+    }
+
+    @Override
+    public CompletableFuture<Void> addListener(MapEventListener<K, V> listener, Executor executor) {
+        return backingMap.addListener(listener, executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> removeListener(MapEventListener<K, V> listener) {
+        return backingMap.removeListener(listener);
+    }
+
+    @Override
+    public void addStatusChangeListener(Consumer<Status> listener) {
+        backingMap.addStatusChangeListener(listener);
+    }
+
+    @Override
+    public void removeStatusChangeListener(Consumer<Status> listener) {
+        backingMap.removeStatusChangeListener(listener);
+    }
+
+    @Override
+    public Collection<Consumer<Status>> statusChangeListeners() {
+        return backingMap.statusChangeListeners();
+    }
+
+    @Override
+    public CompletableFuture<Version> begin(TransactionId transactionId) {
+        return backingMap.begin(transactionId);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> prepare(TransactionLog<MapUpdate<K, V>> transactionLog) {
+        return backingMap.prepare(transactionLog);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> prepareAndCommit(TransactionLog<MapUpdate<K, V>> transactionLog) {
+        return backingMap.prepareAndCommit(transactionLog).whenComplete((result, error) -> invalidateAll());
+    }
+
+    @Override
+    public CompletableFuture<Void> commit(TransactionId transactionId) {
+        return backingMap.commit(transactionId).whenComplete((result, error) -> invalidateAll());
+    }
+
+    @Override
+    public CompletableFuture<Void> rollback(TransactionId transactionId) {
+        return backingMap.rollback(transactionId);
+    }
+
+    @Override
+    public CompletableFuture<Void> destroy() {
+        registry.remove(name(), this);
+        backingMap.removeStatusChangeListener(statusUpdater);
+        return backingMap.removeListener(cacheUpdater)
+                .thenCompose(v -> backingMap.destroy())
+                .whenComplete((result, error) -> invalidateAll());
+    }
+}
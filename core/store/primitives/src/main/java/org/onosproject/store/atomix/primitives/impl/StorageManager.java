@@ -34,7 +34,9 @@ import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.apache.felix.scr.annotations.ReferencePolicy;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsService;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.ControllerNode;
 import org.onosproject.cluster.Member;
@@ -62,6 +64,7 @@ import org.onosproject.store.service.DocumentTreeBuilder;
 import org.onosproject.store.service.EventuallyConsistentMapBuilder;
 import org.onosproject.store.service.LeaderElectorBuilder;
 import org.onosproject.store.service.MapInfo;
+import org.onosproject.store.service.NearCacheStats;
 import org.onosproject.store.service.PartitionInfo;
 import org.onosproject.store.service.Serializer;
 import org.onosproject.store.service.StorageAdminService;
@@ -105,8 +108,13 @@ public class StorageManager implements StorageService, StorageAdminService {
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected AtomixManager atomixManager;
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL_UNARY,
+            policy = ReferencePolicy.DYNAMIC)
+    protected volatile MetricsService metricsService;
+
     private Atomix atomix;
     private PartitionGroup group;
+    private final Map<String, NearCachingAsyncConsistentMap<?, ?>> nearCaches = Maps.newConcurrentMap();
 
     @Activate
     public void activate() {
@@ -163,14 +171,15 @@ public class StorageManager implements StorageService, StorageAdminService {
             clusterCommunicator,
             persistenceService,
             peersSupplier,
-            bootstrapPeersSupplier
+            bootstrapPeersSupplier,
+            metricsService
         );
     }
 
     @Override
     public <K, V> ConsistentMapBuilder<K, V> consistentMapBuilder() {
         checkPermission(STORAGE_WRITE);
-        return new AtomixConsistentMapBuilder<>(atomix, group.name());
+        return new AtomixConsistentMapBuilder<>(atomix, group.name(), nearCaches);
     }
 
     @Override
@@ -341,6 +350,13 @@ public class StorageManager implements StorageService, StorageAdminService {
             }).collect(Collectors.toMap(e -> e.getKey(), e -> e.getValue()));
     }
 
+    @Override
+    public Map<String, NearCacheStats> getNearCacheStats() {
+        return nearCaches.entrySet()
+            .stream()
+            .collect(Collectors.toMap(e -> e.getKey(), e -> e.getValue().stats()));
+    }
+
     @Override
     public List<PartitionInfo> getPartitionInfo() {
         return partitionAdminService.partitionInfo();
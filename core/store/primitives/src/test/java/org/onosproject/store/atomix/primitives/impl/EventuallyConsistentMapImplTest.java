@@ -22,6 +22,7 @@ import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.eq;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.getCurrentArguments;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.reset;
 import static org.easymock.EasyMock.verify;
@@ -29,6 +30,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.onlab.junit.TestTools.assertAfter;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -43,17 +45,23 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 import com.google.common.collect.ComparisonChain;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.codahale.metrics.MetricFilter;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.metrics.MetricsManager;
 import org.onlab.packet.IpAddress;
 import org.onlab.util.KryoNamespace;
+import org.onlab.util.Tools;
 import org.onosproject.cluster.ControllerNode;
 import org.onosproject.cluster.DefaultControllerNode;
 import org.onosproject.cluster.NodeId;
@@ -63,6 +71,7 @@ import org.onosproject.store.Timestamp;
 import org.onosproject.store.cluster.messaging.ClusterCommunicationService;
 import org.onosproject.store.cluster.messaging.ClusterCommunicationServiceAdapter;
 import org.onosproject.store.cluster.messaging.MessageSubject;
+import org.onosproject.store.cluster.messaging.MessagingException;
 import org.onosproject.store.persistence.TestPersistenceService;
 import org.onosproject.store.serializers.KryoNamespaces;
 import org.onosproject.store.service.EventuallyConsistentMap;
@@ -80,6 +89,7 @@ public class EventuallyConsistentMapImplTest {
     private PersistenceService persistenceService;
     private ClusterCommunicationService clusterCommunicator;
     private SequentialClockService<String, String> clockService;
+    private MetricsManager metricsService;
 
     private static final String MAP_NAME = "test";
     private static final MessageSubject BOOTSTRAP_MESSAGE_SUBJECT
@@ -90,8 +100,12 @@ public class EventuallyConsistentMapImplTest {
             = new MessageSubject("ecm-" + MAP_NAME + "-update");
     private static final MessageSubject ANTI_ENTROPY_MESSAGE_SUBJECT
             = new MessageSubject("ecm-" + MAP_NAME + "-anti-entropy");
+    private static final MessageSubject ANTI_ENTROPY_BUCKETS_MESSAGE_SUBJECT
+            = new MessageSubject("ecm-" + MAP_NAME + "-anti-entropy-buckets");
     private static final MessageSubject UPDATE_REQUEST_SUBJECT
             = new MessageSubject("ecm-" + MAP_NAME + "-update-request");
+    private static final String ANTI_ENTROPY_ROUNDS_METRIC =
+            "EventuallyConsistentMap." + MAP_NAME + ".antiEntropyRounds";
 
     private static final String KEY1 = "one";
     private static final String KEY2 = "two";
@@ -104,6 +118,7 @@ public class EventuallyConsistentMapImplTest {
     private Consumer<Collection<UpdateEntry<String, String>>> updateHandler;
     private Consumer<Collection<UpdateRequest<String>>> requestHandler;
     private Function<AntiEntropyAdvertisement<String>, AntiEntropyResponse> antiEntropyHandler;
+    private Function<AntiEntropyBucketAdvertisement, AntiEntropyBucketResponse<String>> antiEntropyBucketHandler;
     private Supplier<List<NodeId>> peersHandler = ArrayList::new;
 
     @Before
@@ -134,7 +149,7 @@ public class EventuallyConsistentMapImplTest {
                                                           anyObject(Function.class),
                                                           anyObject(Function.class),
                                                           anyObject(Executor.class));
-        expectLastCall().andDelegateTo(new TestClusterCommunicationService()).times(1);
+        expectLastCall().andDelegateTo(new TestClusterCommunicationService()).times(2);
         clusterCommunicator.<Object>addSubscriber(anyObject(MessageSubject.class),
                 anyObject(Function.class), anyObject(Consumer.class), anyObject(Executor.class));
         expectLastCall().andDelegateTo(new TestClusterCommunicationService()).times(1);
@@ -142,6 +157,7 @@ public class EventuallyConsistentMapImplTest {
         replay(clusterCommunicator);
 
         clockService = new SequentialClockService<>();
+        metricsService = new MetricsManager();
 
         KryoNamespace.Builder serializer = KryoNamespace.newBuilder()
                 .register(KryoNamespaces.API)
@@ -152,7 +168,8 @@ public class EventuallyConsistentMapImplTest {
                 clusterCommunicator,
                 persistenceService,
                 peersHandler,
-                peersHandler
+                peersHandler,
+                metricsService
                 )
                 .withName(MAP_NAME)
                 .withSerializer(serializer)
@@ -559,6 +576,120 @@ public class EventuallyConsistentMapImplTest {
         assertEquals(keys, ecMap.keySet());
     }
 
+    @Test
+    public void testBucketedAntiEntropy() throws Exception {
+        // Stay below the load threshold, above which advertisements are ignored
+        expectPeerMessage(clusterCommunicator);
+        ecMap.put(KEY1, VALUE1);
+        ecMap.put(KEY2, VALUE2);
+        EventuallyConsistentMapImpl<String, String> impl =
+                (EventuallyConsistentMapImpl<String, String>) ecMap;
+        NodeId peer = new NodeId("peer");
+
+        // A peer with the same entries has no bucket in need of repair
+        AntiEntropyBucketAdvertisement same = impl.createBucketAdvertisement(4);
+        AntiEntropyBucketResponse<String> response = antiEntropyBucketHandler.apply(
+                new AntiEntropyBucketAdvertisement(peer, hashes(same)));
+        assertEquals(AntiEntropyResponse.PROCESSED, response.status());
+        assertTrue(response.buckets().isEmpty());
+        assertTrue(response.digest().isEmpty());
+
+        // An empty peer differs in every non-empty bucket, and is answered
+        // with the digests of the entries of those buckets
+        response = antiEntropyBucketHandler.apply(new AntiEntropyBucketAdvertisement(peer, new long[4]));
+        assertEquals(AntiEntropyResponse.PROCESSED, response.status());
+        assertFalse(response.buckets().isEmpty());
+        assertEquals(ImmutableSet.of(KEY1, KEY2), response.digest().keySet());
+    }
+
+    @Test
+    public void testBucketedAntiEntropyRepair() throws Exception {
+        expectPeerMessage(clusterCommunicator);
+        for (int i = 0; i < 2048; i++) {
+            ecMap.put(KEY1 + i, VALUE1);
+        }
+        EventuallyConsistentMapImpl<String, String> impl =
+                (EventuallyConsistentMapImpl<String, String>) ecMap;
+        NodeId peer = new NodeId("peer");
+
+        // An empty peer answering that a single bucket differs is pushed
+        // the entries of that bucket only
+        reset(clusterCommunicator);
+        expect(clusterCommunicator.<Object, Object>sendAndReceive(anyObject(),
+                eq(ANTI_ENTROPY_BUCKETS_MESSAGE_SUBJECT),
+                anyObject(Function.class),
+                anyObject(Function.class),
+                eq(peer)))
+                .andReturn(CompletableFuture.completedFuture(new AntiEntropyBucketResponse<>(
+                        AntiEntropyResponse.PROCESSED, ImmutableSet.of(0), ImmutableMap.of())));
+        expect(clusterCommunicator.unicast(anyObject(),
+                eq(UPDATE_MESSAGE_SUBJECT),
+                anyObject(Function.class),
+                eq(peer)))
+                .andReturn(CompletableFuture.completedFuture(null))
+                .anyTimes();
+        replay(clusterCommunicator);
+
+        long repaired = impl.antiEntropyRepairedKeys();
+        impl.sendAdvertisementToPeer(peer);
+        assertAfter(0, 5000, () -> assertTrue(impl.antiEntropyRepairedKeys() > repaired));
+        long pushed = impl.antiEntropyRepairedKeys() - repaired;
+        assertTrue("entries of other buckets pushed", pushed < 2048);
+        verify(clusterCommunicator);
+    }
+
+    @Test
+    public void testBucketedAntiEntropyFallback() throws Exception {
+        expectPeerMessage(clusterCommunicator);
+        for (int i = 0; i < 2048; i++) {
+            ecMap.put(KEY1 + i, VALUE1);
+        }
+        EventuallyConsistentMapImpl<String, String> impl =
+                (EventuallyConsistentMapImpl<String, String>) ecMap;
+        NodeId peer = new NodeId("peer");
+
+        // A peer without the bucket handler, e.g. during a rolling upgrade,
+        // is sent the digests of all entries instead.
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicInteger digests = new AtomicInteger();
+        reset(clusterCommunicator);
+        expect(clusterCommunicator.<Object, Object>sendAndReceive(anyObject(),
+                eq(ANTI_ENTROPY_BUCKETS_MESSAGE_SUBJECT),
+                anyObject(Function.class),
+                anyObject(Function.class),
+                eq(peer)))
+                .andReturn(Tools.exceptionalFuture(new MessagingException.NoRemoteHandler()));
+        expect(clusterCommunicator.<Object, Object>sendAndReceive(anyObject(),
+                eq(ANTI_ENTROPY_MESSAGE_SUBJECT),
+                anyObject(Function.class),
+                anyObject(Function.class),
+                eq(peer)))
+                .andAnswer(() -> {
+                    AntiEntropyAdvertisement<?> ad =
+                            (AntiEntropyAdvertisement<?>) getCurrentArguments()[0];
+                    digests.set(ad.digest().size());
+                    latch.countDown();
+                    return CompletableFuture.completedFuture(AntiEntropyResponse.PROCESSED);
+                });
+        replay(clusterCommunicator);
+
+        long rounds = impl.antiEntropyRounds();
+        impl.sendAdvertisementToPeer(peer);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        verify(clusterCommunicator);
+        assertEquals(2048, digests.get());
+        assertEquals(rounds + 1, metricsService.getGauges(MetricFilter.ALL)
+                .get(ANTI_ENTROPY_ROUNDS_METRIC).getValue());
+    }
+
+    private static long[] hashes(AntiEntropyBucketAdvertisement ad) {
+        long[] hashes = new long[ad.bucketCount()];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = ad.bucketHash(i);
+        }
+        return hashes;
+    }
+
     @Test
     public void testValues() throws Exception {
         expectPeerMessage(clusterCommunicator);
@@ -655,12 +786,15 @@ public class EventuallyConsistentMapImplTest {
         clusterCommunicator.removeSubscriber(UPDATE_MESSAGE_SUBJECT);
         clusterCommunicator.removeSubscriber(UPDATE_REQUEST_SUBJECT);
         clusterCommunicator.removeSubscriber(ANTI_ENTROPY_MESSAGE_SUBJECT);
+        clusterCommunicator.removeSubscriber(ANTI_ENTROPY_BUCKETS_MESSAGE_SUBJECT);
 
         replay(clusterCommunicator);
 
+        assertTrue(metricsService.getGauges(MetricFilter.ALL).containsKey(ANTI_ENTROPY_ROUNDS_METRIC));
         ecMap.destroy();
 
         verify(clusterCommunicator);
+        assertFalse(metricsService.getGauges(MetricFilter.ALL).containsKey(ANTI_ENTROPY_ROUNDS_METRIC));
 
         try {
             ecMap.get(KEY1);
@@ -813,6 +947,9 @@ public class EventuallyConsistentMapImplTest {
                 Function<byte[], M> decoder, Function<M, R> handler, Function<R, byte[]> encoder, Executor executor) {
             if (subject.equals(ANTI_ENTROPY_MESSAGE_SUBJECT)) {
                 antiEntropyHandler = (Function<AntiEntropyAdvertisement<String>, AntiEntropyResponse>) handler;
+            } else if (subject.equals(ANTI_ENTROPY_BUCKETS_MESSAGE_SUBJECT)) {
+                antiEntropyBucketHandler =
+                        (Function<AntiEntropyBucketAdvertisement, AntiEntropyBucketResponse<String>>) handler;
             } else if (!subject.equals(INITIALIZE_MESSAGE_SUBJECT)) {
                 throw new IllegalStateException("Unexpected message subject " + subject.toString());
             }
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.atomix.primitives.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.store.service.AsyncConsistentMapAdapter;
+import org.onosproject.store.service.DistributedPrimitive.Status;
+import org.onosproject.store.service.MapEvent;
+import org.onosproject.store.service.MapEventListener;
+import org.onosproject.store.service.NearCacheStats;
+import org.onosproject.store.service.Versioned;
+
+/**
+ * Unit tests for NearCachingAsyncConsistentMap.
+ */
+public class NearCachingAsyncConsistentMapTest {
+
+    private BackingMap backingMap;
+    private NearCachingAsyncConsistentMap<String, String> map;
+
+    @Before
+    public void setUp() {
+        backingMap = new BackingMap();
+        map = new NearCachingAsyncConsistentMap<>(backingMap, 2);
+    }
+
+    @Test
+    public void testReadThrough() {
+        backingMap.write("a", "1");
+        assertEquals("1", map.get("a").join().value());
+        assertEquals("1", map.get("a").join().value());
+        assertNull(map.get("b").join());
+        assertNull(map.get("b").join());
+
+        assertEquals(3, backingMap.reads);
+        NearCacheStats stats = map.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(3, stats.misses());
+        assertEquals(1, stats.size());
+    }
+
+    @Test
+    public void testRemoteUpdates() {
+        backingMap.write("a", "1");
+        map.get("a").join();
+
+        backingMap.write("a", "2");
+        assertEquals("2", map.get("a").join().value());
+        assertEquals(1, backingMap.reads);
+
+        // Events delivered out of order must not roll the cache back.
+        backingMap.fire(new MapEvent<>(MapEvent.Type.UPDATE, "test", "a",
+                                       new Versioned<>("stale", 1), null));
+        assertEquals("2", map.get("a").join().value());
+
+        backingMap.delete("a");
+        assertNull(map.get("a").join());
+        assertEquals(2, backingMap.reads);
+    }
+
+    @Test
+    public void testLocalUpdates() {
+        backingMap.write("a", "1");
+        map.get("a").join();
+        backingMap.muted = true;
+        map.put("a", "2").join();
+        assertEquals("2", map.get("a").join().value());
+        assertEquals(2, backingMap.reads);
+    }
+
+    @Test
+    public void testConcurrentInvalidation() {
+        backingMap.write("a", "1");
+        CompletableFuture<Versioned<String>> pendingRead = new CompletableFuture<>();
+        backingMap.pendingRead = pendingRead;
+        CompletableFuture<Versioned<String>> read = map.get("a");
+
+        backingMap.write("a", "2");
+        pendingRead.complete(new Versioned<>("1", 1));
+        assertEquals("1", read.join().value());
+
+        // The stale read result must not have been cached.
+        assertEquals("2", map.get("a").join().value());
+    }
+
+    @Test
+    public void testEviction() {
+        backingMap.write("a", "1");
+        backingMap.write("b", "2");
+        backingMap.write("c", "3");
+        map.get("a").join();
+        map.get("b").join();
+        map.get("a").join();
+        map.get("c").join();
+
+        NearCacheStats stats = map.stats();
+        assertEquals(2, stats.size());
+        assertEquals(1, stats.evictions());
+
+        // The least recently used entry was evicted.
+        int reads = backingMap.reads;
+        map.get("a").join();
+        assertEquals(reads, backingMap.reads);
+        map.get("b").join();
+        assertEquals(reads + 1, backingMap.reads);
+    }
+
+    @Test
+    public void testStatusChange() {
+        backingMap.write("a", "1");
+        map.get("a").join();
+        assertEquals(1, map.stats().size());
+
+        // Updates missed while suspended must not be served from the cache.
+        backingMap.setStatus(Status.SUSPENDED);
+        assertEquals(0, map.stats().size());
+        backingMap.muted = true;
+        backingMap.write("a", "2");
+        assertEquals("2", map.get("a").join().value());
+        assertEquals(0, map.stats().size());
+
+        backingMap.muted = false;
+        backingMap.setStatus(Status.ACTIVE);
+        assertEquals("2", map.get("a").join().value());
+        assertEquals(1, map.stats().size());
+
+        backingMap.setStatus(Status.INACTIVE);
+        assertEquals(0, map.stats().size());
+    }
+
+    @Test
+    public void testDestroy() {
+        Map<String, NearCachingAsyncConsistentMap<?, ?>> registry = Maps.newConcurrentMap();
+        NearCachingAsyncConsistentMap<String, String> registered =
+                new NearCachingAsyncConsistentMap<>(backingMap, 2, registry);
+        assertSame(registered, registry.get("test"));
+        assertEquals(2, backingMap.statusListeners.size());
+
+        registered.destroy().join();
+        assertTrue(registry.isEmpty());
+        assertEquals(1, backingMap.statusListeners.size());
+    }
+
+    /**
+     * Backing map counting reads and firing events for its updates.
+     */
+    private static class BackingMap extends AsyncConsistentMapAdapter<String, String> {
+        private final Map<String, Versioned<String>> entries = Maps.newHashMap();
+        private final List<MapEventListener<String, String>> listeners = Lists.newArrayList();
+        private final List<Consumer<Status>> statusListeners = Lists.newArrayList();
+        private long version;
+        private int reads;
+        private boolean muted;
+        private CompletableFuture<Versioned<String>> pendingRead;
+
+        void write(String key, String value) {
+            Versioned<String> newValue = new Versioned<>(value, ++version);
+            Versioned<String> oldValue = entries.put(key, newValue);
+            fire(new MapEvent<>(oldValue == null ? MapEvent.Type.INSERT : MapEvent.Type.UPDATE,
+                                "test", key, newValue, oldValue));
+        }
+
+        void delete(String key) {
+            Versioned<String> oldValue = entries.remove(key);
+            fire(new MapEvent<>(MapEvent.Type.REMOVE, "test", key, null, oldValue));
+        }
+
+        void setStatus(Status status) {
+            statusListeners.forEach(listener -> listener.accept(status));
+        }
+
+        void fire(MapEvent<String, String> event) {
+            if (!muted) {
+                listeners.forEach(listener -> listener.event(event));
+            }
+        }
+
+        @Override
+        public CompletableFuture<Versioned<String>> get(String key) {
+            reads++;
+            if (pendingRead != null) {
+                CompletableFuture<Versioned<String>> read = pendingRead;
+                pendingRead = null;
+                return read;
+            }
+            return CompletableFuture.completedFuture(entries.get(key));
+        }
+
+        @Override
+        public CompletableFuture<Versioned<String>> put(String key, String value) {
+            Versioned<String> oldValue = entries.get(key);
+            write(key, value);
+            return CompletableFuture.completedFuture(oldValue);
+        }
+
+        @Override
+        public CompletableFuture<Void> addListener(MapEventListener<String, String> listener,
+                                                   Executor executor) {
+            listeners.add(listener);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<Void> removeListener(MapEventListener<String, String> listener) {
+            listeners.remove(listener);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<Void> destroy() {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public String name() {
+            return "test";
+        }
+
+        @Override
+        public void addStatusChangeListener(Consumer<Status> listener) {
+            statusListeners.add(listener);
+        }
+
+        @Override
+        public void removeStatusChangeListener(Consumer<Status> listener) {
+            statusListeners.remove(listener);
+        }
+    }
+}
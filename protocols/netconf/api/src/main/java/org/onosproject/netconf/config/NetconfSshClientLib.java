@@ -19,7 +19,8 @@ package org.onosproject.netconf.config;
  * Enumerated list of SSH client library types.
  */
 public enum NetconfSshClientLib {
-    APACHE_MINA("apache-mina");
+    APACHE_MINA("apache-mina"),
+    APACHE_MINA_ASYNC("apache-mina-async");
 
     private String impl;
 
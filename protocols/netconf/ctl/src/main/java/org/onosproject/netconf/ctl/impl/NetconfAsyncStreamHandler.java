@@ -0,0 +1,315 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.netconf.ctl.impl;
+
+import org.apache.sshd.client.channel.ClientChannel;
+import org.apache.sshd.common.io.IoReadFuture;
+import org.apache.sshd.common.io.IoWriteFuture;
+import org.apache.sshd.common.util.buffer.Buffer;
+import org.apache.sshd.common.util.buffer.ByteArrayBuffer;
+import org.onlab.util.OrderedExecutor;
+import org.onlab.util.SharedExecutors;
+import org.onlab.util.SharedScheduledExecutors;
+import org.onosproject.netconf.NetconfDeviceInfo;
+import org.onosproject.netconf.NetconfDeviceOutputEventListener;
+import org.onosproject.netconf.NetconfException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Stream handler doing all the IO of a NETCONF session with the asynchronous
+ * streams of an SSH channel, without a thread of its own.
+ * <p>
+ * Reads are completed by the IO workers of the SSH client, which are shared
+ * by all the sessions of the client, and writes are queued so that only one
+ * of them is pending on the channel at a time. Requests are pipelined up to
+ * a maximum number of outstanding requests, beyond which they wait for the
+ * replies to the earlier ones before being written. Requests which are not
+ * answered within the reply timeout are failed, to release their slot.
+ * </p>
+ * <p>
+ * Replies are completed on the IO workers, but the device output listeners
+ * are notified of replies, notifications and session events in order on a
+ * shared thread pool, so that a slow or blocking listener, e.g. one sending
+ * a synchronous request, only holds up the listeners of its own session.
+ * </p>
+ */
+class NetconfAsyncStreamHandler implements NetconfStreamHandler {
+
+    private static final Logger log = LoggerFactory
+            .getLogger(NetconfAsyncStreamHandler.class);
+    private static final String END_PATTERN = "]]>]]>";
+    private static final int READ_BUFFER_SIZE = 32 * 1024;
+
+    private final ClientChannel channel;
+    private final NetconfDeviceInfo netconfDeviceInfo;
+    private final Map<Integer, CompletableFuture<String>> replies;
+    private final NetconfMessageDispatcher dispatcher;
+    private final NetconfMessageDecoder decoder;
+    private final int maxOutstandingRequests;
+    private final long replyTimeoutMillis;
+
+    private final Buffer readBuffer = new ByteArrayBuffer(READ_BUFFER_SIZE);
+    private final Queue<Request> writes = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean writing = new AtomicBoolean();
+
+    // Requests waiting for a slot, and number of slots taken; guarded by this
+    private final Queue<Request> waiting = new ArrayDeque<>();
+    private int outstanding;
+
+    private volatile boolean socketClosed;
+
+    /**
+     * Creates a stream handler for a channel opened in asynchronous
+     * streaming mode, and starts reading from it.
+     *
+     * @param channel                opened channel
+     * @param deviceInfo             device the channel is connected to
+     * @param delegate               session delegate notified of the replies
+     * @param replies                futures of the replies by message-id
+     * @param maxOutstandingRequests maximum number of requests written to
+     *                               the device and waiting for a reply
+     * @param replyTimeoutSec        time in seconds to wait for a reply
+     */
+    NetconfAsyncStreamHandler(ClientChannel channel, NetconfDeviceInfo deviceInfo,
+                              NetconfSessionDelegate delegate,
+                              Map<Integer, CompletableFuture<String>> replies,
+                              int maxOutstandingRequests, int replyTimeoutSec) {
+        checkArgument(channel.getStreaming() == ClientChannel.Streaming.Async,
+                      "Channel must use asynchronous streaming");
+        checkArgument(maxOutstandingRequests > 0,
+                      "Maximum number of outstanding requests must be positive");
+        this.channel = channel;
+        this.netconfDeviceInfo = deviceInfo;
+        this.replies = replies;
+        this.dispatcher = new NetconfMessageDispatcher(deviceInfo, delegate,
+                new OrderedExecutor(SharedExecutors.getPoolThreadExecutor()));
+        this.decoder = new NetconfMessageDecoder(this::dealWithMessage);
+        this.maxOutstandingRequests = maxOutstandingRequests;
+        this.replyTimeoutMillis = TimeUnit.SECONDS.toMillis(replyTimeoutSec);
+        log.debug("Asynchronous stream handler for device {} session started", deviceInfo);
+        readNext();
+    }
+
+    @Override
+    public CompletableFuture<String> sendMessage(String request) {
+        Optional<Integer> messageId = NetconfStreamThread.getMsgId(request);
+        return sendMessage(request, messageId.get());
+    }
+
+    @Override
+    public CompletableFuture<String> sendMessage(String request, int messageId) {
+        log.debug("Sending message {} to device {}", request, netconfDeviceInfo);
+        Request pending = new Request(request.getBytes(UTF_8));
+        replies.put(messageId, pending.reply);
+
+        boolean admitted;
+        synchronized (this) {
+            admitted = outstanding < maxOutstandingRequests;
+            if (admitted) {
+                outstanding++;
+                pending.admitted = true;
+            } else {
+                waiting.add(pending);
+            }
+        }
+        ScheduledFuture<?> timeout = SharedScheduledExecutors.newTimeout(
+                () -> pending.reply.completeExceptionally(new TimeoutException(
+                        "No reply to message " + messageId + " from " + netconfDeviceInfo +
+                                " after " + replyTimeoutMillis + " ms")),
+                replyTimeoutMillis, TimeUnit.MILLISECONDS);
+        // Registered after admission, so that the slot released on completion
+        // is always the one taken above
+        pending.reply.whenComplete((reply, error) -> {
+            timeout.cancel(false);
+            replies.remove(messageId, pending.reply);
+            release(pending);
+        });
+        if (admitted) {
+            write(pending);
+        }
+        return pending.reply;
+    }
+
+    /**
+     * Returns the number of requests written to the device and waiting for
+     * a reply.
+     *
+     * @return number of outstanding requests
+     */
+    synchronized int outstandingRequests() {
+        return outstanding;
+    }
+
+    /**
+     * Returns the number of requests waiting for earlier requests to be
+     * answered before being written to the device.
+     *
+     * @return number of queued requests
+     */
+    synchronized int queuedRequests() {
+        return waiting.size();
+    }
+
+    // Hands the slot of a completed request to the next queued one.
+    private void release(Request request) {
+        Request next;
+        synchronized (this) {
+            if (!request.admitted) {
+                waiting.remove(request);
+                return;
+            }
+            next = waiting.poll();
+            while (next != null && next.reply.isDone()) {
+                next = waiting.poll();
+            }
+            if (next == null) {
+                outstanding--;
+            } else {
+                next.admitted = true;
+            }
+        }
+        if (next != null) {
+            write(next);
+        }
+    }
+
+    private void write(Request request) {
+        writes.add(request);
+        flush();
+    }
+
+    private void flush() {
+        while (!writes.isEmpty() && writing.compareAndSet(false, true)) {
+            Request next = writes.poll();
+            if (next == null || next.reply.isDone()) {
+                writing.set(false);
+                continue;
+            }
+            try {
+                channel.getAsyncIn().write(new ByteArrayBuffer(next.bytes))
+                        .addListener(future -> written(next, future));
+            } catch (RuntimeException e) {
+                log.error("Writing to {} failed", netconfDeviceInfo, e);
+                next.reply.completeExceptionally(e);
+                writing.set(false);
+            }
+        }
+    }
+
+    private void written(Request request, IoWriteFuture future) {
+        Throwable error = future.getException();
+        if (error != null) {
+            log.error("Writing to {} failed", netconfDeviceInfo, error);
+            request.reply.completeExceptionally(error);
+        }
+        writing.set(false);
+        flush();
+    }
+
+    private void readNext() {
+        if (socketClosed) {
+            return;
+        }
+        readBuffer.clear();
+        try {
+            channel.getAsyncOut().read(readBuffer).addListener(this::read);
+        } catch (RuntimeException e) {
+            log.warn("Error in reading from the session for device {} ", netconfDeviceInfo, e);
+            closed();
+        }
+    }
+
+    private void read(IoReadFuture future) {
+        Throwable error = future.getException();
+        if (error != null) {
+            log.debug("Reading from the session for device {} ended", netconfDeviceInfo, error);
+            closed();
+            return;
+        }
+        Buffer buffer = future.getBuffer();
+        try {
+            decoder.decode(buffer.array(), buffer.rpos(), buffer.available());
+        } catch (NetconfException e) {
+            log.debug("Netconf device {} send badly framed message", netconfDeviceInfo, e);
+            socketClosed = true;
+            dispatcher.deviceUnregistered(e.getMessage());
+            return;
+        }
+        readNext();
+    }
+
+    private void closed() {
+        if (!socketClosed) {
+            socketClosed = true;
+            dispatcher.sessionClosed();
+        }
+    }
+
+    private void dealWithMessage(NetconfMessageDecoder.Message message) {
+        if (socketClosed) {
+            return;
+        }
+        if (!message.isChunked() && message.length() == 0) {
+            // bare end-of-message marker
+            socketClosed = true;
+            dispatcher.deviceUnregistered(END_PATTERN);
+        } else {
+            dispatcher.dispatch(message.asString());
+        }
+    }
+
+    @Override
+    public void addDeviceEventListener(NetconfDeviceOutputEventListener listener) {
+        dispatcher.addDeviceEventListener(listener);
+    }
+
+    @Override
+    public void removeDeviceEventListener(NetconfDeviceOutputEventListener listener) {
+        dispatcher.removeDeviceEventListener(listener);
+    }
+
+    @Override
+    public void setEnableNotifications(boolean enableNotifications) {
+        dispatcher.setEnableNotifications(enableNotifications);
+    }
+
+    // Request written, or waiting to be written, to the device.
+    private static final class Request {
+        private final byte[] bytes;
+        private final CompletableFuture<String> reply = new CompletableFuture<>();
+        // guarded by the handler
+        private boolean admitted;
+
+        private Request(byte[] bytes) {
+            this.bytes = bytes;
+        }
+    }
+}
@@ -16,6 +16,7 @@
 
 package org.onosproject.netconf.ctl.impl;
 
+import com.codahale.metrics.Gauge;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
@@ -23,8 +24,12 @@ import org.apache.felix.scr.annotations.Modified;
 import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.apache.felix.scr.annotations.ReferencePolicy;
 import org.apache.felix.scr.annotations.Service;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.packet.IpAddress;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.net.AnnotationKeys;
@@ -44,6 +49,7 @@ import org.onosproject.netconf.NetconfDeviceListener;
 import org.onosproject.netconf.NetconfDeviceOutputEvent;
 import org.onosproject.netconf.NetconfDeviceOutputEventListener;
 import org.onosproject.netconf.NetconfException;
+import org.onosproject.netconf.NetconfSession;
 import org.onosproject.netconf.config.NetconfDeviceConfig;
 import org.onosproject.netconf.config.NetconfSshClientLib;
 import org.osgi.service.component.ComponentContext;
@@ -54,6 +60,7 @@ import java.security.Security;
 import java.util.Arrays;
 import java.util.Dictionary;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
@@ -92,10 +99,19 @@ public class NetconfControllerImpl implements NetconfController {
             label = "Time (in seconds) SSH session will close if no traffic seen")
     protected static int netconfIdleTimeout = DEFAULT_IDLE_TIMEOUT_SECONDS;
 
+    private static final String PROP_NETCONF_MAX_OUTSTANDING_REQUESTS = "netconfMaxOutstandingRequests";
+    protected static final int DEFAULT_MAX_OUTSTANDING_REQUESTS = 16;
+    // FIXME @Property should not be static
+    @Property(name = PROP_NETCONF_MAX_OUTSTANDING_REQUESTS, intValue = DEFAULT_MAX_OUTSTANDING_REQUESTS,
+            label = "Maximum number of requests pipelined to a device before waiting " +
+                    "for replies, with the apache-mina-async ssh client library")
+    protected static int netconfMaxOutstandingRequests = DEFAULT_MAX_OUTSTANDING_REQUESTS;
+
     private static final String SSH_LIBRARY = "sshLibrary";
     private static final String APACHE_MINA_STR = "apache-mina";
     @Property(name = SSH_LIBRARY, value = APACHE_MINA_STR,
-            label = "Ssh client library to use")
+            label = "Ssh client library to use; apache-mina-async multiplexes " +
+                    "the sessions on a shared pool of non-blocking readers")
     protected NetconfSshClientLib sshLibrary = NetconfSshClientLib.APACHE_MINA;
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
@@ -110,9 +126,17 @@ public class NetconfControllerImpl implements NetconfController {
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected NetworkConfigRegistry netCfgService;
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL_UNARY,
+            policy = ReferencePolicy.DYNAMIC)
+    protected volatile MetricsService metricsService;
+
     public static final Logger log = LoggerFactory
             .getLogger(NetconfControllerImpl.class);
 
+    private static final String METRICS_COMPONENT = "NetconfSession";
+    private static final String IN_FLIGHT_REQUESTS = "inFlightRequests";
+    private static final String REQUEST_LATENCY = "requestLatency";
+
     private Map<DeviceId, NetconfDevice> netconfDeviceMap = new ConcurrentHashMap<>();
 
     private final NetconfDeviceOutputEventListener downListener = new DeviceDownEventListener();
@@ -134,10 +158,12 @@ public class NetconfControllerImpl implements NetconfController {
 
     @Deactivate
     public void deactivate() {
-        netconfDeviceMap.values().forEach(device -> {
+        netconfDeviceMap.forEach((deviceId, device) -> {
             device.getSession().removeDeviceOutputListener(downListener);
             device.disconnect();
+            removeSessionMetrics(deviceId);
         });
+        NetconfSessionMinaImpl.stopSharedClient();
         cfgService.unregisterProperties(getClass(), false);
         netconfDeviceListeners.clear();
         netconfDeviceMap.clear();
@@ -151,6 +177,7 @@ public class NetconfControllerImpl implements NetconfController {
             netconfReplyTimeout = DEFAULT_REPLY_TIMEOUT_SECONDS;
             netconfConnectTimeout = DEFAULT_CONNECT_TIMEOUT_SECONDS;
             netconfIdleTimeout = DEFAULT_IDLE_TIMEOUT_SECONDS;
+            netconfMaxOutstandingRequests = DEFAULT_MAX_OUTSTANDING_REQUESTS;
             sshLibrary = NetconfSshClientLib.APACHE_MINA;
             log.info("No component configuration");
             return;
@@ -166,6 +193,8 @@ public class NetconfControllerImpl implements NetconfController {
                 properties, PROP_NETCONF_CONNECT_TIMEOUT, netconfConnectTimeout);
         int newNetconfIdleTimeout = getIntegerProperty(
                 properties, PROP_NETCONF_IDLE_TIMEOUT, netconfIdleTimeout);
+        int newNetconfMaxOutstandingRequests = getIntegerProperty(
+                properties, PROP_NETCONF_MAX_OUTSTANDING_REQUESTS, netconfMaxOutstandingRequests);
 
         newSshLibrary = get(properties, SSH_LIBRARY);
 
@@ -178,18 +207,23 @@ public class NetconfControllerImpl implements NetconfController {
         } else if (newNetconfIdleTimeout <= 0) {
             log.warn("netconfIdleTimeout is invalid - 0 or less.");
             return;
+        } else if (newNetconfMaxOutstandingRequests <= 0) {
+            log.warn("netconfMaxOutstandingRequests is invalid - 0 or less.");
+            return;
         }
 
         netconfReplyTimeout = newNetconfReplyTimeout;
         netconfConnectTimeout = newNetconfConnectTimeout;
         netconfIdleTimeout = newNetconfIdleTimeout;
+        netconfMaxOutstandingRequests = newNetconfMaxOutstandingRequests;
         if (newSshLibrary != null) {
             sshLibrary = NetconfSshClientLib.getEnum(newSshLibrary);
         }
-        log.info("Settings: {} = {}, {} = {}, {} = {}, {} = {}",
+        log.info("Settings: {} = {}, {} = {}, {} = {}, {} = {}, {} = {}",
                  PROP_NETCONF_REPLY_TIMEOUT, netconfReplyTimeout,
                  PROP_NETCONF_CONNECT_TIMEOUT, netconfConnectTimeout,
                  PROP_NETCONF_IDLE_TIMEOUT, netconfIdleTimeout,
+                 PROP_NETCONF_MAX_OUTSTANDING_REQUESTS, netconfMaxOutstandingRequests,
                  SSH_LIBRARY, sshLibrary);
     }
 
@@ -283,6 +317,9 @@ public class NetconfControllerImpl implements NetconfController {
                 throw new NetconfException("No Device Key for device " + deviceId, e);
             }
         }
+        if (deviceInfo != null && !deviceInfo.sshClientLib().isPresent()) {
+            deviceInfo.setSshClientLib(Optional.of(sshLibrary));
+        }
         NetconfDevice netconfDevicedevice = createDevice(deviceInfo);
         netconfDevicedevice.getSession().addDeviceOutputListener(downListener);
         return netconfDevicedevice;
@@ -300,6 +337,7 @@ public class NetconfControllerImpl implements NetconfController {
     private void stopDevice(DeviceId deviceId, boolean remove) {
         netconfDeviceMap.get(deviceId).disconnect();
         netconfDeviceMap.remove(deviceId);
+        removeSessionMetrics(deviceId);
         if (remove) {
             for (NetconfDeviceListener l : netconfDeviceListeners) {
                 l.deviceRemoved(deviceId);
@@ -322,12 +360,38 @@ public class NetconfControllerImpl implements NetconfController {
     private NetconfDevice createDevice(NetconfDeviceInfo deviceInfo) throws NetconfException {
         NetconfDevice netconfDevice = deviceFactory.createNetconfDevice(deviceInfo);
         netconfDeviceMap.put(deviceInfo.getDeviceId(), netconfDevice);
+        registerSessionMetrics(deviceInfo.getDeviceId(), netconfDevice.getSession());
         for (NetconfDeviceListener l : netconfDeviceListeners) {
             l.deviceAdded(deviceInfo.getDeviceId());
         }
         return netconfDevice;
     }
 
+    // Exposes the number of requests in flight and the request latency of
+    // the session with the given device, if the metrics service is available.
+    private void registerSessionMetrics(DeviceId deviceId, NetconfSession session) {
+        MetricsService service = metricsService;
+        if (service != null && session instanceof NetconfSessionMinaImpl) {
+            NetconfSessionMinaImpl minaSession = (NetconfSessionMinaImpl) session;
+            MetricsComponent component = service.registerComponent(METRICS_COMPONENT);
+            MetricsFeature feature = component.registerFeature(deviceId.toString());
+            service.registerMetric(component, feature, IN_FLIGHT_REQUESTS,
+                                   (Gauge<Integer>) minaSession::inFlightRequests);
+            service.registerMetric(component, feature, REQUEST_LATENCY,
+                                   minaSession.requestLatency());
+        }
+    }
+
+    private void removeSessionMetrics(DeviceId deviceId) {
+        MetricsService service = metricsService;
+        if (service != null) {
+            MetricsComponent component = service.registerComponent(METRICS_COMPONENT);
+            MetricsFeature feature = component.registerFeature(deviceId.toString());
+            service.removeMetric(component, feature, IN_FLIGHT_REQUESTS);
+            service.removeMetric(component, feature, REQUEST_LATENCY);
+        }
+    }
+
 
     @Override
     public Map<DeviceId, NetconfDevice> getDevicesMap() {
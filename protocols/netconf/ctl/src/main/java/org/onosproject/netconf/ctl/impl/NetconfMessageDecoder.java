@@ -0,0 +1,340 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.netconf.ctl.impl;
+
+import org.onosproject.netconf.NetconfException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Decoder of the messages received on a NETCONF session, framed either with
+ * the end-of-message marker or with the chunked framing of RFC 6242.
+ * <p>
+ * Bytes are decoded in blocks as read from the session. The framing is
+ * detected and stripped by a state machine, without regular expressions nor
+ * intermediate strings, and each complete message is handed over to the
+ * consumer, which can read it as a string or as a stream, for instance with
+ * a StAX reader.
+ * </p>
+ */
+final class NetconfMessageDecoder {
+
+    private static final byte[] END_OF_MESSAGE = "]]>]]>".getBytes(StandardCharsets.US_ASCII);
+    // length of the longest proper prefix of the end-of-message marker
+    // which is also a suffix of its first i + 1 bytes
+    private static final int[] END_OF_MESSAGE_PREFIX = prefixFunction(END_OF_MESSAGE);
+    private static final byte LF = '\n';
+    private static final byte HASH = '#';
+    private static final long MAX_CHUNK_SIZE = 4294967295L;
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+
+    private enum State {
+        // beginning of a message
+        START,
+        // beginning of a message, after a line feed
+        START_LF,
+        // within a message framed with the end-of-message marker
+        END_OF_MESSAGE,
+        // first digit of a chunk size, or end of chunks
+        CHUNK_SIZE_START,
+        // chunk size
+        CHUNK_SIZE,
+        // chunk data
+        CHUNK_DATA,
+        // line feed of the next chunk header
+        CHUNK_LF,
+        // hash of the next chunk header
+        CHUNK_HASH,
+        // line feed of the end of chunks
+        END_OF_CHUNKS
+    }
+
+    private final Consumer<Message> consumer;
+
+    private State state = State.START;
+    private byte[] message = new byte[INITIAL_CAPACITY];
+    private int length;
+    private int markerMatched;
+    private long chunkRemaining;
+    private int chunks;
+
+    /**
+     * Creates a decoder handing over the complete messages to the given
+     * consumer.
+     *
+     * @param consumer consumer of the decoded messages
+     */
+    NetconfMessageDecoder(Consumer<Message> consumer) {
+        this.consumer = consumer;
+    }
+
+    /**
+     * Decodes a block of bytes read from the session. The messages completed
+     * by the block are handed over to the consumer, in order, before
+     * returning.
+     *
+     * @param bytes  buffer holding the block
+     * @param offset offset of the block in the buffer
+     * @param count  number of bytes of the block
+     * @throws NetconfException if a message is not properly framed; the
+     *                          decoder is then reset to the start of a message
+     */
+    void decode(byte[] bytes, int offset, int count) throws NetconfException {
+        final int end = offset + count;
+        int i = offset;
+        while (i < end) {
+            byte b = bytes[i];
+            switch (state) {
+                case START:
+                    if (b == LF) {
+                        state = State.START_LF;
+                        i++;
+                    } else {
+                        state = State.END_OF_MESSAGE;
+                    }
+                    break;
+
+                case START_LF:
+                    if (b == HASH) {
+                        state = State.CHUNK_SIZE_START;
+                        i++;
+                    } else {
+                        // not chunked, the line feed is part of the message
+                        append(LF);
+                        markerMatched = 0;
+                        state = State.END_OF_MESSAGE;
+                    }
+                    break;
+
+                case END_OF_MESSAGE:
+                    i = scanEndOfMessage(bytes, i, end);
+                    break;
+
+                case CHUNK_SIZE_START:
+                    if (b >= '1' && b <= '9') {
+                        chunkRemaining = b - '0';
+                        state = State.CHUNK_SIZE;
+                    } else if (b == HASH && chunks > 0) {
+                        state = State.END_OF_CHUNKS;
+                    } else {
+                        throw framingError("invalid chunk size");
+                    }
+                    i++;
+                    break;
+
+                case CHUNK_SIZE:
+                    if (b >= '0' && b <= '9') {
+                        chunkRemaining = chunkRemaining * 10 + (b - '0');
+                        if (chunkRemaining > MAX_CHUNK_SIZE) {
+                            throw framingError("chunk size too large");
+                        }
+                    } else if (b == LF) {
+                        state = State.CHUNK_DATA;
+                    } else {
+                        throw framingError("invalid chunk size");
+                    }
+                    i++;
+                    break;
+
+                case CHUNK_DATA:
+                    int n = (int) Math.min(chunkRemaining, end - i);
+                    append(bytes, i, n);
+                    chunkRemaining -= n;
+                    i += n;
+                    if (chunkRemaining == 0) {
+                        chunks++;
+                        state = State.CHUNK_LF;
+                    }
+                    break;
+
+                case CHUNK_LF:
+                    if (b != LF) {
+                        throw framingError("chunk longer than its size");
+                    }
+                    state = State.CHUNK_HASH;
+                    i++;
+                    break;
+
+                case CHUNK_HASH:
+                    if (b != HASH) {
+                        throw framingError("chunk longer than its size");
+                    }
+                    state = State.CHUNK_SIZE_START;
+                    i++;
+                    break;
+
+                case END_OF_CHUNKS:
+                    if (b != LF) {
+                        throw framingError("invalid end of chunks");
+                    }
+                    i++;
+                    complete(true);
+                    break;
+
+                default:
+                    throw new IllegalStateException("Unknown state " + state);
+            }
+        }
+    }
+
+    /**
+     * Appends the bytes of a message framed with the end-of-message marker,
+     * up to the end of the message or of the block.
+     *
+     * @return index of the first byte not consumed
+     */
+    private int scanEndOfMessage(byte[] bytes, int start, int end) throws NetconfException {
+        int matched = markerMatched;
+        for (int i = start; i < end; i++) {
+            byte b = bytes[i];
+            while (matched > 0 && b != END_OF_MESSAGE[matched]) {
+                matched = END_OF_MESSAGE_PREFIX[matched - 1];
+            }
+            if (b == END_OF_MESSAGE[matched]) {
+                matched++;
+            }
+            if (matched == END_OF_MESSAGE.length) {
+                // the first bytes of the marker were already appended
+                append(bytes, start, i - start + 1);
+                length -= END_OF_MESSAGE.length;
+                complete(false);
+                return i + 1;
+            }
+        }
+        markerMatched = matched;
+        append(bytes, start, end - start);
+        return end;
+    }
+
+    private void append(byte b) {
+        ensureCapacity(1);
+        message[length++] = b;
+    }
+
+    private void append(byte[] bytes, int offset, int count) {
+        ensureCapacity(count);
+        System.arraycopy(bytes, offset, message, length, count);
+        length += count;
+    }
+
+    private void ensureCapacity(int count) {
+        long required = (long) length + count;
+        if (required > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("NETCONF message too large");
+        }
+        if (required > message.length) {
+            long capacity = Math.max(required, (long) message.length * 2);
+            message = Arrays.copyOf(message, (int) Math.min(capacity, Integer.MAX_VALUE - 8));
+        }
+    }
+
+    private void complete(boolean chunked) {
+        Message decoded = new Message(message, length, chunked);
+        reset();
+        consumer.accept(decoded);
+    }
+
+    private NetconfException framingError(String reason) {
+        reset();
+        return new NetconfException("Badly framed NETCONF message: " + reason);
+    }
+
+    private void reset() {
+        state = State.START;
+        message = new byte[INITIAL_CAPACITY];
+        length = 0;
+        markerMatched = 0;
+        chunkRemaining = 0;
+        chunks = 0;
+    }
+
+    private static int[] prefixFunction(byte[] pattern) {
+        int[] prefix = new int[pattern.length];
+        int k = 0;
+        for (int i = 1; i < pattern.length; i++) {
+            while (k > 0 && pattern[i] != pattern[k]) {
+                k = prefix[k - 1];
+            }
+            if (pattern[i] == pattern[k]) {
+                k++;
+            }
+            prefix[i] = k;
+        }
+        return prefix;
+    }
+
+    /**
+     * Message decoded from a NETCONF session, without its framing.
+     */
+    static final class Message {
+
+        private final byte[] bytes;
+        private final int length;
+        private final boolean chunked;
+
+        private Message(byte[] bytes, int length, boolean chunked) {
+            this.bytes = bytes;
+            this.length = length;
+            this.chunked = chunked;
+        }
+
+        /**
+         * Returns the length of the message in bytes.
+         *
+         * @return length in bytes
+         */
+        int length() {
+            return length;
+        }
+
+        /**
+         * Returns whether the message was framed with the chunked framing.
+         *
+         * @return true if chunked, false if ended by the end-of-message marker
+         */
+        boolean isChunked() {
+            return chunked;
+        }
+
+        /**
+         * Returns a stream over the bytes of the message, without copying them.
+         *
+         * @return input stream
+         */
+        InputStream asStream() {
+            return new ByteArrayInputStream(bytes, 0, length);
+        }
+
+        /**
+         * Returns the message decoded as a UTF-8 string.
+         *
+         * @return message
+         */
+        String asString() {
+            return new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String toString() {
+            return asString();
+        }
+    }
+}
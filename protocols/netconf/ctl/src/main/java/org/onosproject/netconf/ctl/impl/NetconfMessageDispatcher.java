@@ -0,0 +1,159 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.netconf.ctl.impl;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.onosproject.netconf.NetconfDeviceInfo;
+import org.onosproject.netconf.NetconfDeviceOutputEvent;
+import org.onosproject.netconf.NetconfDeviceOutputEventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+import static org.onosproject.netconf.ctl.impl.NetconfStreamThread.getMsgId;
+
+/**
+ * Dispatches the messages received on a NETCONF session to the session
+ * delegate and to the device output listeners, independently of how the
+ * messages are read from the device.
+ * <p>
+ * The session delegate is notified on the thread dispatching the messages,
+ * and the device output listeners on the listener executor.
+ * </p>
+ */
+final class NetconfMessageDispatcher {
+
+    private static final Logger log = LoggerFactory
+            .getLogger(NetconfMessageDispatcher.class);
+    private static final String HELLO = "<hello";
+    private static final String RPC_REPLY = "rpc-reply";
+    private static final String RPC_ERROR = "rpc-error";
+    private static final String NOTIFICATION_LABEL = "<notification";
+
+    private final NetconfDeviceInfo netconfDeviceInfo;
+    private final NetconfSessionDelegate sessionDelegate;
+    private final Executor listenerExecutor;
+    private final List<NetconfDeviceOutputEventListener> netconfDeviceEventListeners
+            = Lists.newCopyOnWriteArrayList();
+    private volatile boolean enableNotifications = true;
+
+    /**
+     * Creates a dispatcher for the messages of a device, notifying the
+     * listeners on the dispatching thread.
+     *
+     * @param deviceInfo device the messages are received from
+     * @param delegate   session delegate notified of the replies
+     */
+    NetconfMessageDispatcher(NetconfDeviceInfo deviceInfo,
+                             NetconfSessionDelegate delegate) {
+        this(deviceInfo, delegate, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Creates a dispatcher for the messages of a device.
+     *
+     * @param deviceInfo       device the messages are received from
+     * @param delegate         session delegate notified of the replies
+     * @param listenerExecutor executor notifying the device output listeners;
+     *                         must run the notifications in order
+     */
+    NetconfMessageDispatcher(NetconfDeviceInfo deviceInfo,
+                             NetconfSessionDelegate delegate,
+                             Executor listenerExecutor) {
+        this.netconfDeviceInfo = deviceInfo;
+        this.sessionDelegate = delegate;
+        this.listenerExecutor = listenerExecutor;
+    }
+
+    /**
+     * Dispatches a reply, error or notification received from the device.
+     *
+     * @param deviceReply message received from the device
+     */
+    void dispatch(String deviceReply) {
+        if (deviceReply.contains(RPC_REPLY) ||
+                deviceReply.contains(RPC_ERROR) ||
+                deviceReply.contains(HELLO)) {
+            log.debug("Netconf device {} sessionDelegate.notify() DEVICE_REPLY {} {}",
+                    netconfDeviceInfo, getMsgId(deviceReply), deviceReply);
+            NetconfDeviceOutputEvent event = new NetconfDeviceOutputEvent(
+                    NetconfDeviceOutputEvent.Type.DEVICE_REPLY,
+                    null, deviceReply, getMsgId(deviceReply), netconfDeviceInfo);
+            sessionDelegate.notify(event);
+            notifyListeners(event);
+        } else if (deviceReply.contains(NOTIFICATION_LABEL)) {
+            log.debug("Netconf device {} DEVICE_NOTIFICATION {} {} {}",
+                    netconfDeviceInfo, enableNotifications,
+                    getMsgId(deviceReply), deviceReply);
+            if (enableNotifications) {
+                log.debug("dispatching to {} listeners", netconfDeviceEventListeners.size());
+                notifyListeners(new NetconfDeviceOutputEvent(
+                        NetconfDeviceOutputEvent.Type.DEVICE_NOTIFICATION,
+                        null, deviceReply, getMsgId(deviceReply),
+                        netconfDeviceInfo));
+            }
+        } else {
+            log.debug("Error on reply from device {} {}", netconfDeviceInfo, deviceReply);
+        }
+    }
+
+    /**
+     * Notifies the listeners that the session with the device was closed
+     * and needs to be reopened.
+     */
+    void sessionClosed() {
+        publish(NetconfDeviceOutputEvent.Type.SESSION_CLOSED);
+    }
+
+    /**
+     * Notifies the listeners that the device ended the session.
+     *
+     * @param reason message or framing error that ended the session
+     */
+    void deviceUnregistered(String reason) {
+        log.debug("Netconf device {} socketClosed = true DEVICE_UNREGISTERED {}",
+                netconfDeviceInfo, reason);
+        publish(NetconfDeviceOutputEvent.Type.DEVICE_UNREGISTERED);
+    }
+
+    private void publish(NetconfDeviceOutputEvent.Type type) {
+        notifyListeners(new NetconfDeviceOutputEvent(
+                type, null, null, Optional.of(-1), netconfDeviceInfo));
+    }
+
+    private void notifyListeners(NetconfDeviceOutputEvent event) {
+        listenerExecutor.execute(() -> netconfDeviceEventListeners.forEach(
+                listener -> listener.event(event)));
+    }
+
+    void addDeviceEventListener(NetconfDeviceOutputEventListener listener) {
+        if (!netconfDeviceEventListeners.contains(listener)) {
+            netconfDeviceEventListeners.add(listener);
+        }
+    }
+
+    void removeDeviceEventListener(NetconfDeviceOutputEventListener listener) {
+        netconfDeviceEventListeners.remove(listener);
+    }
+
+    void setEnableNotifications(boolean enableNotifications) {
+        this.enableNotifications = enableNotifications;
+    }
+}
@@ -16,6 +16,8 @@
 
 package org.onosproject.netconf.ctl.impl;
 
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.Histogram;
 import com.google.common.annotations.Beta;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
@@ -48,6 +50,7 @@ import org.onosproject.netconf.NetconfException;
 import org.onosproject.netconf.NetconfSession;
 import org.onosproject.netconf.NetconfSessionFactory;
 import org.onosproject.netconf.NetconfTransportException;
+import org.onosproject.netconf.config.NetconfSshClientLib;
 import org.slf4j.Logger;
 
 import java.io.CharArrayReader;
@@ -123,6 +126,11 @@ public class NetconfSessionMinaImpl extends AbstractNetconfSession {
 
     private static ServiceDirectory directory = new DefaultServiceDirectory();
 
+    /**
+     * SSH client shared by the sessions using asynchronous streaming.
+     */
+    private static SshClient sharedClient;
+
     private String sessionID;
     private final AtomicInteger messageIdInteger = new AtomicInteger(1);
     protected final NetconfDeviceInfo deviceInfo;
@@ -148,6 +156,10 @@ public class NetconfSessionMinaImpl extends AbstractNetconfSession {
     private int connectTimeout;
     private int replyTimeout;
     private int idleTimeout;
+    private boolean asyncStreaming;
+
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+    private final Histogram requestLatency = new Histogram(new ExponentiallyDecayingReservoir());
 
     private ClientChannel channel = null;
     private ClientSession session = null;
@@ -206,8 +218,11 @@ public class NetconfSessionMinaImpl extends AbstractNetconfSession {
                                 NetconfControllerImpl.netconfReplyTimeout);
         idleTimeout = deviceInfo.getIdleTimeoutSec().orElse(
                                 NetconfControllerImpl.netconfIdleTimeout);
-        log.info("Connecting to {} with timeouts C:{}, R:{}, I:{}", deviceInfo,
-                connectTimeout, replyTimeout, idleTimeout);
+        asyncStreaming = deviceInfo.sshClientLib().orElse(NetconfSshClientLib.APACHE_MINA)
+                == NetconfSshClientLib.APACHE_MINA_ASYNC;
+        log.info("Connecting to {} with timeouts C:{}, R:{}, I:{}{}", deviceInfo,
+                connectTimeout, replyTimeout, idleTimeout,
+                asyncStreaming ? " and asynchronous streaming" : "");
 
         try {
             startClient();
@@ -220,6 +235,11 @@ public class NetconfSessionMinaImpl extends AbstractNetconfSession {
         log.info("Creating NETCONF session to {}",
                  deviceInfo.getDeviceId());
 
+        if (asyncStreaming) {
+            client = sharedClient();
+            startSession();
+            return;
+        }
         client = SshClient.setUpDefaultClient();
         client.getProperties().putIfAbsent(FactoryManager.IDLE_TIMEOUT,
                 TimeUnit.SECONDS.toMillis(idleTimeout));
@@ -230,6 +250,39 @@ public class NetconfSessionMinaImpl extends AbstractNetconfSession {
         startSession();
     }
 
+    /**
+     * Returns the SSH client shared by the sessions using asynchronous
+     * streaming, starting it if needed.
+     * <p>
+     * All the channels of the shared client are served by the small pool of
+     * IO workers of the client, instead of a client and a reader thread per
+     * session.
+     * </p>
+     *
+     * @return shared SSH client
+     */
+    private static synchronized SshClient sharedClient() {
+        if (sharedClient == null || sharedClient.isClosed() || sharedClient.isClosing()) {
+            sharedClient = SshClient.setUpDefaultClient();
+            // Idle sessions are closed by their own idle timeout
+            sharedClient.getProperties().put(FactoryManager.NIO2_READ_TIMEOUT, 0L);
+            sharedClient.start();
+            sharedClient.setKeyPairProvider(new SimpleGeneratorHostKeyProvider());
+        }
+        return sharedClient;
+    }
+
+    /**
+     * Stops the SSH client shared by the sessions using asynchronous
+     * streaming, if any.
+     */
+    static synchronized void stopSharedClient() {
+        if (sharedClient != null) {
+            sharedClient.stop();
+            sharedClient = null;
+        }
+    }
+
     //TODO: Remove the default methods already implemented in NetconfSession
 
     // FIXME blocking
@@ -241,6 +294,10 @@ public class NetconfSessionMinaImpl extends AbstractNetconfSession {
                 deviceInfo.port())
                 .verify(connectTimeout, TimeUnit.SECONDS);
         session = connectFuture.getSession();
+        if (asyncStreaming) {
+            session.getProperties().put(FactoryManager.IDLE_TIMEOUT,
+                    TimeUnit.SECONDS.toMillis(idleTimeout));
+        }
         //Using the device ssh key if possible
         if (deviceInfo.getKey() != null) {
             try (PEMParser pemParser = new PEMParser(new CharArrayReader(deviceInfo.getKey()))) {
@@ -283,9 +340,16 @@ public class NetconfSessionMinaImpl extends AbstractNetconfSession {
     @Deprecated
     private void openChannel() throws IOException {
         channel = session.createSubsystemChannel("netconf");
+        if (asyncStreaming) {
+            channel.setStreaming(ClientChannel.Streaming.Async);
+        }
         OpenFuture channelFuture = channel.open();
         if (channelFuture.await(connectTimeout, TimeUnit.SECONDS)) {
-            if (channelFuture.isOpened()) {
+            if (channelFuture.isOpened() && asyncStreaming) {
+                streamHandler = new NetconfAsyncStreamHandler(channel, deviceInfo,
+                        new NetconfSessionDelegateImpl(), replies,
+                        NetconfControllerImpl.netconfMaxOutstandingRequests, replyTimeout);
+            } else if (channelFuture.isOpened()) {
                 streamHandler = new NetconfStreamThread(channel.getInvertedOut(), channel.getInvertedIn(),
                         channel.getInvertedErr(), deviceInfo,
                         new NetconfSessionDelegateImpl(), replies);
@@ -534,7 +598,7 @@ public class NetconfSessionMinaImpl extends AbstractNetconfSession {
         // TODO session liveness check & recovery
 
         log.debug("Sending {} to {}", rpc, this.deviceInfo.getDeviceId());
-        return streamHandler.sendMessage(rpc, msgId)
+        return request(rpc, msgId)
                     .handleAsync((reply, t) -> {
                         if (t != null) {
                             // secure transport-layer error
@@ -567,8 +631,37 @@ public class NetconfSessionMinaImpl extends AbstractNetconfSession {
         return idleTimeout;
     }
 
+    /**
+     * Returns the number of requests sent to the device and waiting for a
+     * reply.
+     *
+     * @return number of in-flight requests
+     */
+    int inFlightRequests() {
+        return inFlightRequests.get();
+    }
+
+    /**
+     * Returns the histogram of the time in microseconds taken by the device
+     * to reply to the requests.
+     *
+     * @return request latency histogram
+     */
+    Histogram requestLatency() {
+        return requestLatency;
+    }
+
     private CompletableFuture<String> request(String request, int messageId) {
-        return streamHandler.sendMessage(request, messageId);
+        long start = System.nanoTime();
+        inFlightRequests.incrementAndGet();
+        CompletableFuture<String> reply = streamHandler.sendMessage(request, messageId);
+        reply.whenComplete((r, t) -> {
+            inFlightRequests.decrementAndGet();
+            if (t == null) {
+                requestLatency.update(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+            }
+        });
+        return reply;
     }
 
     private String sendRequest(String request) throws NetconfException {
@@ -597,6 +690,8 @@ public class NetconfSessionMinaImpl extends AbstractNetconfSession {
             Thread.currentThread().interrupt();
             throw new NetconfException("Interrupted waiting for reply for request" + request, e);
         } catch (TimeoutException e) {
+            replies.remove(messageId, futureReply);
+            futureReply.completeExceptionally(e);
             throw new NetconfException("Timed out waiting for reply for request " +
                     request + " after " + replyTimeout + " sec.", e);
         } catch (ExecutionException e) {
@@ -604,7 +699,7 @@ public class NetconfSessionMinaImpl extends AbstractNetconfSession {
             try {
                 session.close();
                 channel.close(); //Closes the socket which should interrupt NetconfStreamThread
-                client.close();
+                closeClient();
             } catch (IOException ioe) {
                 log.warn("Error closing session {} on {}", sessionID, deviceInfo, ioe);
             }
@@ -726,13 +821,20 @@ public class NetconfSessionMinaImpl extends AbstractNetconfSession {
             try {
                 session.close();
                 channel.close();
-                client.close();
+                closeClient();
             } catch (IOException ioe) {
                 log.warn("Error closing session {} on {}", sessionID, deviceInfo, ioe);
             }
         }
     }
 
+    private void closeClient() throws IOException {
+        // the shared client outlives its sessions
+        if (!asyncStreaming) {
+            client.close();
+        }
+    }
+
     protected void publishEvent(NetconfDeviceOutputEvent event) {
         primaryListeners.forEach(lsnr -> {
             if (lsnr.isRelevant(event)) {
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.netconf.ctl.impl;
+
+import com.google.common.io.ByteStreams;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.netconf.NetconfException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for NetconfMessageDecoder.
+ */
+public class NetconfMessageDecoderTest {
+
+    private static final String REPLY = "<rpc-reply message-id=\"7\" " +
+            "xmlns=\"urn:ietf:params:xml:ns:netconf:base:1.0\"><ok/></rpc-reply>";
+    // 2 bytes characters, for chunk sizes in bytes
+    private static final String UTF8_REPLY = "<rpc-reply message-id=\"8\"><data>é€ü</data></rpc-reply>";
+
+    private final List<NetconfMessageDecoder.Message> messages = new ArrayList<>();
+    private NetconfMessageDecoder decoder;
+
+    @Before
+    public void setUp() {
+        messages.clear();
+        decoder = new NetconfMessageDecoder(messages::add);
+    }
+
+    private void decode(String framed) throws NetconfException {
+        byte[] bytes = framed.getBytes(StandardCharsets.UTF_8);
+        decoder.decode(bytes, 0, bytes.length);
+    }
+
+    private static String chunked(String message, int chunkSize) {
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        StringBuilder framed = new StringBuilder();
+        for (int i = 0; i < bytes.length; i += chunkSize) {
+            int size = Math.min(chunkSize, bytes.length - i);
+            framed.append("\n#").append(size).append('\n')
+                    .append(new String(bytes, i, size, StandardCharsets.ISO_8859_1));
+        }
+        return framed.append("\n##\n").toString();
+    }
+
+    /**
+     * Tests the decoding of messages ended by the end-of-message marker.
+     */
+    @Test
+    public void testEndOfMessage() throws NetconfException {
+        decode(REPLY + "]]>]]>" + "\n" + REPLY + "]]]>]]>");
+        assertEquals(2, messages.size());
+        assertEquals(REPLY, messages.get(0).asString());
+        assertFalse(messages.get(0).isChunked());
+        assertEquals("\n" + REPLY + "]", messages.get(1).asString());
+    }
+
+    /**
+     * Tests the decoding of messages with the chunked framing.
+     */
+    @Test
+    public void testChunked() throws NetconfException {
+        decode(chunked(REPLY, 10) + chunked(REPLY, 1000));
+        assertEquals(2, messages.size());
+        assertEquals(REPLY, messages.get(0).asString());
+        assertTrue(messages.get(0).isChunked());
+        assertEquals(REPLY, messages.get(1).asString());
+    }
+
+    /**
+     * Tests that chunk sizes are counted in bytes rather than characters.
+     */
+    @Test
+    public void testChunkedMultiByte() throws NetconfException {
+        byte[] bytes = UTF8_REPLY.getBytes(StandardCharsets.UTF_8);
+        String framed = chunked(UTF8_REPLY, 29);
+        decoder.decode(framed.getBytes(StandardCharsets.ISO_8859_1), 0, framed.length());
+        assertEquals(1, messages.size());
+        assertEquals(UTF8_REPLY, messages.get(0).asString());
+        assertEquals(bytes.length, messages.get(0).length());
+    }
+
+    /**
+     * Tests the decoding of messages split across blocks at every offset.
+     */
+    @Test
+    public void testSplitBlocks() throws NetconfException {
+        byte[] bytes = (REPLY + "]]>]]>" + chunked(REPLY, 7) + "]]>]]>")
+                .getBytes(StandardCharsets.UTF_8);
+        for (int split = 1; split < bytes.length; split++) {
+            setUp();
+            decoder.decode(bytes, 0, split);
+            decoder.decode(bytes, split, bytes.length - split);
+            assertEquals("split at " + split, 3, messages.size());
+            assertEquals(REPLY, messages.get(0).asString());
+            assertEquals(REPLY, messages.get(1).asString());
+            assertEquals(0, messages.get(2).length());
+        }
+
+        setUp();
+        for (int i = 0; i < bytes.length; i++) {
+            decoder.decode(bytes, i, 1);
+        }
+        assertEquals(3, messages.size());
+    }
+
+    /**
+     * Tests reading a decoded message as a stream.
+     */
+    @Test
+    public void testAsStream() throws IOException {
+        decode(chunked(REPLY, 16));
+        assertArrayEquals(REPLY.getBytes(StandardCharsets.UTF_8),
+                          ByteStreams.toByteArray(messages.get(0).asStream()));
+    }
+
+    /**
+     * Tests the rejection of badly framed chunked messages.
+     */
+    @Test
+    public void testBadFraming() {
+        String[] badlyFramed = {
+                "\n#0\n\n##\n",
+                "\n##\n",
+                "\n#4\nabcde\n##\n",
+                "\n#5x\nabcde\n##\n",
+                "\n#5\nabcde\n#\n",
+                "\n#99999999999\n",
+        };
+        for (String framed : badlyFramed) {
+            setUp();
+            try {
+                decode(framed);
+                fail("Expected framing error for " + framed);
+            } catch (NetconfException e) {
+                assertTrue(messages.isEmpty());
+            }
+        }
+    }
+
+    /**
+     * Tests that the decoder recovers after a framing error.
+     */
+    @Test
+    public void testResetAfterError() throws NetconfException {
+        try {
+            decode("\n#4\nabcde");
+            fail("Expected framing error");
+        } catch (NetconfException e) {
+            decode(chunked(REPLY, 100));
+            assertEquals(1, messages.size());
+            assertEquals(REPLY, messages.get(0).asString());
+        }
+    }
+}
@@ -37,23 +37,29 @@ import org.onosproject.netconf.DatastoreId;
 import org.onosproject.netconf.NetconfDeviceInfo;
 import org.onosproject.netconf.NetconfException;
 import org.onosproject.netconf.NetconfSession;
+import org.onosproject.netconf.config.NetconfSshClientLib;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.security.Security;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
@@ -62,6 +68,7 @@ import static org.junit.Assert.fail;
 import static org.onosproject.netconf.DatastoreId.CANDIDATE;
 import static org.onosproject.netconf.DatastoreId.RUNNING;
 import static org.onosproject.netconf.DatastoreId.STARTUP;
+import static org.onlab.junit.TestTools.assertAfter;
 
 /**
  * Unit tests for NetconfSession.
@@ -96,6 +103,13 @@ public class NetconfSessionMinaImplTest {
                     + "</edit-config>\n"
                     + "</rpc>]]>]]>";
 
+    private static final String LOCK_RPC =
+            "<rpc xmlns=\"urn:ietf:params:xml:ns:netconf:base:1.0\">\n"
+                    + "<lock>\n<target>\n<running/>\n</target>\n</lock>\n"
+                    + "</rpc>";
+
+    private static final int MAX_OUTSTANDING_REQUESTS = 4;
+
     static final List<String> DEFAULT_CAPABILITIES = ImmutableList.<String>builder()
             .add("urn:ietf:params:netconf:base:1.0")
             .add("urn:ietf:params:netconf:capability:writable-running:1.0")
@@ -129,6 +143,8 @@ public class NetconfSessionMinaImplTest {
     private static NetconfSession session2;
     private static NetconfSession session3;
     private static NetconfSession session4;
+    private static NetconfSessionMinaImpl asyncSession1;
+    private static NetconfSessionMinaImpl asyncSession2;
     private static SshServer sshServerNetconf;
 
     @BeforeClass
@@ -186,6 +202,24 @@ public class NetconfSessionMinaImplTest {
         assertTrue("Incorrect sessionId", !session4.getSessionId().equalsIgnoreCase("-1"));
         assertTrue("Incorrect sessionId", !session4.getSessionId().equalsIgnoreCase("0"));
         assertThat(session4.getDeviceCapabilitiesSet(), containsInAnyOrder(DEFAULT_CAPABILITIES_1_1.toArray()));
+
+        NetconfDeviceInfo asyncDeviceInfo = new NetconfDeviceInfo(
+                TEST_USERNAME, TEST_PASSWORD, Ip4Address.valueOf(TEST_HOSTNAME), portNumber);
+        asyncDeviceInfo.setConnectTimeoutSec(OptionalInt.of(30));
+        asyncDeviceInfo.setReplyTimeoutSec(OptionalInt.of(30));
+        asyncDeviceInfo.setSshClientLib(Optional.of(NetconfSshClientLib.APACHE_MINA_ASYNC));
+        NetconfControllerImpl.netconfMaxOutstandingRequests = MAX_OUTSTANDING_REQUESTS;
+
+        asyncSession1 = new NetconfSessionMinaImpl(asyncDeviceInfo,
+                                                   ImmutableList.of("urn:ietf:params:netconf:base:1.0"));
+        log.info("Started asynchronous NETCONF Session {} with test SSHD server in Unit Test",
+                 asyncSession1.getSessionId());
+        assertThat(asyncSession1.getDeviceCapabilitiesSet(), containsInAnyOrder(DEFAULT_CAPABILITIES.toArray()));
+
+        asyncSession2 = new NetconfSessionMinaImpl(asyncDeviceInfo);
+        log.info("Started asynchronous NETCONF Session {} with test SSHD server in Unit Test",
+                 asyncSession2.getSessionId());
+        assertThat(asyncSession2.getDeviceCapabilitiesSet(), containsInAnyOrder(DEFAULT_CAPABILITIES_1_1.toArray()));
     }
 
     @AfterClass
@@ -202,6 +236,15 @@ public class NetconfSessionMinaImplTest {
         if (session4 != null) {
             session4.close();
         }
+        if (asyncSession1 != null) {
+            asyncSession1.close();
+        }
+        if (asyncSession2 != null) {
+            asyncSession2.close();
+        }
+        NetconfSessionMinaImpl.stopSharedClient();
+        NetconfControllerImpl.netconfMaxOutstandingRequests =
+                NetconfControllerImpl.DEFAULT_MAX_OUTSTANDING_REQUESTS;
 
         TestUtils.setField(NetconfSessionMinaImpl.class, "directory", null);
         sshServerNetconf.stop();
@@ -547,6 +590,42 @@ public class NetconfSessionMinaImplTest {
         fail("NETCONF test failed to complete.");
     }
 
+    @Test
+    public void testAsyncSessionRequests() throws NetconfException {
+        assertTrue("NETCONF edit-config command failed",
+                   asyncSession1.editConfig(RUNNING, null, SAMPLE_REQUEST));
+        assertTrue("NETCONF edit-config command failed",
+                   asyncSession2.editConfig(RUNNING, null, SAMPLE_REQUEST));
+        assertTrue("NETCONF copy-config command failed",
+                   asyncSession1.copyConfig(RUNNING.toString(), "candidate"));
+        assertTrue("NETCONF copy-config command failed",
+                   asyncSession2.copyConfig(RUNNING.toString(), "candidate"));
+    }
+
+    @Test
+    public void testAsyncSessionPipelinedRpcs() throws Exception {
+        for (NetconfSessionMinaImpl session : ImmutableList.of(asyncSession1, asyncSession2)) {
+            NetconfAsyncStreamHandler handler = TestUtils.getField(session, "streamHandler");
+            long replied = session.requestLatency().getCount();
+
+            List<CompletableFuture<String>> replies = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                replies.add(session.rpc(LOCK_RPC));
+                assertThat(handler.outstandingRequests(), lessThanOrEqualTo(MAX_OUTSTANDING_REQUESTS));
+            }
+            for (CompletableFuture<String> reply : replies) {
+                assertTrue("NETCONF lock rpc failed",
+                           reply.get(30, TimeUnit.SECONDS).contains("<ok/>"));
+            }
+
+            assertAfter(1000, () -> {
+                assertEquals(0, session.inFlightRequests());
+                assertEquals(0, handler.outstandingRequests());
+                assertEquals(0, handler.queuedRequests());
+                assertEquals(replied + 50, session.requestLatency().getCount());
+            });
+        }
+    }
 
     public static String getTestHelloReply(Optional<Long> sessionId) {
         return getTestHelloReply(DEFAULT_CAPABILITIES, sessionId);
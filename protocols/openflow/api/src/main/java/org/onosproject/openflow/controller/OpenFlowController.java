@@ -152,4 +152,27 @@ public interface OpenFlowController {
      * @param dpid the switch to set the role for.
      */
     void setRole(Dpid dpid, RoleState role);
+
+    /**
+     * Returns the number of messages received from a switch that are waiting
+     * to be dispatched.
+     *
+     * @param dpid the switch datapath id
+     * @return number of queued messages
+     */
+    default int getDispatchQueueDepth(Dpid dpid) {
+        return 0;
+    }
+
+    /**
+     * Returns the number of messages received from a switch that were
+     * discarded without being dispatched, e.g. because the switch
+     * disconnected.
+     *
+     * @param dpid the switch datapath id
+     * @return number of discarded messages
+     */
+    default long getDispatchDropCount(Dpid dpid) {
+        return 0;
+    }
 }
@@ -103,6 +103,7 @@ public class Controller {
     // Configuration options
     protected List<Integer> openFlowPorts = ImmutableList.of(6633, 6653);
     protected int workerThreads = 0;
+    protected int dispatcherThreads = 0;
 
     // Start time of the controller
     protected long systemStartTime;
@@ -111,6 +112,7 @@ public class Controller {
 
     private EventLoopGroup bossGroup;
     private EventLoopGroup workerGroup;
+    private OFMessageDispatcher dispatcher;
 
     enum TlsMode {
         DISABLED, // TLS is not used for OpenFlow connections
@@ -224,6 +226,7 @@ public class Controller {
     public void setConfigParams(Dictionary<?, ?> properties) {
         boolean restartRequired = setOpenFlowPorts(properties);
         restartRequired |= setWorkerThreads(properties);
+        restartRequired |= setDispatcherThreads(properties);
         restartRequired |= setTlsParameters(properties);
         if (restartRequired) {
             restart();
@@ -276,6 +279,23 @@ public class Controller {
         return oldValue != this.workerThreads; // restart if number of threads has changed
     }
 
+    /**
+     * Gets the number of message dispatcher threads from property dict.
+     *
+     * @param properties dictionary
+     * @return true if restart is required
+     */
+    private boolean setDispatcherThreads(Dictionary<?, ?> properties) {
+        int oldValue = this.dispatcherThreads;
+
+        String threads = get(properties, "dispatcherThreads");
+        if (!Strings.isNullOrEmpty(threads)) {
+            this.dispatcherThreads = Integer.parseInt(threads);
+        }
+        log.debug("Number of dispatcher threads set to {}", this.dispatcherThreads);
+        return oldValue != this.dispatcherThreads; // restart if number of threads has changed
+    }
+
     static class TlsParams {
         final TlsMode mode;
         final String ksLocation;
@@ -590,6 +610,7 @@ public class Controller {
         this.driverService = driverService;
         this.netCfgService = netCfgService;
         this.init();
+        this.dispatcher = new OFMessageDispatcher(dispatcherThreads);
         this.addListeningPorts(this.openFlowPorts);
     }
 
@@ -613,6 +634,40 @@ public class Controller {
             log.warn("Interrupted while stopping", e);
             Thread.currentThread().interrupt();
         }
+
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    /**
+     * Returns the dispatcher of the messages received from the switches.
+     *
+     * @return message dispatcher
+     */
+    OFMessageDispatcher dispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * Returns the number of messages waiting to be dispatched for a switch.
+     *
+     * @param dpid switch datapath id
+     * @return number of queued messages
+     */
+    public int getDispatchQueueDepth(Dpid dpid) {
+        return dispatcher != null ? dispatcher.queueDepth(dpid) : 0;
+    }
+
+    /**
+     * Returns the number of messages received from a switch that were
+     * discarded without being dispatched.
+     *
+     * @param dpid switch datapath id
+     * @return number of discarded messages
+     */
+    public long getDispatchDropCount(Dpid dpid) {
+        return dispatcher != null ? dispatcher.dropCount(dpid) : 0;
     }
 
     private void restart() {
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Bounded lock-free multi-producer single-consumer ring buffer.
+ * <p>
+ * Producers claim a slot by advancing the tail and then publish the element
+ * into the claimed slot. The single consumer reads the slot at the head and
+ * treats an unpublished slot as empty, so {@link #poll()} may transiently
+ * return {@code null} while {@link #isEmpty()} is {@code false}.
+ *
+ * @param <E> type of the elements
+ */
+final class MpscRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> buffer;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Creates a ring buffer holding at least the given number of elements.
+     *
+     * @param capacity minimum capacity; rounded up to a power of two
+     */
+    MpscRingBuffer(int capacity) {
+        checkArgument(capacity > 0 && capacity <= 1 << 30, "Invalid capacity %s", capacity);
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Returns the number of elements the ring buffer can hold.
+     *
+     * @return capacity
+     */
+    int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Adds an element to the tail of the ring buffer. May be called from any
+     * thread.
+     *
+     * @param element element to add
+     * @return false if the ring buffer is full
+     */
+    boolean offer(E element) {
+        checkNotNull(element);
+        for (;;) {
+            long t = tail.get();
+            if (t - head.get() > mask) {
+                return false;
+            }
+            if (tail.compareAndSet(t, t + 1)) {
+                buffer.lazySet((int) t & mask, element);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Removes the element at the head of the ring buffer. Must only be called
+     * by the consumer.
+     *
+     * @return head element or null if none is available
+     */
+    E poll() {
+        long h = head.get();
+        int index = (int) h & mask;
+        E element = buffer.get(index);
+        if (element == null) {
+            return null;
+        }
+        // Clear the slot before releasing it to the producers.
+        buffer.lazySet(index, null);
+        head.lazySet(h + 1);
+        return element;
+    }
+
+    /**
+     * Returns the number of elements claimed by producers and not yet
+     * consumed.
+     *
+     * @return number of elements
+     */
+    int size() {
+        // Read the head first so that the result is never negative.
+        long h = head.get();
+        return (int) Math.max(0, Math.min(tail.get() - h, capacity()));
+    }
+
+    /**
+     * Returns whether no elements are claimed by producers and not yet
+     * consumed.
+     *
+     * @return true if empty
+     */
+    boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+}
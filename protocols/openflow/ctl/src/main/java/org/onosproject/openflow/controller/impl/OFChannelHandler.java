@@ -16,26 +16,16 @@
 
 package org.onosproject.openflow.controller.impl;
 
-import static org.onlab.util.Tools.groupedThreads;
-
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.nio.channels.ClosedChannelException;
 import java.security.cert.Certificate;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Deque;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 
 import org.onlab.packet.IpAddress;
@@ -154,34 +144,13 @@ class OFChannelHandler extends ChannelInboundHandlerAdapter
 
 
 
-    private static final int MSG_READ_BUFFER = 5000;
-
     /**
      * OFMessage dispatch queue.
-     */
-    private final BlockingQueue<OFMessage> dispatchQueue =
-            new LinkedBlockingQueue<>(MSG_READ_BUFFER);
-
-    /**
-     * Single thread executor for OFMessage dispatching.
-     *
-     * Gets initialized on channelActive, shutdown on channelInactive.
-     */
-    private ExecutorService dispatcher;
-
-    /**
-     * Handle for dispatcher thread.
      * <p>
+     * Gets created on first dispatch, closed on channelInactive.
      * Should only be touched from the Channel I/O thread
      */
-    private Future<?> dispatcherHandle = CompletableFuture.completedFuture(null);
-
-    /**
-     * Dispatch backlog.
-     * <p>
-     * Should only be touched from the Channel I/O thread
-     */
-    private final Deque<OFMessage> dispatchBacklog = new ArrayDeque<>();
+    private OFMessageDispatcher.ChannelQueue dispatchQueue;
 
     /**
      * Create a new unconnected OFChannelHandler.
@@ -1255,8 +1224,6 @@ class OFChannelHandler extends ChannelInboundHandlerAdapter
             channelId = channel.toString();
         }
 
-        dispatcher = Executors.newSingleThreadExecutor(groupedThreads("onos/of/dispatcher", channelId, log));
-
         /*
             hack to wait for the switch to tell us what it's
             max version is. This is not spec compliant and should
@@ -1273,9 +1240,9 @@ class OFChannelHandler extends ChannelInboundHandlerAdapter
         log.info("Switch disconnected callback for sw:{}. Cleaning up ...",
                  getSwitchInfoString());
 
-        if (dispatcher != null) {
-            dispatcher.shutdownNow();
-            dispatcher = null;
+        if (dispatchQueue != null) {
+            dispatchQueue.close();
+            dispatchQueue = null;
         }
 
          if (thisdpid != 0) {
@@ -1423,63 +1390,10 @@ class OFChannelHandler extends ChannelInboundHandlerAdapter
     }
 
     private void dispatchMessage(OFMessage m) {
-
-        if (dispatchBacklog.isEmpty()) {
-            if (!dispatchQueue.offer(m)) {
-                // queue full
-                channel.config().setAutoRead(false);
-                // put it on the head of backlog
-                dispatchBacklog.addFirst(m);
-                return;
-            }
-        } else {
-            dispatchBacklog.addLast(m);
-        }
-
-        while (!dispatchBacklog.isEmpty()) {
-            OFMessage msg = dispatchBacklog.pop();
-
-            if (!dispatchQueue.offer(msg)) {
-                // queue full
-                channel.config().setAutoRead(false);
-                // put it back to the head of backlog
-                dispatchBacklog.addFirst(msg);
-                return;
-            }
-        }
-
-
-        if (dispatcherHandle.isDone()) {
-            // dispatcher terminated for some reason, restart
-
-            dispatcherHandle = dispatcher.submit((Runnable) () -> {
-                try {
-                    List<OFMessage> msgs = new ArrayList<>();
-                    for (;;) {
-                        // wait for new message
-                        OFMessage msg = dispatchQueue.take();
-                        sw.handleMessage(msg);
-
-                        while (dispatchQueue.drainTo(msgs, MSG_READ_BUFFER) > 0) {
-                            if (!channel.config().isAutoRead()) {
-                                channel.config().setAutoRead(true);
-                            }
-                            msgs.forEach(sw::handleMessage);
-                            msgs.clear();
-                        }
-
-                        if (!channel.config().isAutoRead()) {
-                            channel.config().setAutoRead(true);
-                        }
-                    }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    // interrupted. gracefully shutting down
-                    return;
-                }
-
-            });
+        if (dispatchQueue == null) {
+            dispatchQueue = controller.dispatcher().register(new Dpid(thisdpid), channel, sw::handleMessage);
         }
+        dispatchQueue.dispatch(m);
     }
 
     /**
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.impl;
+
+import io.netty.channel.Channel;
+import org.onosproject.openflow.controller.Dpid;
+import org.projectfloodlight.openflow.protocol.OFMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static org.onlab.util.Tools.groupedThreads;
+
+/**
+ * Dispatches the OpenFlow messages received on all switch channels to the
+ * switch drivers using a shared pool of threads.
+ * <p>
+ * Each channel has its own bounded queue. A channel is drained by at most one
+ * pool thread at a time, in batches, so messages from a switch are handled in
+ * the order they were received. When the queue of a channel is full, reading
+ * from the channel is suspended until the queue has been drained, so messages
+ * are never dropped while the channel is connected.
+ */
+final class OFMessageDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OFMessageDispatcher.class);
+
+    static final int DEFAULT_QUEUE_CAPACITY = 8192;
+    static final int DEFAULT_BATCH_SIZE = 64;
+
+    private final ExecutorService executor;
+    private final int queueCapacity;
+    private final int batchSize;
+
+    private final Map<Dpid, ChannelQueue> queues = new ConcurrentHashMap<>();
+    private final Map<Dpid, LongAdder> drops = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a dispatcher with the given number of threads.
+     *
+     * @param threads number of dispatcher threads; 0 to use one per core
+     */
+    OFMessageDispatcher(int threads) {
+        this(Executors.newFixedThreadPool(
+                threads > 0 ? threads : Runtime.getRuntime().availableProcessors(),
+                groupedThreads("onos/of", "dispatcher-%d", log)),
+             DEFAULT_QUEUE_CAPACITY, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates a dispatcher running on the given executor.
+     *
+     * @param executor      dispatcher executor
+     * @param queueCapacity capacity of the channel queues
+     * @param batchSize     maximum number of messages handled per drain task
+     */
+    OFMessageDispatcher(ExecutorService executor, int queueCapacity, int batchSize) {
+        this.executor = executor;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Creates the dispatch queue of a switch channel.
+     *
+     * @param dpid    switch datapath id
+     * @param channel switch channel
+     * @param handler handler of the messages received from the switch
+     * @return dispatch queue of the channel
+     */
+    ChannelQueue register(Dpid dpid, Channel channel, Consumer<OFMessage> handler) {
+        ChannelQueue queue = new ChannelQueue(dpid, channel, handler);
+        queues.put(dpid, queue);
+        return queue;
+    }
+
+    /**
+     * Returns the number of messages waiting to be dispatched for a switch.
+     *
+     * @param dpid switch datapath id
+     * @return number of queued messages
+     */
+    int queueDepth(Dpid dpid) {
+        ChannelQueue queue = queues.get(dpid);
+        return queue != null ? queue.depth() : 0;
+    }
+
+    /**
+     * Returns the number of messages received from a switch that were
+     * discarded without being dispatched because the channel was closed.
+     *
+     * @param dpid switch datapath id
+     * @return number of discarded messages
+     */
+    long dropCount(Dpid dpid) {
+        LongAdder count = drops.get(dpid);
+        return count != null ? count.sum() : 0;
+    }
+
+    /**
+     * Stops dispatching messages.
+     */
+    void shutdown() {
+        executor.shutdownNow();
+        queues.clear();
+    }
+
+    private void dropped(Dpid dpid, int count) {
+        if (count > 0) {
+            drops.computeIfAbsent(dpid, d -> new LongAdder()).add(count);
+        }
+    }
+
+    /**
+     * Dispatch queue of a switch channel.
+     * <p>
+     * Messages must be added and the queue closed from the channel I/O
+     * thread.
+     */
+    final class ChannelQueue implements Runnable {
+
+        private final Dpid dpid;
+        private final Channel channel;
+        private final Consumer<OFMessage> handler;
+        private final MpscRingBuffer<OFMessage> ring;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        // Messages received while the ring is full; only touched from the
+        // channel I/O thread.
+        private final Deque<OFMessage> backlog = new ArrayDeque<>();
+        private volatile boolean suspended;
+        private volatile boolean closed;
+
+        private ChannelQueue(Dpid dpid, Channel channel, Consumer<OFMessage> handler) {
+            this.dpid = dpid;
+            this.channel = channel;
+            this.handler = handler;
+            this.ring = new MpscRingBuffer<>(queueCapacity);
+        }
+
+        /**
+         * Queues a message for dispatching.
+         *
+         * @param message message received from the switch
+         */
+        void dispatch(OFMessage message) {
+            if (backlog.isEmpty() && ring.offer(message)) {
+                schedule();
+                return;
+            }
+            backlog.addLast(message);
+            flushBacklog();
+        }
+
+        /**
+         * Closes the queue, discarding the messages not yet dispatched.
+         */
+        void close() {
+            closed = true;
+            queues.remove(dpid, this);
+            dropped(dpid, backlog.size());
+            backlog.clear();
+            schedule();
+        }
+
+        private int depth() {
+            return ring.size();
+        }
+
+        // Moves the backlog into the ring, suspending reads from the channel
+        // while the ring is full.
+        private void flushBacklog() {
+            if (closed) {
+                return;
+            }
+            while (!backlog.isEmpty()) {
+                if (!ring.offer(backlog.peekFirst())) {
+                    if (!suspended) {
+                        suspended = true;
+                        channel.config().setAutoRead(false);
+                    }
+                    // Make sure a drain task observes the suspension.
+                    schedule();
+                    return;
+                }
+                backlog.removeFirst();
+            }
+            if (suspended) {
+                suspended = false;
+                channel.config().setAutoRead(true);
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                    log.debug("Dispatcher stopped; not dispatching messages from {}", dpid);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            if (closed) {
+                int count = 0;
+                while (ring.poll() != null) {
+                    count++;
+                }
+                dropped(dpid, count);
+            } else {
+                for (int i = 0; i < batchSize; i++) {
+                    OFMessage message = ring.poll();
+                    if (message == null) {
+                        break;
+                    }
+                    try {
+                        handler.accept(message);
+                    } catch (Exception e) {
+                        log.warn("Unable to handle message from {}: {}", dpid, message, e);
+                    }
+                }
+                if (suspended) {
+                    channel.eventLoop().execute(this::flushBacklog);
+                }
+            }
+            scheduled.set(false);
+            if (!ring.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
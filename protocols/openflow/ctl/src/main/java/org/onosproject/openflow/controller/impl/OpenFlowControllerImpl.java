@@ -101,6 +101,7 @@ public class OpenFlowControllerImpl implements OpenFlowController {
     private static final String APP_ID = "org.onosproject.openflow-base";
     private static final String DEFAULT_OFPORT = "6633,6653";
     private static final int DEFAULT_WORKER_THREADS = 0;
+    private static final int DEFAULT_DISPATCHER_THREADS = 0;
     protected static final String SCHEME = "of";
 
     private static final Logger log =
@@ -126,6 +127,11 @@ public class OpenFlowControllerImpl implements OpenFlowController {
             label = "Number of controller worker threads")
     private int workerThreads = DEFAULT_WORKER_THREADS;
 
+    @Property(name = "dispatcherThreads", intValue = DEFAULT_DISPATCHER_THREADS,
+            label = "Number of threads dispatching messages received from switches; " +
+                    "default is 0 for one thread per core")
+    private int dispatcherThreads = DEFAULT_DISPATCHER_THREADS;
+
     @Property(name = "tlsMode", value = "",
               label = "TLS mode for OpenFlow channel; options are: disabled [default], enabled, strict")
     private String tlsModeString;
@@ -311,6 +317,16 @@ public class OpenFlowControllerImpl implements OpenFlowController {
         return connectedSwitches.get(dpid);
     }
 
+    @Override
+    public int getDispatchQueueDepth(Dpid dpid) {
+        return ctrl.getDispatchQueueDepth(dpid);
+    }
+
+    @Override
+    public long getDispatchDropCount(Dpid dpid) {
+        return ctrl.getDispatchDropCount(dpid);
+    }
+
     @Override
     public OpenFlowSwitch getMasterSwitch(Dpid dpid) {
         return activeMasterSwitches.get(dpid);
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.openflow.ExecutorServiceAdapter;
+import org.onosproject.openflow.OfMessageAdapter;
+import org.onosproject.openflow.controller.Dpid;
+import org.projectfloodlight.openflow.protocol.OFMessage;
+import org.projectfloodlight.openflow.protocol.OFType;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Tests for the shared OpenFlow message dispatcher.
+ */
+public class OFMessageDispatcherTest {
+
+    private static final Dpid DPID = new Dpid(1);
+
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private final List<OFMessage> handled = new ArrayList<>();
+    private EmbeddedChannel channel;
+    private OFMessageDispatcher dispatcher;
+
+    /**
+     * Executor running the submitted tasks on demand.
+     */
+    private class ManualExecutor extends ExecutorServiceAdapter {
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+    }
+
+    private static OFMessage message() {
+        return new OfMessageAdapter(OFType.ECHO_REQUEST);
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+            channel.runPendingTasks();
+        }
+    }
+
+    @Before
+    public void setUp() {
+        channel = new EmbeddedChannel();
+        dispatcher = new OFMessageDispatcher(new ManualExecutor(), 4, 2);
+    }
+
+    /**
+     * Tests the ring buffer capacity, ordering and size.
+     */
+    @Test
+    public void testRingBuffer() {
+        MpscRingBuffer<Integer> ring = new MpscRingBuffer<>(3);
+        assertThat(ring.capacity(), is(4));
+        assertThat(ring.isEmpty(), is(true));
+        for (int i = 0; i < 4; i++) {
+            assertThat(ring.offer(i), is(true));
+        }
+        assertThat(ring.offer(4), is(false));
+        assertThat(ring.size(), is(4));
+        assertThat(ring.poll(), is(0));
+        assertThat(ring.offer(4), is(true));
+        for (int i = 1; i < 5; i++) {
+            assertThat(ring.poll(), is(i));
+        }
+        assertThat(ring.poll(), is(nullValue()));
+        assertThat(ring.isEmpty(), is(true));
+    }
+
+    /**
+     * Tests that messages are handled in order, in batches, with reads
+     * suspended while the channel queue is full.
+     */
+    @Test
+    public void testDispatchOrder() {
+        OFMessageDispatcher.ChannelQueue queue = dispatcher.register(DPID, channel, handled::add);
+        List<OFMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            OFMessage message = message();
+            messages.add(message);
+            queue.dispatch(message);
+        }
+        assertThat(tasks.size(), is(1));
+        assertThat(channel.config().isAutoRead(), is(false));
+        assertThat(dispatcher.queueDepth(DPID), is(4));
+
+        tasks.poll().run();
+        assertThat(handled.size(), is(2));
+
+        runTasks();
+        assertThat(handled, is(messages));
+        assertThat(channel.config().isAutoRead(), is(true));
+        assertThat(dispatcher.queueDepth(DPID), is(0));
+        assertThat(dispatcher.dropCount(DPID), is(0L));
+    }
+
+    /**
+     * Tests that closing a channel queue discards and counts the messages
+     * not yet handled.
+     */
+    @Test
+    public void testClose() {
+        OFMessageDispatcher.ChannelQueue queue = dispatcher.register(DPID, channel, handled::add);
+        for (int i = 0; i < 6; i++) {
+            queue.dispatch(message());
+        }
+        queue.close();
+        runTasks();
+
+        assertThat(handled.size(), is(0));
+        assertThat(dispatcher.dropCount(DPID), is(6L));
+        assertThat(dispatcher.queueDepth(DPID), is(0));
+    }
+}
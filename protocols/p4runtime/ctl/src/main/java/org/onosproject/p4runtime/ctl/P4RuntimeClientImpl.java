@@ -16,6 +16,8 @@
 
 package org.onosproject.p4runtime.ctl;
 
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.Histogram;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
@@ -50,6 +52,7 @@ import org.onosproject.net.pi.runtime.PiMeterCellId;
 import org.onosproject.net.pi.runtime.PiMulticastGroupEntry;
 import org.onosproject.net.pi.runtime.PiPacketOperation;
 import org.onosproject.net.pi.runtime.PiTableEntry;
+import org.onosproject.net.pi.runtime.PiTableEntryHandle;
 import org.onosproject.net.pi.service.PiPipeconfService;
 import org.onosproject.p4runtime.api.P4RuntimeClient;
 import org.onosproject.p4runtime.api.P4RuntimeEvent;
@@ -85,15 +88,21 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -120,6 +129,9 @@ final class P4RuntimeClientImpl implements P4RuntimeClient {
     // Timeout in seconds to obtain the request lock.
     private static final int LOCK_TIMEOUT = 60;
 
+    // Maximum number of table entry updates coalesced in a write request.
+    private static final int MAX_COALESCED_UPDATES = 1000;
+
     private static final Metadata.Key<com.google.rpc.Status> STATUS_DETAILS_KEY =
             Metadata.Key.of("grpc-status-details-bin",
                             ProtoLiteUtils.metadataMarshaller(
@@ -134,7 +146,18 @@ final class P4RuntimeClientImpl implements P4RuntimeClient {
 
     private final Logger log = getLogger(getClass());
 
-    private final Lock requestLock = new ReentrantLock();
+    // Held exclusively by requests changing the state of the whole client,
+    // such as arbitration and pipeline config, and shared by all others.
+    private final ReadWriteLock requestLock = new ReentrantReadWriteLock();
+    // Keeps write requests in the order they were submitted, while reads
+    // proceed concurrently.
+    private final Lock writeLock = new ReentrantLock(true);
+
+    private final Queue<PendingTableWrite> pendingTableWrites = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean tableWritesScheduled = new AtomicBoolean(false);
+
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+    private final Histogram requestLatency = new Histogram(new ExponentiallyDecayingReservoir());
     private final Context.CancellableContext cancellableContext =
             Context.current().withCancellation();
 
@@ -173,27 +196,62 @@ final class P4RuntimeClientImpl implements P4RuntimeClient {
     }
 
     /**
-     * Submits a task for async execution via the given executor. All tasks
-     * submitted with this method will be executed sequentially.
+     * Kinds of requests, determining which requests may be executed
+     * concurrently.
+     */
+    private enum RequestType {
+        // Executed alone, e.g. arbitration and pipeline config.
+        EXCLUSIVE,
+        // Executed in submission order with respect to other writes, and
+        // concurrently with reads.
+        WRITE,
+        // Executed concurrently with any other read or write.
+        READ
+    }
+
+    /**
+     * Submits a task for async execution via the given executor, tracking it
+     * as a request in flight from submission to completion.
      */
     private <U> CompletableFuture<U> supplyWithExecutor(
-            Supplier<U> supplier, String opDescription, Executor executor) {
+            Supplier<U> supplier, String opDescription, Executor executor,
+            RequestType type) {
+        final long start = requestStarted();
+        final CompletableFuture<U> future;
+        try {
+            future = execute(supplier, opDescription, executor, type);
+        } catch (RejectedExecutionException e) {
+            requestEnded(start);
+            throw e;
+        }
+        future.whenComplete((r, ex) -> requestEnded(start));
+        return future;
+    }
+
+    /**
+     * Submits a task for async execution via the given executor. Exclusive
+     * tasks are executed sequentially with respect to all other tasks, write
+     * tasks with respect to other writes, while read tasks are executed
+     * concurrently.
+     */
+    private <U> CompletableFuture<U> execute(
+            Supplier<U> supplier, String opDescription, Executor executor,
+            RequestType type) {
         return CompletableFuture.supplyAsync(() -> {
-            // TODO: explore a more relaxed locking strategy.
+            final Lock lock = type == RequestType.EXCLUSIVE
+                    ? requestLock.writeLock() : requestLock.readLock();
+            acquire(lock, opDescription);
             try {
-                if (!requestLock.tryLock(LOCK_TIMEOUT, TimeUnit.SECONDS)) {
-                    log.error("LOCK TIMEOUT! This is likely a deadlock, "
-                                      + "please debug (executing {})",
-                              opDescription);
-                    throw new IllegalThreadStateException("Lock timeout");
+                if (type == RequestType.WRITE) {
+                    acquire(writeLock, opDescription);
+                }
+                try {
+                    return supplier.get();
+                } finally {
+                    if (type == RequestType.WRITE) {
+                        writeLock.unlock();
+                    }
                 }
-            } catch (InterruptedException e) {
-                log.warn("Thread interrupted while waiting for lock (executing {})",
-                         opDescription);
-                throw new IllegalStateException(e);
-            }
-            try {
-                return supplier.get();
             } catch (StatusRuntimeException ex) {
                 log.warn("Unable to execute {} on {}: {}",
                          opDescription, deviceId, ex.toString());
@@ -203,7 +261,7 @@ final class P4RuntimeClientImpl implements P4RuntimeClient {
                           deviceId, opDescription, ex);
                 throw ex;
             } finally {
-                requestLock.unlock();
+                lock.unlock();
             }
         }, executor);
     }
@@ -214,26 +272,79 @@ final class P4RuntimeClientImpl implements P4RuntimeClient {
      * RPC is automatically cancelled.
      */
     private <U> CompletableFuture<U> supplyInContext(
-            Supplier<U> supplier, String opDescription) {
-        return supplyWithExecutor(supplier, opDescription, contextExecutor);
+            Supplier<U> supplier, String opDescription, RequestType type) {
+        return supplyWithExecutor(supplier, opDescription, contextExecutor, type);
+    }
+
+    private void acquire(Lock lock, String opDescription) {
+        try {
+            if (!lock.tryLock(LOCK_TIMEOUT, TimeUnit.SECONDS)) {
+                log.error("LOCK TIMEOUT! This is likely a deadlock, "
+                                  + "please debug (executing {})",
+                          opDescription);
+                throw new IllegalThreadStateException("Lock timeout");
+            }
+        } catch (InterruptedException e) {
+            log.warn("Thread interrupted while waiting for lock (executing {})",
+                     opDescription);
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Tracks a new request in flight, returning the time it was submitted.
+    private long requestStarted() {
+        inFlightRequests.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    // Tracks the completion of a request submitted at the given time.
+    private void requestEnded(long start) {
+        requestLatency.update(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        inFlightRequests.decrementAndGet();
+    }
+
+    // Returns true if the client has been shut down.
+    private boolean isClosed() {
+        return cancellableContext.isCancelled() || executorService.isShutdown();
+    }
+
+    /**
+     * Returns the number of requests of this client currently queued or being
+     * executed.
+     *
+     * @return number of requests in flight
+     */
+    int inFlightRequests() {
+        return inFlightRequests.get();
+    }
+
+    /**
+     * Returns the histogram of the time of the requests of this client from
+     * submission to completion, in microseconds.
+     *
+     * @return request latency histogram
+     */
+    Histogram requestLatency() {
+        return requestLatency;
     }
 
     @Override
     public CompletableFuture<Boolean> startStreamChannel() {
         return supplyInContext(() -> sendMasterArbitrationUpdate(false),
-                               "start-initStreamChannel");
+                               "start-initStreamChannel", RequestType.EXCLUSIVE);
     }
 
     @Override
     public CompletableFuture<Void> shutdown() {
         return supplyWithExecutor(this::doShutdown, "shutdown",
-                                  SharedExecutors.getPoolThreadExecutor());
+                                  SharedExecutors.getPoolThreadExecutor(),
+                                  RequestType.EXCLUSIVE);
     }
 
     @Override
     public CompletableFuture<Boolean> becomeMaster() {
         return supplyInContext(() -> sendMasterArbitrationUpdate(true),
-                               "becomeMaster");
+                               "becomeMaster", RequestType.EXCLUSIVE);
     }
 
     @Override
@@ -248,7 +359,8 @@ final class P4RuntimeClientImpl implements P4RuntimeClient {
 
     @Override
     public CompletableFuture<Boolean> setPipelineConfig(PiPipeconf pipeconf, ByteBuffer deviceData) {
-        return supplyInContext(() -> doSetPipelineConfig(pipeconf, deviceData), "setPipelineConfig");
+        return supplyInContext(() -> doSetPipelineConfig(pipeconf, deviceData), "setPipelineConfig",
+                               RequestType.EXCLUSIVE);
     }
 
     @Override
@@ -259,39 +371,55 @@ final class P4RuntimeClientImpl implements P4RuntimeClient {
     @Override
     public CompletableFuture<Boolean> writeTableEntries(List<PiTableEntry> piTableEntries,
                                                         WriteOperationType opType, PiPipeconf pipeconf) {
-        return supplyInContext(() -> doWriteTableEntries(piTableEntries, opType, pipeconf),
-                               "writeTableEntries-" + opType.name());
+        if (piTableEntries.isEmpty()) {
+            return CompletableFuture.completedFuture(true);
+        }
+        final long start = requestStarted();
+        PendingTableWrite write = new PendingTableWrite(piTableEntries, opType, pipeconf);
+        write.future.whenComplete((r, ex) -> requestEnded(start));
+        pendingTableWrites.add(write);
+        scheduleTableWrites();
+        return write.future;
     }
 
     @Override
     public CompletableFuture<List<PiTableEntry>> dumpTables(
             Set<PiTableId> piTableIds, boolean defaultEntries, PiPipeconf pipeconf) {
         return supplyInContext(() -> doDumpTables(piTableIds, defaultEntries, pipeconf),
-                               "dumpTables-" + piTableIds.hashCode());
+                               "dumpTables-" + piTableIds.hashCode(), RequestType.READ);
     }
 
     @Override
     public CompletableFuture<List<PiTableEntry>> dumpAllTables(PiPipeconf pipeconf) {
-        return supplyInContext(() -> doDumpTables(null, false, pipeconf), "dumpAllTables");
+        return supplyInContext(() -> doDumpTables(null, false, pipeconf), "dumpAllTables",
+                               RequestType.READ);
     }
 
     @Override
     public CompletableFuture<Boolean> packetOut(PiPacketOperation packet, PiPipeconf pipeconf) {
-        return supplyInContext(() -> doPacketOut(packet, pipeconf), "packetOut");
+        // Packet-outs are sent on the stream channel without blocking, hence
+        // they do not wait for the requests in progress.
+        try {
+            return CompletableFuture.completedFuture(doPacketOut(packet, pipeconf));
+        } catch (Throwable ex) {
+            log.error("Exception in client of {}, executing packetOut", deviceId, ex);
+            return Tools.exceptionalFuture(ex);
+        }
     }
 
     @Override
     public CompletableFuture<List<PiCounterCellData>> readCounterCells(Set<PiCounterCellId> cellIds,
                                                                        PiPipeconf pipeconf) {
         return supplyInContext(() -> doReadCounterCells(Lists.newArrayList(cellIds), pipeconf),
-                               "readCounterCells-" + cellIds.hashCode());
+                               "readCounterCells-" + cellIds.hashCode(), RequestType.READ);
     }
 
     @Override
     public CompletableFuture<List<PiCounterCellData>> readAllCounterCells(Set<PiCounterId> counterIds,
                                                                           PiPipeconf pipeconf) {
         return supplyInContext(() -> doReadAllCounterCells(Lists.newArrayList(counterIds), pipeconf),
-                               "readAllCounterCells-" + counterIds.hashCode());
+                               "readAllCounterCells-" + counterIds.hashCode(),
+                               RequestType.READ);
     }
 
     @Override
@@ -299,7 +427,8 @@ final class P4RuntimeClientImpl implements P4RuntimeClient {
                                                               WriteOperationType opType,
                                                               PiPipeconf pipeconf) {
         return supplyInContext(() -> doWriteActionGroupMembers(members, opType, pipeconf),
-                               "writeActionGroupMembers-" + opType.name());
+                               "writeActionGroupMembers-" + opType.name(),
+                               RequestType.WRITE);
     }
 
 
@@ -308,21 +437,22 @@ final class P4RuntimeClientImpl implements P4RuntimeClient {
                                                        WriteOperationType opType,
                                                        PiPipeconf pipeconf) {
         return supplyInContext(() -> doWriteActionGroup(group, opType, pipeconf),
-                               "writeActionGroup-" + opType.name());
+                               "writeActionGroup-" + opType.name(), RequestType.WRITE);
     }
 
     @Override
     public CompletableFuture<List<PiActionGroup>> dumpGroups(PiActionProfileId actionProfileId,
                                                              PiPipeconf pipeconf) {
         return supplyInContext(() -> doDumpGroups(actionProfileId, pipeconf),
-                               "dumpGroups-" + actionProfileId.id());
+                               "dumpGroups-" + actionProfileId.id(), RequestType.READ);
     }
 
     @Override
     public CompletableFuture<List<PiActionGroupMemberId>> dumpActionProfileMemberIds(
             PiActionProfileId actionProfileId, PiPipeconf pipeconf) {
         return supplyInContext(() -> doDumpActionProfileMemberIds(actionProfileId, pipeconf),
-                               "dumpActionProfileMemberIds-" + actionProfileId.id());
+                               "dumpActionProfileMemberIds-" + actionProfileId.id(),
+                               RequestType.READ);
     }
 
     @Override
@@ -332,14 +462,15 @@ final class P4RuntimeClientImpl implements P4RuntimeClient {
             PiPipeconf pipeconf) {
         return supplyInContext(
                 () -> doRemoveActionProfileMembers(actionProfileId, memberIds, pipeconf),
-                "cleanupActionProfileMembers-" + actionProfileId.id());
+                "cleanupActionProfileMembers-" + actionProfileId.id(),
+                RequestType.WRITE);
     }
 
     @Override
     public CompletableFuture<Boolean> writeMeterCells(List<PiMeterCellConfig> cellIds, PiPipeconf pipeconf) {
 
         return supplyInContext(() -> doWriteMeterCells(cellIds, pipeconf),
-                               "writeMeterCells");
+                               "writeMeterCells", RequestType.WRITE);
     }
 
     @Override
@@ -347,27 +478,28 @@ final class P4RuntimeClientImpl implements P4RuntimeClient {
             List<PiMulticastGroupEntry> entries,
             WriteOperationType opType) {
         return supplyInContext(() -> doWriteMulticastGroupEntries(entries, opType),
-                               "writePreMulticastGroupEntries");
+                               "writePreMulticastGroupEntries", RequestType.WRITE);
     }
 
     @Override
     public CompletableFuture<List<PiMulticastGroupEntry>> readAllMulticastGroupEntries() {
         return supplyInContext(this::doReadAllMulticastGroupEntries,
-                               "readAllMulticastGroupEntries");
+                               "readAllMulticastGroupEntries", RequestType.READ);
     }
 
     @Override
     public CompletableFuture<List<PiMeterCellConfig>> readMeterCells(Set<PiMeterCellId> cellIds,
                                                                      PiPipeconf pipeconf) {
         return supplyInContext(() -> doReadMeterCells(Lists.newArrayList(cellIds), pipeconf),
-                               "readMeterCells-" + cellIds.hashCode());
+                               "readMeterCells-" + cellIds.hashCode(), RequestType.READ);
     }
 
     @Override
     public CompletableFuture<List<PiMeterCellConfig>> readAllMeterCells(Set<PiMeterId> meterIds,
                                                                         PiPipeconf pipeconf) {
         return supplyInContext(() -> doReadAllMeterCells(Lists.newArrayList(meterIds), pipeconf),
-                               "readAllMeterCells-" + meterIds.hashCode());
+                               "readAllMeterCells-" + meterIds.hashCode(),
+                               RequestType.READ);
     }
 
     /* Blocking method implementations below */
@@ -506,31 +638,107 @@ final class P4RuntimeClientImpl implements P4RuntimeClient {
         }
     }
 
-    private boolean doWriteTableEntries(List<PiTableEntry> piTableEntries, WriteOperationType opType,
-                                        PiPipeconf pipeconf) {
-        if (piTableEntries.size() == 0) {
-            return true;
+    /**
+     * Schedules the write of the pending table entries, unless a write is
+     * already scheduled.
+     */
+    private void scheduleTableWrites() {
+        if (!tableWritesScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        CompletableFuture<Void> writeFuture;
+        try {
+            writeFuture = execute(this::doWritePendingTableEntries, "writeTableEntries",
+                                  contextExecutor, RequestType.WRITE);
+        } catch (RejectedExecutionException e) {
+            writeFuture = Tools.exceptionalFuture(e);
         }
+        writeFuture.whenComplete((r, ex) -> {
+            // Failures of a write only fail its own batch, hence an exception
+            // here means the batch could not be executed at all. Keep
+            // draining the queue, unless the client has been shut down.
+            if (ex != null && isClosed()) {
+                PendingTableWrite write;
+                while ((write = pendingTableWrites.poll()) != null) {
+                    write.future.completeExceptionally(ex);
+                }
+            }
+            tableWritesScheduled.set(false);
+            if (!pendingTableWrites.isEmpty()) {
+                scheduleTableWrites();
+            }
+        });
+    }
 
-        List<Update> updateMsgs;
+    /**
+     * Writes the pending table entries, coalescing consecutive writes of the
+     * same operation type in a single write request, as long as they do not
+     * update the same entries, as the device may apply the updates of a
+     * request in any order.
+     */
+    private Void doWritePendingTableEntries() {
+        final PendingTableWrite first = pendingTableWrites.poll();
+        if (first == null) {
+            return null;
+        }
+        final List<PendingTableWrite> batch = Lists.newArrayList(first);
+        final Set<PiTableEntryHandle> handles = Sets.newHashSet(first.handles);
+        int size = first.entries.size();
+        PendingTableWrite next;
+        while ((next = pendingTableWrites.peek()) != null
+                && next.opType == first.opType
+                && size + next.entries.size() <= MAX_COALESCED_UPDATES
+                && Collections.disjoint(handles, next.handles)) {
+            pendingTableWrites.poll();
+            batch.add(next);
+            handles.addAll(next.handles);
+            size += next.entries.size();
+        }
         try {
-            updateMsgs = TableEntryEncoder.encode(piTableEntries, pipeconf)
-                    .stream()
-                    .map(tableEntryMsg ->
-                                 Update.newBuilder()
-                                         .setEntity(Entity.newBuilder()
-                                                            .setTableEntry(tableEntryMsg)
-                                                            .build())
-                                         .setType(UPDATE_TYPES.get(opType))
-                                         .build())
-                    .collect(Collectors.toList());
-        } catch (EncodeException e) {
-            log.error("Unable to encode table entries, aborting {} operation: {}",
-                      opType.name(), e.getMessage());
-            return false;
+            doWriteTableEntries(batch, first.opType);
+        } catch (Throwable ex) {
+            // Fail only this batch, the following writes are still executed.
+            log.error("Exception in client of {}, executing writeTableEntries",
+                      deviceId, ex);
+            batch.forEach(write -> write.future.completeExceptionally(ex));
+        }
+        return null;
+    }
+
+    private void doWriteTableEntries(List<PendingTableWrite> batch, WriteOperationType opType) {
+        final List<Update> updateMsgs = Lists.newArrayList();
+        final List<PiTableEntry> piTableEntries = Lists.newArrayList();
+        final List<PendingTableWrite> encodedWrites = Lists.newArrayList();
+        for (PendingTableWrite write : batch) {
+            try {
+                updateMsgs.addAll(TableEntryEncoder.encode(write.entries, write.pipeconf)
+                        .stream()
+                        .map(tableEntryMsg ->
+                                     Update.newBuilder()
+                                             .setEntity(Entity.newBuilder()
+                                                                .setTableEntry(tableEntryMsg)
+                                                                .build())
+                                             .setType(UPDATE_TYPES.get(opType))
+                                             .build())
+                        .collect(Collectors.toList()));
+            } catch (EncodeException e) {
+                log.error("Unable to encode table entries, aborting {} operation: {}",
+                          opType.name(), e.getMessage());
+                write.future.complete(false);
+                continue;
+            }
+            piTableEntries.addAll(write.entries);
+            encodedWrites.add(write);
+        }
+        if (encodedWrites.isEmpty()) {
+            return;
         }
 
-        return write(updateMsgs, piTableEntries, opType, "table entry");
+        final Set<PiTableEntry> written = Sets.newIdentityHashSet();
+        written.addAll(writeAndReturnSuccessEntities(
+                updateMsgs, piTableEntries, opType, "table entry"));
+        encodedWrites.forEach(write -> write.future.complete(
+                write.entries.stream().allMatch(written::contains)));
     }
 
     private List<PiTableEntry> doDumpTables(
@@ -1301,6 +1509,29 @@ final class P4RuntimeClientImpl implements P4RuntimeClient {
                         .array());
     }
 
+    /**
+     * Table entries waiting to be written, with the future completed once
+     * they are.
+     */
+    private final class PendingTableWrite {
+
+        private final List<PiTableEntry> entries;
+        private final WriteOperationType opType;
+        private final PiPipeconf pipeconf;
+        private final Set<PiTableEntryHandle> handles;
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+        private PendingTableWrite(List<PiTableEntry> entries, WriteOperationType opType,
+                                  PiPipeconf pipeconf) {
+            this.entries = entries;
+            this.opType = opType;
+            this.pipeconf = pipeconf;
+            this.handles = entries.stream()
+                    .map(entry -> PiTableEntryHandle.of(deviceId, entry))
+                    .collect(Collectors.toSet());
+        }
+    }
+
     /**
      * A manager for the P4Runtime stream channel that opportunistically creates
      * new stream RCP stubs (e.g. when one fails because of errors) and posts
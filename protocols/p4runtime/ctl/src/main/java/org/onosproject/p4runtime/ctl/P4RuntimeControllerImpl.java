@@ -16,16 +16,21 @@
 
 package org.onosproject.p4runtime.ctl;
 
+import com.codahale.metrics.Gauge;
 import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.Striped;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
 import io.grpc.netty.NettyChannelBuilder;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.apache.felix.scr.annotations.ReferencePolicy;
 import org.apache.felix.scr.annotations.Service;
 import org.onosproject.event.AbstractListenerManager;
 import org.onosproject.grpc.api.GrpcChannelId;
@@ -65,6 +70,10 @@ public class P4RuntimeControllerImpl
     private static final int MAX_INBOUND_MSG_SIZE = 256; // Megabytes.
     private static final int MEGABYTES = 1024 * 1024;
 
+    private static final String METRICS_COMPONENT = "P4RuntimeClient";
+    private static final String IN_FLIGHT_REQUESTS = "inFlightRequests";
+    private static final String REQUEST_LATENCY = "requestLatency";
+
     private final Logger log = getLogger(getClass());
 
     private final Map<DeviceId, ClientKey> clientKeys = Maps.newHashMap();
@@ -83,6 +92,10 @@ public class P4RuntimeControllerImpl
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     private StorageService storageService;
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL_UNARY,
+            policy = ReferencePolicy.DYNAMIC)
+    protected volatile MetricsService metricsService;
+
     @Activate
     public void activate() {
         eventDispatcher.addSink(P4RuntimeEvent.class, listenerRegistry);
@@ -157,8 +170,9 @@ public class P4RuntimeControllerImpl
             return false;
         }
 
-        P4RuntimeClient client = new P4RuntimeClientImpl(
+        P4RuntimeClientImpl client = new P4RuntimeClientImpl(
                 clientKey.deviceId(), clientKey.p4DeviceId(), channel, this);
+        registerClientMetrics(deviceId, client);
 
         clientKeys.put(clientKey.deviceId(), clientKey);
         clients.put(clientKey, client);
@@ -195,6 +209,7 @@ public class P4RuntimeControllerImpl
         if (clientKeys.containsKey(deviceId)) {
             final ClientKey clientKey = clientKeys.get(deviceId);
             clients.get(clientKey).shutdown();
+            removeClientMetrics(deviceId);
             grpcController.disconnectChannel(channelIds.get(deviceId));
             clientKeys.remove(deviceId);
             clients.remove(clientKey);
@@ -203,6 +218,30 @@ public class P4RuntimeControllerImpl
         return null;
     }
 
+    // Exposes the number of requests in flight and the request latency of
+    // the client of the given device, if the metrics service is available.
+    private void registerClientMetrics(DeviceId deviceId, P4RuntimeClientImpl client) {
+        MetricsService service = metricsService;
+        if (service != null) {
+            MetricsComponent component = service.registerComponent(METRICS_COMPONENT);
+            MetricsFeature feature = component.registerFeature(deviceId.toString());
+            service.registerMetric(component, feature, IN_FLIGHT_REQUESTS,
+                                   (Gauge<Integer>) client::inFlightRequests);
+            service.registerMetric(component, feature, REQUEST_LATENCY,
+                                   client.requestLatency());
+        }
+    }
+
+    private void removeClientMetrics(DeviceId deviceId) {
+        MetricsService service = metricsService;
+        if (service != null) {
+            MetricsComponent component = service.registerComponent(METRICS_COMPONENT);
+            MetricsFeature feature = component.registerFeature(deviceId.toString());
+            service.removeMetric(component, feature, IN_FLIGHT_REQUESTS);
+            service.removeMetric(component, feature, REQUEST_LATENCY);
+        }
+    }
+
     @Override
     public boolean hasClient(DeviceId deviceId) {
         return clientKeys.containsKey(deviceId);
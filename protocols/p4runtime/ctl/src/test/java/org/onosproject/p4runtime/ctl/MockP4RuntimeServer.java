@@ -38,6 +38,7 @@ import java.util.concurrent.atomic.AtomicLong;
 public class MockP4RuntimeServer extends P4RuntimeGrpc.P4RuntimeImplBase {
     private CompletableFuture<Void> completeLock;
     private AtomicLong counter;
+    private volatile CompletableFuture<Void> writeBarrier;
 
     // Requests
     private List<WriteRequest> writeReqs;
@@ -58,6 +59,16 @@ public class MockP4RuntimeServer extends P4RuntimeGrpc.P4RuntimeImplBase {
         return completeLock;
     }
 
+    /**
+     * Holds the response to the write requests received from now on until
+     * the given future is completed.
+     *
+     * @param barrier future releasing the write requests
+     */
+    public void blockWritesUntil(CompletableFuture<Void> barrier) {
+        writeBarrier = barrier;
+    }
+
     private void complete() {
         if (counter.decrementAndGet() == 0) {
             completeLock.complete(null);
@@ -80,6 +91,12 @@ public class MockP4RuntimeServer extends P4RuntimeGrpc.P4RuntimeImplBase {
     public void write(WriteRequest request, StreamObserver<WriteResponse> responseObserver) {
         writeReqs.add(request);
         complete();
+        CompletableFuture<Void> barrier = writeBarrier;
+        if (barrier != null) {
+            barrier.join();
+        }
+        responseObserver.onNext(WriteResponse.getDefaultInstance());
+        responseObserver.onCompleted();
     }
 
     @Override
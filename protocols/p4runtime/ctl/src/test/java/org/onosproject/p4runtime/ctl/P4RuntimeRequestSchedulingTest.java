@@ -0,0 +1,274 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.p4runtime.ctl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.internal.AbstractServerImplBuilder;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.pi.model.DefaultPiPipeconf;
+import org.onosproject.net.pi.model.PiActionId;
+import org.onosproject.net.pi.model.PiActionParamId;
+import org.onosproject.net.pi.model.PiMatchFieldId;
+import org.onosproject.net.pi.model.PiPipeconf;
+import org.onosproject.net.pi.model.PiPipeconfId;
+import org.onosproject.net.pi.model.PiPipelineModel;
+import org.onosproject.net.pi.model.PiTableId;
+import org.onosproject.net.pi.runtime.PiAction;
+import org.onosproject.net.pi.runtime.PiActionParam;
+import org.onosproject.net.pi.runtime.PiMatchKey;
+import org.onosproject.net.pi.runtime.PiTableEntry;
+import org.onosproject.net.pi.runtime.PiTernaryFieldMatch;
+import p4.v1.P4RuntimeOuterClass.ReadResponse;
+import p4.v1.P4RuntimeOuterClass.WriteRequest;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.easymock.EasyMock.niceMock;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.onlab.util.ImmutableByteSequence.copyFrom;
+import static org.onlab.util.ImmutableByteSequence.ofOnes;
+import static org.onlab.util.ImmutableByteSequence.ofZeros;
+import static org.onosproject.net.pi.model.PiPipeconf.ExtensionType.P4_INFO_TEXT;
+import static org.onosproject.p4runtime.api.P4RuntimeClient.WriteOperationType.INSERT;
+import static org.onosproject.p4runtime.api.P4RuntimeClient.WriteOperationType.MODIFY;
+
+/**
+ * Tests for the scheduling of the P4Runtime client requests.
+ */
+public class P4RuntimeRequestSchedulingTest {
+    private static final String PIPECONF_ID = "p4runtime-mock-pipeconf";
+    private static final String P4INFO_PATH = "/test.p4info";
+    private static final PiPipeconf PIPECONF = buildPipeconf();
+    private static final PiTableId TABLE_ID = PiTableId.of("table0");
+    private static final PiMatchFieldId ETH_DST_FIELD_ID = PiMatchFieldId.of("hdr.ethernet.dstAddr");
+    private static final PiMatchFieldId ETH_SRC_FIELD_ID = PiMatchFieldId.of("hdr.ethernet.srcAddr");
+    private static final PiMatchFieldId IN_PORT_FIELD_ID = PiMatchFieldId.of("standard_metadata.ingress_port");
+    private static final PiMatchFieldId ETH_TYPE_FIELD_ID = PiMatchFieldId.of("hdr.ethernet.etherType");
+    private static final PiActionId EGRESS_PORT_ACTION_ID = PiActionId.of("set_egress_port");
+    private static final PiActionParamId PORT_PARAM_ID = PiActionParamId.of("port");
+    private static final DeviceId DEVICE_ID = DeviceId.deviceId("device:p4runtime:1");
+    private static final int P4_DEVICE_ID = 1;
+    private static final String GRPC_SERVER_NAME = "P4RuntimeRequestSchedulingTest";
+    private static final long DEFAULT_TIMEOUT_TIME = 10;
+    private static final long BLOCKED_TIMEOUT_MILLIS = 200;
+
+    private P4RuntimeClientImpl client;
+    private P4RuntimeControllerImpl controller;
+    private CompletableFuture<Void> writeBarrier;
+    private static MockP4RuntimeServer p4RuntimeServerImpl = new MockP4RuntimeServer();
+    private static Server grpcServer;
+    private static ManagedChannel grpcChannel;
+
+    private static PiPipeconf buildPipeconf() {
+        final URL p4InfoUrl = P4RuntimeRequestSchedulingTest.class.getResource(P4INFO_PATH);
+        return DefaultPiPipeconf.builder()
+                .withId(new PiPipeconfId(PIPECONF_ID))
+                .withPipelineModel(EasyMock.niceMock(PiPipelineModel.class))
+                .addExtension(P4_INFO_TEXT, p4InfoUrl)
+                .build();
+    }
+
+    private static PiTableEntry tableEntry(short inPort, short outPort) {
+        return PiTableEntry.builder()
+                .forTable(TABLE_ID)
+                .withMatchKey(PiMatchKey.builder()
+                                      .addFieldMatch(new PiTernaryFieldMatch(
+                                              ETH_DST_FIELD_ID, ofZeros(6), ofOnes(6)))
+                                      .addFieldMatch(new PiTernaryFieldMatch(
+                                              ETH_SRC_FIELD_ID, ofZeros(6), ofOnes(6)))
+                                      .addFieldMatch(new PiTernaryFieldMatch(
+                                              IN_PORT_FIELD_ID, copyFrom(inPort), ofOnes(2)))
+                                      .addFieldMatch(new PiTernaryFieldMatch(
+                                              ETH_TYPE_FIELD_ID, copyFrom((short) 0x0800), ofOnes(2)))
+                                      .build())
+                .withAction(PiAction.builder()
+                                    .withId(EGRESS_PORT_ACTION_ID)
+                                    .withParameter(new PiActionParam(PORT_PARAM_ID, copyFrom(outPort)))
+                                    .build())
+                .withPriority(1)
+                .build();
+    }
+
+    @BeforeClass
+    public static void globalSetup() throws IOException {
+        AbstractServerImplBuilder builder = InProcessServerBuilder
+                .forName(GRPC_SERVER_NAME).directExecutor();
+        builder.addService(p4RuntimeServerImpl);
+        grpcServer = builder.build().start();
+        grpcChannel = InProcessChannelBuilder.forName(GRPC_SERVER_NAME)
+                .directExecutor()
+                .build();
+    }
+
+    @AfterClass
+    public static void globalTearDown() {
+        grpcServer.shutdown();
+        grpcChannel.shutdown();
+    }
+
+    @Before
+    public void setup() {
+        controller = niceMock(P4RuntimeControllerImpl.class);
+        client = new P4RuntimeClientImpl(DEVICE_ID, P4_DEVICE_ID,
+                                         grpcChannel,
+                                         controller);
+        // Wait for the arbitration, so that only the requests of the test are
+        // in flight.
+        client.becomeMaster().handle((r, ex) -> null).join();
+        writeBarrier = new CompletableFuture<>();
+    }
+
+    @After
+    public void tearDown() {
+        writeBarrier.complete(null);
+        p4RuntimeServerImpl.blockWritesUntil(null);
+        client.shutdown();
+    }
+
+    /**
+     * Writes the given entry and waits for the device to receive it, holding
+     * the response until the write barrier is completed.
+     */
+    private CompletableFuture<Boolean> writeBlocked(PiTableEntry entry) throws Exception {
+        CompletableFuture<Void> received = p4RuntimeServerImpl.expectRequests(1);
+        p4RuntimeServerImpl.blockWritesUntil(writeBarrier);
+        CompletableFuture<Boolean> future = client.writeTableEntries(
+                ImmutableList.of(entry), INSERT, PIPECONF);
+        received.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS);
+        return future;
+    }
+
+    private static void assertBlocked(CompletableFuture<?> future) throws Exception {
+        try {
+            future.get(BLOCKED_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            fail("Request should wait for the pending write");
+        } catch (TimeoutException e) {
+            // Expected, the request is blocked.
+        }
+    }
+
+    @Test
+    public void testCoalescedTableWrites() throws Exception {
+        CompletableFuture<Boolean> first = writeBlocked(tableEntry((short) 1, (short) 1));
+
+        // Queued while the first write is in progress.
+        CompletableFuture<Boolean> second = client.writeTableEntries(
+                ImmutableList.of(tableEntry((short) 2, (short) 1)), INSERT, PIPECONF);
+        CompletableFuture<Boolean> third = client.writeTableEntries(
+                ImmutableList.of(tableEntry((short) 3, (short) 1),
+                                 tableEntry((short) 4, (short) 1)), INSERT, PIPECONF);
+        // Queued writes are tracked as in flight.
+        assertEquals(3, client.inFlightRequests());
+
+        CompletableFuture<Void> complete = p4RuntimeServerImpl.expectRequests(1);
+        p4RuntimeServerImpl.blockWritesUntil(null);
+        writeBarrier.complete(null);
+        complete.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS);
+
+        assertTrue(first.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS));
+        assertTrue(second.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS));
+        assertTrue(third.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS));
+        List<WriteRequest> writeReqs = p4RuntimeServerImpl.getWriteReqs();
+        assertEquals(1, writeReqs.size());
+        assertEquals(3, writeReqs.get(0).getUpdatesCount());
+    }
+
+    @Test
+    public void testSameEntryWritesNotCoalesced() throws Exception {
+        CompletableFuture<Boolean> first = writeBlocked(tableEntry((short) 1, (short) 1));
+
+        // Two updates of the same entry must be sent in order, in separate
+        // requests.
+        CompletableFuture<Boolean> second = client.writeTableEntries(
+                ImmutableList.of(tableEntry((short) 2, (short) 1)), MODIFY, PIPECONF);
+        CompletableFuture<Boolean> third = client.writeTableEntries(
+                ImmutableList.of(tableEntry((short) 2, (short) 2)), MODIFY, PIPECONF);
+
+        CompletableFuture<Void> complete = p4RuntimeServerImpl.expectRequests(2);
+        p4RuntimeServerImpl.blockWritesUntil(null);
+        writeBarrier.complete(null);
+        complete.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS);
+
+        assertTrue(first.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS));
+        assertTrue(second.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS));
+        assertTrue(third.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS));
+        List<WriteRequest> writeReqs = p4RuntimeServerImpl.getWriteReqs();
+        assertEquals(2, writeReqs.size());
+        assertEquals(1, writeReqs.get(0).getUpdatesCount());
+        assertEquals(1, writeReqs.get(1).getUpdatesCount());
+    }
+
+    @Test
+    public void testReadDuringWrite() throws Exception {
+        CompletableFuture<Boolean> write = writeBlocked(tableEntry((short) 1, (short) 1));
+
+        p4RuntimeServerImpl.willReturnReadResult(ImmutableList.of(ReadResponse.getDefaultInstance()));
+        CompletableFuture<List<PiTableEntry>> read = client.dumpTables(
+                ImmutableSet.of(TABLE_ID), false, PIPECONF);
+        // Reads are not blocked by the write in progress.
+        assertTrue(read.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS).isEmpty());
+        assertFalse(write.isDone());
+
+        writeBarrier.complete(null);
+        assertTrue(write.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testWriteBlocksWrites() throws Exception {
+        CompletableFuture<Boolean> first = writeBlocked(tableEntry((short) 1, (short) 1));
+        CompletableFuture<Boolean> second = client.writeActionGroupMembers(
+                ImmutableList.of(), INSERT, PIPECONF);
+
+        assertBlocked(second);
+
+        writeBarrier.complete(null);
+        assertTrue(first.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS));
+        second.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testExclusiveBlockedByWrite() throws Exception {
+        CompletableFuture<Boolean> write = writeBlocked(tableEntry((short) 1, (short) 1));
+        CompletableFuture<Boolean> exclusive = client.becomeMaster();
+
+        assertBlocked(exclusive);
+
+        writeBarrier.complete(null);
+        assertTrue(write.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS));
+        // The outcome of the arbitration does not matter, only that it is
+        // executed once the write is done.
+        exclusive.handle((r, ex) -> null).get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS);
+    }
+}
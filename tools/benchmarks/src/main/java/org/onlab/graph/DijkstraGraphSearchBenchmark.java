@@ -0,0 +1,134 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import com.google.common.collect.ImmutableSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of shortest path searches across a grid topology, which has
+ * many equal cost paths between opposite corners.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DijkstraGraphSearchBenchmark {
+
+    @Param({"10", "30"})
+    private int size;
+
+    private Graph<Node, Link> graph;
+    private Node corner;
+    private Node oppositeCorner;
+    private Node neighbour;
+
+    @Setup
+    public void setup() {
+        Node[][] nodes = new Node[size][size];
+        ImmutableSet.Builder<Node> vertexes = ImmutableSet.builder();
+        ImmutableSet.Builder<Link> edges = ImmutableSet.builder();
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                nodes[x][y] = new Node(x * size + y);
+                vertexes.add(nodes[x][y]);
+                if (x > 0) {
+                    edges.add(new Link(nodes[x - 1][y], nodes[x][y]));
+                    edges.add(new Link(nodes[x][y], nodes[x - 1][y]));
+                }
+                if (y > 0) {
+                    edges.add(new Link(nodes[x][y - 1], nodes[x][y]));
+                    edges.add(new Link(nodes[x][y], nodes[x][y - 1]));
+                }
+            }
+        }
+        graph = new AdjacencyListsGraph<>(vertexes.build(), edges.build());
+        corner = nodes[0][0];
+        oppositeCorner = nodes[size - 1][size - 1];
+        neighbour = nodes[0][1];
+    }
+
+    /**
+     * Searches a single shortest path between opposite corners.
+     *
+     * @return search result
+     */
+    @Benchmark
+    public GraphPathSearch.Result<Node, Link> singlePath() {
+        return new DijkstraGraphSearch<Node, Link>().search(graph, corner, oppositeCorner, null, 1);
+    }
+
+    /**
+     * Searches all shortest paths between adjacent nodes.
+     *
+     * @return search result
+     */
+    @Benchmark
+    public GraphPathSearch.Result<Node, Link> allPathsToNeighbour() {
+        return new DijkstraGraphSearch<Node, Link>()
+                .search(graph, corner, neighbour, null, GraphPathSearch.ALL_PATHS);
+    }
+
+    /**
+     * Searches the shortest paths from a corner to all other nodes.
+     *
+     * @return search result
+     */
+    @Benchmark
+    public GraphPathSearch.Result<Node, Link> allDestinations() {
+        return new DijkstraGraphSearch<Node, Link>().search(graph, corner, null, null, 1);
+    }
+
+    // Grid vertex.
+    static final class Node implements Vertex {
+        private final int id;
+
+        Node(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public int hashCode() {
+            return id;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Node && ((Node) obj).id == id;
+        }
+    }
+
+    // Directed grid edge.
+    static final class Link extends AbstractEdge<Node> {
+        Link(Node src, Node dst) {
+            super(src, dst);
+        }
+    }
+}
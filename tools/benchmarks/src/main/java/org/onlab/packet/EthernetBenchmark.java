@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the full deserialization of a TCP/IPv4 frame compared with
+ * reading the same fields through header views.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class EthernetBenchmark {
+
+    private final Deserializer<Ethernet> deserializer = Ethernet.deserializer();
+
+    private byte[] frame;
+
+    @Setup
+    public void setup() {
+        TCP tcp = new TCP();
+        tcp.setSourcePort(40000);
+        tcp.setDestinationPort(80);
+        tcp.setPayload(new Data(new byte[64]));
+
+        IPv4 ipv4 = new IPv4();
+        ipv4.setSourceAddress("10.0.0.1");
+        ipv4.setDestinationAddress("10.0.1.1");
+        ipv4.setProtocol(IPv4.PROTOCOL_TCP);
+        ipv4.setTtl((byte) 64);
+        ipv4.setPayload(tcp);
+
+        Ethernet eth = new Ethernet();
+        eth.setSourceMACAddress("00:00:00:00:00:01");
+        eth.setDestinationMACAddress("00:00:00:00:00:02");
+        eth.setEtherType(Ethernet.TYPE_IPV4);
+        eth.setPayload(ipv4);
+        frame = eth.serialize();
+    }
+
+    /**
+     * Deserializes the whole frame and reads the destination address and port.
+     *
+     * @return sum of the destination address and port
+     * @throws DeserializationException if the frame is malformed
+     */
+    @Benchmark
+    public int deserialize() throws DeserializationException {
+        Ethernet eth = deserializer.deserialize(frame, 0, frame.length);
+        IPv4 ipv4 = (IPv4) eth.getPayload();
+        TCP tcp = (TCP) ipv4.getPayload();
+        return ipv4.getDestinationAddress() + tcp.getDestinationPort();
+    }
+
+    /**
+     * Reads the destination address and port through header views.
+     *
+     * @return sum of the destination address and port
+     */
+    @Benchmark
+    public int view() {
+        IPv4View ipv4 = EthernetView.wrap(frame).ipv4();
+        return ipv4.destinationAddress() + ipv4.transport().destinationPort();
+    }
+}
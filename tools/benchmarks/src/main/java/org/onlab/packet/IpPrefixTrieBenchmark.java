@@ -0,0 +1,122 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of longest prefix match with the prefix trie, compared with
+ * probing a hash map once per prefix length, and of trie updates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class IpPrefixTrieBenchmark {
+
+    private static final int ADDRESS_COUNT = 1024;
+
+    @Param({"10000", "100000"})
+    private int prefixCount;
+
+    private IpPrefixTrie<IpPrefix> trie;
+    private Map<IpPrefix, IpPrefix> map;
+    private IpPrefix[] prefixes;
+    private IpAddress[] addresses;
+    private int nextAddress;
+    private int nextPrefix;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1);
+        trie = new IpPrefixTrie<>();
+        map = new HashMap<>();
+        prefixes = new IpPrefix[prefixCount];
+        for (int i = 0; i < prefixCount; i++) {
+            IpPrefix prefix = Ip4Prefix.valueOf(random.nextInt(), 8 + random.nextInt(25));
+            prefixes[i] = prefix;
+            trie.put(prefix, prefix);
+            map.put(prefix, prefix);
+        }
+        addresses = new IpAddress[ADDRESS_COUNT];
+        for (int i = 0; i < ADDRESS_COUNT; i++) {
+            addresses[i] = Ip4Address.valueOf(random.nextInt());
+        }
+    }
+
+    private IpAddress nextAddress() {
+        nextAddress = (nextAddress + 1) % ADDRESS_COUNT;
+        return addresses[nextAddress];
+    }
+
+    /**
+     * Finds the longest prefix matching an address with the trie.
+     *
+     * @return longest matching prefix; null if none
+     */
+    @Benchmark
+    public IpPrefix trieLongestPrefixMatch() {
+        return trie.longestPrefixMatch(nextAddress());
+    }
+
+    /**
+     * Finds the longest prefix matching an address by probing a hash map
+     * from the longest to the shortest prefix length.
+     *
+     * @return longest matching prefix; null if none
+     */
+    @Benchmark
+    public IpPrefix mapLongestPrefixMatch() {
+        IpAddress address = nextAddress();
+        for (int length = Ip4Address.BIT_LENGTH; length >= 0; length--) {
+            IpPrefix prefix = map.get(IpPrefix.valueOf(address, length));
+            if (prefix != null) {
+                return prefix;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes a prefix from the trie and puts it back.
+     *
+     * @return the prefix
+     */
+    @Benchmark
+    public IpPrefix removeAndPut() {
+        nextPrefix = (nextPrefix + 1) % prefixCount;
+        IpPrefix prefix = prefixes[nextPrefix];
+        trie.remove(prefix);
+        return trie.put(prefix, prefix);
+    }
+}
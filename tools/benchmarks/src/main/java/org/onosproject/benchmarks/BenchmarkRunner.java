@@ -0,0 +1,54 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.benchmarks;
+
+import com.google.common.collect.Lists;
+import org.openjdk.jmh.Main;
+
+import java.util.List;
+
+/**
+ * Runs the ONOS micro-benchmarks with the JMH command line.
+ * <p>
+ * Unless a result format is given, results are written in JSON to
+ * {@code jmh-result.json} in the working directory, so that the results of
+ * different commits can be compared with {@code onos-jmh-compare}.
+ * </p>
+ */
+public final class BenchmarkRunner {
+
+    private static final String RESULT_FORMAT = "-rf";
+    private static final String JSON = "json";
+
+    // Not instantiable.
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Runs the benchmarks matching the given JMH command line arguments.
+     *
+     * @param args JMH command line arguments
+     * @throws Exception if the benchmarks cannot be run
+     */
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = Lists.newArrayList(args);
+        if (!arguments.contains(RESULT_FORMAT)) {
+            arguments.add(RESULT_FORMAT);
+            arguments.add(JSON);
+        }
+        Main.main(arguments.toArray(new String[0]));
+    }
+}
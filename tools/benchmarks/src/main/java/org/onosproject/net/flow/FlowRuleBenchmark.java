@@ -0,0 +1,135 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.flow;
+
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.Ip4Address;
+import org.onlab.packet.Ip4Prefix;
+import org.onosproject.core.ApplicationId;
+import org.onosproject.core.DefaultApplicationId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of flow rule construction, hashing and lookup by flow ID.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class FlowRuleBenchmark {
+
+    private static final ApplicationId APP_ID = new DefaultApplicationId(1, "org.onosproject.benchmarks");
+    private static final DeviceId DEVICE_ID = DeviceId.deviceId("of:0000000000000001");
+
+    @Param({"10000"})
+    private int flowCount;
+
+    private FlowRule rule;
+    private FlowRule equalRule;
+    private Map<FlowId, FlowRule> rulesById;
+    private long[] flowIds;
+    private int nextRule;
+    private int nextLookup;
+
+    @Setup
+    public void setup() {
+        rule = flowRule(1);
+        equalRule = flowRule(1);
+        rulesById = new HashMap<>();
+        flowIds = new long[flowCount];
+        for (int i = 0; i < flowCount; i++) {
+            FlowRule flowRule = flowRule(i);
+            rulesById.put(flowRule.id(), flowRule);
+            flowIds[i] = flowRule.id().value();
+        }
+    }
+
+    private static FlowRule flowRule(int index) {
+        return DefaultFlowRule.builder()
+                .forDevice(DEVICE_ID)
+                .withSelector(DefaultTrafficSelector.builder()
+                                      .matchInPort(PortNumber.portNumber(1))
+                                      .matchEthType(Ethernet.TYPE_IPV4)
+                                      .matchIPDst(Ip4Prefix.valueOf(Ip4Address.valueOf(index), 32))
+                                      .build())
+                .withTreatment(DefaultTrafficTreatment.builder()
+                                       .setOutput(PortNumber.portNumber(2))
+                                       .build())
+                .withPriority(40000)
+                .fromApp(APP_ID)
+                .makePermanent()
+                .build();
+    }
+
+    /**
+     * Builds a flow rule, which includes the computation of its flow ID.
+     *
+     * @return flow rule
+     */
+    @Benchmark
+    public FlowRule buildFlowRule() {
+        return flowRule(nextRule++);
+    }
+
+    /**
+     * Hashes a flow rule.
+     *
+     * @return hash code
+     */
+    @Benchmark
+    public int flowRuleHashCode() {
+        return rule.hashCode();
+    }
+
+    /**
+     * Compares two equal but distinct flow rules.
+     *
+     * @return true
+     */
+    @Benchmark
+    public boolean flowRuleEquals() {
+        return rule.equals(equalRule);
+    }
+
+    /**
+     * Looks a flow rule up by flow ID, as the flow stores do.
+     *
+     * @return flow rule
+     */
+    @Benchmark
+    public FlowRule lookupByFlowId() {
+        nextLookup = (nextLookup + 1) % flowCount;
+        return rulesById.get(FlowId.valueOf(flowIds[nextLookup]));
+    }
+}
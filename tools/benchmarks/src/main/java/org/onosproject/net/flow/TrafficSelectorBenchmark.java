@@ -0,0 +1,154 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.flow;
+
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.IPv4;
+import org.onlab.packet.IpPrefix;
+import org.onlab.packet.MacAddress;
+import org.onlab.packet.TpPort;
+import org.onlab.packet.VlanId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.flow.criteria.Criteria;
+import org.onosproject.net.flow.instructions.Instructions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of traffic selector and treatment construction and equality,
+ * and of the criteria and instructions factories.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TrafficSelectorBenchmark {
+
+    private static final PortNumber IN_PORT = PortNumber.portNumber(1);
+    private static final PortNumber OUT_PORT = PortNumber.portNumber(2);
+    private static final MacAddress MAC = MacAddress.valueOf("00:00:00:00:00:01");
+    private static final VlanId VLAN = VlanId.vlanId((short) 10);
+    private static final IpPrefix SRC = IpPrefix.valueOf("10.0.0.0/24");
+    private static final IpPrefix DST = IpPrefix.valueOf("10.0.1.0/24");
+    private static final TpPort TCP_PORT = TpPort.tpPort(80);
+
+    private TrafficSelector selector;
+    private TrafficSelector equalSelector;
+
+    @Setup
+    public void setup() {
+        selector = selector();
+        equalSelector = selector();
+    }
+
+    private static TrafficSelector selector() {
+        return DefaultTrafficSelector.builder()
+                .matchInPort(IN_PORT)
+                .matchEthDst(MAC)
+                .matchVlanId(VLAN)
+                .matchEthType(Ethernet.TYPE_IPV4)
+                .matchIPProtocol(IPv4.PROTOCOL_TCP)
+                .matchIPSrc(SRC)
+                .matchIPDst(DST)
+                .matchTcpDst(TCP_PORT)
+                .build();
+    }
+
+    /**
+     * Builds a selector of a typical layer 2 to 4 match.
+     *
+     * @return traffic selector
+     */
+    @Benchmark
+    public TrafficSelector buildSelector() {
+        return selector();
+    }
+
+    /**
+     * Builds a treatment rewriting headers and forwarding.
+     *
+     * @return traffic treatment
+     */
+    @Benchmark
+    public TrafficTreatment buildTreatment() {
+        return DefaultTrafficTreatment.builder()
+                .setEthDst(MAC)
+                .setVlanId(VLAN)
+                .decNwTtl()
+                .setOutput(OUT_PORT)
+                .build();
+    }
+
+    /**
+     * Compares two equal but distinct selectors.
+     *
+     * @return true
+     */
+    @Benchmark
+    public boolean selectorEquals() {
+        return selector.equals(equalSelector);
+    }
+
+    /**
+     * Hashes a selector.
+     *
+     * @return hash code
+     */
+    @Benchmark
+    public int selectorHashCode() {
+        return selector.hashCode();
+    }
+
+    /**
+     * Creates criteria with the criteria factories.
+     *
+     * @param blackhole sink of the criteria
+     */
+    @Benchmark
+    public void criteria(Blackhole blackhole) {
+        blackhole.consume(Criteria.matchInPort(IN_PORT));
+        blackhole.consume(Criteria.matchEthDst(MAC));
+        blackhole.consume(Criteria.matchVlanId(VLAN));
+        blackhole.consume(Criteria.matchIPSrc(SRC));
+        blackhole.consume(Criteria.matchTcpDst(TCP_PORT));
+    }
+
+    /**
+     * Creates instructions with the instructions factories.
+     *
+     * @param blackhole sink of the instructions
+     */
+    @Benchmark
+    public void instructions(Blackhole blackhole) {
+        blackhole.consume(Instructions.createOutput(OUT_PORT));
+        blackhole.consume(Instructions.modL2Dst(MAC));
+        blackhole.consume(Instructions.modVlanId(VLAN));
+        blackhole.consume(Instructions.decNwTtl());
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.netconf.ctl.impl;
+
+import org.onosproject.netconf.NetconfException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the decoding of a large NETCONF reply, such as the reply to
+ * a get-config of an optical device, with either framing of RFC 6242.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class NetconfMessageDecoderBenchmark {
+
+    private static final int READ_BLOCK_SIZE = 32 * 1024;
+    private static final int CHUNK_SIZE = 16 * 1024;
+    private static final String END_OF_MESSAGE = "]]>]]>";
+
+    @Param({"10"})
+    private int replyMegabytes;
+
+    @Param({"chunked", "end-of-message"})
+    private String framing;
+
+    private final XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+
+    private byte[] framed;
+
+    @Setup
+    public void setup() throws IOException {
+        StringBuilder reply = new StringBuilder("<rpc-reply message-id=\"1\" " +
+                "xmlns=\"urn:ietf:params:xml:ns:netconf:base:1.0\"><data>");
+        for (int i = 0; reply.length() < replyMegabytes * 1024 * 1024; i++) {
+            reply.append("<port><name>port-").append(i).append("</name>")
+                    .append("<frequency>191350000</frequency><admin-state>enabled</admin-state>")
+                    .append("<description>line side port é</description></port>");
+        }
+        reply.append("</data></rpc-reply>");
+        byte[] bytes = reply.toString().getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length + bytes.length / 100);
+        if ("chunked".equals(framing)) {
+            for (int i = 0; i < bytes.length; i += CHUNK_SIZE) {
+                int size = Math.min(CHUNK_SIZE, bytes.length - i);
+                out.write(("\n#" + size + "\n").getBytes(StandardCharsets.US_ASCII));
+                out.write(bytes, i, size);
+            }
+            out.write("\n##\n".getBytes(StandardCharsets.US_ASCII));
+        } else {
+            out.write(bytes);
+            out.write(END_OF_MESSAGE.getBytes(StandardCharsets.US_ASCII));
+        }
+        framed = out.toByteArray();
+    }
+
+    private NetconfMessageDecoder.Message decodeMessage() throws NetconfException {
+        NetconfMessageDecoder.Message[] decoded = new NetconfMessageDecoder.Message[1];
+        NetconfMessageDecoder decoder = new NetconfMessageDecoder(message -> decoded[0] = message);
+        for (int i = 0; i < framed.length; i += READ_BLOCK_SIZE) {
+            decoder.decode(framed, i, Math.min(READ_BLOCK_SIZE, framed.length - i));
+        }
+        return decoded[0];
+    }
+
+    /**
+     * Decodes the reply into a string, as handed over to the sessions.
+     *
+     * @return reply
+     * @throws NetconfException if the reply is badly framed
+     */
+    @Benchmark
+    public String decodeToString() throws NetconfException {
+        return decodeMessage().asString();
+    }
+
+    /**
+     * Decodes the reply and parses it as a stream with a StAX reader.
+     *
+     * @return number of elements
+     * @throws NetconfException if the reply is badly framed
+     * @throws XMLStreamException if the reply cannot be parsed
+     */
+    @Benchmark
+    public int decodeAndParse() throws NetconfException, XMLStreamException {
+        XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(decodeMessage().asStream());
+        int elements = 0;
+        while (reader.hasNext()) {
+            if (reader.next() == XMLStreamReader.START_ELEMENT) {
+                elements++;
+            }
+        }
+        reader.close();
+        return elements;
+    }
+
+    /**
+     * Decodes the reply as before the framing decoder, reading one character
+     * at a time and stripping the framing with regular expressions.
+     *
+     * @return reply
+     * @throws IOException if the reply cannot be read
+     */
+    @Benchmark
+    public String legacyDecode() throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ByteArrayInputStream(framed), StandardCharsets.UTF_8));
+        StringBuilder builder = new StringBuilder();
+        int c;
+        while ((c = reader.read()) != -1) {
+            builder.append((char) c);
+        }
+        String reply = builder.toString();
+        if ("chunked".equals(framing)) {
+            reply = reply.replaceAll("\n#\\d+\n", "");
+            return reply.replaceAll("\n##\n", "");
+        }
+        return reply.replace(END_OF_MESSAGE, "");
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.persistence.impl;
+
+import com.google.common.collect.Maps;
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
+import org.onosproject.store.serializers.KryoNamespaces;
+import org.onosproject.store.service.Serializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the persistent maps backed by memory-mapped logs compared
+ * with the maps backed by a MapDB file database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PersistentMapBenchmark {
+
+    private static final Serializer SERIALIZER = Serializer.using(KryoNamespaces.BASIC);
+    private static final String NAME = PersistenceManager.MAP_PREFIX + "benchmark";
+
+    @Param({"100000"})
+    private int entryCount;
+
+    private File directory;
+    private DB database;
+    private Map<String, byte[]> mapDbMap;
+    private MappedLog log;
+    private Map<String, byte[]> mappedMap;
+    private final byte[] value = new byte[128];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("onos-persistence").toFile();
+        database = DBMaker.newFileDB(new File(directory, "cache"))
+                .asyncWriteEnable()
+                .make();
+        mapDbMap = new PersistentMap<>(SERIALIZER, database, NAME);
+        log = new MappedLog(new File(directory, "logs"), MappedLog.DEFAULT_SEGMENT_SIZE);
+        mappedMap = new MappedPersistentMap<>(SERIALIZER, log);
+        for (int i = 0; i < entryCount; i++) {
+            mapDbMap.put(key(i), value);
+            mappedMap.put(key(i), value);
+        }
+        database.commit();
+        log.flush();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+        log.delete();
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    private static String key(int index) {
+        return "key" + index;
+    }
+
+    private String nextKey() {
+        next = (next + 1) % entryCount;
+        return key(next);
+    }
+
+    /**
+     * Updates an entry of the MapDB map.
+     *
+     * @return previous value
+     */
+    @Benchmark
+    public byte[] mapDbPut() {
+        return mapDbMap.put(nextKey(), value);
+    }
+
+    /**
+     * Updates an entry of the mapped map.
+     *
+     * @return previous value
+     */
+    @Benchmark
+    public byte[] mappedPut() {
+        return mappedMap.put(nextKey(), value);
+    }
+
+    /**
+     * Reads an entry of the MapDB map.
+     *
+     * @return value
+     */
+    @Benchmark
+    public byte[] mapDbGet() {
+        return mapDbMap.get(nextKey());
+    }
+
+    /**
+     * Reads an entry of the mapped map.
+     *
+     * @return value
+     */
+    @Benchmark
+    public byte[] mappedGet() {
+        return mappedMap.get(nextKey());
+    }
+
+    /**
+     * Reopens the MapDB database and reads the whole map, as done when a
+     * persistent structure is restored on startup.
+     *
+     * @return number of entries read
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int mapDbReopen() {
+        database.commit();
+        database.close();
+        database = DBMaker.newFileDB(new File(directory, "cache"))
+                .asyncWriteEnable()
+                .make();
+        PersistentMap<String, byte[]> map = new PersistentMap<>(SERIALIZER, database, NAME);
+        mapDbMap = map;
+        Map<String, byte[]> contents = Maps.newHashMap();
+        map.readInto(contents);
+        return contents.size();
+    }
+
+    /**
+     * Reopens the mapped log and reads the whole map, as done when a
+     * persistent structure is restored on startup.
+     *
+     * @return number of entries read
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int mappedReopen() {
+        log.close();
+        log = new MappedLog(new File(directory, "logs"), MappedLog.DEFAULT_SEGMENT_SIZE);
+        MappedPersistentMap<String, byte[]> map = new MappedPersistentMap<>(SERIALIZER, log);
+        mappedMap = map;
+        Map<String, byte[]> contents = Maps.newHashMap();
+        map.readInto(contents);
+        return contents.size();
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.Ip4Address;
+import org.onlab.packet.Ip4Prefix;
+import org.onosproject.core.DefaultApplicationId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.flow.DefaultFlowEntry;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Benchmarks of the lookup of the flows of an application with the device
+ * flow index, compared with a scan of all flows of the device.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DeviceFlowIndexBenchmark {
+
+    private static final int APP_COUNT = 20;
+    private static final DeviceId DEVICE_ID = DeviceId.deviceId("of:0000000000000001");
+
+    @Param({"10000", "100000"})
+    private int flowCount;
+
+    private DeviceFlowIndex index;
+    private List<FlowEntry> entries;
+    private FlowEntry newEntry;
+    private short nextApp;
+
+    @Setup
+    public void setup() {
+        index = new DeviceFlowIndex();
+        entries = new ArrayList<>(flowCount);
+        for (int i = 0; i < flowCount; i++) {
+            FlowEntry entry = flowEntry(i, (short) (i % APP_COUNT + 1));
+            entries.add(entry);
+            index.add(entry);
+        }
+        newEntry = flowEntry(flowCount, (short) 1);
+    }
+
+    private static FlowEntry flowEntry(int index, short appId) {
+        return new DefaultFlowEntry(DefaultFlowRule.builder()
+                .forDevice(DEVICE_ID)
+                .withSelector(DefaultTrafficSelector.builder()
+                                      .matchEthType(Ethernet.TYPE_IPV4)
+                                      .matchIPDst(Ip4Prefix.valueOf(Ip4Address.valueOf(index), 32))
+                                      .build())
+                .withTreatment(DefaultTrafficTreatment.builder()
+                                       .setOutput(PortNumber.portNumber(2))
+                                       .build())
+                .withPriority(40000)
+                .fromApp(new DefaultApplicationId(appId, "org.onosproject.benchmarks." + appId))
+                .makePermanent()
+                .build());
+    }
+
+    private short nextApp() {
+        nextApp = (short) (nextApp % APP_COUNT + 1);
+        return nextApp;
+    }
+
+    /**
+     * Returns the flows of an application from the index.
+     *
+     * @return flow identifiers
+     */
+    @Benchmark
+    public Set<FlowId> indexedLookup() {
+        return index.getFlowIds(nextApp());
+    }
+
+    /**
+     * Returns the flows of an application by scanning all flows.
+     *
+     * @return flow identifiers
+     */
+    @Benchmark
+    public Set<FlowId> linearScan() {
+        short appId = nextApp();
+        return entries.stream()
+                .filter(entry -> entry.appId() == appId)
+                .map(FlowEntry::id)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Adds a flow entry to the index, which is the maintenance cost paid on
+     * every flow rule update.
+     */
+    @Benchmark
+    public void add() {
+        index.add(newEntry);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.host.impl;
+
+import com.google.common.collect.ImmutableSet;
+import org.onlab.packet.Ip4Address;
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.MacAddress;
+import org.onlab.packet.VlanId;
+import org.onosproject.net.DefaultHost;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Host;
+import org.onosproject.net.HostId;
+import org.onosproject.net.HostLocation;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.provider.ProviderId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Benchmarks of host lookups by MAC address with the host index, compared
+ * with a filter over all hosts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class HostIndexBenchmark {
+
+    private static final ProviderId PID = new ProviderId("of", "org.onosproject.benchmarks");
+    private static final int DEVICE_COUNT = 100;
+
+    @Param({"10000", "100000"})
+    private int hostCount;
+
+    private HostIndex<MacAddress> index;
+    private List<Host> hosts;
+    private MacAddress[] macs;
+    private int next;
+
+    @Setup
+    public void setup() {
+        index = new HostIndex<>(host -> ImmutableSet.of(host.mac()));
+        hosts = new ArrayList<>(hostCount);
+        macs = new MacAddress[hostCount];
+        for (int i = 0; i < hostCount; i++) {
+            MacAddress mac = MacAddress.valueOf(i + 1L);
+            DeviceId deviceId = DeviceId.deviceId(String.format("of:%016x", i % DEVICE_COUNT + 1));
+            hosts.add(new DefaultHost(PID, HostId.hostId(mac, VlanId.NONE), mac, VlanId.NONE,
+                                      new HostLocation(deviceId, PortNumber.portNumber(i / DEVICE_COUNT + 1), 0),
+                                      ImmutableSet.<IpAddress>of(Ip4Address.valueOf(i + 1))));
+            macs[i] = mac;
+        }
+        index.load(hosts);
+    }
+
+    private MacAddress nextMac() {
+        next = (next + 1) % hostCount;
+        return macs[next];
+    }
+
+    /**
+     * Returns the hosts with a MAC address from the index.
+     *
+     * @return hosts
+     */
+    @Benchmark
+    public Set<Host> indexedLookup() {
+        return index.get(nextMac());
+    }
+
+    /**
+     * Returns the hosts with a MAC address by filtering all hosts.
+     *
+     * @return hosts
+     */
+    @Benchmark
+    public Set<Host> linearScan() {
+        MacAddress mac = nextMac();
+        return hosts.stream()
+                .filter(host -> host.mac().equals(mac))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Rebuilds the index from all hosts, as done when the host store
+     * bootstraps.
+     */
+    @Benchmark
+    public void load() {
+        index.load(hosts);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.serializers;
+
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.IpPrefix;
+import org.onlab.util.KryoNamespace;
+import org.onosproject.core.ApplicationId;
+import org.onosproject.core.DefaultApplicationId;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.FilteredConnectPoint;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.flow.DefaultFlowEntry;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowEntry.FlowEntryState;
+import org.onosproject.net.flow.TrafficSelector;
+import org.onosproject.net.flow.TrafficTreatment;
+import org.onosproject.net.intent.Intent;
+import org.onosproject.net.intent.PointToPointIntent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the serialization of flow entries and intents with the API
+ * Kryo namespace, as done when replicating them across the cluster.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class KryoNamespacesBenchmark {
+
+    private static final ApplicationId APP_ID = new DefaultApplicationId(1, "org.onosproject.benchmarks");
+    private static final DeviceId DEVICE_1 = DeviceId.deviceId("of:0000000000000001");
+    private static final DeviceId DEVICE_2 = DeviceId.deviceId("of:0000000000000002");
+
+    private final KryoNamespace serializer = KryoNamespaces.API;
+
+    private FlowEntry flowEntry;
+    private Intent intent;
+    private byte[] flowEntryBytes;
+    private byte[] intentBytes;
+
+    @Setup
+    public void setup() {
+        TrafficSelector selector = DefaultTrafficSelector.builder()
+                .matchEthType(Ethernet.TYPE_IPV4)
+                .matchIPDst(IpPrefix.valueOf("10.0.1.0/24"))
+                .build();
+        TrafficTreatment treatment = DefaultTrafficTreatment.builder()
+                .setOutput(PortNumber.portNumber(2))
+                .build();
+
+        flowEntry = new DefaultFlowEntry(DefaultFlowRule.builder()
+                                                 .forDevice(DEVICE_1)
+                                                 .withSelector(selector)
+                                                 .withTreatment(treatment)
+                                                 .withPriority(40000)
+                                                 .fromApp(APP_ID)
+                                                 .makePermanent()
+                                                 .build(),
+                                         FlowEntryState.ADDED, 10, TimeUnit.SECONDS, 100, 6400);
+        intent = PointToPointIntent.builder()
+                .appId(APP_ID)
+                .selector(selector)
+                .treatment(treatment)
+                .filteredIngressPoint(new FilteredConnectPoint(
+                        new ConnectPoint(DEVICE_1, PortNumber.portNumber(1))))
+                .filteredEgressPoint(new FilteredConnectPoint(
+                        new ConnectPoint(DEVICE_2, PortNumber.portNumber(1))))
+                .build();
+
+        flowEntryBytes = serializer.serialize(flowEntry);
+        intentBytes = serializer.serialize(intent);
+    }
+
+    /**
+     * Serializes a flow entry.
+     *
+     * @return serialized flow entry
+     */
+    @Benchmark
+    public byte[] serializeFlowEntry() {
+        return serializer.serialize(flowEntry);
+    }
+
+    /**
+     * Deserializes a flow entry.
+     *
+     * @return flow entry
+     */
+    @Benchmark
+    public FlowEntry deserializeFlowEntry() {
+        return serializer.deserialize(flowEntryBytes);
+    }
+
+    /**
+     * Serializes a point to point intent.
+     *
+     * @return serialized intent
+     */
+    @Benchmark
+    public byte[] serializeIntent() {
+        return serializer.serialize(intent);
+    }
+
+    /**
+     * Deserializes a point to point intent.
+     *
+     * @return intent
+     */
+    @Benchmark
+    public Intent deserializeIntent() {
+        return serializer.deserialize(intentBytes);
+    }
+}
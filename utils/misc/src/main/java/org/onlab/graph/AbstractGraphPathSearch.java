@@ -206,7 +206,7 @@ public abstract class AbstractGraphPathSearch<V extends Vertex, E extends Edge<V
             for (V v : destinations) {
                 // Ignore the source, if it is among the destinations.
                 if (!v.equals(src)) {
-                    buildAllPaths(this, src, v, maxPaths);
+                    buildAllPaths(this, src, v, maxPaths, paths);
                 }
             }
         }
@@ -223,16 +223,19 @@ public abstract class AbstractGraphPathSearch<V extends Vertex, E extends Edge<V
      * @param dst      destination vertex
      * @param maxPaths limit on the number of paths built;
      *                 {@link GraphPathSearch#ALL_PATHS} if no limit
+     * @param paths    set to which the paths are added
      */
-    private void buildAllPaths(DefaultResult result, V src, V dst, int maxPaths) {
+    private void buildAllPaths(Result<V, E> result, V src, V dst, int maxPaths,
+                               Set<Path<V, E>> paths) {
+        Weight dstCost = result.costs().get(dst);
         DefaultMutablePath<V, E> basePath = new DefaultMutablePath<>();
-        basePath.setCost(result.cost(dst));
+        basePath.setCost(dstCost);
 
         Set<DefaultMutablePath<V, E>> pendingPaths = new HashSet<>();
         pendingPaths.add(basePath);
 
         while (!pendingPaths.isEmpty() &&
-                (maxPaths == ALL_PATHS || result.paths.size() < maxPaths)) {
+                (maxPaths == ALL_PATHS || paths.size() < maxPaths)) {
             Set<DefaultMutablePath<V, E>> frontier = new HashSet<>();
 
             for (DefaultMutablePath<V, E> path : pendingPaths) {
@@ -243,15 +246,15 @@ public abstract class AbstractGraphPathSearch<V extends Vertex, E extends Edge<V
                 // If the first vertex is our expected source, we have reached
                 // the beginning, so add the this path to the result paths.
                 if (firstVertex.equals(src)) {
-                    path.setCost(result.cost(dst));
-                    result.paths.add(new DefaultPath<>(path.edges(), path.cost()));
+                    path.setCost(dstCost);
+                    paths.add(new DefaultPath<>(path.edges(), path.cost()));
 
                 } else {
                     // If we have not reached the beginning, i.e. the source,
                     // fetch the set of edges leading to the first vertex of
                     // this pending path; if there are none, abandon processing
                     // this path for good.
-                    Set<E> firstVertexParents = result.parents.get(firstVertex);
+                    Set<E> firstVertexParents = result.parents().get(firstVertex);
                     if (firstVertexParents == null || firstVertexParents.isEmpty()) {
                         break;
                     }
@@ -280,6 +283,25 @@ public abstract class AbstractGraphPathSearch<V extends Vertex, E extends Edge<V
         }
     }
 
+    /**
+     * Builds the set of paths to the specified destination from the result
+     * of a search from the source to all destinations, such as one obtained
+     * from {@link DijkstraGraphSearch#searchAll}.
+     *
+     * @param result   result of a search for all destinations
+     * @param dst      destination vertex
+     * @param maxPaths limit on the number of paths built;
+     *                 {@link GraphPathSearch#ALL_PATHS} if no limit
+     * @return set of paths from the source of the search to the destination
+     */
+    public Set<Path<V, E>> buildPaths(Result<V, E> result, V dst, int maxPaths) {
+        Set<Path<V, E>> paths = new HashSet<>();
+        if (!dst.equals(result.src()) && result.costs().containsKey(dst)) {
+            buildAllPaths(result, result.src(), dst, maxPaths, paths);
+        }
+        return paths;
+    }
+
     /**
      * Indicates whether or not the specified edge source is already visited
      * in the specified path.
@@ -29,7 +29,39 @@ public class DijkstraGraphSearch<V extends Vertex, E extends Edge<V>>
     @Override
     protected Result<V, E> internalSearch(Graph<V, E> graph, V src, V dst,
                                EdgeWeigher<V, E> weigher, int maxPaths) {
+        DefaultResult result = computeCosts(graph, src, dst, weigher, maxPaths);
 
+        // Now construct a set of paths from the results.
+        result.buildPaths();
+        return result;
+    }
+
+    /**
+     * Searches the graph for the shortest paths from the source to all other
+     * vertexes, without building the paths themselves. The paths to any
+     * destination can then be built on demand using
+     * {@link #buildPaths(Result, Vertex, int)}, which makes the result
+     * suitable for serving many destinations from a single search.
+     *
+     * @param graph    graph to be searched
+     * @param src      source vertex
+     * @param weigher  optional edge-weigher; if null, the default weigher is used
+     * @param maxPaths limit on the number of parent edges kept per vertex;
+     *                 {@link GraphPathSearch#ALL_PATHS} if no limit
+     * @return search result with costs and parent edges, but no paths
+     */
+    public Result<V, E> searchAll(Graph<V, E> graph, V src,
+                                  EdgeWeigher<V, E> weigher, int maxPaths) {
+        checkArguments(graph, src, null);
+        return computeCosts(graph, src, null,
+                            weigher != null ? weigher : new DefaultEdgeWeigher<>(),
+                            maxPaths);
+    }
+
+    // Computes the costs and parent edges of the vertexes reachable from the
+    // source, stopping at the destination if one is given.
+    private DefaultResult computeCosts(Graph<V, E> graph, V src, V dst,
+                                       EdgeWeigher<V, E> weigher, int maxPaths) {
         // Use the default result to remember cumulative costs and parent
         // edges to each each respective vertex.
         DefaultResult result = new DefaultResult(src, dst, maxPaths);
@@ -38,7 +70,6 @@ public class DijkstraGraphSearch<V extends Vertex, E extends Edge<V>>
         result.updateVertex(src, null, weigher.getInitialWeight(), false);
 
         if (graph.getEdges().isEmpty()) {
-            result.buildPaths();
             return result;
         }
 
@@ -67,9 +98,6 @@ public class DijkstraGraphSearch<V extends Vertex, E extends Edge<V>>
             // Re-prioritize the min queue.
             minQueue.heapify();
         }
-
-        // Now construct a set of paths from the results.
-        result.buildPaths();
         return result;
     }
 
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Lazy read-only view of an Ethernet frame in a raw packet buffer.
+ * <p>
+ * Unlike {@link Ethernet#deserializer()}, which decodes the whole frame into
+ * an object tree, the view only decodes the fields that are accessed and
+ * never copies the payload. VLAN tags are interpreted as by the Ethernet
+ * deserializer.
+ */
+public final class EthernetView extends HeaderView {
+
+    private static final int ETHERNET_HEADER_LENGTH = 14;
+    private static final int VLAN_HEADER_LENGTH = 4;
+    private static final int SOURCE_MAC_OFFSET = 6;
+    private static final int ETHER_TYPE_OFFSET = 12;
+    private static final int VID_MASK = 0x0fff;
+
+    private final int headerLength;
+    private final short etherType;
+    private final short vlanId;
+    private final short qinqVlanId;
+
+    private IPv4View ipv4;
+    private IPv6View ipv6;
+
+    private EthernetView(ByteBuffer buffer, int offset, int length) {
+        super(buffer, offset, length);
+
+        int type = length >= ETHERNET_HEADER_LENGTH ? u16(ETHER_TYPE_OFFSET) : -1;
+        int headerEnd = ETHERNET_HEADER_LENGTH;
+        short vid = Ethernet.VLAN_UNTAGGED;
+        short qinqVid = Ethernet.VLAN_UNTAGGED;
+
+        if (type == Short.toUnsignedInt(Ethernet.TYPE_QINQ)
+                && length >= headerEnd + VLAN_HEADER_LENGTH) {
+            qinqVid = (short) (u16(headerEnd) & VID_MASK);
+            type = u16(headerEnd + 2);
+            headerEnd += VLAN_HEADER_LENGTH;
+        }
+        if (type == Short.toUnsignedInt(Ethernet.TYPE_VLAN)
+                && length >= headerEnd + VLAN_HEADER_LENGTH) {
+            vid = (short) (u16(headerEnd) & VID_MASK);
+            type = u16(headerEnd + 2);
+            headerEnd += VLAN_HEADER_LENGTH;
+            if (type == Short.toUnsignedInt(Ethernet.TYPE_VLAN)
+                    && length >= headerEnd + VLAN_HEADER_LENGTH) {
+                // Double tagged frame; the outer tag is the QinQ tag
+                qinqVid = vid;
+                vid = (short) (u16(headerEnd) & VID_MASK);
+                type = u16(headerEnd + 2);
+                headerEnd += VLAN_HEADER_LENGTH;
+            }
+        }
+
+        this.headerLength = headerEnd;
+        this.etherType = (short) type;
+        this.vlanId = vid;
+        this.qinqVlanId = qinqVid;
+    }
+
+    /**
+     * Creates a view of the Ethernet frame between the position and the limit
+     * of the given buffer.
+     *
+     * @param buffer raw packet buffer
+     * @return Ethernet frame view
+     */
+    public static EthernetView wrap(ByteBuffer buffer) {
+        ByteBuffer view = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        return new EthernetView(view, view.position(), view.remaining());
+    }
+
+    /**
+     * Creates a view of the Ethernet frame in the given bytes.
+     *
+     * @param data raw packet bytes
+     * @return Ethernet frame view
+     */
+    public static EthernetView wrap(byte[] data) {
+        return new EthernetView(ByteBuffer.wrap(data), 0, data.length);
+    }
+
+    /**
+     * Returns whether the buffer holds a complete Ethernet header.
+     *
+     * @return true if the Ethernet header is complete
+     */
+    public boolean isValid() {
+        return length >= ETHERNET_HEADER_LENGTH;
+    }
+
+    /**
+     * Returns the length of the Ethernet header, including VLAN tags.
+     *
+     * @return header length in bytes
+     */
+    public int headerLength() {
+        return headerLength;
+    }
+
+    /**
+     * Returns the destination MAC address.
+     *
+     * @return destination MAC address
+     */
+    public MacAddress destinationMac() {
+        return MacAddress.valueOf(bytes(0, MacAddress.MAC_ADDRESS_LENGTH));
+    }
+
+    /**
+     * Returns the source MAC address.
+     *
+     * @return source MAC address
+     */
+    public MacAddress sourceMac() {
+        return MacAddress.valueOf(bytes(SOURCE_MAC_OFFSET, MacAddress.MAC_ADDRESS_LENGTH));
+    }
+
+    /**
+     * Returns whether the destination MAC address is the broadcast address.
+     *
+     * @return true if the frame is broadcast
+     */
+    public boolean isBroadcast() {
+        return u16(0) == 0xffff && i32(2) == -1;
+    }
+
+    /**
+     * Returns whether the destination MAC address is a multicast address,
+     * excluding the broadcast address.
+     *
+     * @return true if the frame is multicast
+     */
+    public boolean isMulticast() {
+        return (u8(0) & 0x01) != 0 && !isBroadcast();
+    }
+
+    /**
+     * Returns the EtherType of the payload, after any VLAN tags.
+     *
+     * @return EtherType
+     */
+    public short etherType() {
+        return etherType;
+    }
+
+    /**
+     * Returns the VLAN identifier of the inner VLAN tag.
+     *
+     * @return VLAN identifier or {@link Ethernet#VLAN_UNTAGGED}
+     */
+    public short vlanId() {
+        return vlanId;
+    }
+
+    /**
+     * Returns the VLAN identifier of the outer VLAN tag of a double tagged
+     * frame.
+     *
+     * @return VLAN identifier or {@link Ethernet#VLAN_UNTAGGED}
+     */
+    public short qinqVlanId() {
+        return qinqVlanId;
+    }
+
+    /**
+     * Returns the absolute offset of the payload in the buffer.
+     *
+     * @return payload offset
+     */
+    public int payloadOffset() {
+        return offset + headerLength;
+    }
+
+    /**
+     * Returns a view of the IPv4 header of the payload.
+     *
+     * @return IPv4 header view or null if the payload is not a complete IPv4
+     * header
+     */
+    public IPv4View ipv4() {
+        if (ipv4 == null && etherType == Ethernet.TYPE_IPV4) {
+            ipv4 = IPv4View.wrap(buffer, payloadOffset(), length - headerLength);
+        }
+        return ipv4;
+    }
+
+    /**
+     * Returns a view of the IPv6 header of the payload.
+     *
+     * @return IPv6 header view or null if the payload is not a complete IPv6
+     * header
+     */
+    public IPv6View ipv6() {
+        if (ipv6 == null && etherType == Ethernet.TYPE_IPV6) {
+            ipv6 = IPv6View.wrap(buffer, payloadOffset(), length - headerLength);
+        }
+        return ipv6;
+    }
+
+    /**
+     * Returns the IP protocol number of the payload.
+     *
+     * @return unsigned IPv4 protocol or IPv6 next header; -1 if the payload
+     * is not IP
+     */
+    public int ipProtocol() {
+        IPv4View ip4 = ipv4();
+        if (ip4 != null) {
+            return Byte.toUnsignedInt(ip4.protocol());
+        }
+        IPv6View ip6 = ipv6();
+        return ip6 != null ? Byte.toUnsignedInt(ip6.nextHeader()) : -1;
+    }
+
+    /**
+     * Decodes the whole frame with the eager Ethernet deserializer.
+     *
+     * @return deserialized Ethernet frame
+     * @throws DeserializationException if the frame cannot be deserialized
+     */
+    public Ethernet deserialize() throws DeserializationException {
+        return Ethernet.deserializer().deserialize(bytes(0, length), 0, length);
+    }
+}
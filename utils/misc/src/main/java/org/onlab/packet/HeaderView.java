@@ -0,0 +1,109 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Base of the read-only views of packet headers in a raw packet buffer.
+ * <p>
+ * A header view decodes the header fields on demand, using absolute reads,
+ * so neither the buffer contents nor its position are copied or modified.
+ * The buffer must not be modified while a view of it is in use.
+ */
+public abstract class HeaderView {
+
+    protected final ByteBuffer buffer;
+    protected final int offset;
+    protected final int length;
+
+    /**
+     * Creates a view of the header at the given offset of the buffer.
+     *
+     * @param buffer raw packet buffer
+     * @param offset absolute offset of the header in the buffer
+     * @param length number of bytes from the offset to the end of the packet
+     */
+    protected HeaderView(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Returns the absolute offset of the header in the buffer.
+     *
+     * @return header offset
+     */
+    public int offset() {
+        return offset;
+    }
+
+    /**
+     * Returns the number of bytes from the start of the header to the end of
+     * the packet.
+     *
+     * @return number of bytes
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Returns the unsigned byte at the given offset of the header.
+     *
+     * @param index offset relative to the start of the header
+     * @return unsigned byte value
+     */
+    protected int u8(int index) {
+        return buffer.get(offset + index) & 0xff;
+    }
+
+    /**
+     * Returns the unsigned 16-bit value at the given offset of the header.
+     *
+     * @param index offset relative to the start of the header
+     * @return unsigned 16-bit value
+     */
+    protected int u16(int index) {
+        return buffer.getShort(offset + index) & 0xffff;
+    }
+
+    /**
+     * Returns the 32-bit value at the given offset of the header.
+     *
+     * @param index offset relative to the start of the header
+     * @return 32-bit value
+     */
+    protected int i32(int index) {
+        return buffer.getInt(offset + index);
+    }
+
+    /**
+     * Copies bytes of the header into a new array.
+     *
+     * @param index offset relative to the start of the header
+     * @param count number of bytes
+     * @return copied bytes
+     */
+    protected byte[] bytes(int index, int count) {
+        byte[] bytes = new byte[count];
+        for (int i = 0; i < count; i++) {
+            bytes[i] = buffer.get(offset + index + i);
+        }
+        return bytes;
+    }
+}
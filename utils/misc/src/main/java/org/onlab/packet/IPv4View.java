@@ -0,0 +1,167 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Lazy read-only view of an IPv4 header in a raw packet buffer.
+ */
+public final class IPv4View extends HeaderView {
+
+    private static final int MIN_HEADER_LENGTH = 20;
+    private static final int SOURCE_ADDRESS_OFFSET = 12;
+    private static final int DESTINATION_ADDRESS_OFFSET = 16;
+    private static final int FRAGMENT_OFFSET_MASK = 0x1fff;
+
+    private TransportView transport;
+
+    private IPv4View(ByteBuffer buffer, int offset, int length) {
+        super(buffer, offset, length);
+    }
+
+    /**
+     * Creates a view of the IPv4 header at the given offset of the buffer.
+     *
+     * @param buffer raw packet buffer
+     * @param offset absolute offset of the header in the buffer
+     * @param length number of bytes from the offset to the end of the packet
+     * @return IPv4 header view or null if the header is incomplete
+     */
+    static IPv4View wrap(ByteBuffer buffer, int offset, int length) {
+        if (length < MIN_HEADER_LENGTH) {
+            return null;
+        }
+        IPv4View view = new IPv4View(buffer, offset, length);
+        int headerLength = view.headerLength();
+        return headerLength >= MIN_HEADER_LENGTH && headerLength <= length ? view : null;
+    }
+
+    /**
+     * Returns the length of the header, including options.
+     *
+     * @return header length in bytes
+     */
+    public int headerLength() {
+        return (u8(0) & 0x0f) * 4;
+    }
+
+    /**
+     * Returns the DSCP field.
+     *
+     * @return DSCP value
+     */
+    public byte dscp() {
+        return (byte) (u8(1) >>> 2);
+    }
+
+    /**
+     * Returns the ECN field.
+     *
+     * @return ECN value
+     */
+    public byte ecn() {
+        return (byte) (u8(1) & 0x03);
+    }
+
+    /**
+     * Returns the total length field.
+     *
+     * @return total length of the IPv4 packet in bytes
+     */
+    public int totalLength() {
+        return u16(2);
+    }
+
+    /**
+     * Returns whether the packet is a fragment other than the first one.
+     *
+     * @return true if the fragment offset is not zero
+     */
+    public boolean isNonInitialFragment() {
+        return (u16(6) & FRAGMENT_OFFSET_MASK) != 0;
+    }
+
+    /**
+     * Returns the TTL field.
+     *
+     * @return time to live
+     */
+    public int ttl() {
+        return u8(8);
+    }
+
+    /**
+     * Returns the protocol field.
+     *
+     * @return protocol number
+     */
+    public byte protocol() {
+        return (byte) u8(9);
+    }
+
+    /**
+     * Returns the source address as an integer.
+     *
+     * @return source address
+     */
+    public int sourceAddress() {
+        return i32(SOURCE_ADDRESS_OFFSET);
+    }
+
+    /**
+     * Returns the destination address as an integer.
+     *
+     * @return destination address
+     */
+    public int destinationAddress() {
+        return i32(DESTINATION_ADDRESS_OFFSET);
+    }
+
+    /**
+     * Returns the source address.
+     *
+     * @return source address
+     */
+    public Ip4Address sourceIp() {
+        return Ip4Address.valueOf(sourceAddress());
+    }
+
+    /**
+     * Returns the destination address.
+     *
+     * @return destination address
+     */
+    public Ip4Address destinationIp() {
+        return Ip4Address.valueOf(destinationAddress());
+    }
+
+    /**
+     * Returns a view of the transport header following the IPv4 header.
+     *
+     * @return transport header view or null if the packet is a non-initial
+     * fragment or the transport header is incomplete
+     */
+    public TransportView transport() {
+        if (transport == null && !isNonInitialFragment()) {
+            // Exclude any link layer padding following the IPv4 packet
+            int headerLength = headerLength();
+            int packetLength = Math.min(length, totalLength());
+            transport = TransportView.wrap(buffer, offset + headerLength, packetLength - headerLength);
+        }
+        return transport;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Lazy read-only view of an IPv6 header in a raw packet buffer.
+ * <p>
+ * Only the fixed header is decoded; extension headers are not followed, so
+ * {@link #nextHeader()} is the next header field of the fixed header.
+ */
+public final class IPv6View extends HeaderView {
+
+    private static final int HEADER_LENGTH = 40;
+    private static final int SOURCE_ADDRESS_OFFSET = 8;
+    private static final int DESTINATION_ADDRESS_OFFSET = 24;
+
+    private TransportView transport;
+
+    private IPv6View(ByteBuffer buffer, int offset, int length) {
+        super(buffer, offset, length);
+    }
+
+    /**
+     * Creates a view of the IPv6 header at the given offset of the buffer.
+     *
+     * @param buffer raw packet buffer
+     * @param offset absolute offset of the header in the buffer
+     * @param length number of bytes from the offset to the end of the packet
+     * @return IPv6 header view or null if the header is incomplete
+     */
+    static IPv6View wrap(ByteBuffer buffer, int offset, int length) {
+        return length >= HEADER_LENGTH ? new IPv6View(buffer, offset, length) : null;
+    }
+
+    /**
+     * Returns the traffic class field.
+     *
+     * @return traffic class
+     */
+    public byte trafficClass() {
+        return (byte) (i32(0) >>> 20);
+    }
+
+    /**
+     * Returns the flow label field.
+     *
+     * @return flow label
+     */
+    public int flowLabel() {
+        return i32(0) & 0xfffff;
+    }
+
+    /**
+     * Returns the payload length field.
+     *
+     * @return payload length in bytes
+     */
+    public int payloadLength() {
+        return u16(4);
+    }
+
+    /**
+     * Returns the next header field of the fixed header.
+     *
+     * @return next header protocol number
+     */
+    public byte nextHeader() {
+        return (byte) u8(6);
+    }
+
+    /**
+     * Returns the hop limit field.
+     *
+     * @return hop limit
+     */
+    public int hopLimit() {
+        return u8(7);
+    }
+
+    /**
+     * Returns a copy of the source address.
+     *
+     * @return source address bytes
+     */
+    public byte[] sourceAddress() {
+        return bytes(SOURCE_ADDRESS_OFFSET, Ip6Address.BYTE_LENGTH);
+    }
+
+    /**
+     * Returns a copy of the destination address.
+     *
+     * @return destination address bytes
+     */
+    public byte[] destinationAddress() {
+        return bytes(DESTINATION_ADDRESS_OFFSET, Ip6Address.BYTE_LENGTH);
+    }
+
+    /**
+     * Returns the source address.
+     *
+     * @return source address
+     */
+    public Ip6Address sourceIp() {
+        return Ip6Address.valueOf(sourceAddress());
+    }
+
+    /**
+     * Returns the destination address.
+     *
+     * @return destination address
+     */
+    public Ip6Address destinationIp() {
+        return Ip6Address.valueOf(destinationAddress());
+    }
+
+    /**
+     * Returns a view of the header following the fixed IPv6 header.
+     *
+     * @return transport header view or null if it is incomplete
+     */
+    public TransportView transport() {
+        if (transport == null) {
+            // Exclude any link layer padding following the IPv6 packet
+            int payloadLength = Math.min(length - HEADER_LENGTH, payloadLength());
+            transport = TransportView.wrap(buffer, offset + HEADER_LENGTH, payloadLength);
+        }
+        return transport;
+    }
+}
@@ -151,6 +151,16 @@ public class IpAddress implements Comparable<IpAddress> {
         return Arrays.copyOf(octets, octets.length);
     }
 
+    /**
+     * Returns the octet at the given index, without copying the address.
+     *
+     * @param index octet index
+     * @return octet value
+     */
+    byte octet(int index) {
+        return octets[index];
+    }
+
     /**
      * Returns the IP address as InetAddress.
      *
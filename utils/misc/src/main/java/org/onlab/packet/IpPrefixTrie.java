@@ -0,0 +1,326 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Path-compressed binary trie of IPv4 and IPv6 prefixes, for longest prefix
+ * match lookups.
+ * <p>
+ * Each node of the trie holds a prefix and branches on the first bit past
+ * it; chains of nodes without a value and with a single child are collapsed,
+ * so the depth of the trie is bounded by the number of distinct prefix
+ * lengths on a path rather than by the address length. Lookups walk the
+ * trie comparing address bits in place and allocate nothing.
+ * </p>
+ * <p>
+ * Updates are serialized with one another, while lookups and iteration
+ * never block: each update publishes a fully built node or sub-trie with a
+ * single volatile write, so a concurrent reader sees the trie either before
+ * or after the update.
+ * </p>
+ *
+ * @param <V> type of the values associated with the prefixes
+ */
+public final class IpPrefixTrie<V> {
+
+    private final Node<V> root4 = new Node<>(Ip4Address.ZERO, 0, null);
+    private final Node<V> root6 = new Node<>(Ip6Address.ZERO, 0, null);
+    private volatile int size;
+
+    private static final class Node<V> {
+        // address holding the prefix bits; only the first length bits matter
+        private final IpAddress key;
+        private final int length;
+        private volatile V value;
+        private volatile Node<V> zero;
+        private volatile Node<V> one;
+
+        private Node(IpAddress key, int length, V value) {
+            this.key = key;
+            this.length = length;
+            this.value = value;
+        }
+
+        private Node<V> child(int bit) {
+            return bit == 0 ? zero : one;
+        }
+
+        private void setChild(int bit, Node<V> child) {
+            if (bit == 0) {
+                zero = child;
+            } else {
+                one = child;
+            }
+        }
+
+        private void replaceChild(Node<V> child, Node<V> replacement) {
+            if (zero == child) {
+                zero = replacement;
+            } else {
+                one = replacement;
+            }
+        }
+
+        private Node<V> onlyChild() {
+            Node<V> z = zero;
+            Node<V> o = one;
+            if (z != null && o != null) {
+                return null;
+            }
+            return z != null ? z : o;
+        }
+    }
+
+    /**
+     * Associates the given value with the given prefix.
+     *
+     * @param prefix IP prefix
+     * @param value  value to associate
+     * @return value previously associated with the prefix; null if none
+     */
+    public synchronized V put(IpPrefix prefix, V value) {
+        checkNotNull(prefix, "Prefix cannot be null");
+        checkNotNull(value, "Value cannot be null");
+        IpAddress key = prefix.address();
+        int length = prefix.prefixLength();
+        Node<V> node = root(key);
+        while (true) {
+            if (node.length == length) {
+                V previous = node.value;
+                node.value = value;
+                if (previous == null) {
+                    size++;
+                }
+                return previous;
+            }
+
+            int bit = bit(key, node.length);
+            Node<V> child = node.child(bit);
+            if (child == null) {
+                node.setChild(bit, new Node<>(key, length, value));
+                size++;
+                return null;
+            }
+
+            int common = commonLength(key, child.key, node.length,
+                                      Math.min(length, child.length));
+            if (common == child.length) {
+                node = child;
+                continue;
+            }
+
+            // Split the edge to the child, building the new nodes before
+            // publishing them
+            Node<V> split;
+            if (common == length) {
+                split = new Node<>(key, length, value);
+                split.setChild(bit(child.key, length), child);
+            } else {
+                split = new Node<>(key, common, null);
+                split.setChild(bit(child.key, common), child);
+                split.setChild(bit(key, common), new Node<>(key, length, value));
+            }
+            node.setChild(bit, split);
+            size++;
+            return null;
+        }
+    }
+
+    /**
+     * Removes the value associated with the given prefix.
+     *
+     * @param prefix IP prefix
+     * @return removed value; null if none
+     */
+    public synchronized V remove(IpPrefix prefix) {
+        checkNotNull(prefix, "Prefix cannot be null");
+        IpAddress key = prefix.address();
+        int length = prefix.prefixLength();
+        Node<V> grandParent = null;
+        Node<V> parent = null;
+        Node<V> node = root(key);
+        int checked = 0;
+        while (node.length != length) {
+            grandParent = parent;
+            parent = node;
+            checked = node.length;
+            node = node.child(bit(key, node.length));
+            if (node == null || node.length > length
+                    || !matches(key, node.key, checked, node.length)) {
+                return null;
+            }
+        }
+
+        V previous = node.value;
+        if (previous == null) {
+            return null;
+        }
+        node.value = null;
+        size--;
+        if (parent == null) {
+            return previous;
+        }
+
+        // Collapse the nodes left without a value and with less than two
+        // children
+        if (node.zero == null && node.one == null) {
+            parent.replaceChild(node, null);
+            Node<V> sibling = parent.onlyChild();
+            if (grandParent != null && parent.value == null && sibling != null) {
+                grandParent.replaceChild(parent, sibling);
+            }
+        } else {
+            Node<V> child = node.onlyChild();
+            if (child != null) {
+                parent.replaceChild(node, child);
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * Returns the value associated with exactly the given prefix.
+     *
+     * @param prefix IP prefix
+     * @return value; null if none
+     */
+    public V get(IpPrefix prefix) {
+        checkNotNull(prefix, "Prefix cannot be null");
+        IpAddress key = prefix.address();
+        int length = prefix.prefixLength();
+        Node<V> node = root(key);
+        int checked = 0;
+        while (node.length != length) {
+            checked = node.length;
+            node = node.child(bit(key, node.length));
+            if (node == null || node.length > length
+                    || !matches(key, node.key, checked, node.length)) {
+                return null;
+            }
+        }
+        return node.value;
+    }
+
+    /**
+     * Returns the value associated with the longest prefix containing the
+     * given address.
+     *
+     * @param address IP address
+     * @return value of the longest matching prefix; null if none
+     */
+    public V longestPrefixMatch(IpAddress address) {
+        checkNotNull(address, "Address cannot be null");
+        Node<V> node = root(address);
+        int maxLength = IpAddress.byteLength(address.version()) * Byte.SIZE;
+        int checked = 0;
+        V match = null;
+        while (node != null && matches(address, node.key, checked, node.length)) {
+            V value = node.value;
+            if (value != null) {
+                match = value;
+            }
+            if (node.length == maxLength) {
+                break;
+            }
+            checked = node.length;
+            node = node.child(bit(address, node.length));
+        }
+        return match;
+    }
+
+    /**
+     * Returns the number of prefixes with an associated value.
+     *
+     * @return number of prefixes
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether the trie has no prefixes.
+     *
+     * @return true if the trie is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns a snapshot of the values of the trie, IPv4 prefixes first, with
+     * each prefix preceding the longer prefixes it contains.
+     *
+     * @return list of values
+     */
+    public List<V> values() {
+        List<V> values = new ArrayList<>(size);
+        Deque<Node<V>> stack = new ArrayDeque<>();
+        stack.push(root6);
+        stack.push(root4);
+        while (!stack.isEmpty()) {
+            Node<V> node = stack.pop();
+            V value = node.value;
+            if (value != null) {
+                values.add(value);
+            }
+            Node<V> one = node.one;
+            Node<V> zero = node.zero;
+            if (one != null) {
+                stack.push(one);
+            }
+            if (zero != null) {
+                stack.push(zero);
+            }
+        }
+        return values;
+    }
+
+    private Node<V> root(IpAddress address) {
+        return address.isIp4() ? root4 : root6;
+    }
+
+    // Returns the bit of the address at the given index, counting from the
+    // most significant bit.
+    private static int bit(IpAddress address, int index) {
+        return (address.octet(index >>> 3) >>> (7 - (index & 7))) & 1;
+    }
+
+    // Returns whether the bits of the two addresses between the given
+    // indexes are equal.
+    private static boolean matches(IpAddress a, IpAddress b, int from, int to) {
+        return commonLength(a, b, from, to) == to;
+    }
+
+    // Returns the index of the first bit past from where the two addresses
+    // differ, or to if they do not differ before it.
+    private static int commonLength(IpAddress a, IpAddress b, int from, int to) {
+        for (int i = from >>> 3; i << 3 < to; i++) {
+            int diff = (a.octet(i) ^ b.octet(i)) & 0xff;
+            if (diff != 0) {
+                int index = (i << 3) + Integer.numberOfLeadingZeros(diff) - 24;
+                return Math.max(from, Math.min(index, to));
+            }
+        }
+        return to;
+    }
+}
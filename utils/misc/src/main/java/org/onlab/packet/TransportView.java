@@ -0,0 +1,85 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Lazy read-only view of the start of a transport header in a raw packet
+ * buffer.
+ * <p>
+ * The view exposes the fields that are at the same place in the headers of
+ * the common transport protocols: the ports of TCP and UDP and the type and
+ * code of ICMP and ICMPv6. Which accessors are meaningful depends on the IP
+ * protocol of the enclosing header.
+ */
+public final class TransportView extends HeaderView {
+
+    private static final int MIN_LENGTH = 4;
+
+    private TransportView(ByteBuffer buffer, int offset, int length) {
+        super(buffer, offset, length);
+    }
+
+    /**
+     * Creates a view of the transport header at the given offset of the
+     * buffer.
+     *
+     * @param buffer raw packet buffer
+     * @param offset absolute offset of the header in the buffer
+     * @param length number of bytes from the offset to the end of the packet
+     * @return transport header view or null if the header is too short
+     */
+    static TransportView wrap(ByteBuffer buffer, int offset, int length) {
+        return length >= MIN_LENGTH ? new TransportView(buffer, offset, length) : null;
+    }
+
+    /**
+     * Returns the TCP or UDP source port.
+     *
+     * @return source port
+     */
+    public int sourcePort() {
+        return u16(0);
+    }
+
+    /**
+     * Returns the TCP or UDP destination port.
+     *
+     * @return destination port
+     */
+    public int destinationPort() {
+        return u16(2);
+    }
+
+    /**
+     * Returns the ICMP or ICMPv6 type.
+     *
+     * @return ICMP type
+     */
+    public byte icmpType() {
+        return (byte) u8(0);
+    }
+
+    /**
+     * Returns the ICMP or ICMPv6 code.
+     *
+     * @return ICMP code
+     */
+    public byte icmpCode() {
+        return (byte) u8(1);
+    }
+}
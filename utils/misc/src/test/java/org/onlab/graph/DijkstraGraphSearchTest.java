@@ -151,6 +151,31 @@ public class DijkstraGraphSearchTest extends BreadthFirstSearchTest {
         executeSinglePathSearch(graphSearch(), graph, A, G, weigher, 1, W4);
     }
 
+    @Test
+    public void searchAllDestinations() {
+        graph = new AdjacencyListsGraph<>(of(A, B, C, D, E, F, G),
+                of(new TestEdge(A, B, W1),
+                        new TestEdge(A, C, W1),
+                        new TestEdge(B, D, W1),
+                        new TestEdge(C, D, W1),
+                        new TestEdge(D, E, W1),
+                        new TestEdge(D, F, W1),
+                        new TestEdge(E, G, W1),
+                        new TestEdge(F, G, W1),
+                        new TestEdge(A, G, W4)));
+        DijkstraGraphSearch<TestVertex, TestEdge> gs = new DijkstraGraphSearch<>();
+        GraphPathSearch.Result<TestVertex, TestEdge> result =
+                gs.searchAll(graph, A, weigher, GraphPathSearch.ALL_PATHS);
+        assertEquals("paths should not be built", 0, result.paths().size());
+        for (TestVertex dst : of(B, C, D, E, F, G)) {
+            assertEquals("incorrect paths to " + dst,
+                         gs.search(graph, A, dst, weigher, GraphPathSearch.ALL_PATHS).paths(),
+                         gs.buildPaths(result, dst, GraphPathSearch.ALL_PATHS));
+        }
+        assertEquals("incorrect paths count", 1, gs.buildPaths(result, G, 1).size());
+        assertEquals("incorrect paths count", 0, gs.buildPaths(result, A, 1).size());
+    }
+
     @Test
     public void dualEdgeMultiplePath() {
         graph = new AdjacencyListsGraph<>(of(A, B, C, D, E, F, G, H),
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the lazy packet header views.
+ */
+public class EthernetViewTest {
+
+    private static final MacAddress SRC_MAC = MacAddress.valueOf("00:00:00:00:00:01");
+    private static final MacAddress DST_MAC = MacAddress.valueOf("01:00:5e:00:00:02");
+    private static final Ip4Address SRC_IP4 = Ip4Address.valueOf("10.0.0.1");
+    private static final Ip4Address DST_IP4 = Ip4Address.valueOf("10.0.0.2");
+    private static final Ip6Address SRC_IP6 = Ip6Address.valueOf("fe80::1");
+    private static final Ip6Address DST_IP6 = Ip6Address.valueOf("fe80::2");
+
+    private static Ethernet ethernet(short etherType, IPacket payload) {
+        Ethernet eth = new Ethernet();
+        eth.setSourceMACAddress(SRC_MAC)
+                .setDestinationMACAddress(DST_MAC)
+                .setEtherType(etherType)
+                .setPayload(payload);
+        return eth;
+    }
+
+    /**
+     * Tests the Ethernet, IPv4 and TCP header fields.
+     */
+    @Test
+    public void testIpv4Tcp() {
+        TCP tcp = new TCP();
+        tcp.setSourcePort(1234).setDestinationPort(80);
+        IPv4 ipv4 = new IPv4();
+        ipv4.setSourceAddress(SRC_IP4.toInt())
+                .setDestinationAddress(DST_IP4.toInt())
+                .setProtocol(IPv4.PROTOCOL_TCP)
+                .setDscp((byte) 10)
+                .setEcn((byte) 1)
+                .setPayload(tcp);
+        Ethernet eth = ethernet(Ethernet.TYPE_IPV4, ipv4);
+        eth.setVlanID((short) 10);
+
+        EthernetView view = EthernetView.wrap(ByteBuffer.wrap(eth.serialize()));
+        assertTrue(view.isValid());
+        assertThat(view.sourceMac(), is(SRC_MAC));
+        assertThat(view.destinationMac(), is(DST_MAC));
+        assertTrue(view.isMulticast());
+        assertFalse(view.isBroadcast());
+        assertThat(view.vlanId(), is((short) 10));
+        assertThat(view.qinqVlanId(), is(Ethernet.VLAN_UNTAGGED));
+        assertThat(view.etherType(), is(Ethernet.TYPE_IPV4));
+        assertThat(view.headerLength(), is(18));
+        assertThat(view.ipv6(), is(nullValue()));
+        assertThat(view.ipProtocol(), is((int) IPv4.PROTOCOL_TCP));
+
+        IPv4View ipv4View = view.ipv4();
+        assertThat(ipv4View.protocol(), is(IPv4.PROTOCOL_TCP));
+        assertThat(ipv4View.sourceIp(), is(SRC_IP4));
+        assertThat(ipv4View.destinationIp(), is(DST_IP4));
+        assertThat(ipv4View.dscp(), is((byte) 10));
+        assertThat(ipv4View.ecn(), is((byte) 1));
+        assertThat(ipv4View.transport().sourcePort(), is(1234));
+        assertThat(ipv4View.transport().destinationPort(), is(80));
+    }
+
+    /**
+     * Tests the IPv6 and ICMPv6 header fields of a double tagged frame.
+     */
+    @Test
+    public void testIpv6Icmp6() {
+        ICMP6 icmp6 = new ICMP6();
+        icmp6.setIcmpType(ICMP6.NEIGHBOR_SOLICITATION).setIcmpCode((byte) 0);
+        IPv6 ipv6 = new IPv6();
+        ipv6.setSourceAddress(SRC_IP6.toOctets())
+                .setDestinationAddress(DST_IP6.toOctets())
+                .setNextHeader(IPv6.PROTOCOL_ICMP6)
+                .setFlowLabel(0x12345)
+                .setPayload(icmp6);
+        Ethernet eth = ethernet(Ethernet.TYPE_IPV6, ipv6);
+        eth.setVlanID((short) 20);
+        eth.setQinQVID((short) 30);
+
+        EthernetView view = EthernetView.wrap(eth.serialize());
+        assertThat(view.vlanId(), is((short) 20));
+        assertThat(view.qinqVlanId(), is((short) 30));
+        assertThat(view.etherType(), is(Ethernet.TYPE_IPV6));
+        assertThat(view.ipv4(), is(nullValue()));
+
+        IPv6View ipv6View = view.ipv6();
+        assertThat(ipv6View.nextHeader(), is(IPv6.PROTOCOL_ICMP6));
+        assertThat(ipv6View.flowLabel(), is(0x12345));
+        assertArrayEquals(SRC_IP6.toOctets(), ipv6View.sourceAddress());
+        assertThat(ipv6View.destinationIp(), is(DST_IP6));
+        assertThat(ipv6View.transport().icmpType(), is(ICMP6.NEIGHBOR_SOLICITATION));
+    }
+
+    /**
+     * Tests views of truncated packets and of buffers with an offset.
+     */
+    @Test
+    public void testBounds() {
+        assertFalse(EthernetView.wrap(new byte[10]).isValid());
+
+        IPv4 ipv4 = new IPv4();
+        ipv4.setProtocol(IPv4.PROTOCOL_UDP).setPayload(new Data(new byte[0]));
+        byte[] bytes = ethernet(Ethernet.TYPE_IPV4, ipv4).serialize();
+        EthernetView truncated = EthernetView.wrap(ByteBuffer.wrap(bytes, 0, 20));
+        assertTrue(truncated.isValid());
+        assertThat(truncated.ipv4(), is(nullValue()));
+        assertThat(truncated.ipProtocol(), is(-1));
+
+        EthernetView complete = EthernetView.wrap(bytes);
+        assertThat(complete.ipv4().transport(), is(nullValue()));
+
+        byte[] shifted = new byte[bytes.length + 3];
+        System.arraycopy(bytes, 0, shifted, 3, bytes.length);
+        ByteBuffer buffer = ByteBuffer.wrap(shifted);
+        buffer.position(3);
+        EthernetView view = EthernetView.wrap(buffer);
+        assertThat(view.sourceMac(), is(SRC_MAC));
+        assertThat(view.ipv4().protocol(), is(IPv4.PROTOCOL_UDP));
+        assertThat(buffer.position(), is(3));
+    }
+
+    /**
+     * Tests that the eager deserialization of a view matches the packet.
+     */
+    @Test
+    public void testDeserialize() throws Exception {
+        Ethernet eth = ethernet((short) 0x88b5, new Data(new byte[] {1, 2, 3}));
+        assertThat(EthernetView.wrap(eth.serialize()).deserialize().getSourceMAC(), is(SRC_MAC));
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests for the IP prefix trie.
+ */
+public class IpPrefixTrieTest {
+
+    private final IpPrefixTrie<String> trie = new IpPrefixTrie<>();
+
+    /**
+     * Tests exact and longest prefix match lookups of IPv4 and IPv6
+     * prefixes.
+     */
+    @Test
+    public void testLookups() {
+        trie.put(IpPrefix.valueOf("0.0.0.0/0"), "default4");
+        trie.put(IpPrefix.valueOf("10.0.0.0/8"), "10/8");
+        trie.put(IpPrefix.valueOf("10.1.0.0/16"), "10.1/16");
+        trie.put(IpPrefix.valueOf("10.1.2.0/24"), "10.1.2/24");
+        trie.put(IpPrefix.valueOf("10.128.0.0/9"), "10.128/9");
+        trie.put(IpPrefix.valueOf("2001:db8::/32"), "db8/32");
+        trie.put(IpPrefix.valueOf("2001:db8::1/128"), "db8::1/128");
+
+        assertThat(trie.size(), is(7));
+        assertThat(trie.longestPrefixMatch(IpAddress.valueOf("10.1.2.3")), is("10.1.2/24"));
+        assertThat(trie.longestPrefixMatch(IpAddress.valueOf("10.1.3.3")), is("10.1/16"));
+        assertThat(trie.longestPrefixMatch(IpAddress.valueOf("10.200.0.1")), is("10.128/9"));
+        assertThat(trie.longestPrefixMatch(IpAddress.valueOf("10.2.0.1")), is("10/8"));
+        assertThat(trie.longestPrefixMatch(IpAddress.valueOf("11.0.0.1")), is("default4"));
+        assertThat(trie.longestPrefixMatch(IpAddress.valueOf("2001:db8::1")), is("db8::1/128"));
+        assertThat(trie.longestPrefixMatch(IpAddress.valueOf("2001:db8::2")), is("db8/32"));
+        assertThat(trie.longestPrefixMatch(IpAddress.valueOf("2001:db9::1")), is(nullValue()));
+
+        assertThat(trie.get(IpPrefix.valueOf("10.1.0.0/16")), is("10.1/16"));
+        assertThat(trie.get(IpPrefix.valueOf("10.0.0.0/9")), is(nullValue()));
+        assertThat(trie.get(IpPrefix.valueOf("10.1.2.0/25")), is(nullValue()));
+        assertThat(trie.values(), contains("default4", "10/8", "10.1/16", "10.1.2/24",
+                                           "10.128/9", "db8/32", "db8::1/128"));
+
+        assertThat(trie.put(IpPrefix.valueOf("10.1.0.0/16"), "new"), is("10.1/16"));
+        assertThat(trie.remove(IpPrefix.valueOf("10.1.0.0/16")), is("new"));
+        assertThat(trie.remove(IpPrefix.valueOf("10.1.0.0/16")), is(nullValue()));
+        assertThat(trie.remove(IpPrefix.valueOf("0.0.0.0/0")), is("default4"));
+        assertThat(trie.longestPrefixMatch(IpAddress.valueOf("10.1.3.3")), is("10/8"));
+        assertThat(trie.longestPrefixMatch(IpAddress.valueOf("11.0.0.1")), is(nullValue()));
+        assertThat(trie.size(), is(5));
+        assertThat(trie.values(), containsInAnyOrder("10/8", "10.1.2/24", "10.128/9",
+                                                     "db8/32", "db8::1/128"));
+    }
+
+    /**
+     * Tests the trie against a linear scan of random prefixes, through
+     * insertions and removals.
+     */
+    @Test
+    public void testRandomPrefixes() {
+        Random random = new Random(42);
+        Map<IpPrefix, String> prefixes = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            // Short prefixes under a few roots, to force shared paths
+            int address = (random.nextInt(4) << 28) | random.nextInt(1 << 28);
+            IpPrefix prefix = IpPrefix.valueOf(address, random.nextInt(33));
+            prefixes.put(prefix, prefix.toString());
+            trie.put(prefix, prefix.toString());
+        }
+        assertThat(trie.size(), is(prefixes.size()));
+        checkLookups(random, prefixes);
+
+        List<IpPrefix> removed = new ArrayList<>(prefixes.keySet()).subList(0, prefixes.size() / 2);
+        for (IpPrefix prefix : removed) {
+            assertThat(trie.remove(prefix), is(prefix.toString()));
+        }
+        prefixes.keySet().removeAll(removed);
+        assertThat(trie.size(), is(prefixes.size()));
+        assertThat(trie.values(), containsInAnyOrder(prefixes.values().toArray()));
+        checkLookups(random, prefixes);
+    }
+
+    private void checkLookups(Random random, Map<IpPrefix, String> prefixes) {
+        for (int i = 0; i < 2000; i++) {
+            IpAddress address = IpAddress.valueOf((random.nextInt(4) << 28) | random.nextInt(1 << 28));
+            IpPrefix best = null;
+            for (IpPrefix prefix : prefixes.keySet()) {
+                if (prefix.contains(address)
+                        && (best == null || prefix.prefixLength() > best.prefixLength())) {
+                    best = prefix;
+                }
+            }
+            assertThat(trie.longestPrefixMatch(address), is(best != null ? prefixes.get(best) : null));
+        }
+        for (IpPrefix prefix : prefixes.keySet()) {
+            assertThat(trie.get(prefix), is(prefixes.get(prefix)));
+        }
+    }
+}
@@ -19,6 +19,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.ListMultimap;
 import org.onlab.util.ItemNotFoundException;
 import org.onosproject.app.ApplicationService;
@@ -34,6 +35,7 @@ import org.onosproject.rest.AbstractWebResource;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
@@ -48,12 +50,17 @@ import javax.ws.rs.core.UriInfo;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import static org.onlab.util.Tools.nullIsIllegal;
 import static org.onlab.util.Tools.nullIsNotFound;
 import static org.onlab.util.Tools.readTreeFromStream;
+import static org.onosproject.rest.resources.StreamingArrayOutput.deviceCursor;
+import static org.onosproject.rest.resources.StreamingArrayOutput.deviceEntities;
 
 /**
  * Query and program flow rules.
@@ -72,30 +79,34 @@ public class FlowsWebResource extends AbstractWebResource {
     private static final String FLOWS = "flows";
     private static final String DEVICE_ID = "deviceId";
     private static final String FLOW_ID = "flowId";
+    private static final String APP_ID = "appId";
+    private static final String STATE = "state";
+    private static final String LIMIT = "limit";
+    private static final String CURSOR = "cursor";
 
     /**
      * Gets all flow entries. Returns array of all flow rules in the system.
+     * The flows are streamed in the order of their device and flow
+     * identifiers; when a limit is given, the response holds at most that
+     * many flows and, if more remain, a "next" cursor to pass as the cursor
+     * of the request fetching the following flows.
      *
+     * @param deviceId device identifier of the flows to return
+     * @param appId    application identifier of the flows to return
+     * @param state    state of the flows to return
+     * @param limit    maximum number of flows to return; 0 for all
+     * @param cursor   cursor returned as "next" by the previous request
      * @return 200 OK with a collection of flows
      * @onos.rsModel FlowEntries
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getFlows() {
-        ObjectNode root = mapper().createObjectNode();
-        ArrayNode flowsNode = root.putArray(FLOWS);
-        FlowRuleService service = get(FlowRuleService.class);
-        Iterable<Device> devices = get(DeviceService.class).getDevices();
-        for (Device device : devices) {
-            Iterable<FlowEntry> flowEntries = service.getFlowEntries(device.id());
-            if (flowEntries != null) {
-                for (FlowEntry entry : flowEntries) {
-                    flowsNode.add(codec(FlowEntry.class).encode(entry, this));
-                }
-            }
-        }
-
-        return ok(root).build();
+    public Response getFlows(@QueryParam(DEVICE_ID) String deviceId,
+                             @QueryParam(APP_ID) String appId,
+                             @QueryParam(STATE) String state,
+                             @QueryParam(LIMIT) @DefaultValue("0") int limit,
+                             @QueryParam(CURSOR) String cursor) {
+        return streamFlows(entry -> true, deviceId, appId, state, limit, cursor);
     }
 
      /**
@@ -108,51 +119,68 @@ public class FlowsWebResource extends AbstractWebResource {
     @Produces(MediaType.APPLICATION_JSON)
     @Path("pending")
     public Response getPendingFlows() {
-        ObjectNode root = mapper().createObjectNode();
-        ArrayNode flowsNode = root.putArray(FLOWS);
-        FlowRuleService service = get(FlowRuleService.class);
-        Iterable<Device> devices = get(DeviceService.class).getDevices();
-        for (Device device : devices) {
-            Iterable<FlowEntry> flowEntries = service.getFlowEntries(device.id());
-            if (flowEntries != null) {
-                for (FlowEntry entry : flowEntries) {
-                    if ((entry.state() == FlowEntry.FlowEntryState.PENDING_ADD) ||
-                       (entry.state() == FlowEntry.FlowEntryState.PENDING_REMOVE)) {
-                       flowsNode.add(codec(FlowEntry.class).encode(entry, this));
-                    }
-                }
-            }
-        }
-
-        return ok(root).build();
+        return streamFlows(entry -> entry.state() == FlowEntry.FlowEntryState.PENDING_ADD ||
+                                   entry.state() == FlowEntry.FlowEntryState.PENDING_REMOVE,
+                           null, null, null, 0, null);
     }
 
      /**
      * Gets all flow entries for a table. Returns array of all flow rules for a table.
-     * @param tableId table identifier
+     * Supports the same filters and paging as the request of all flows.
+     *
+     * @param tableId  table identifier
+     * @param deviceId device identifier of the flows to return
+     * @param appId    application identifier of the flows to return
+     * @param state    state of the flows to return
+     * @param limit    maximum number of flows to return; 0 for all
+     * @param cursor   cursor returned as "next" by the previous request
      * @return 200 OK with a collection of flows
      * @onos.rsModel FlowEntries
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @Path("table/{tableId}")
-    public Response getTableFlows(@PathParam("tableId") int tableId) {
-        ObjectNode root = mapper().createObjectNode();
-        ArrayNode flowsNode = root.putArray(FLOWS);
-        FlowRuleService service = get(FlowRuleService.class);
-        Iterable<Device> devices = get(DeviceService.class).getDevices();
-        for (Device device : devices) {
-            Iterable<FlowEntry> flowEntries = service.getFlowEntries(device.id());
-            if (flowEntries != null) {
-                for (FlowEntry entry : flowEntries) {
-                    if (((IndexTableId) entry.table()).id() == tableId) {
-                       flowsNode.add(codec(FlowEntry.class).encode(entry, this));
-                    }
-                }
-            }
+    public Response getTableFlows(@PathParam("tableId") int tableId,
+                                  @QueryParam(DEVICE_ID) String deviceId,
+                                  @QueryParam(APP_ID) String appId,
+                                  @QueryParam(STATE) String state,
+                                  @QueryParam(LIMIT) @DefaultValue("0") int limit,
+                                  @QueryParam(CURSOR) String cursor) {
+        return streamFlows(entry -> ((IndexTableId) entry.table()).id() == tableId,
+                           deviceId, appId, state, limit, cursor);
+    }
+
+    /**
+     * Returns a response streaming the flow entries matching the given
+     * filters, without building the JSON tree of all of them.
+     */
+    private Response streamFlows(Predicate<FlowEntry> filter, String deviceId,
+                                 String appId, String state, int limit, String cursor) {
+        if (appId != null) {
+            short id = nullIsNotFound(get(ApplicationService.class).getId(appId),
+                                      APP_ID_NOT_FOUND).id();
+            filter = filter.and(entry -> entry.appId() == id);
+        }
+        if (state != null) {
+            FlowEntry.FlowEntryState flowState = FlowEntry.FlowEntryState.valueOf(state.toUpperCase());
+            filter = filter.and(entry -> entry.state() == flowState);
         }
 
-        return ok(root).build();
+        Stream<DeviceId> deviceIds = deviceId != null ?
+                Stream.of(DeviceId.deviceId(deviceId)) :
+                StreamSupport.stream(get(DeviceService.class).getDevices().spliterator(), false)
+                        .map(Device::id);
+        FlowRuleService service = get(FlowRuleService.class);
+        Predicate<FlowEntry> flowFilter = filter;
+        Iterator<FlowEntry> flows = Iterators.filter(
+                deviceEntities(deviceIds, service::getFlowEntries,
+                               entry -> entry.id().value(), cursor),
+                flowFilter::test);
+
+        return ok(new StreamingArrayOutput<>(this, FlowEntry.class, FLOWS, flows, limit,
+                                             entry -> deviceCursor(entry.deviceId(),
+                                                                   entry.id().value())))
+                .build();
     }
 
     /**
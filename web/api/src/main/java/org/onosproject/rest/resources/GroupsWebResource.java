@@ -19,7 +19,9 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
 import org.onlab.util.HexString;
+import org.onosproject.app.ApplicationService;
 import org.onosproject.codec.JsonCodec;
 import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
@@ -36,11 +38,13 @@ import org.onosproject.rest.AbstractWebResource;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -49,11 +53,17 @@ import javax.ws.rs.core.UriInfo;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static org.onlab.util.Tools.nullIsNotFound;
 import static org.onlab.util.Tools.readTreeFromStream;
+import static org.onosproject.rest.resources.StreamingArrayOutput.deviceCursor;
+import static org.onosproject.rest.resources.StreamingArrayOutput.deviceEntities;
 
 /**
  * Query and program group rules.
@@ -67,6 +77,7 @@ public class GroupsWebResource extends AbstractWebResource {
 
     private static final String DEVICE_INVALID = "Invalid deviceId in group creation request";
     private static final String GROUP_NOT_FOUND = "Group was not found";
+    private static final String APP_ID_NOT_FOUND = "Application Id is not found";
 
     private final GroupService groupService = get(GroupService.class);
     private final ObjectNode root = mapper().createObjectNode();
@@ -81,23 +92,49 @@ public class GroupsWebResource extends AbstractWebResource {
     }
 
     /**
-     * Returns all groups of all devices.
+     * Returns all groups of all devices, streamed in the order of their
+     * device and group identifiers. When a limit is given, the response holds
+     * at most that many groups and, if more remain, a "next" cursor to pass
+     * as the cursor of the request fetching the following groups.
      *
+     * @param deviceId device identifier of the groups to return
+     * @param appId    application identifier of the groups to return
+     * @param state    state of the groups to return
+     * @param limit    maximum number of groups to return; 0 for all
+     * @param cursor   cursor returned as "next" by the previous request
      * @return 200 OK with array of all the groups in the system
      * @onos.rsModel Groups
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getGroups() {
-        final Iterable<Device> devices = get(DeviceService.class).getDevices();
-        devices.forEach(device -> {
-            final Iterable<Group> groups = groupService.getGroups(device.id());
-            if (groups != null) {
-                groups.forEach(group -> groupsNode.add(codec(Group.class).encode(group, this)));
-            }
-        });
+    public Response getGroups(@QueryParam("deviceId") String deviceId,
+                              @QueryParam("appId") String appId,
+                              @QueryParam("state") String state,
+                              @QueryParam("limit") @DefaultValue("0") int limit,
+                              @QueryParam("cursor") String cursor) {
+        Predicate<Group> filter = group -> true;
+        if (appId != null) {
+            final short id = nullIsNotFound(get(ApplicationService.class).getId(appId),
+                                            APP_ID_NOT_FOUND).id();
+            filter = filter.and(group -> group.appId() != null && group.appId().id() == id);
+        }
+        if (state != null) {
+            final Group.GroupState groupState = Group.GroupState.valueOf(state.toUpperCase());
+            filter = filter.and(group -> group.state() == groupState);
+        }
 
-        return ok(root).build();
+        final Stream<DeviceId> deviceIds = deviceId != null ?
+                Stream.of(DeviceId.deviceId(deviceId)) :
+                StreamSupport.stream(get(DeviceService.class).getDevices().spliterator(), false)
+                        .map(Device::id);
+        final Iterator<Group> groups = Iterators.filter(
+                deviceEntities(deviceIds, groupService::getGroups,
+                               group -> Integer.toUnsignedLong(group.id().id()), cursor),
+                filter::test);
+        return ok(new StreamingArrayOutput<>(this, Group.class, "groups", groups, limit,
+                                             group -> deviceCursor(group.deviceId(),
+                                                                   Integer.toUnsignedLong(group.id().id()))))
+                .build();
     }
 
     /**
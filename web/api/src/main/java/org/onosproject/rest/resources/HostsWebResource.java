@@ -23,6 +23,7 @@ import org.onlab.packet.MacAddress;
 import org.onlab.packet.VlanId;
 import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DefaultAnnotations;
+import org.onosproject.net.DeviceId;
 import org.onosproject.net.Host;
 import org.onosproject.net.HostId;
 import org.onosproject.net.HostLocation;
@@ -38,11 +39,13 @@ import org.onosproject.rest.AbstractWebResource;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -59,6 +62,7 @@ import java.util.Set;
 import static org.onlab.util.Tools.nullIsNotFound;
 import static org.onlab.util.Tools.readTreeFromStream;
 import static org.onosproject.net.HostId.hostId;
+import static org.onosproject.rest.resources.StreamingArrayOutput.sortedEntities;
 
 /**
  * Manage inventory of end-station hosts.
@@ -73,17 +77,29 @@ public class HostsWebResource extends AbstractWebResource {
 
     /**
      * Get all end-station hosts.
-     * Returns array of all known end-station hosts.
+     * Returns array of all known end-station hosts, streamed in the order of
+     * their identifiers. When a limit is given, the response holds at most
+     * that many hosts and, if more remain, a "next" cursor to pass as the
+     * cursor of the request fetching the following hosts.
      *
+     * @param deviceId identifier of the device the hosts to return are connected to
+     * @param limit    maximum number of hosts to return; 0 for all
+     * @param cursor   cursor returned as "next" by the previous request
      * @return 200 OK with array of all known end-station hosts.
      * @onos.rsModel Hosts
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getHosts() {
-        final Iterable<Host> hosts = get(HostService.class).getHosts();
-        final ObjectNode root = encodeArray(Host.class, "hosts", hosts);
-        return ok(root).build();
+    public Response getHosts(@QueryParam("deviceId") String deviceId,
+                             @QueryParam("limit") @DefaultValue("0") int limit,
+                             @QueryParam("cursor") String cursor) {
+        final HostService service = get(HostService.class);
+        final Iterable<Host> hosts = deviceId != null ?
+                service.getConnectedHosts(DeviceId.deviceId(deviceId)) : service.getHosts();
+        final Iterator<Host> sorted = sortedEntities(hosts, host -> host.id().toString(), cursor);
+        return ok(new StreamingArrayOutput<>(this, Host.class, "hosts", sorted, limit,
+                                             host -> host.id().toString()))
+                .build();
     }
 
     /**
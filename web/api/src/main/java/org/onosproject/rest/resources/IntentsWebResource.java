@@ -17,6 +17,8 @@ package org.onosproject.rest.resources;
 
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.Iterators;
+import org.onosproject.app.ApplicationService;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.core.CoreService;
 import org.onosproject.net.flow.FlowEntry;
@@ -38,11 +40,13 @@ import org.slf4j.Logger;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -50,16 +54,21 @@ import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 
 import static org.onlab.util.Tools.nullIsNotFound;
 import static org.onlab.util.Tools.readTreeFromStream;
 import static org.onosproject.net.intent.IntentState.FAILED;
 import static org.onosproject.net.intent.IntentState.WITHDRAWN;
+import static org.onosproject.rest.resources.StreamingArrayOutput.idCursor;
+import static org.onosproject.rest.resources.StreamingArrayOutput.parseIdCursor;
+import static org.onosproject.rest.resources.StreamingArrayOutput.sortedEntities;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
@@ -81,6 +90,9 @@ public class IntentsWebResource extends AbstractWebResource {
 
     private static final String INTENT = "Intent";
     private static final String APP_ID = "appId";
+    private static final String STATE = "state";
+    private static final String LIMIT = "limit";
+    private static final String CURSOR = "cursor";
     private static final String ID = "id";
     private static final String INTENT_PATHS = "paths";
     private static final String INTENT_TYPE = "type";
@@ -91,17 +103,42 @@ public class IntentsWebResource extends AbstractWebResource {
 
     /**
      * Gets all intents.
-     * Returns array containing all the intents in the system.
+     * Returns array containing all the intents in the system, streamed in the
+     * order of their identifiers. When a limit is given, the response holds
+     * at most that many intents and, if more remain, a "next" cursor to pass
+     * as the cursor of the request fetching the following intents.
      *
+     * @param appId  application identifier of the intents to return
+     * @param state  state of the intents to return
+     * @param limit  maximum number of intents to return; 0 for all
+     * @param cursor cursor returned as "next" by the previous request
      * @return 200 OK with array of all the intents in the system
      * @onos.rsModel Intents
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getIntents() {
-        final Iterable<Intent> intents = get(IntentService.class).getIntents();
-        final ObjectNode root = encodeArray(Intent.class, "intents", intents);
-        return ok(root).build();
+    public Response getIntents(@QueryParam(APP_ID) String appId,
+                               @QueryParam(STATE) String state,
+                               @QueryParam(LIMIT) @DefaultValue("0") int limit,
+                               @QueryParam(CURSOR) String cursor) {
+        final IntentService service = get(IntentService.class);
+        Predicate<Intent> filter = intent -> true;
+        if (appId != null) {
+            final short id = nullIsNotFound(get(ApplicationService.class).getId(appId),
+                                            APP_ID_NOT_FOUND).id();
+            filter = filter.and(intent -> intent.appId().id() == id);
+        }
+        if (state != null) {
+            final IntentState intentState = IntentState.valueOf(state.toUpperCase());
+            filter = filter.and(intent -> service.getIntentState(intent.key()) == intentState);
+        }
+        final Iterator<Intent> intents = Iterators.filter(
+                sortedEntities(service.getIntents(), intent -> intent.id().fingerprint(),
+                               cursor != null ? parseIdCursor(cursor) : null),
+                filter::test);
+        return ok(new StreamingArrayOutput<>(this, Intent.class, "intents", intents, limit,
+                                             intent -> idCursor(intent.id().fingerprint())))
+                .build();
     }
 
 
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.rest.resources;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.google.common.collect.Lists;
+import org.onosproject.codec.JsonCodec;
+import org.onosproject.net.DeviceId;
+import org.onosproject.rest.AbstractWebResource;
+
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Response entity writing a JSON object holding an array of entities, which
+ * are encoded with their codec and written one at a time, so that the size
+ * of the collection does not bound the memory used by the response.
+ * <p>
+ * When a page size is given, at most that many entities are written and, if
+ * more remain, the cursor of the last entity written is added as the
+ * {@code next} field, to be passed back as the {@code cursor} query parameter
+ * of the request fetching the following page.
+ * </p>
+ *
+ * @param <T> entity type
+ */
+final class StreamingArrayOutput<T> implements StreamingOutput {
+
+    static final String NEXT = "next";
+
+    private static final String INVALID_LIMIT = "Limit must not be negative";
+    private static final String INVALID_CURSOR = "Invalid cursor: ";
+    private static final char CURSOR_SEPARATOR = '/';
+
+    private final AbstractWebResource resource;
+    private final Class<T> entityClass;
+    private final String field;
+    private final Iterator<T> items;
+    private final int limit;
+    private final Function<T, String> cursor;
+
+    /**
+     * Creates a streaming output of the given entities.
+     *
+     * @param resource    resource supplying the codecs and the object mapper
+     * @param entityClass entity class
+     * @param field       field holding the array
+     * @param items       entities to write, in cursor order
+     * @param limit       maximum number of entities to write; 0 for all
+     * @param cursor      function returning the cursor of an entity
+     */
+    StreamingArrayOutput(AbstractWebResource resource, Class<T> entityClass,
+                         String field, Iterator<T> items, int limit,
+                         Function<T, String> cursor) {
+        checkArgument(limit >= 0, INVALID_LIMIT);
+        this.resource = resource;
+        this.entityClass = entityClass;
+        this.field = field;
+        this.items = items;
+        this.limit = limit;
+        this.cursor = cursor;
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+        JsonCodec<T> codec = resource.codec(entityClass);
+        JsonGenerator generator = resource.mapper().getFactory().createGenerator(output);
+        generator.writeStartObject();
+        generator.writeArrayFieldStart(field);
+        int count = 0;
+        T last = null;
+        while (items.hasNext() && (limit == 0 || count < limit)) {
+            last = items.next();
+            resource.mapper().writeTree(generator, codec.encode(last, resource));
+            count++;
+        }
+        generator.writeEndArray();
+        if (last != null && items.hasNext()) {
+            generator.writeStringField(NEXT, cursor.apply(last));
+        }
+        generator.writeEndObject();
+        generator.flush();
+    }
+
+    /**
+     * Returns the cursor of an entity with the given identifier.
+     *
+     * @param id entity identifier
+     * @return cursor
+     */
+    static String idCursor(long id) {
+        return Long.toHexString(id);
+    }
+
+    /**
+     * Returns the entity identifier held by the given cursor.
+     *
+     * @param cursor cursor returned by {@link #idCursor(long)}
+     * @return entity identifier
+     * @throws IllegalArgumentException if the cursor is invalid
+     */
+    static long parseIdCursor(String cursor) {
+        return parseId(cursor, cursor);
+    }
+
+    private static long parseId(String text, String cursor) {
+        try {
+            return Long.parseUnsignedLong(text, 16);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(INVALID_CURSOR + cursor, e);
+        }
+    }
+
+    /**
+     * Returns the given entities in cursor order, that is ordered by their
+     * key, starting after the entity with the given key. Only the references
+     * to the entities are held, not their encoding.
+     *
+     * @param items entities
+     * @param key   function returning the key of an entity
+     * @param after key of the last entity already returned; null to start
+     *              from the first entity
+     * @param <T>   entity type
+     * @param <K>   key type
+     * @return iterator over the entities
+     */
+    static <T, K extends Comparable<? super K>> Iterator<T> sortedEntities(
+            Iterable<T> items, Function<T, K> key, K after) {
+        List<T> sorted = Lists.newArrayList(items);
+        sorted.sort(Comparator.comparing(key));
+        Stream<T> stream = sorted.stream();
+        if (after != null) {
+            stream = stream.filter(item -> key.apply(item).compareTo(after) > 0);
+        }
+        return stream.iterator();
+    }
+
+    /**
+     * Returns the cursor of an entity of a device.
+     *
+     * @param deviceId device identifier
+     * @param id       entity identifier, unique within the device
+     * @return cursor
+     */
+    static String deviceCursor(DeviceId deviceId, long id) {
+        return deviceId.toString() + CURSOR_SEPARATOR + Long.toHexString(id);
+    }
+
+    /**
+     * Returns the entities of the given devices in cursor order, that is
+     * ordered by device identifier and then by entity identifier, starting
+     * after the given cursor. Only the entities of one device at a time are
+     * held, and the devices are only visited as the iterator advances.
+     *
+     * @param devices  device identifiers
+     * @param entities function returning the entities of a device
+     * @param id       function returning the identifier of an entity
+     * @param cursor   cursor of the last entity already returned; null to
+     *                 start from the first entity
+     * @param <T>      entity type
+     * @return iterator over the entities
+     * @throws IllegalArgumentException if the cursor is invalid
+     */
+    static <T> Iterator<T> deviceEntities(Stream<DeviceId> devices,
+                                          Function<DeviceId, Iterable<T>> entities,
+                                          ToLongFunction<T> id, String cursor) {
+        String cursorDevice;
+        long cursorId;
+        if (cursor == null) {
+            cursorDevice = null;
+            cursorId = 0;
+        } else {
+            int separator = cursor.lastIndexOf(CURSOR_SEPARATOR);
+            if (separator <= 0) {
+                throw new IllegalArgumentException(INVALID_CURSOR + cursor);
+            }
+            cursorDevice = cursor.substring(0, separator);
+            cursorId = parseId(cursor.substring(separator + 1), cursor);
+        }
+        Comparator<T> byId = (a, b) -> Long.compareUnsigned(id.applyAsLong(a), id.applyAsLong(b));
+        return devices
+                .sorted(Comparator.comparing(DeviceId::toString))
+                .filter(deviceId -> cursorDevice == null ||
+                        deviceId.toString().compareTo(cursorDevice) >= 0)
+                .flatMap(deviceId -> {
+                    Iterable<T> deviceEntities = entities.apply(deviceId);
+                    if (deviceEntities == null) {
+                        return Stream.empty();
+                    }
+                    List<T> sorted = Lists.newArrayList(deviceEntities);
+                    sorted.sort(byId);
+                    Stream<T> stream = sorted.stream();
+                    if (deviceId.toString().equals(cursorDevice)) {
+                        stream = stream.filter(entity -> Long.compareUnsigned(
+                                id.applyAsLong(entity), cursorId) > 0);
+                    }
+                    return stream;
+                })
+                .iterator();
+    }
+}
@@ -656,6 +656,60 @@ public class FlowsResourceTest extends ResourceTest {
         assertThat(jsonFlows, hasFlow(flow4));
     }
 
+    /**
+     * Tests paging through the flows with a limit and the returned cursor.
+     */
+    @Test
+    public void testFlowsPaging() {
+        setupMockFlows();
+        expect(mockDeviceService.getDevices())
+                .andReturn(ImmutableSet.of(device1, device2));
+        replay(mockFlowService);
+        replay(mockDeviceService);
+        final WebTarget wt = target();
+
+        String response = wt.path("flows").queryParam("limit", 3)
+                .request().get(String.class);
+        JsonObject result = Json.parse(response).asObject();
+        JsonArray jsonFlows = result.get("flows").asArray();
+        assertThat(jsonFlows.size(), is(3));
+        assertThat(jsonFlows, hasFlow(flow1));
+        assertThat(jsonFlows, hasFlow(flow2));
+        assertThat(jsonFlows, hasFlow(flow3));
+        final String next = result.get("next").asString();
+        assertThat(next, is("2/" + Long.toHexString(flow3.id().value())));
+
+        response = wt.path("flows").queryParam("limit", 3).queryParam("cursor", next)
+                .request().get(String.class);
+        result = Json.parse(response).asObject();
+        assertThat(result.names(), hasSize(1));
+        jsonFlows = result.get("flows").asArray();
+        assertThat(jsonFlows.size(), is(1));
+        assertThat(jsonFlows, hasFlow(flow4));
+    }
+
+    /**
+     * Tests filtering the flows by device and state.
+     */
+    @Test
+    public void testFlowsFiltered() {
+        setupMockFlows();
+        replay(mockFlowService);
+        replay(mockDeviceService);
+        final WebTarget wt = target();
+
+        String response = wt.path("flows").queryParam("deviceId", deviceId2.toString())
+                .queryParam("state", "added").request().get(String.class);
+        JsonArray jsonFlows = Json.parse(response).asObject().get("flows").asArray();
+        assertThat(jsonFlows.size(), is(2));
+        assertThat(jsonFlows, hasFlow(flow3));
+        assertThat(jsonFlows, hasFlow(flow4));
+
+        response = wt.path("flows").queryParam("deviceId", deviceId2.toString())
+                .queryParam("state", "pending_add").request().get(String.class);
+        assertThat(response, is("{\"flows\":[]}"));
+    }
+
     /**
      * Tests the result of a rest api GET for a device.
      */
@@ -29,6 +29,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.onlab.osgi.ServiceDirectory;
 import org.onlab.osgi.TestServiceDirectory;
+import org.onosproject.app.ApplicationService;
 import org.onosproject.codec.CodecService;
 import org.onosproject.codec.impl.CodecManager;
 import org.onosproject.codec.impl.GroupCodec;
@@ -50,6 +51,7 @@ import org.onosproject.net.group.GroupKey;
 import org.onosproject.net.group.GroupService;
 import org.onosproject.net.group.GroupServiceAdapter;
 
+import javax.ws.rs.NotFoundException;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.MediaType;
@@ -69,11 +71,13 @@ import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.expectLastCall;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.onosproject.net.NetTestTools.APP_ID;
 
 /**
@@ -83,6 +87,7 @@ public class GroupsResourceTest extends ResourceTest {
     final GroupService mockGroupService = createMock(GroupService.class);
     CoreService mockCoreService = createMock(CoreService.class);
     final DeviceService mockDeviceService = createMock(DeviceService.class);
+    final ApplicationService mockApplicationService = createMock(ApplicationService.class);
 
     final HashMap<DeviceId, Set<Group>> groups = new HashMap<>();
 
@@ -245,7 +250,8 @@ public class GroupsResourceTest extends ResourceTest {
                         .add(GroupService.class, mockGroupService)
                         .add(DeviceService.class, mockDeviceService)
                         .add(CodecService.class, codecService)
-                        .add(CoreService.class, mockCoreService);
+                        .add(CoreService.class, mockCoreService)
+                        .add(ApplicationService.class, mockApplicationService);
 
         setServiceDirectory(testDirectory);
     }
@@ -431,6 +437,71 @@ public class GroupsResourceTest extends ResourceTest {
         assertThat(jsonGroups, hasGroup(group4));
     }
 
+    /**
+     * Tests paging through the groups with a limit and the returned cursor.
+     */
+    @Test
+    public void testGroupsPaging() {
+        setupMockGroups();
+        expect(mockDeviceService.getDevices())
+                .andReturn(ImmutableSet.of(device1, device2));
+        replay(mockGroupService);
+        replay(mockDeviceService);
+        final WebTarget wt = target();
+
+        String response = wt.path("groups").queryParam("limit", 3)
+                .request().get(String.class);
+        JsonObject result = Json.parse(response).asObject();
+        JsonArray jsonGroups = result.get("groups").asArray();
+        assertThat(jsonGroups.size(), is(3));
+        assertThat(jsonGroups, hasGroup(group1));
+        assertThat(jsonGroups, hasGroup(group2));
+        assertThat(jsonGroups, hasGroup(group3));
+        final String next = result.get("next").asString();
+        assertThat(next, is("2/" + Long.toHexString(group3.id().id())));
+
+        response = wt.path("groups").queryParam("limit", 3).queryParam("cursor", next)
+                .request().get(String.class);
+        result = Json.parse(response).asObject();
+        assertThat(result.names(), hasSize(1));
+        jsonGroups = result.get("groups").asArray();
+        assertThat(jsonGroups.size(), is(1));
+        assertThat(jsonGroups, hasGroup(group4));
+    }
+
+    /**
+     * Tests filtering the groups by device, application and state.
+     */
+    @Test
+    public void testGroupsFiltered() {
+        setupMockGroups();
+        expect(mockApplicationService.getId("3"))
+                .andReturn(new DefaultApplicationId(3, "3")).anyTimes();
+        expect(mockApplicationService.getId("none")).andReturn(null).anyTimes();
+        replay(mockApplicationService);
+        replay(mockGroupService);
+        replay(mockDeviceService);
+        final WebTarget wt = target();
+
+        String response = wt.path("groups").queryParam("deviceId", deviceId2.toString())
+                .queryParam("appId", "3").queryParam("state", "added")
+                .request().get(String.class);
+        JsonArray jsonGroups = Json.parse(response).asObject().get("groups").asArray();
+        assertThat(jsonGroups.size(), is(1));
+        assertThat(jsonGroups, hasGroup(group3));
+
+        response = wt.path("groups").queryParam("deviceId", deviceId2.toString())
+                .queryParam("state", "pending_add").request().get(String.class);
+        assertThat(response, is("{\"groups\":[]}"));
+
+        try {
+            wt.path("groups").queryParam("appId", "none").request().get(String.class);
+            fail("Fetch of the groups of an unknown application did not throw an exception");
+        } catch (NotFoundException ex) {
+            assertThat(ex.getMessage(), containsString("HTTP 404 Not Found"));
+        }
+    }
+
     /**
      * Tests the result of a rest api GET for a device.
      */
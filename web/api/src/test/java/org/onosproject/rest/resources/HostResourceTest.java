@@ -311,6 +311,69 @@ public class HostResourceTest extends ResourceTest {
         assertThat(hosts, hasHost(host2));
     }
 
+    // Host with the given MAC address suffix attached to the given device
+    private static Host host(int id, String deviceId) {
+        return new DefaultHost(new ProviderId("of", "foo"),
+                               HostId.hostId(MacAddress.valueOf("00:00:11:00:00:0" + id)),
+                               valueOf(id), vlanId((short) id),
+                               new HostLocation(DeviceId.deviceId(deviceId), portNumber(id), 1),
+                               ImmutableSet.of(IpAddress.valueOf("10.0.0." + id)));
+    }
+
+    /**
+     * Tests paging through the hosts with a limit and the returned cursor.
+     */
+    @Test
+    public void testHostsPaging() {
+        replay(mockHostService);
+        final Host host1 = host(1, "1");
+        final Host host2 = host(2, "1");
+        final Host host3 = host(3, "2");
+        hosts.add(host3);
+        hosts.add(host1);
+        hosts.add(host2);
+        WebTarget wt = target();
+
+        String response = wt.path("hosts").queryParam("limit", 2)
+                .request().get(String.class);
+        JsonObject result = Json.parse(response).asObject();
+        JsonArray jsonHosts = result.get("hosts").asArray();
+        assertThat(jsonHosts.size(), is(2));
+        assertThat(jsonHosts, hasHost(host1));
+        assertThat(jsonHosts, hasHost(host2));
+        final String next = result.get("next").asString();
+        assertThat(next, is(host2.id().toString()));
+
+        response = wt.path("hosts").queryParam("limit", 2).queryParam("cursor", next)
+                .request().get(String.class);
+        result = Json.parse(response).asObject();
+        assertThat(result.names(), hasSize(1));
+        jsonHosts = result.get("hosts").asArray();
+        assertThat(jsonHosts.size(), is(1));
+        assertThat(jsonHosts, hasHost(host3));
+    }
+
+    /**
+     * Tests filtering the hosts by the device they are connected to.
+     */
+    @Test
+    public void testHostsFiltered() {
+        final Host host1 = host(1, "1");
+        final Host host2 = host(2, "1");
+        expect(mockHostService.getConnectedHosts(DeviceId.deviceId("1")))
+                .andReturn(ImmutableSet.of(host2, host1)).anyTimes();
+        replay(mockHostService);
+        WebTarget wt = target();
+
+        String response = wt.path("hosts").queryParam("deviceId", "1")
+                .request().get(String.class);
+        JsonArray jsonHosts = Json.parse(response).asObject().get("hosts").asArray();
+        assertThat(jsonHosts.size(), is(2));
+        assertThat(jsonHosts, hasHost(host1));
+        assertThat(jsonHosts, hasHost(host2));
+        assertThat(jsonHosts.get(0).asObject().get("id").asString(), is(host1.id().toString()));
+    }
+
     /**
      * Tests fetch of one host by Id.
      */
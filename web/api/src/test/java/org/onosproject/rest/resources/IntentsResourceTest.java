@@ -29,6 +29,7 @@ import org.junit.Test;
 import org.onlab.osgi.ServiceDirectory;
 import org.onlab.osgi.TestServiceDirectory;
 import org.onlab.packet.MacAddress;
+import org.onosproject.app.ApplicationService;
 import org.onosproject.codec.CodecService;
 import org.onosproject.codec.impl.CodecManager;
 import org.onosproject.codec.impl.MockCodecContext;
@@ -40,6 +41,7 @@ import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DefaultLink;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.Link;
+import org.onosproject.net.NetTestTools;
 import org.onosproject.net.NetworkResource;
 import org.onosproject.net.PortNumber;
 import org.onosproject.net.flow.DefaultTrafficSelector;
@@ -76,6 +78,7 @@ import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -114,6 +117,7 @@ public class IntentsResourceTest extends ResourceTest {
     final IntentService mockIntentService = createMock(IntentService.class);
     final CoreService mockCoreService = createMock(CoreService.class);
     final FlowRuleService mockFlowService = createMock(FlowRuleService.class);
+    final ApplicationService mockApplicationService = createMock(ApplicationService.class);
     final HashSet<Intent> intents = new HashSet<>();
     final List<org.onosproject.net.intent.Intent> installableIntents = new ArrayList<>();
     private static final ApplicationId APP_ID = new DefaultApplicationId(1, "test");
@@ -743,7 +747,8 @@ public class IntentsResourceTest extends ResourceTest {
                         .add(IntentService.class, mockIntentService)
                         .add(FlowRuleService.class, mockFlowService)
                         .add(CodecService.class, codecService)
-                        .add(CoreService.class, mockCoreService);
+                        .add(CoreService.class, mockCoreService)
+                        .add(ApplicationService.class, mockApplicationService);
 
         setServiceDirectory(testDirectory);
 
@@ -803,6 +808,81 @@ public class IntentsResourceTest extends ResourceTest {
         assertThat(jsonIntents, hasIntent(intent2));
     }
 
+    /**
+     * Tests paging through the intents with a limit and the returned cursor.
+     */
+    @Test
+    public void testIntentsPaging() {
+        replay(mockIntentService);
+        final Intent intent1 = new MockIntent(1L, Collections.emptyList());
+        final Intent intent2 = new MockIntent(2L, Collections.emptyList());
+        final Intent intent3 = new MockIntent(3L, Collections.emptyList());
+        intents.add(intent3);
+        intents.add(intent1);
+        intents.add(intent2);
+        final List<Intent> sorted = new ArrayList<>(intents);
+        sorted.sort(Comparator.comparing(intent -> intent.id().fingerprint()));
+        final WebTarget wt = target();
+
+        String response = wt.path("intents").queryParam("limit", 2)
+                .request().get(String.class);
+        JsonObject result = Json.parse(response).asObject();
+        JsonArray jsonIntents = result.get("intents").asArray();
+        assertThat(jsonIntents.size(), is(2));
+        assertThat(jsonIntents, hasIntent(sorted.get(0)));
+        assertThat(jsonIntents, hasIntent(sorted.get(1)));
+        final String next = result.get("next").asString();
+        assertThat(next, is(Long.toHexString(sorted.get(1).id().fingerprint())));
+
+        response = wt.path("intents").queryParam("limit", 2).queryParam("cursor", next)
+                .request().get(String.class);
+        result = Json.parse(response).asObject();
+        assertThat(result.names(), hasSize(1));
+        jsonIntents = result.get("intents").asArray();
+        assertThat(jsonIntents.size(), is(1));
+        assertThat(jsonIntents, hasIntent(sorted.get(2)));
+    }
+
+    /**
+     * Tests filtering the intents by application and state.
+     */
+    @Test
+    public void testIntentsFiltered() {
+        expect(mockApplicationService.getId(NetTestTools.APP_ID.name()))
+                .andReturn(NetTestTools.APP_ID).anyTimes();
+        expect(mockApplicationService.getId(APP_ID.name())).andReturn(APP_ID).anyTimes();
+        expect(mockApplicationService.getId("none")).andReturn(null).anyTimes();
+        replay(mockApplicationService);
+        replay(mockIntentService);
+        final Intent intent1 = new MockIntent(1L, Collections.emptyList());
+        final Intent intent2 = new MockIntent(2L, Collections.emptyList());
+        intents.add(intent1);
+        intents.add(intent2);
+        final WebTarget wt = target();
+
+        String response = wt.path("intents").queryParam("appId", NetTestTools.APP_ID.name())
+                .queryParam("state", "installed").request().get(String.class);
+        JsonArray jsonIntents = Json.parse(response).asObject().get("intents").asArray();
+        assertThat(jsonIntents.size(), is(2));
+        assertThat(jsonIntents, hasIntent(intent1));
+        assertThat(jsonIntents, hasIntent(intent2));
+
+        response = wt.path("intents").queryParam("appId", APP_ID.name())
+                .request().get(String.class);
+        assertThat(response, is("{\"intents\":[]}"));
+
+        response = wt.path("intents").queryParam("state", "withdrawn")
+                .request().get(String.class);
+        assertThat(response, is("{\"intents\":[]}"));
+
+        try {
+            wt.path("intents").queryParam("appId", "none").request().get(String.class);
+            fail("Fetch of the intents of an unknown application did not throw an exception");
+        } catch (NotFoundException ex) {
+            assertThat(ex.getMessage(), containsString("HTTP 404 Not Found"));
+        }
+    }
+
     /**
      * Tests the result of a rest api GET for a single intent.
      */
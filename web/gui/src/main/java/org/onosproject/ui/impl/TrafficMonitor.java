@@ -89,13 +89,12 @@ public class TrafficMonitor extends TrafficMonitorBase {
     /**
      * Constructs a traffic monitor.
      *
-     * @param trafficPeriod  traffic task period in ms
      * @param servicesBundle bundle of services
      * @param msgHandler     our message handler
      */
-    public TrafficMonitor(long trafficPeriod, ServicesBundle servicesBundle,
+    public TrafficMonitor(ServicesBundle servicesBundle,
                           TopologyViewMessageHandler msgHandler) {
-        super(trafficPeriod, servicesBundle);
+        super(servicesBundle);
         this.msgHandler = msgHandler;
 
         intentFilter = new TopoIntentFilter(servicesBundle);
@@ -222,37 +221,37 @@ public class TrafficMonitor extends TrafficMonitorBase {
     @Override
     protected void sendAllFlowTraffic() {
         log.debug("sendAllFlowTraffic");
-        msgHandler.sendHighlights(trafficSummary(StatsType.FLOW_STATS));
+        sendHighlights(trafficSummary(StatsType.FLOW_STATS));
     }
 
     @Override
     protected void sendAllPortTrafficBits() {
         log.debug("sendAllPortTrafficBits");
-        msgHandler.sendHighlights(trafficSummary(StatsType.PORT_STATS));
+        sendHighlights(trafficSummary(StatsType.PORT_STATS));
     }
 
     @Override
     protected void sendAllPortTrafficPackets() {
         log.debug("sendAllPortTrafficPackets");
-        msgHandler.sendHighlights(trafficSummary(StatsType.PORT_PACKET_STATS));
+        sendHighlights(trafficSummary(StatsType.PORT_PACKET_STATS));
     }
 
     @Override
     protected void sendDeviceLinkFlows() {
         log.debug("sendDeviceLinkFlows: {}", selectedNodes);
-        msgHandler.sendHighlights(deviceLinkFlows());
+        sendHighlights(deviceLinkFlows());
     }
 
     @Override
     protected void sendSelectedIntentTraffic() {
         log.debug("sendSelectedIntentTraffic: {}", selectedIntents);
-        msgHandler.sendHighlights(intentTraffic());
+        sendHighlights(intentTraffic());
     }
 
     @Override
     protected void sendClearHighlights() {
         log.debug("sendClearHighlights");
-        msgHandler.sendHighlights(new Highlights());
+        sendHighlights(new Highlights());
     }
 
     @Override
@@ -264,7 +263,13 @@ public class TrafficMonitor extends TrafficMonitorBase {
 
     private void sendSelectedIntents() {
         log.debug("sendSelectedIntents: {}", selectedIntents);
-        msgHandler.sendHighlights(intentGroup());
+        sendHighlights(intentGroup());
+    }
+
+    private void sendHighlights(Highlights highlights) {
+        if (highlightsChanged(highlights)) {
+            msgHandler.sendHighlights(highlights);
+        }
     }
 
     // =======================================================================
@@ -17,41 +17,34 @@
 
 package org.onosproject.ui.impl;
 
-import org.onosproject.incubator.net.PortStatisticsService.MetricType;
-import org.onosproject.net.DefaultEdgeLink;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.Link;
 import org.onosproject.net.statistic.Load;
+import org.onosproject.ui.impl.topo.model.UiSharedTrafficModel.TrafficSubscriber;
 import org.onosproject.ui.impl.topo.util.ServicesBundle;
 import org.onosproject.ui.impl.topo.util.TrafficLink;
-import org.onosproject.ui.impl.topo.util.TrafficLinkMap;
 import org.onosproject.ui.topo.AbstractTopoMonitor;
 import org.onosproject.ui.topo.Highlights;
-import org.onosproject.ui.topo.TopoUtils;
+import org.onosproject.ui.topo.TopoJson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashSet;
 import java.util.Set;
-import java.util.Timer;
-import java.util.TimerTask;
 
-import static org.onosproject.incubator.net.PortStatisticsService.MetricType.BYTES;
-import static org.onosproject.incubator.net.PortStatisticsService.MetricType.PACKETS;
-import static org.onosproject.net.DefaultEdgeLink.createEdgeLinks;
 import static org.onosproject.ui.impl.TrafficMonitorBase.Mode.IDLE;
 
 /**
  * Base superclass for traffic monitor (both 'classic' and 'topo2' versions).
+ * <p>
+ * The periodic updates are driven by the shared traffic model, which also
+ * computes the traffic on the links once per period for all the monitors.
+ * </p>
  */
 public abstract class TrafficMonitorBase extends AbstractTopoMonitor {
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
-    // 4 Kilo Bytes as threshold
-    protected static final double BPS_THRESHOLD = 4 * TopoUtils.N_KILO;
-
-
     /**
      * Designates the different modes of operation.
      */
@@ -65,11 +58,6 @@ public abstract class TrafficMonitorBase extends AbstractTopoMonitor {
         SELECTED_INTENT
     }
 
-    /**
-     * Number of milliseconds between invocations of sending traffic data.
-     */
-    protected final long trafficPeriod;
-
     /**
      * Holds references to services.
      */
@@ -80,21 +68,19 @@ public abstract class TrafficMonitorBase extends AbstractTopoMonitor {
      */
     protected Mode mode = Mode.IDLE;
 
-    private final Timer timer;
-    private TimerTask trafficTask = null;
+    private TrafficSubscriber trafficTask = null;
+
+    // true while sending a periodic update, and last highlights sent
+    private boolean periodicUpdate = false;
+    private ObjectNode lastHighlights = null;
 
     /**
-     * Constructs the monitor, initializing the task period and
-     * services bundle reference.
+     * Constructs the monitor, initializing the services bundle reference.
      *
-     * @param trafficPeriod  traffic task period in ms
      * @param servicesBundle bundle of services
      */
-    protected TrafficMonitorBase(long trafficPeriod,
-                                 ServicesBundle servicesBundle) {
-        this.trafficPeriod = trafficPeriod;
+    protected TrafficMonitorBase(ServicesBundle servicesBundle) {
         this.services = servicesBundle;
-        timer = new Timer("uiTopo-" + getClass().getSimpleName());
     }
 
     /**
@@ -200,13 +186,14 @@ public abstract class TrafficMonitorBase extends AbstractTopoMonitor {
     }
 
     /**
-     * Schedules the background monitor task to run.
+     * Schedules the background monitor task to run, by subscribing to the
+     * periodic updates of the shared traffic model.
      */
     protected synchronized void scheduleTask() {
         if (trafficTask == null) {
             log.debug("Starting up background traffic task...");
-            trafficTask = new TrafficUpdateTask();
-            timer.schedule(trafficTask, trafficPeriod, trafficPeriod);
+            trafficTask = this::sendTrafficUpdate;
+            services.trafficModel().subscribe(trafficTask);
         } else {
             log.debug("(traffic task already running)");
         }
@@ -217,11 +204,29 @@ public abstract class TrafficMonitorBase extends AbstractTopoMonitor {
      */
     protected synchronized void cancelTask() {
         if (trafficTask != null) {
-            trafficTask.cancel();
+            services.trafficModel().unsubscribe(trafficTask);
             trafficTask = null;
         }
     }
 
+    /**
+     * Returns true if the given highlights should be sent to the client.
+     * Highlights are always sent, except during the periodic updates, when
+     * the highlights equal to the last ones sent are skipped, since the
+     * client already displays them.
+     *
+     * @param highlights highlights about to be sent
+     * @return true if the highlights should be sent
+     */
+    protected synchronized boolean highlightsChanged(Highlights highlights) {
+        ObjectNode json = TopoJson.json(highlights);
+        if (periodicUpdate && json.equals(lastHighlights)) {
+            return false;
+        }
+        lastHighlights = json;
+        return true;
+    }
+
     /**
      * Stops monitoring. (Invokes {@link #clearAll}, if not idle).
      */
@@ -260,71 +265,14 @@ public abstract class TrafficMonitorBase extends AbstractTopoMonitor {
 
     /**
      * Generates a set of "traffic links" encapsulating information about the
-     * traffic on each link (that is deemed to have traffic).
+     * traffic on each link (that is deemed to have traffic). The links are
+     * shared with the other monitors and must not be modified.
      *
      * @param type the type of statistics to be displayed
      * @return the set of links with traffic
      */
     protected Set<TrafficLink> computeLinksWithTraffic(TrafficLink.StatsType type) {
-        TrafficLinkMap linkMap = new TrafficLinkMap();
-        compileLinks(linkMap);
-        addEdgeLinks(linkMap);
-
-        Set<TrafficLink> linksWithTraffic = new HashSet<>();
-
-        for (TrafficLink tlink : linkMap.biLinks()) {
-            if (type == TrafficLink.StatsType.FLOW_STATS) {
-                attachFlowLoad(tlink);
-            } else if (type == TrafficLink.StatsType.PORT_STATS) {
-                attachPortLoad(tlink, BYTES);
-            } else if (type == TrafficLink.StatsType.PORT_PACKET_STATS) {
-                attachPortLoad(tlink, PACKETS);
-            }
-
-            // we only want to report on links deemed to have traffic
-            if (tlink.hasTraffic()) {
-                linksWithTraffic.add(tlink);
-            }
-        }
-        return linksWithTraffic;
-    }
-
-    /**
-     * Iterates across the set of links in the topology and generates the
-     * appropriate set of traffic links.
-     *
-     * @param linkMap link map to augment with traffic links
-     */
-    protected void compileLinks(TrafficLinkMap linkMap) {
-        services.link().getLinks().forEach(linkMap::add);
-    }
-
-    /**
-     * Iterates across the set of hosts in the topology and generates the
-     * appropriate set of traffic links for the edge links.
-     *
-     * @param linkMap link map to augment with traffic links
-     */
-    protected void addEdgeLinks(TrafficLinkMap linkMap) {
-        services.host().getHosts().forEach(host -> {
-            // Ingress edge links
-            Set<DefaultEdgeLink> edgeLinks = createEdgeLinks(host, true);
-            edgeLinks.forEach(linkMap::add);
-            // Egress edge links
-            edgeLinks = createEdgeLinks(host, false);
-            edgeLinks.forEach(linkMap::add);
-        });
-    }
-
-    /**
-     * Processes the given traffic link to attach the "flow load" attributed
-     * to the underlying topology links.
-     *
-     * @param link the traffic link to process
-     */
-    protected void attachFlowLoad(TrafficLink link) {
-        link.addLoad(getLinkFlowLoad(link.one()));
-        link.addLoad(getLinkFlowLoad(link.two()));
+        return services.trafficModel().linksWithTraffic(type);
     }
 
     /**
@@ -341,42 +289,6 @@ public abstract class TrafficMonitorBase extends AbstractTopoMonitor {
         return null;
     }
 
-    /**
-     * Processes the given traffic link to attach the "port load" attributed
-     * to the underlying topology links, for the specified metric type (either
-     * bytes/sec or packets/sec).
-     *
-     * @param link       the traffic link to process
-     * @param metricType the metric type (bytes or packets)
-     */
-    protected void attachPortLoad(TrafficLink link, MetricType metricType) {
-        // For bi-directional traffic links, use
-        // the max link rate of either direction
-        // (we choose 'one' since we know that is never null)
-        Link one = link.one();
-        Load egressSrc = services.portStats().load(one.src(), metricType);
-        Load egressDst = services.portStats().load(one.dst(), metricType);
-        link.addLoad(maxLoad(egressSrc, egressDst), metricType == BYTES ? BPS_THRESHOLD : 0);
-    }
-
-    /**
-     * Returns the load with the greatest rate.
-     *
-     * @param a load a
-     * @param b load b
-     * @return the larger of the two
-     */
-    protected Load maxLoad(Load a, Load b) {
-        if (a == null) {
-            return b;
-        }
-        if (b == null) {
-            return a;
-        }
-        return a.rate() > b.rate() ? a : b;
-    }
-
-
     /**
      * Subclasses (well, Traffic2Monitor really) can override this method and
      * process the traffic links before generating the highlights object.
@@ -397,38 +309,38 @@ public abstract class TrafficMonitorBase extends AbstractTopoMonitor {
     // === Background Task
 
     // Provides periodic update of traffic information to the client
-    private class TrafficUpdateTask extends TimerTask {
-        @Override
-        public void run() {
-            try {
-                switch (mode) {
-                    case ALL_FLOW_TRAFFIC_BYTES:
-                        sendAllFlowTraffic();
-                        break;
-                    case ALL_PORT_TRAFFIC_BIT_PS:
-                        sendAllPortTrafficBits();
-                        break;
-                    case ALL_PORT_TRAFFIC_PKT_PS:
-                        sendAllPortTrafficPackets();
-                        break;
-                    case DEV_LINK_FLOWS:
-                        sendDeviceLinkFlows();
-                        break;
-                    case SELECTED_INTENT:
-                        sendSelectedIntentTraffic();
-                        break;
-
-                    default:
-                        // RELATED_INTENTS and IDLE modes should never invoke
-                        // the background task, but if they do, they have
-                        // nothing to do
-                        break;
-                }
-
-            } catch (Exception e) {
-                log.warn("Unable to process traffic task due to {}", e.getMessage());
-                log.warn("Boom!", e);
+    private synchronized void sendTrafficUpdate() {
+        periodicUpdate = true;
+        try {
+            switch (mode) {
+                case ALL_FLOW_TRAFFIC_BYTES:
+                    sendAllFlowTraffic();
+                    break;
+                case ALL_PORT_TRAFFIC_BIT_PS:
+                    sendAllPortTrafficBits();
+                    break;
+                case ALL_PORT_TRAFFIC_PKT_PS:
+                    sendAllPortTrafficPackets();
+                    break;
+                case DEV_LINK_FLOWS:
+                    sendDeviceLinkFlows();
+                    break;
+                case SELECTED_INTENT:
+                    sendSelectedIntentTraffic();
+                    break;
+
+                default:
+                    // RELATED_INTENTS and IDLE modes should never invoke
+                    // the background task, but if they do, they have
+                    // nothing to do
+                    break;
             }
+
+        } catch (Exception e) {
+            log.warn("Unable to process traffic task due to {}", e.getMessage());
+            log.warn("Boom!", e);
+        } finally {
+            periodicUpdate = false;
         }
     }
 }
@@ -54,9 +54,6 @@ public class Topo2TrafficMessageHandler extends UiMessageHandler {
     private static final String PORT_STATS_BIT_SEC = "portStatsBitSec";
     private static final String PORT_STATS_PKT_SEC = "portStatsPktSec";
 
-    // configuration parameters
-    private static final long TRAFFIC_PERIOD = 5000;
-
     protected ServicesBundle services;
 
     private UiTopoSession topoSession;
@@ -68,10 +65,16 @@ public class Topo2TrafficMessageHandler extends UiMessageHandler {
         super.init(connection, directory);
 
         services = new ServicesBundle(directory);
-        traffic = new Traffic2Monitor(TRAFFIC_PERIOD, services, this);
+        traffic = new Traffic2Monitor(services, this);
         topoSession = ((UiWebSocket) connection).topoSession();
     }
 
+    @Override
+    public void destroy() {
+        traffic.stopMonitoring();
+        super.destroy();
+    }
+
     @Override
     protected Collection<RequestHandler> createRequestHandlers() {
         return ImmutableSet.of(
@@ -0,0 +1,311 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.ui.impl.topo.model;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.apache.felix.scr.annotations.Activate;
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.apache.felix.scr.annotations.Service;
+import org.onosproject.incubator.net.PortStatisticsService;
+import org.onosproject.incubator.net.PortStatisticsService.MetricType;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Link;
+import org.onosproject.net.host.HostEvent;
+import org.onosproject.net.host.HostListener;
+import org.onosproject.net.host.HostService;
+import org.onosproject.net.link.LinkEvent;
+import org.onosproject.net.link.LinkListener;
+import org.onosproject.net.link.LinkService;
+import org.onosproject.net.statistic.Load;
+import org.onosproject.net.statistic.StatisticService;
+import org.onosproject.ui.impl.topo.util.TrafficLink;
+import org.onosproject.ui.impl.topo.util.TrafficLink.StatsType;
+import org.onosproject.ui.impl.topo.util.TrafficLinkMap;
+import org.onosproject.ui.topo.TopoUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static org.onlab.util.Tools.groupedThreads;
+import static org.onosproject.incubator.net.PortStatisticsService.MetricType.BYTES;
+import static org.onosproject.incubator.net.PortStatisticsService.MetricType.PACKETS;
+import static org.onosproject.net.DefaultEdgeLink.createEdgeLinks;
+
+/**
+ * Service that computes the traffic load on the links of the network once
+ * per period, on behalf of all the GUI sessions of this node monitoring
+ * traffic, and notifies those sessions at each period.
+ * <p>
+ * The links (including the edge links of the hosts) are only re-read from
+ * the link and host services when they change, and the load of each kind of
+ * statistics is computed at most once per period, whatever the number of
+ * sessions displaying it.
+ * </p>
+ */
+@Component(immediate = true, enabled = true)
+@Service(value = UiSharedTrafficModel.class)
+public final class UiSharedTrafficModel {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(UiSharedTrafficModel.class);
+
+    /**
+     * Number of milliseconds between the traffic updates.
+     */
+    public static final long TRAFFIC_PERIOD = 5000;
+
+    // 4 Kilo Bytes as threshold
+    private static final double BPS_THRESHOLD = 4 * TopoUtils.N_KILO;
+
+    private static final int NOTIFIER_THREADS = 4;
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    private LinkService linkService;
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    private HostService hostService;
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    private StatisticService flowStatsService;
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    private PortStatisticsService portStatsService;
+
+    private final LinkListener linkListener = new InternalLinkListener();
+    private final HostListener hostListener = new InternalHostListener();
+
+    private final Set<TrafficSubscriber> subscribers = new CopyOnWriteArraySet<>();
+    private final Map<StatsType, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    // incremented when the network links or the hosts change
+    private final AtomicLong topologyVersion = new AtomicLong();
+    private volatile VersionedLinks links;
+
+    private ScheduledExecutorService timer;
+    private ExecutorService notifier;
+
+    /**
+     * Subscriber to the periodic traffic updates.
+     */
+    public interface TrafficSubscriber {
+
+        /**
+         * Invoked once per traffic period, while subscribed.
+         */
+        void trafficUpdate();
+    }
+
+    @Activate
+    void activate() {
+        linkService.addListener(linkListener);
+        hostService.addListener(hostListener);
+
+        timer = newSingleThreadScheduledExecutor(
+                groupedThreads("onos/ui/topo", "traffic-timer", log));
+        notifier = newFixedThreadPool(NOTIFIER_THREADS,
+                                      groupedThreads("onos/ui/topo", "traffic-%d", log));
+        timer.scheduleAtFixedRate(this::update, TRAFFIC_PERIOD, TRAFFIC_PERIOD,
+                                  TimeUnit.MILLISECONDS);
+
+        log.info("Started");
+    }
+
+    @Deactivate
+    void deactivate() {
+        linkService.removeListener(linkListener);
+        hostService.removeListener(hostListener);
+
+        timer.shutdownNow();
+        notifier.shutdownNow();
+        subscribers.clear();
+        snapshots.clear();
+        links = null;
+
+        log.info("Stopped");
+    }
+
+    /**
+     * Subscribes to the periodic traffic updates.
+     *
+     * @param subscriber subscriber to notify at each period
+     */
+    public void subscribe(TrafficSubscriber subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Unsubscribes from the periodic traffic updates.
+     *
+     * @param subscriber subscriber to stop notifying
+     */
+    public void unsubscribe(TrafficSubscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    /**
+     * Returns the traffic links, of both the network and the edge links of
+     * the hosts, deemed to have traffic for the given type of statistics.
+     * The links are computed at most once per period and shared by all
+     * callers, so they must not be modified.
+     *
+     * @param type type of statistics
+     * @return links with traffic
+     */
+    public Set<TrafficLink> linksWithTraffic(StatsType type) {
+        return snapshots.compute(type, (t, snapshot) ->
+                snapshot != null && snapshot.isFresh() ? snapshot :
+                        new Snapshot(computeLinksWithTraffic(t))).links;
+    }
+
+    // Drops the loads of the previous period and notifies the subscribers,
+    // each of them on a thread of the notifier so that a slow session does
+    // not delay the others.
+    private void update() {
+        snapshots.clear();
+        subscribers.forEach(subscriber -> notifier.execute(() -> {
+            try {
+                subscriber.trafficUpdate();
+            } catch (Exception e) {
+                log.warn("Unable to process traffic update due to {}", e.getMessage());
+                log.debug("Traffic update failed", e);
+            }
+        }));
+    }
+
+    private Set<TrafficLink> computeLinksWithTraffic(StatsType type) {
+        TrafficLinkMap linkMap = new TrafficLinkMap();
+        links().forEach(linkMap::add);
+
+        ImmutableSet.Builder<TrafficLink> linksWithTraffic = ImmutableSet.builder();
+        for (TrafficLink tlink : linkMap.biLinks()) {
+            if (type == StatsType.FLOW_STATS) {
+                attachFlowLoad(tlink);
+            } else if (type == StatsType.PORT_STATS) {
+                attachPortLoad(tlink, BYTES);
+            } else if (type == StatsType.PORT_PACKET_STATS) {
+                attachPortLoad(tlink, PACKETS);
+            }
+
+            // we only want to report on links deemed to have traffic
+            if (tlink.hasTraffic()) {
+                linksWithTraffic.add(tlink);
+            }
+        }
+        return linksWithTraffic.build();
+    }
+
+    private List<Link> links() {
+        long version = topologyVersion.get();
+        VersionedLinks current = links;
+        if (current == null || current.version != version) {
+            ImmutableList.Builder<Link> builder = ImmutableList.builder();
+            builder.addAll(linkService.getLinks());
+            hostService.getHosts().forEach(host -> {
+                // Ingress and egress edge links
+                builder.addAll(createEdgeLinks(host, true));
+                builder.addAll(createEdgeLinks(host, false));
+            });
+            current = new VersionedLinks(version, builder.build());
+            links = current;
+        }
+        return current.links;
+    }
+
+    private void attachFlowLoad(TrafficLink link) {
+        link.addLoad(getLinkFlowLoad(link.one()));
+        link.addLoad(getLinkFlowLoad(link.two()));
+    }
+
+    private Load getLinkFlowLoad(Link link) {
+        if (link != null && link.src().elementId() instanceof DeviceId) {
+            return flowStatsService.load(link);
+        }
+        return null;
+    }
+
+    private void attachPortLoad(TrafficLink link, MetricType metricType) {
+        // For bi-directional traffic links, use
+        // the max link rate of either direction
+        // (we choose 'one' since we know that is never null)
+        Link one = link.one();
+        Load egressSrc = portStatsService.load(one.src(), metricType);
+        Load egressDst = portStatsService.load(one.dst(), metricType);
+        link.addLoad(maxLoad(egressSrc, egressDst), metricType == BYTES ? BPS_THRESHOLD : 0);
+    }
+
+    private Load maxLoad(Load a, Load b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        return a.rate() > b.rate() ? a : b;
+    }
+
+    // Links with traffic computed at a given time
+    private static final class Snapshot {
+        private final long time = System.currentTimeMillis();
+        private final Set<TrafficLink> links;
+
+        private Snapshot(Set<TrafficLink> links) {
+            this.links = links;
+        }
+
+        // the loads of a period are reused until the next update
+        private boolean isFresh() {
+            return System.currentTimeMillis() - time < TRAFFIC_PERIOD;
+        }
+    }
+
+    // Links read at a given version of the topology
+    private static final class VersionedLinks {
+        private final long version;
+        private final List<Link> links;
+
+        private VersionedLinks(long version, List<Link> links) {
+            this.version = version;
+            this.links = links;
+        }
+    }
+
+    // The links are re-read when the network links or the hosts change.
+    private class InternalLinkListener implements LinkListener {
+        @Override
+        public void event(LinkEvent event) {
+            topologyVersion.incrementAndGet();
+        }
+    }
+
+    private class InternalHostListener implements HostListener {
+        @Override
+        public void event(HostEvent event) {
+            topologyVersion.incrementAndGet();
+        }
+    }
+}
@@ -30,6 +30,7 @@ import org.onosproject.net.intent.IntentService;
 import org.onosproject.net.link.LinkService;
 import org.onosproject.net.statistic.StatisticService;
 import org.onosproject.net.topology.TopologyService;
+import org.onosproject.ui.impl.topo.model.UiSharedTrafficModel;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -53,6 +54,7 @@ public class ServicesBundle {
     private FlowRuleService flowService;
     private StatisticService flowStatsService;
     private PortStatisticsService portStatsService;
+    private UiSharedTrafficModel trafficModel;
 
 
     /**
@@ -78,6 +80,7 @@ public class ServicesBundle {
         flowService = directory.get(FlowRuleService.class);
         flowStatsService = directory.get(StatisticService.class);
         portStatsService = directory.get(PortStatisticsService.class);
+        trafficModel = directory.get(UiSharedTrafficModel.class);
     }
 
     /**
@@ -196,4 +199,13 @@ public class ServicesBundle {
     public PortStatisticsService portStats() {
         return portStatsService;
     }
+
+    /**
+     * Returns a reference to the shared traffic model.
+     *
+     * @return shared traffic model reference
+     */
+    public UiSharedTrafficModel trafficModel() {
+        return trafficModel;
+    }
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.ui.impl.topo.model;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.junit.TestUtils;
+import org.onosproject.incubator.net.PortStatisticsService;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DefaultLink;
+import org.onosproject.net.Host;
+import org.onosproject.net.Link;
+import org.onosproject.net.host.HostServiceAdapter;
+import org.onosproject.net.link.LinkEvent;
+import org.onosproject.net.link.LinkListener;
+import org.onosproject.net.link.LinkServiceAdapter;
+import org.onosproject.net.provider.ProviderId;
+import org.onosproject.net.statistic.DefaultLoad;
+import org.onosproject.net.statistic.Load;
+import org.onosproject.net.statistic.StatisticServiceAdapter;
+import org.onosproject.ui.impl.AbstractUiImplTest;
+import org.onosproject.ui.impl.topo.util.TrafficLink;
+import org.onosproject.ui.impl.topo.util.TrafficLink.StatsType;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.onosproject.net.DeviceId.deviceId;
+import static org.onosproject.net.PortNumber.portNumber;
+
+/**
+ * Unit tests for {@link UiSharedTrafficModel}.
+ */
+public class UiSharedTrafficModelTest extends AbstractUiImplTest {
+
+    private static final ProviderId PID = new ProviderId("of", "foo");
+
+    private static final ConnectPoint CP1 = new ConnectPoint(deviceId("1"), portNumber(1));
+    private static final ConnectPoint CP2 = new ConnectPoint(deviceId("2"), portNumber(1));
+    private static final ConnectPoint CP3 = new ConnectPoint(deviceId("3"), portNumber(1));
+
+    private final TestLinkService linkService = new TestLinkService();
+    private final TestPortStatisticsService portStatsService = new TestPortStatisticsService();
+
+    private UiSharedTrafficModel model;
+
+    @Before
+    public void setUp() throws TestUtils.TestUtilsException {
+        linkService.links = ImmutableList.of(link(CP1, CP2), link(CP2, CP1));
+
+        model = new UiSharedTrafficModel();
+        TestUtils.setField(model, "linkService", linkService);
+        TestUtils.setField(model, "hostService", new TestHostService());
+        TestUtils.setField(model, "flowStatsService", new StatisticServiceAdapter());
+        TestUtils.setField(model, "portStatsService", portStatsService);
+        model.activate();
+    }
+
+    @After
+    public void tearDown() {
+        model.deactivate();
+    }
+
+    private static Link link(ConnectPoint src, ConnectPoint dst) {
+        return DefaultLink.builder().providerId(PID).src(src).dst(dst)
+                .type(Link.Type.DIRECT).build();
+    }
+
+    /**
+     * Tests that the traffic is computed once per period for all callers.
+     */
+    @Test
+    public void sharedComputation() {
+        Set<TrafficLink> links = model.linksWithTraffic(StatsType.PORT_STATS);
+        assertEquals("wrong link count", 1, links.size());
+        assertEquals("wrong load count", 2, portStatsService.loads.get());
+
+        assertSame("not shared", links, model.linksWithTraffic(StatsType.PORT_STATS));
+        assertEquals("load recomputed", 2, portStatsService.loads.get());
+        assertEquals("links re-read", 1, linkService.reads.get());
+    }
+
+    /**
+     * Tests that the links are re-read only once they change.
+     */
+    @Test
+    public void linksReadOnChange() {
+        model.linksWithTraffic(StatsType.PORT_STATS);
+        model.linksWithTraffic(StatsType.PORT_PACKET_STATS);
+        assertEquals("links re-read", 1, linkService.reads.get());
+
+        linkService.links = ImmutableList.of(link(CP1, CP2), link(CP2, CP1), link(CP2, CP3));
+        linkService.listener.event(new LinkEvent(LinkEvent.Type.LINK_ADDED, link(CP2, CP3)));
+
+        Set<TrafficLink> links = model.linksWithTraffic(StatsType.FLOW_STATS);
+        assertEquals("links not re-read", 2, linkService.reads.get());
+        assertEquals("wrong link count", 0, links.size());
+    }
+
+    private static class TestLinkService extends LinkServiceAdapter {
+        private final AtomicInteger reads = new AtomicInteger();
+        private List<Link> links;
+        private LinkListener listener;
+
+        @Override
+        public Iterable<Link> getLinks() {
+            reads.incrementAndGet();
+            return links;
+        }
+
+        @Override
+        public void addListener(LinkListener listener) {
+            this.listener = listener;
+        }
+    }
+
+    private static class TestHostService extends HostServiceAdapter {
+        @Override
+        public Iterable<Host> getHosts() {
+            return ImmutableSet.of();
+        }
+    }
+
+    private static class TestPortStatisticsService implements PortStatisticsService {
+        private final AtomicInteger loads = new AtomicInteger();
+
+        @Override
+        public Load load(ConnectPoint connectPoint) {
+            loads.incrementAndGet();
+            return new DefaultLoad(100000, 0, 1);
+        }
+    }
+}